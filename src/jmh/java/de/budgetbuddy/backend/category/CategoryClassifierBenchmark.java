@@ -0,0 +1,51 @@
+package de.budgetbuddy.backend.category;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a suggestion for a user with the maximum number of training transactions.
+ * Run it by ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryClassifierBenchmark {
+    private static final String[] RECEIVERS = {
+            "Rewe Markt", "Edeka", "Aldi Sued", "Lidl", "Deutsche Bahn", "Shell Tankstelle", "Amazon EU",
+            "Netflix", "Spotify", "Stadtwerke", "Employer GmbH", "Vodafone", "Apotheke am Markt", "Ikea"
+    };
+    private static final String[] WORDS = {
+            "groceries", "ticket", "fuel", "subscription", "salary", "rent", "electricity", "order",
+            "card", "payment", "monthly", "invoice", "refund", "transfer", "furniture", "medicine"
+    };
+    private CategoryClassifier classifier;
+    private String receiver;
+    private String description;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        classifier = new CategoryClassifier();
+        for (int i = 0; i < CategoryClassificationService.TRAINING_TRANSACTIONS; i++) {
+            int merchant = random.nextInt(RECEIVERS.length);
+            classifier.learn(
+                    (long) merchant % 8,
+                    RECEIVERS[merchant] + " " + random.nextInt(1000),
+                    WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+        }
+        receiver = "REWE Markt 0815";
+        description = "Groceries card payment";
+    }
+
+    @Benchmark
+    public List<CategoryClassifier.Prediction> classify() {
+        return classifier.classify(receiver, description, 3);
+    }
+}
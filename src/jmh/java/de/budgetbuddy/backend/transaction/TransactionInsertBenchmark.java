@@ -0,0 +1,132 @@
+package de.budgetbuddy.backend.transaction;
+
+import jakarta.persistence.*;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Measures inserting transactions with IDENTITY ids, which Hibernate has to insert one statement at a time
+ * to read back every id, against the pooled sequence of {@link Transaction}, which allows JDBC batches.
+ * Both entities map the columns of a transaction without foreign keys to their own tables, which the benchmark creates
+ * and drops again. Needs a Postgres database configured by PG_HOST, PG_PORT, PG_DB, PG_USER and PG_PASSWORD.
+ * Run it by ./gradlew jmh, the score is in inserted rows per second
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionInsertBenchmark {
+    private static final int ROWS = 1_000;
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(IdentityTransaction.class)
+                .addAnnotatedClass(SequenceTransaction.class)
+                .setProperty("hibernate.connection.url", "jdbc:postgresql://" + env("PG_HOST", "localhost") + ":"
+                        + env("PG_PORT", "5432") + "/" + env("PG_DB", "postgres") + "?reWriteBatchedInserts=true")
+                .setProperty("hibernate.connection.username", env("PG_USER", "postgres_user"))
+                .setProperty("hibernate.connection.password", env("PG_PASSWORD", "postgres_password"))
+                // Same batching settings as the application.properties
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .buildSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void identity() {
+        insert(IdentityTransaction::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void pooledSequence() {
+        insert(SequenceTransaction::new);
+    }
+
+    private void insert(IntFunction<Object> transaction) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(transaction.apply(i));
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+
+    @MappedSuperclass
+    public abstract static class BenchmarkTransaction {
+        @Column(name = "owner", nullable = false)
+        private UUID owner = new UUID(0, 1);
+
+        @Column(name = "processed_at", nullable = false)
+        private Date processedAt = new Date();
+
+        @Column(name = "receiver", length = 80, nullable = false)
+        private String receiver;
+
+        @Column(name = "transfer_amount", nullable = false)
+        private Double transferAmount;
+
+        protected BenchmarkTransaction() {}
+
+        protected BenchmarkTransaction(int i) {
+            this.receiver = "Benchmark " + i;
+            this.transferAmount = -1.0 * (i % 100);
+        }
+    }
+
+    @Entity
+    @Table(name = "benchmark_identity_transaction")
+    public static class IdentityTransaction extends BenchmarkTransaction {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        protected IdentityTransaction() {}
+
+        IdentityTransaction(int i) {
+            super(i);
+        }
+    }
+
+    /**
+     * Uses the same generator settings as {@link Transaction}
+     */
+    @Entity
+    @Table(name = "benchmark_sequence_transaction")
+    public static class SequenceTransaction extends BenchmarkTransaction {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "benchmark_transaction_id_seq")
+        @SequenceGenerator(name = "benchmark_transaction_id_seq", sequenceName = "benchmark_transaction_id_seq", allocationSize = 50)
+        private Long id;
+
+        protected SequenceTransaction() {}
+
+        SequenceTransaction(int i) {
+            super(i);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package de.budgetbuddy.backend;
 
+import de.budgetbuddy.backend.anomaly.SpendingAnomaly;
+import de.budgetbuddy.backend.budget.BudgetAlert;
 import de.budgetbuddy.backend.user.User;
 import jakarta.annotation.Nullable;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -76,4 +80,52 @@ public class MailService {
 
         return payload;
     }
+
+    /**
+     * Returns the payload for the budget alert mail
+     * @return JSONObject
+     */
+    public static JSONObject getBudgetAlertMailPayload(User user, List<BudgetAlert> alerts) {
+        JSONArray budgetAlerts = new JSONArray();
+        for (BudgetAlert alert : alerts) {
+            JSONObject budgetAlert = new JSONObject();
+            budgetAlert.put("category", alert.getBudget().getCategory().getName());
+            budgetAlert.put("budget", alert.getBudget().getBudget());
+            budgetAlert.put("amountSpent", alert.getAmountSpent());
+            budgetAlert.put("threshold", alert.getThreshold());
+            budgetAlerts.put(budgetAlert);
+        }
+
+        JSONObject payload = new JSONObject();
+        payload.put("mail", "budget_alert");
+        payload.put("to", user.getEmail());
+        payload.put("name", user.getName());
+        payload.put("alerts", budgetAlerts);
+
+        return payload;
+    }
+
+    /**
+     * Returns the payload for the spending anomaly mail
+     * @return JSONObject
+     */
+    public static JSONObject getSpendingAnomalyMailPayload(User user, List<SpendingAnomaly> anomalies) {
+        JSONArray spendingAnomalies = new JSONArray();
+        for (SpendingAnomaly anomaly : anomalies) {
+            JSONObject spendingAnomaly = new JSONObject();
+            spendingAnomaly.put("category", anomaly.getCategory().getName());
+            spendingAnomaly.put("receiver", anomaly.getTransaction().getReceiver());
+            spendingAnomaly.put("amount", anomaly.getAmount());
+            spendingAnomaly.put("typicalAmount", anomaly.getTypicalAmount());
+            spendingAnomalies.put(spendingAnomaly);
+        }
+
+        JSONObject payload = new JSONObject();
+        payload.put("mail", "spending_anomaly");
+        payload.put("to", user.getEmail());
+        payload.put("name", user.getName());
+        payload.put("anomalies", spendingAnomalies);
+
+        return payload;
+    }
 }
@@ -1,33 +1,80 @@
 package de.budgetbuddy.backend;
 
+import de.budgetbuddy.backend.analytics.MonthlyAggregateService;
+import de.budgetbuddy.backend.anomaly.SpendingAnomalyService;
+import de.budgetbuddy.backend.budget.BudgetAlertService;
+import de.budgetbuddy.backend.budget.BudgetRecommendationService;
+import de.budgetbuddy.backend.budget.BudgetSpendingService;
+import de.budgetbuddy.backend.currency.ExchangeRateService;
 import de.budgetbuddy.backend.log.Log;
 import de.budgetbuddy.backend.log.LogType;
 import de.budgetbuddy.backend.log.Logger;
+import de.budgetbuddy.backend.merchant.MerchantService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodBalanceService;
+import de.budgetbuddy.backend.subscription.RecurringPaymentDetectionService;
 import de.budgetbuddy.backend.subscription.Subscription;
 import de.budgetbuddy.backend.subscription.SubscriptionRepository;
+import de.budgetbuddy.backend.subscription.SubscriptionService;
 import de.budgetbuddy.backend.transaction.Transaction;
 import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.transaction.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Date;
 import java.util.List;
 
 @Component
 @EnableScheduling
 public class Scheduler {
+    private static final int SUBSCRIPTION_LINK_BATCH_SIZE = 1000;
     private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionService subscriptionService;
     private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+    private final BudgetSpendingService budgetSpendingService;
+    private final BudgetAlertService budgetAlertService;
+    private final BudgetRecommendationService budgetRecommendationService;
+    private final PaymentMethodBalanceService paymentMethodBalanceService;
+    private final MerchantService merchantService;
+    private final RecurringPaymentDetectionService recurringPaymentDetectionService;
+    private final MonthlyAggregateService monthlyAggregateService;
+    private final SpendingAnomalyService spendingAnomalyService;
+    private final ExchangeRateService exchangeRateService;
 
     @Autowired
     Scheduler(
             SubscriptionRepository subscriptionRepository,
-            TransactionRepository transactionRepository
+            SubscriptionService subscriptionService,
+            TransactionRepository transactionRepository,
+            TransactionService transactionService,
+            BudgetSpendingService budgetSpendingService,
+            BudgetAlertService budgetAlertService,
+            BudgetRecommendationService budgetRecommendationService,
+            PaymentMethodBalanceService paymentMethodBalanceService,
+            MerchantService merchantService,
+            RecurringPaymentDetectionService recurringPaymentDetectionService,
+            MonthlyAggregateService monthlyAggregateService,
+            SpendingAnomalyService spendingAnomalyService,
+            ExchangeRateService exchangeRateService
     ) {
         this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionService = subscriptionService;
         this.transactionRepository = transactionRepository;
+        this.transactionService = transactionService;
+        this.budgetSpendingService = budgetSpendingService;
+        this.budgetAlertService = budgetAlertService;
+        this.budgetRecommendationService = budgetRecommendationService;
+        this.paymentMethodBalanceService = paymentMethodBalanceService;
+        this.merchantService = merchantService;
+        this.recurringPaymentDetectionService = recurringPaymentDetectionService;
+        this.monthlyAggregateService = monthlyAggregateService;
+        this.spendingAnomalyService = spendingAnomalyService;
+        this.exchangeRateService = exchangeRateService;
     }
 
     @Scheduled(cron = "0 0 3 * * *")
@@ -39,8 +86,10 @@ public class Scheduler {
                 .content("Starting process subscriptions")
                 .build());
         LocalDate today = LocalDate.now();
-        List<Subscription> subscriptions = subscriptionRepository
-               .findAllByExecuteAtAndPaused(today.getDayOfMonth(), false);
+        // Subscriptions which are already booked this month (e.g. because the task was restarted) are skipped
+        List<Subscription> subscriptions = subscriptionService.filterUnbooked(
+                subscriptionRepository.findAllByExecuteAtAndPaused(today.getDayOfMonth(), false),
+                YearMonth.from(today));
 
         if (subscriptions.isEmpty()) {
            Logger.log(Log.builder()
@@ -56,7 +105,7 @@ public class Scheduler {
                .map(Transaction::ofSubscription)
                .toList();
 
-        transactionRepository.saveAll(transactions);
+        transactionService.createTransactions(transactions);
         Logger.log(Log.builder()
                 .application("Backend")
                 .type(LogType.INFORMATION)
@@ -64,4 +113,168 @@ public class Scheduler {
                 .content("Processed " + transactions.size() + " subscriptions")
                 .build());
     }
+
+    /**
+     * One-off migration of the transactions which were booked before the transaction.subscription column existed.
+     * Runs once a minute after the start. Only transactions created before the first linked booking are considered,
+     * so it's a no-op once they are linked
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = Long.MAX_VALUE)
+    public void linkSubscriptionTransactions() {
+        Date createdBefore = transactionRepository.findFirstSubscriptionBookingDate().orElseGet(Date::new);
+        int linkedTransactions = 0;
+        int linkedInBatch;
+        do {
+            linkedInBatch = transactionRepository.linkSubscriptionTransactions(createdBefore, SUBSCRIPTION_LINK_BATCH_SIZE);
+            linkedTransactions += linkedInBatch;
+        } while (linkedInBatch == SUBSCRIPTION_LINK_BATCH_SIZE);
+
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("link-subscription-transactions")
+                .content("Linked " + linkedTransactions + " transactions to their subscription")
+                .build());
+    }
+
+    /**
+     * Backfills the merchants of transactions which didn't match any alias when they were written,
+     * e.g. because the alias was added to the shared dictionary afterward
+     */
+    @Scheduled(cron = "0 45 3 * * *")
+    public void assignMissingMerchants() {
+        int assignedTransactions = merchantService.assignMissing();
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("assign-merchants")
+                .content("Assigned the merchant of " + assignedTransactions + " transactions")
+                .build());
+    }
+
+    @Scheduled(cron = "0 0 4 * * *")
+    public void reconcileBudgetSpendings() {
+        int repairedSpendings = budgetSpendingService.reconcile(LocalDate.now());
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(repairedSpendings > 0 ? LogType.WARNING : LogType.INFORMATION)
+                .category("reconcile-budget-spendings")
+                .content("Repaired " + repairedSpendings + " budget spendings")
+                .build());
+    }
+
+    @Scheduled(cron = "0 30 4 * * *")
+    public void reconcilePaymentMethodBalances() {
+        int repairedBalances = paymentMethodBalanceService.reconcile(null);
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(repairedBalances > 0 ? LogType.WARNING : LogType.INFORMATION)
+                .category("reconcile-payment-method-balances")
+                .content("Repaired " + repairedBalances + " payment-method balances")
+                .build());
+    }
+
+    @Scheduled(cron = "0 45 4 * * *")
+    public void reconcileMonthlyAggregates() {
+        int repairedCells = monthlyAggregateService.reconcile(null);
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(repairedCells > 0 ? LogType.WARNING : LogType.INFORMATION)
+                .category("reconcile-monthly-aggregates")
+                .content("Repaired " + repairedCells + " monthly aggregates")
+                .build());
+    }
+
+    @Scheduled(cron = "0 15 0 * * *")
+    public void snapshotBudgetPeriods() {
+        int writtenSnapshots = budgetSpendingService.snapshotClosedPeriods(LocalDate.now());
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("snapshot-budget-periods")
+                .content("Wrote " + writtenSnapshots + " budget snapshots")
+                .build());
+    }
+
+    @Scheduled(cron = "0 0 1 * * *")
+    public void detectRecurringPayments() {
+        int suggestions = recurringPaymentDetectionService.detectAll(LocalDate.now());
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("detect-recurring-payments")
+                .content("Suggested " + suggestions + " subscriptions for recurring payments")
+                .build());
+    }
+
+    @Scheduled(cron = "0 0 2 * * *")
+    public void computeSpendingSketches() {
+        int writtenSketches = budgetRecommendationService.computeSketches(LocalDate.now());
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("compute-spending-sketches")
+                .content("Computed " + writtenSketches + " category spending sketches")
+                .build());
+    }
+
+    @Scheduled(initialDelay = 10000, fixedDelay = 10000)
+    public void processBudgetAlerts() {
+        int raisedAlerts = budgetAlertService.processPendingAlerts();
+        if (raisedAlerts == 0) return;
+
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("budget-alerts")
+                .content("Raised " + raisedAlerts + " budget alerts")
+                .build());
+    }
+
+    @Scheduled(initialDelay = 10000, fixedDelay = 10000)
+    public void processSpendingAnomalies() {
+        int notifiedAnomalies = spendingAnomalyService.processPendingNotifications();
+        if (notifiedAnomalies == 0) return;
+
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("spending-anomalies")
+                .content("Notified " + notifiedAnomalies + " spending anomalies")
+                .build());
+    }
+
+    @Scheduled(initialDelay = 300000, fixedDelay = 300000)
+    public void persistAmountSketches() {
+        spendingAnomalyService.persist();
+    }
+
+    /**
+     * Merges the pending amounts first, since the rebuild replaces the persisted sketches
+     */
+    @Scheduled(cron = "0 15 2 * * SUN")
+    public void rebuildAmountSketches() {
+        spendingAnomalyService.persist();
+        int writtenSketches = spendingAnomalyService.rebuild(LocalDate.now());
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("rebuild-amount-sketches")
+                .content("Rebuilt " + writtenSketches + " category amount sketches")
+                .build());
+    }
+
+    /**
+     * Runs before the subscriptions are processed, so their transactions are converted by the rates of the day
+     */
+    @Scheduled(cron = "0 30 0 * * *")
+    public void refreshExchangeRates() {
+        int fetchedRates = exchangeRateService.refresh();
+        Logger.log(Log.builder()
+                .application("Backend")
+                .type(LogType.INFORMATION)
+                .category("refresh-exchange-rates")
+                .content("Fetched " + fetchedRates + " exchange rates")
+                .build());
+    }
 }
@@ -0,0 +1,75 @@
+package de.budgetbuddy.backend.analytics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.user.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+@RestController
+@RequestMapping("/v1/analytics")
+public class AnalyticsController {
+    static final int MAX_MONTHS = 120;
+    private final MonthlyAggregateService monthlyAggregateService;
+
+    @Autowired
+    public AnalyticsController(MonthlyAggregateService monthlyAggregateService) {
+        this.monthlyAggregateService = monthlyAggregateService;
+    }
+
+    /**
+     * Pivot table over the monthly cube, e.g. rows=CATEGORY and columns=MONTH for a spend by category per month chart.
+     * The months are formatted as yyyy-MM, the categoryId and paymentMethodId parameters can be repeated to slice the cube
+     */
+    @GetMapping("/pivot")
+    public ResponseEntity<ApiResponse<PivotTable>> getPivotTable(
+            @RequestParam YearMonth startMonth,
+            @RequestParam YearMonth endMonth,
+            @RequestParam PivotDimension rows,
+            @RequestParam(required = false) PivotDimension columns,
+            @RequestParam(required = false) Set<Long> categoryId,
+            @RequestParam(required = false) Set<Long> paymentMethodId,
+            HttpSession session) throws JsonProcessingException {
+        if (startMonth.isAfter(endMonth)) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The startMonth needs to be before the endMonth"));
+        }
+
+        if (ChronoUnit.MONTHS.between(startMonth, endMonth) >= MAX_MONTHS) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The range can't contain more than " + MAX_MONTHS + " months"));
+        }
+
+        if (rows == columns) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The rows and columns need to be different dimensions"));
+        }
+
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(monthlyAggregateService.pivot(
+                        sessionUser.get(),
+                        startMonth,
+                        endMonth,
+                        rows,
+                        columns,
+                        categoryId == null ? Set.of() : categoryId,
+                        paymentMethodId == null ? Set.of() : paymentMethodId)));
+    }
+}
@@ -0,0 +1,66 @@
+package de.budgetbuddy.backend.analytics;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Income, expenses and number of the transactions of an owner per category, payment-method and month.
+ * Maintained by the TransactionService on every write and repaired by the Scheduler
+ */
+@Entity
+@Table(name = "monthly_aggregate", schema = "public", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_monthly_aggregate_cell", columnNames = {"owner", "month", "category", "payment_method"})
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MonthlyAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    @JsonIgnore
+    private User owner;
+
+    @Column(name = "category", nullable = false)
+    private Long categoryId;
+
+    @Column(name = "payment_method", nullable = false)
+    private Long paymentMethodId;
+
+    /**
+     * First day of the month
+     */
+    @Column(name = "month", nullable = false)
+    private LocalDate month;
+
+    @Column(name = "income", nullable = false)
+    private double income;
+
+    /**
+     * Positive sum of the negative transfer amounts
+     */
+    @Column(name = "expenses", nullable = false)
+    private double expenses;
+
+    @Column(name = "transactions", nullable = false)
+    private long transactions;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date updatedAt;
+}
@@ -0,0 +1,99 @@
+package de.budgetbuddy.backend.analytics;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface MonthlyAggregateRepository extends JpaRepository<MonthlyAggregate, Long> {
+
+    /**
+     * Adds the deltas to the cell by a single statement, the cell is created if it doesn't exist yet
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into monthly_aggregate (owner, category, payment_method, month, income, expenses, transactions, updated_at)\n" +
+            "values (:owner, :category, :payment_method, :month, :income, :expenses, :transactions, now())\n" +
+            "on conflict (owner, month, category, payment_method) do update\n" +
+            "    set income       = monthly_aggregate.income + excluded.income,\n" +
+            "        expenses     = monthly_aggregate.expenses + excluded.expenses,\n" +
+            "        transactions = monthly_aggregate.transactions + excluded.transactions,\n" +
+            "        updated_at   = now()", nativeQuery = true)
+    int addAmounts(@Param("owner") UUID owner,
+                   @Param("category") Long category,
+                   @Param("payment_method") Long paymentMethod,
+                   @Param("month") LocalDate month,
+                   @Param("income") double income,
+                   @Param("expenses") double expenses,
+                   @Param("transactions") long transactions);
+
+    /**
+     * Served by the unique index on owner and month
+     */
+    @Query("select a from MonthlyAggregate a " +
+            "where a.owner = :owner and a.month >= :start and a.month <= :end and a.transactions > 0")
+    List<MonthlyAggregate> findAllByOwnerAndMonthBetween(@Param("owner") User owner,
+                                                         @Param("start") LocalDate start,
+                                                         @Param("end") LocalDate end);
+
+    /**
+     * Recomputes the cells of all owners (or only those of the owner) from the transactions
+     * and overwrites every cell which is missing or has drifted
+     * @return Number of repaired cells
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into monthly_aggregate (owner, category, payment_method, month, income, expenses, transactions, updated_at)\n" +
+            "select actual.owner, actual.category, actual.payment_method, actual.month,\n" +
+            "       actual.income, actual.expenses, actual.transactions, now()\n" +
+            "from (select transaction.owner,\n" +
+            "             transaction.category,\n" +
+            "             transaction.payment_method,\n" +
+            "             cast(date_trunc('month', transaction.processed_at) as date)                              as month,\n" +
+            "             sum(case when transaction.base_amount > 0 then transaction.base_amount else 0 end)        as income,\n" +
+            "             sum(case when transaction.base_amount < 0 then -transaction.base_amount else 0 end)       as expenses,\n" +
+            "             count(*)                                                                                  as transactions\n" +
+            "      from transaction\n" +
+            "      where cast(:owner as uuid) is null\n" +
+            "         or transaction.owner = cast(:owner as uuid)\n" +
+            "      group by 1, 2, 3, 4) as actual\n" +
+            "         left join monthly_aggregate\n" +
+            "                   on monthly_aggregate.owner = actual.owner\n" +
+            "                       and monthly_aggregate.month = actual.month\n" +
+            "                       and monthly_aggregate.category = actual.category\n" +
+            "                       and monthly_aggregate.payment_method = actual.payment_method\n" +
+            "where monthly_aggregate.id is null\n" +
+            "   or monthly_aggregate.transactions <> actual.transactions\n" +
+            "   or abs(monthly_aggregate.income - actual.income) > 0.005\n" +
+            "   or abs(monthly_aggregate.expenses - actual.expenses) > 0.005\n" +
+            "on conflict (owner, month, category, payment_method) do update\n" +
+            "    set income       = excluded.income,\n" +
+            "        expenses     = excluded.expenses,\n" +
+            "        transactions = excluded.transactions,\n" +
+            "        updated_at   = now()", nativeQuery = true)
+    int reconcileCells(@Param("owner") UUID owner);
+
+    /**
+     * Removes the cells which no longer have any transactions
+     * @return Number of removed cells
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "delete from monthly_aggregate\n" +
+            "where (cast(:owner as uuid) is null or owner = cast(:owner as uuid))\n" +
+            "  and not exists (select 1\n" +
+            "                  from transaction\n" +
+            "                  where transaction.owner = monthly_aggregate.owner\n" +
+            "                    and transaction.category = monthly_aggregate.category\n" +
+            "                    and transaction.payment_method = monthly_aggregate.payment_method\n" +
+            "                    and transaction.processed_at >= monthly_aggregate.month\n" +
+            "                    and transaction.processed_at < monthly_aggregate.month + interval '1 month')",
+            nativeQuery = true)
+    int deleteOrphaned(@Param("owner") UUID owner);
+}
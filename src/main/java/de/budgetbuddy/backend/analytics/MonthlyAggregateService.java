@@ -0,0 +1,189 @@
+package de.budgetbuddy.backend.analytics;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.transaction.TransactionChanges;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Maintains the cube of income, expenses and number of transactions per owner, category, payment-method and month,
+ * so that charts over months are answered by a few hundred pre-aggregated rows instead of every transaction.
+ * The amounts are in the base currency of the owner
+ */
+@Service
+public class MonthlyAggregateService {
+    /**
+     * Months are formatted as yyyy-MM, so they are ordered chronologically. Ids are ordered numerically
+     */
+    private static final Comparator<String> KEY_ORDER = Comparator
+            .comparingInt(String::length)
+            .thenComparing(Comparator.naturalOrder());
+
+    private final MonthlyAggregateRepository monthlyAggregateRepository;
+    private final ReferenceDataCache referenceDataCache;
+
+    public MonthlyAggregateService(MonthlyAggregateRepository monthlyAggregateRepository, ReferenceDataCache referenceDataCache) {
+        this.monthlyAggregateRepository = monthlyAggregateRepository;
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    /**
+     * Slices the cube by the months, categories and payment-methods and sums the remaining cells up by the dimensions.
+     * Without column dimension the table consists of a single column, which equals the row totals
+     * @param categories Only the cells of these categories are included, all if empty
+     * @param paymentMethods Only the cells of these payment-methods are included, all if empty
+     */
+    public PivotTable pivot(User owner,
+                            YearMonth startMonth,
+                            YearMonth endMonth,
+                            PivotDimension rowDimension,
+                            PivotDimension columnDimension,
+                            Set<Long> categories,
+                            Set<Long> paymentMethods) {
+        Map<Long, String> categoryNames = new HashMap<>();
+        for (Category category : referenceDataCache.getCategories(owner)) {
+            categoryNames.put(category.getId(), category.getName());
+        }
+        Map<Long, String> paymentMethodNames = new HashMap<>();
+        for (PaymentMethod paymentMethod : referenceDataCache.getPaymentMethods(owner)) {
+            paymentMethodNames.put(paymentMethod.getId(), paymentMethod.getName());
+        }
+        Function<MonthlyAggregate, PivotTable.Header> rowHeader = header(rowDimension, categoryNames, paymentMethodNames);
+        Function<MonthlyAggregate, PivotTable.Header> columnHeader = columnDimension == null
+                ? aggregate -> null
+                : header(columnDimension, categoryNames, paymentMethodNames);
+
+        SortedMap<String, PivotTable.Header> rowHeaders = new TreeMap<>(KEY_ORDER);
+        SortedMap<String, PivotTable.Header> columnHeaders = new TreeMap<>(KEY_ORDER);
+        Map<String, Map<String, PivotTable.Cell>> cells = new HashMap<>();
+        for (MonthlyAggregate aggregate : monthlyAggregateRepository.findAllByOwnerAndMonthBetween(
+                owner, startMonth.atDay(1), endMonth.atDay(1))) {
+            // Cells of deleted categories and payment-methods are skipped until the cascade or the Scheduler removes them
+            if (!categoryNames.containsKey(aggregate.getCategoryId())
+                    || !paymentMethodNames.containsKey(aggregate.getPaymentMethodId())) continue;
+            if (!categories.isEmpty() && !categories.contains(aggregate.getCategoryId())) continue;
+            if (!paymentMethods.isEmpty() && !paymentMethods.contains(aggregate.getPaymentMethodId())) continue;
+
+            PivotTable.Header row = rowHeader.apply(aggregate);
+            PivotTable.Header column = columnHeader.apply(aggregate);
+            String columnKey = column == null ? "" : column.getKey();
+            rowHeaders.putIfAbsent(row.getKey(), row);
+            if (column != null) columnHeaders.putIfAbsent(columnKey, column);
+            cells.computeIfAbsent(row.getKey(), key -> new HashMap<>())
+                    .computeIfAbsent(columnKey, key -> new PivotTable.Cell())
+                    .add(aggregate);
+        }
+
+        List<String> columnKeys = columnDimension == null ? List.of("") : new ArrayList<>(columnHeaders.keySet());
+        List<PivotTable.Cell> columnTotals = new ArrayList<>(columnKeys.size());
+        for (int i = 0; i < columnKeys.size(); i++) columnTotals.add(new PivotTable.Cell());
+        PivotTable.Cell total = new PivotTable.Cell();
+        List<PivotTable.Row> rows = new ArrayList<>(rowHeaders.size());
+        for (PivotTable.Header row : rowHeaders.values()) {
+            Map<String, PivotTable.Cell> rowCells = cells.get(row.getKey());
+            List<PivotTable.Cell> orderedCells = new ArrayList<>(columnKeys.size());
+            PivotTable.Cell rowTotal = new PivotTable.Cell();
+            for (int i = 0; i < columnKeys.size(); i++) {
+                PivotTable.Cell cell = rowCells.getOrDefault(columnKeys.get(i), new PivotTable.Cell());
+                orderedCells.add(cell);
+                rowTotal.add(cell);
+                columnTotals.get(i).add(cell);
+            }
+            total.add(rowTotal);
+            rows.add(new PivotTable.Row(row, orderedCells, rowTotal));
+        }
+
+        return new PivotTable(
+                rowDimension,
+                columnDimension,
+                columnDimension == null ? List.of() : new ArrayList<>(columnHeaders.values()),
+                rows,
+                columnTotals,
+                total);
+    }
+
+    private static Function<MonthlyAggregate, PivotTable.Header> header(PivotDimension dimension,
+                                                                          Map<Long, String> categoryNames,
+                                                                          Map<Long, String> paymentMethodNames) {
+        return switch (dimension) {
+            case CATEGORY -> aggregate -> new PivotTable.Header(
+                    aggregate.getCategoryId().toString(),
+                    categoryNames.get(aggregate.getCategoryId()));
+            case PAYMENT_METHOD -> aggregate -> new PivotTable.Header(
+                    aggregate.getPaymentMethodId().toString(),
+                    paymentMethodNames.get(aggregate.getPaymentMethodId()));
+            case MONTH -> aggregate -> {
+                String month = YearMonth.from(aggregate.getMonth()).toString();
+                return new PivotTable.Header(month, month);
+            };
+        };
+    }
+
+    /**
+     * Repairs the cells of all owners, or only those of the owner if provided
+     * @return Number of cells which were missing, had drifted or no longer had any transactions
+     */
+    public int reconcile(User owner) {
+        UUID uuid = owner == null ? null : owner.getUuid();
+        return monthlyAggregateRepository.reconcileCells(uuid) + monthlyAggregateRepository.deleteOrphaned(uuid);
+    }
+
+    public Changes changes() {
+        return new Changes();
+    }
+
+    /**
+     * Sums the income, expenses and number of the written transactions up per cell, the cells are written on apply
+     */
+    public class Changes extends TransactionChanges<Changes> {
+        private final Map<CellKey, double[]> deltas = new HashMap<>();
+
+        @Override
+        protected void record(Transaction transaction, int sign) {
+            if (transaction.amountInBaseCurrency() == null
+                    || transaction.getOwner() == null
+                    || transaction.getCategory() == null
+                    || transaction.getPaymentMethod() == null) return;
+
+            double[] delta = deltas.computeIfAbsent(
+                    new CellKey(
+                            transaction.getOwner().getUuid(),
+                            transaction.getCategory().getId(),
+                            transaction.getPaymentMethod().getId(),
+                            transaction.processedDate().withDayOfMonth(1)),
+                    key -> new double[3]);
+            double amount = transaction.amountInBaseCurrency();
+            if (amount > 0) {
+                delta[0] += sign * amount;
+            } else {
+                delta[1] -= sign * amount;
+            }
+            delta[2] += sign;
+        }
+
+        public void apply() {
+            deltas.forEach((key, delta) -> {
+                if (delta[0] == 0 && delta[1] == 0 && delta[2] == 0) return;
+                monthlyAggregateRepository.addAmounts(
+                        key.owner(),
+                        key.category(),
+                        key.paymentMethod(),
+                        key.month(),
+                        delta[0],
+                        delta[1],
+                        (long) delta[2]);
+            });
+            deltas.clear();
+        }
+    }
+
+    record CellKey(UUID owner, Long category, Long paymentMethod, LocalDate month) {}
+}
@@ -0,0 +1,7 @@
+package de.budgetbuddy.backend.analytics;
+
+public enum PivotDimension {
+    CATEGORY,
+    PAYMENT_METHOD,
+    MONTH
+}
@@ -0,0 +1,76 @@
+package de.budgetbuddy.backend.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rows and columns are ordered by their key, every row contains a cell for every column
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PivotTable {
+    private PivotDimension rowDimension;
+    /**
+     * Null if the table only has a single column
+     */
+    private PivotDimension columnDimension;
+    private List<Header> columns;
+    private List<Row> rows;
+    /**
+     * Total of every column, in the order of the columns
+     */
+    private List<Cell> columnTotals;
+    private Cell total;
+
+    /**
+     * The key is the id of the category or payment-method, or the month formatted as yyyy-MM
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Header {
+        private String key;
+        private String label;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Row {
+        private Header header;
+        /**
+         * In the order of the columns
+         */
+        private List<Cell> cells;
+        private Cell total;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Cell {
+        private double income;
+        private double expenses;
+        private long transactions;
+
+        public double getBalance() {
+            return income - expenses;
+        }
+
+        void add(MonthlyAggregate aggregate) {
+            income += aggregate.getIncome();
+            expenses += aggregate.getExpenses();
+            transactions += aggregate.getTransactions();
+        }
+
+        void add(Cell cell) {
+            income += cell.getIncome();
+            expenses += cell.getExpenses();
+            transactions += cell.getTransactions();
+        }
+    }
+}
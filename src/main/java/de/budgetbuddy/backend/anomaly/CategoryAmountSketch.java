@@ -0,0 +1,51 @@
+package de.budgetbuddy.backend.anomaly;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * Distribution of the amounts of the single expenses of a category. Cached by the SpendingAnomalyService,
+ * which collects the amounts of inserted expenses and merges them into it periodically
+ */
+@Entity
+@Table(name = "category_amount_sketch", schema = "public", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_category_amount_sketch_category", columnNames = {"category"})
+}, indexes = {
+        @Index(name = "idx_category_amount_sketch_owner", columnList = "owner")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryAmountSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    private User owner;
+
+    @ManyToOne
+    @JoinColumn(name = "category", nullable = false)
+    private Category category;
+
+    @JsonIgnore
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date updatedAt;
+}
@@ -0,0 +1,86 @@
+package de.budgetbuddy.backend.anomaly;
+
+import de.budgetbuddy.backend.budget.QuantileSketch;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface CategoryAmountSketchRepository extends JpaRepository<CategoryAmountSketch, Long> {
+    @EntityGraph(attributePaths = {"category"})
+    List<CategoryAmountSketch> findAllByOwner(User owner);
+
+    /**
+     * Streams the amounts of all expenses processed since startDate,
+     * ordered by owner and category so that each sketch can be written before the next one is read
+     * @return Rows of owner, category and amount spent
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "select transaction.owner,\n" +
+            "       transaction.category,\n" +
+            "       -transaction.base_amount\n" +
+            "from transaction\n" +
+            "where transaction.base_amount < 0\n" +
+            "  and transaction.category is not null\n" +
+            "  and transaction.processed_at >= :start_date\n" +
+            "order by 1, 2", nativeQuery = true)
+    Stream<Object[]> streamExpenses(@Param("start_date") Date startDate);
+
+    @Modifying
+    @Transactional
+    @Query(value = "insert into category_amount_sketch (owner, category, sketch, updated_at)\n" +
+            "values (:owner, :category, :sketch, :updated_at)\n" +
+            "on conflict (category) do update\n" +
+            "    set sketch     = excluded.sketch,\n" +
+            "        updated_at = excluded.updated_at", nativeQuery = true)
+    int upsert(@Param("owner") UUID owner,
+               @Param("category") Long category,
+               @Param("sketch") byte[] sketch,
+               @Param("updated_at") Date updatedAt);
+
+    @Modifying
+    @Query(value = "insert into category_amount_sketch (owner, category, sketch, updated_at)\n" +
+            "values (:owner, :category, :sketch, :updated_at)\n" +
+            "on conflict (category) do nothing", nativeQuery = true)
+    int insertIfAbsent(@Param("owner") UUID owner,
+                       @Param("category") Long category,
+                       @Param("sketch") byte[] sketch,
+                       @Param("updated_at") Date updatedAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from CategoryAmountSketch s where s.category.id = :category")
+    Optional<CategoryAmountSketch> findByCategoryForUpdate(@Param("category") Long category);
+
+    /**
+     * Adds the amounts to the persisted sketch of the category. The row is locked while the sketch is merged,
+     * so concurrent merges, e.g. by other replicas, are applied one after another instead of overwriting each other
+     * @return Number of written sketches
+     */
+    @Transactional
+    default int merge(UUID owner, Long category, QuantileSketch amounts, Date updatedAt) {
+        insertIfAbsent(owner, category, new QuantileSketch().toBytes(), updatedAt);
+        CategoryAmountSketch sketch = findByCategoryForUpdate(category).orElseThrow();
+        sketch.setSketch(QuantileSketch.fromBytes(sketch.getSketch()).merge(amounts).toBytes());
+        sketch.setUpdatedAt(updatedAt);
+        save(sketch);
+        return 1;
+    }
+
+    /**
+     * Removes the sketches of categories which had no expenses in the latest rebuild
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from CategoryAmountSketch s where s.updatedAt < :updated_before")
+    int deleteAllByUpdatedAtBefore(@Param("updated_before") Date updatedBefore);
+}
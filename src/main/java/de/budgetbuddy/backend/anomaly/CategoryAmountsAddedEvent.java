@@ -0,0 +1,12 @@
+package de.budgetbuddy.backend.anomaly;
+
+import de.budgetbuddy.backend.budget.QuantileSketch;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Published by the TransactionService with the amounts of the inserted expenses per owner and category
+ */
+public record CategoryAmountsAddedEvent(Map<UUID, Map<Long, QuantileSketch>> amounts) {
+}
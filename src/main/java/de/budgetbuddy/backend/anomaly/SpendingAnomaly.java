@@ -0,0 +1,69 @@
+package de.budgetbuddy.backend.anomaly;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * Raised when an expense is much larger than the usual expenses of its category
+ */
+@Entity
+@Table(name = "spending_anomaly", schema = "public", indexes = {
+        @Index(name = "idx_spending_anomaly_owner", columnList = "owner, created_at")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpendingAnomaly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spending_anomaly_id_seq")
+    @SequenceGenerator(name = "spending_anomaly_id_seq", sequenceName = "spending_anomaly_id_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    private User owner;
+
+    @ManyToOne
+    @JoinColumn(name = "transaction", nullable = false)
+    private Transaction transaction;
+
+    @ManyToOne
+    @JoinColumn(name = "category", nullable = false)
+    private Category category;
+
+    /**
+     * In the base currency of the owner, like the typical amount
+     */
+    @Column(name = "amount", nullable = false)
+    private Double amount;
+
+    /**
+     * Median amount of the expenses of the category when the transaction was written
+     */
+    @Column(name = "typical_amount", nullable = false)
+    private Double typicalAmount;
+
+    /**
+     * Amount divided by the typical amount
+     */
+    @Column(name = "ratio", nullable = false)
+    private Double ratio;
+
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date createdAt;
+}
@@ -0,0 +1,42 @@
+package de.budgetbuddy.backend.anomaly;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.user.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/v1/anomaly")
+public class SpendingAnomalyController {
+    private final SpendingAnomalyRepository spendingAnomalyRepository;
+
+    @Autowired
+    public SpendingAnomalyController(SpendingAnomalyRepository spendingAnomalyRepository) {
+        this.spendingAnomalyRepository = spendingAnomalyRepository;
+    }
+
+    /**
+     * Anomalies of the session user, the most recent first
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SpendingAnomaly>>> getAnomalies(HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(spendingAnomalyRepository.findAllByOwnerOrderByCreatedAtDesc(sessionUser.get())));
+    }
+}
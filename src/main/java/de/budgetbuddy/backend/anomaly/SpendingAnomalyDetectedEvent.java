@@ -0,0 +1,9 @@
+package de.budgetbuddy.backend.anomaly;
+
+import java.util.List;
+
+/**
+ * Published by the TransactionService when inserted transactions were flagged as anomalies
+ */
+public record SpendingAnomalyDetectedEvent(List<Long> anomalies) {
+}
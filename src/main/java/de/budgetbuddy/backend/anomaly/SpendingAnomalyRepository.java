@@ -0,0 +1,14 @@
+package de.budgetbuddy.backend.anomaly;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface SpendingAnomalyRepository extends JpaRepository<SpendingAnomaly, Long> {
+    List<SpendingAnomaly> findAllByOwnerOrderByCreatedAtDesc(User owner);
+
+    @EntityGraph(attributePaths = {"owner", "category", "transaction"})
+    List<SpendingAnomaly> findAllByIdIn(List<Long> ids);
+}
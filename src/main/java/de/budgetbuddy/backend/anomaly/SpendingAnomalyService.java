@@ -0,0 +1,316 @@
+package de.budgetbuddy.backend.anomaly;
+
+import de.budgetbuddy.backend.MailService;
+import de.budgetbuddy.backend.budget.QuantileSketch;
+import de.budgetbuddy.backend.log.Log;
+import de.budgetbuddy.backend.log.LogType;
+import de.budgetbuddy.backend.log.Logger;
+import de.budgetbuddy.backend.referenceData.UserCache;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.user.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * Flags expenses which are much larger than the usual expenses of their category, while they are inserted.
+ * The persisted amount sketches of the most recently used users are cached, the amounts of committed inserts are kept
+ * as deltas until they are merged into the persisted sketches, so scoring a transaction doesn't query anything
+ * once the sketches of its owner are loaded
+ */
+@Service
+public class SpendingAnomalyService {
+    public static final int DEFAULT_MAX_USERS = 1_000;
+    /**
+     * Bounds how long the sketches merged by another replica stay invisible to this one
+     */
+    static final long MAX_AGE_MILLIS = 10 * 60 * 1000;
+    /**
+     * Number of expenses a category needs before its expenses are scored
+     */
+    static final int MIN_AMOUNTS = 10;
+    /**
+     * An expense is flagged once it's this many times the median of its category...
+     */
+    static final double MIN_RATIO = 5;
+    /**
+     * ...and exceeds this quantile, so categories with widely spread amounts don't raise an anomaly for every larger expense
+     */
+    static final double MIN_QUANTILE = 0.99;
+    /**
+     * The sketches only grow on insert, so they are rebuilt from the expenses of these months on a regular basis
+     */
+    static final int LOOKBACK_MONTHS = 12;
+    private final CategoryAmountSketchRepository categoryAmountSketchRepository;
+    private final SpendingAnomalyRepository spendingAnomalyRepository;
+    private final MailService mailService;
+    /**
+     * Persisted sketches of an owner per category, which are never modified
+     */
+    private final UserCache<Map<Long, QuantileSketch>> storedSketches;
+    /**
+     * Amounts of committed inserts per owner and category, which haven't been merged into the persisted sketches yet
+     */
+    private final Map<UUID, Map<Long, QuantileSketch>> pendingAmounts = new HashMap<>();
+    private final Queue<Long> pendingAnomalies = new ConcurrentLinkedQueue<>();
+
+    public SpendingAnomalyService(CategoryAmountSketchRepository categoryAmountSketchRepository,
+                                  SpendingAnomalyRepository spendingAnomalyRepository,
+                                  MailService mailService) {
+        this(categoryAmountSketchRepository, spendingAnomalyRepository, mailService, DEFAULT_MAX_USERS);
+    }
+
+    @Autowired
+    public SpendingAnomalyService(
+            CategoryAmountSketchRepository categoryAmountSketchRepository,
+            SpendingAnomalyRepository spendingAnomalyRepository,
+            MailService mailService,
+            @Value("${de.budget-buddy.spending-anomalies.max-users:" + DEFAULT_MAX_USERS + "}") int maxUsers) {
+        this.categoryAmountSketchRepository = categoryAmountSketchRepository;
+        this.spendingAnomalyRepository = spendingAnomalyRepository;
+        this.mailService = mailService;
+        this.storedSketches = new UserCache<>(maxUsers, MAX_AGE_MILLIS);
+    }
+
+    /**
+     * @return Amount divided by the median of the sketch if the amount is an anomaly, otherwise 0
+     */
+    static double score(QuantileSketch sketch, double amount) {
+        if (sketch.getCount() < MIN_AMOUNTS) return 0;
+
+        double median = sketch.quantile(0.5);
+        if (median <= 0 || amount <= sketch.quantile(MIN_QUANTILE)) return 0;
+        double ratio = amount / median;
+        return ratio >= MIN_RATIO ? ratio : 0;
+    }
+
+    /**
+     * Collects the inserted transactions, so that the sketches of every owner are loaded
+     * by a single query, no matter how many transactions were imported
+     */
+    public Changes changes() {
+        return new Changes();
+    }
+
+    /**
+     * @param addedAmounts Has to be published, so the amounts are added to the sketches once the transactions are committed
+     */
+    public record Result(List<SpendingAnomaly> anomalies, CategoryAmountsAddedEvent addedAmounts) {}
+
+    public class Changes {
+        private final List<Transaction> transactions = new ArrayList<>();
+
+        public Changes addAll(Collection<Transaction> transactions) {
+            this.transactions.addAll(transactions);
+            return this;
+        }
+
+        /**
+         * Scores every expense against a copy of the sketch of its category before adding it, so an anomaly doesn't hide itself.
+         * Transactions are scored in the order they were provided. The shared sketches are left untouched,
+         * since the surrounding database transaction might still be rolled back
+         */
+        public Result apply() {
+            Map<UUID, Map<Long, QuantileSketch>> sketchesByOwner = new HashMap<>();
+            Map<UUID, Map<Long, QuantileSketch>> addedAmounts = new HashMap<>();
+            List<SpendingAnomaly> anomalies = new ArrayList<>();
+            Date createdAt = new Date();
+            for (Transaction transaction : transactions) {
+                if (transaction.amountInBaseCurrency() == null
+                        || transaction.amountInBaseCurrency() >= 0
+                        || transaction.getOwner() == null
+                        || transaction.getCategory() == null) continue;
+
+                UUID owner = transaction.getOwner().getUuid();
+                Long category = transaction.getCategory().getId();
+                QuantileSketch sketch = sketchesByOwner.computeIfAbsent(owner, key -> new HashMap<>())
+                        .computeIfAbsent(category, key -> copySketch(owner, category));
+                double amount = -transaction.amountInBaseCurrency();
+                double ratio = score(sketch, amount);
+                if (ratio > 0) {
+                    anomalies.add(SpendingAnomaly.builder()
+                            .owner(transaction.getOwner())
+                            .transaction(transaction)
+                            .category(transaction.getCategory())
+                            .amount(amount)
+                            .typicalAmount(sketch.quantile(0.5))
+                            .ratio(ratio)
+                            .createdAt(createdAt)
+                            .build());
+                }
+                sketch.add(amount);
+                addedAmounts.computeIfAbsent(owner, key -> new HashMap<>())
+                        .computeIfAbsent(category, key -> new QuantileSketch())
+                        .add(amount);
+            }
+            transactions.clear();
+            return new Result(
+                    anomalies.isEmpty() ? anomalies : spendingAnomalyRepository.saveAll(anomalies),
+                    new CategoryAmountsAddedEvent(addedAmounts));
+        }
+    }
+
+    private Map<Long, QuantileSketch> getSketches(UUID owner) {
+        return storedSketches.get(owner, () -> {
+            Map<Long, QuantileSketch> sketches = new HashMap<>();
+            for (CategoryAmountSketch sketch : categoryAmountSketchRepository.findAllByOwner(new User(owner))) {
+                sketches.put(sketch.getCategory().getId(), QuantileSketch.fromBytes(sketch.getSketch()));
+            }
+            return Collections.unmodifiableMap(sketches);
+        });
+    }
+
+    /**
+     * @return Persisted sketch of the category merged with the amounts which haven't been persisted yet
+     */
+    private QuantileSketch copySketch(UUID owner, Long category) {
+        QuantileSketch sketch = new QuantileSketch();
+        QuantileSketch storedSketch = getSketches(owner).get(category);
+        if (storedSketch != null) sketch.merge(storedSketch);
+        synchronized (pendingAmounts) {
+            QuantileSketch amounts = pendingAmounts.getOrDefault(owner, Map.of()).get(category);
+            if (amounts != null) sketch.merge(amounts);
+        }
+        return sketch;
+    }
+
+    /**
+     * Adds the amounts to the sketches once the inserted transactions are committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryAmountsAdded(CategoryAmountsAddedEvent event) {
+        synchronized (pendingAmounts) {
+            event.amounts().forEach((owner, amounts) -> {
+                Map<Long, QuantileSketch> ownerAmounts = pendingAmounts.computeIfAbsent(owner, key -> new HashMap<>());
+                amounts.forEach((category, sketch) -> ownerAmounts
+                        .computeIfAbsent(category, key -> new QuantileSketch())
+                        .merge(sketch));
+            });
+        }
+    }
+
+    /**
+     * Merges the pending amounts into the persisted sketches. Every replica only writes its own amounts,
+     * the merge locks the persisted sketch, so concurrent merges of other replicas aren't overwritten.
+     * If a sketch can't be written, e.g. because its category got deleted, its amounts are dropped
+     * @return Number of written sketches
+     */
+    @PreDestroy
+    public int persist() {
+        Map<UUID, Map<Long, QuantileSketch>> amountsToPersist;
+        synchronized (pendingAmounts) {
+            amountsToPersist = new HashMap<>(pendingAmounts);
+            pendingAmounts.clear();
+        }
+
+        Date updatedAt = new Date();
+        int writtenSketches = 0;
+        for (Map.Entry<UUID, Map<Long, QuantileSketch>> entry : amountsToPersist.entrySet()) {
+            for (Map.Entry<Long, QuantileSketch> amounts : entry.getValue().entrySet()) {
+                try {
+                    writtenSketches += categoryAmountSketchRepository.merge(entry.getKey(), amounts.getKey(), amounts.getValue(), updatedAt);
+                } catch (RuntimeException e) {
+                    Logger.log(Log.builder()
+                            .application("Backend")
+                            .type(LogType.WARNING)
+                            .category("spending-anomalies")
+                            .content("Couldn't persist the amount sketch of category " + amounts.getKey() + ": " + e.getMessage())
+                            .build());
+                }
+            }
+            // The owner is reloaded with the merged sketches on the next insert
+            storedSketches.invalidate(entry.getKey());
+        }
+        return writtenSketches;
+    }
+
+    /**
+     * Rebuilds the sketches of all categories from the expenses of the last months, which drops the amounts of
+     * older, updated and deleted transactions. The cached sketches are reloaded on the next insert
+     * @return Number of written sketches
+     */
+    @Transactional
+    public int rebuild(LocalDate today) {
+        Date updatedAt = new Date();
+        Date startDate = Date.from(today.minusMonths(LOOKBACK_MONTHS).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        int writtenSketches = 0;
+        try (Stream<Object[]> rows = categoryAmountSketchRepository.streamExpenses(startDate)) {
+            UUID owner = null;
+            Long category = null;
+            QuantileSketch sketch = null;
+            for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+                Object[] row = iterator.next();
+                if (!Objects.equals(owner, row[0]) || !Objects.equals(category, row[1])) {
+                    if (sketch != null) writtenSketches += categoryAmountSketchRepository.upsert(owner, category, sketch.toBytes(), updatedAt);
+                    owner = (UUID) row[0];
+                    category = ((Number) row[1]).longValue();
+                    sketch = new QuantileSketch();
+                }
+                sketch.add(((Number) row[2]).doubleValue());
+            }
+            if (sketch != null) writtenSketches += categoryAmountSketchRepository.upsert(owner, category, sketch.toBytes(), updatedAt);
+        }
+        categoryAmountSketchRepository.deleteAllByUpdatedAtBefore(updatedAt);
+        storedSketches.clear();
+        return writtenSketches;
+    }
+
+    /**
+     * Only queues the anomalies after the transaction got committed, the owners are notified later by the Scheduler
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSpendingAnomalyDetected(SpendingAnomalyDetectedEvent event) {
+        pendingAnomalies.addAll(event.anomalies());
+    }
+
+    /**
+     * Notifies the owners of all queued anomalies, with a single email per owner
+     * @return Number of notified anomalies
+     */
+    public int processPendingNotifications() {
+        List<Long> anomalyIds = new ArrayList<>();
+        Long anomalyId;
+        while ((anomalyId = pendingAnomalies.poll()) != null) anomalyIds.add(anomalyId);
+        if (anomalyIds.isEmpty()) return 0;
+
+        Map<UUID, List<SpendingAnomaly>> anomaliesByOwner = new HashMap<>();
+        Map<UUID, User> owners = new HashMap<>();
+        for (SpendingAnomaly anomaly : spendingAnomalyRepository.findAllByIdIn(anomalyIds)) {
+            owners.putIfAbsent(anomaly.getOwner().getUuid(), anomaly.getOwner());
+            anomaliesByOwner.computeIfAbsent(anomaly.getOwner().getUuid(), owner -> new ArrayList<>()).add(anomaly);
+        }
+
+        int notifiedAnomalies = 0;
+        for (Map.Entry<UUID, List<SpendingAnomaly>> entry : anomaliesByOwner.entrySet()) {
+            try {
+                if (mailService.trigger(MailService.getSpendingAnomalyMailPayload(owners.get(entry.getKey()), entry.getValue()))) {
+                    notifiedAnomalies += entry.getValue().size();
+                } else {
+                    Logger.log(Log.builder()
+                            .application("Backend")
+                            .type(LogType.WARNING)
+                            .category("spending-anomalies")
+                            .content("Couldn't send the spending anomaly email")
+                            .build());
+                }
+            } catch (Exception e) {
+                Logger.log(Log.builder()
+                        .application("Backend")
+                        .type(LogType.ERROR)
+                        .category("spending-anomalies")
+                        .content(e.getMessage())
+                        .build());
+            }
+        }
+        return notifiedAnomalies;
+    }
+}
@@ -14,7 +14,8 @@ import java.util.UUID;
 public class UserPasswordReset {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_password_reset_id_seq")
+    @SequenceGenerator(name = "user_password_reset_id_seq", sequenceName = "user_password_reset_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
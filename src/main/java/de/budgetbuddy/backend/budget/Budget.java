@@ -20,7 +20,8 @@ import java.util.UUID;
 public class Budget {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "budget_id_seq")
+    @SequenceGenerator(name = "budget_id_seq", sequenceName = "budget_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -35,6 +36,11 @@ public class Budget {
     @Column(name = "budget", nullable = false)
     private Double budget;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period", length = 20, nullable = false)
+    @ColumnDefault("'MONTHLY'")
+    private BudgetPeriod period;
+
     @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     @ColumnDefault("CURRENT_TIMESTAMP")
     private Date createdAt;
@@ -42,12 +48,24 @@ public class Budget {
     public Budget() {}
 
     public Budget(Category category, User owner, Double budget) {
+        this(category, owner, budget, BudgetPeriod.MONTHLY);
+    }
+
+    public Budget(Category category, User owner, Double budget, BudgetPeriod period) {
         this.category = category;
         this.owner = owner;
         this.budget = budget;
+        this.period = period;
         this.createdAt = new Date();
     }
 
+    /**
+     * Budgets which were created before periods were configurable are monthly budgets
+     */
+    public BudgetPeriod getPeriod() {
+        return period == null ? BudgetPeriod.MONTHLY : period;
+    }
+
     public Budget.Delete toDelete() {
         return new Budget.Delete(this.id);
     }
@@ -57,6 +75,7 @@ public class Budget {
         private Long categoryId;
         private UUID owner;
         private Double budget;
+        private BudgetPeriod period = BudgetPeriod.MONTHLY;
     }
 
     @Data
@@ -64,6 +83,7 @@ public class Budget {
         private Long budgetId;
         private Long categoryId;
         private Double budget;
+        private BudgetPeriod period;
     }
 
     @Data
@@ -0,0 +1,57 @@
+package de.budgetbuddy.backend.budget;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Raised once per budget, period and threshold when the amount spent crosses the threshold
+ */
+@Entity
+@Table(name = "budget_alert", schema = "public", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_budget_alert_budget_period_threshold", columnNames = {"budget", "period_start", "threshold"})
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BudgetAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "budget", nullable = false)
+    private Budget budget;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    private User owner;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    /**
+     * Percentage of the budget, e.g. 80 or 100
+     */
+    @Column(name = "threshold", nullable = false)
+    private int threshold;
+
+    @Column(name = "amount_spent", nullable = false)
+    private Double amountSpent;
+
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date createdAt;
+}
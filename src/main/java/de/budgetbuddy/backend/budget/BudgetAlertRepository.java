@@ -0,0 +1,36 @@
+package de.budgetbuddy.backend.budget;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface BudgetAlertRepository extends JpaRepository<BudgetAlert, Long> {
+    List<BudgetAlert> findAllByOwnerOrderByCreatedAtDesc(User owner);
+
+    /**
+     * Stores the alert unless it was already raised for the budget, period and threshold
+     * @return 1 if the alert is new, otherwise 0
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into budget_alert (budget, owner, period_start, threshold, amount_spent, created_at)\n" +
+            "values (:budget, :owner, :period_start, :threshold, :amount_spent, now())\n" +
+            "on conflict (budget, period_start, threshold) do nothing", nativeQuery = true)
+    int raise(@Param("budget") Long budget,
+              @Param("owner") UUID owner,
+              @Param("period_start") LocalDate periodStart,
+              @Param("threshold") int threshold,
+              @Param("amount_spent") double amountSpent);
+
+    @Modifying
+    @Transactional
+    @Query("delete from BudgetAlert a where a.budget = :budget")
+    int deleteAllByBudget(@Param("budget") Budget budget);
+}
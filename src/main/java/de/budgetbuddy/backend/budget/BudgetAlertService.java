@@ -0,0 +1,122 @@
+package de.budgetbuddy.backend.budget;
+
+import de.budgetbuddy.backend.MailService;
+import de.budgetbuddy.backend.log.Log;
+import de.budgetbuddy.backend.log.LogType;
+import de.budgetbuddy.backend.log.Logger;
+import de.budgetbuddy.backend.user.User;
+import de.budgetbuddy.backend.user.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class BudgetAlertService {
+    /**
+     * Percentages of the budget which will raise an alert once they are reached
+     */
+    public static final int[] THRESHOLDS = {80, 100};
+    private final Set<UUID> pendingOwners = ConcurrentHashMap.newKeySet();
+    private final BudgetAlertRepository budgetAlertRepository;
+    private final BudgetSpendingService budgetSpendingService;
+    private final UserRepository userRepository;
+    private final MailService mailService;
+
+    public BudgetAlertService(
+            BudgetAlertRepository budgetAlertRepository,
+            BudgetSpendingService budgetSpendingService,
+            UserRepository userRepository,
+            MailService mailService) {
+        this.budgetAlertRepository = budgetAlertRepository;
+        this.budgetSpendingService = budgetSpendingService;
+        this.userRepository = userRepository;
+        this.mailService = mailService;
+    }
+
+    /**
+     * Only queues the owners after the transaction got committed.
+     * The budgets are evaluated later by the Scheduler, so the request isn't slowed down by the checks
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetSpendingChanged(BudgetSpendingChangedEvent event) {
+        pendingOwners.addAll(event.owners());
+    }
+
+    /**
+     * Evaluates the budgets of every queued owner.
+     * Each owner is evaluated once per run, no matter how many transactions were written in the meantime
+     * @return Number of raised alerts
+     */
+    public int processPendingAlerts() {
+        int raisedAlerts = 0;
+        Iterator<UUID> iterator = pendingOwners.iterator();
+        while (iterator.hasNext()) {
+            UUID owner = iterator.next();
+            iterator.remove();
+            try {
+                raisedAlerts += evaluate(owner).size();
+            } catch (Exception e) {
+                Logger.getInstance()
+                        .log(new Log("Backend", LogType.ERROR, "budget-alerts", e.getMessage()));
+            }
+        }
+        return raisedAlerts;
+    }
+
+    /**
+     * Raises an alert for every threshold the owners budgets have reached in their current period.
+     * Alerts which were already raised for the budget, period and threshold are skipped
+     * @return Newly raised alerts
+     */
+    public List<BudgetAlert> evaluate(UUID ownerUuid) {
+        Optional<User> optOwner = userRepository.findById(ownerUuid);
+        if (optOwner.isEmpty()) return List.of();
+
+        User owner = optOwner.get();
+        LocalDate today = LocalDate.now();
+        List<BudgetAlert> raisedAlerts = new ArrayList<>();
+        for (Map.Entry<Budget, Double> entry : budgetSpendingService.getAmountsSpent(owner, today).entrySet()) {
+            Budget budget = entry.getKey();
+            double amountSpent = entry.getValue();
+            if (budget.getBudget() == null || budget.getBudget() <= 0) continue;
+
+            LocalDate periodStart = budget.getPeriod().getAlertPeriodStart(today);
+
+            for (int threshold : THRESHOLDS) {
+                if (amountSpent < budget.getBudget() * threshold / 100) continue;
+                if (budgetAlertRepository.raise(budget.getId(), owner.getUuid(), periodStart, threshold, amountSpent) == 0) {
+                    continue;
+                }
+
+                raisedAlerts.add(BudgetAlert.builder()
+                        .budget(budget)
+                        .owner(owner)
+                        .periodStart(periodStart)
+                        .threshold(threshold)
+                        .amountSpent(amountSpent)
+                        .createdAt(new Date())
+                        .build());
+            }
+        }
+
+        if (!raisedAlerts.isEmpty()) {
+            notify(owner, raisedAlerts);
+        }
+        return raisedAlerts;
+    }
+
+    private void notify(User owner, List<BudgetAlert> alerts) {
+        try {
+            if (!mailService.trigger(MailService.getBudgetAlertMailPayload(owner, alerts))) {
+                Logger.getInstance()
+                        .log(new Log("Backend", LogType.WARNING, "budget-alerts", "Couldn't send the budget alert email"));
+            }
+        } catch (Exception e) {
+            Logger.getInstance()
+                    .log(new Log("Backend", LogType.ERROR, "budget-alerts", e.getMessage()));
+        }
+    }
+}
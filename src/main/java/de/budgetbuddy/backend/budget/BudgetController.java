@@ -4,7 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import de.budgetbuddy.backend.ApiResponse;
 import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
 import de.budgetbuddy.backend.category.Category;
-import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.category.CategoryClosureRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
 import jakarta.servlet.http.HttpSession;
@@ -13,22 +14,29 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.*;
 
 @RestController
 @RequestMapping("/v1/budget")
 public class BudgetController {
     private final BudgetRepository budgetRepository;
-    private final BudgetProgressViewRepository budgetProgressViewRepository;
+    private final BudgetSpendingService budgetSpendingService;
+    private final BudgetAlertRepository budgetAlertRepository;
+    private final BudgetSnapshotRepository budgetSnapshotRepository;
+    private final BudgetRecommendationService budgetRecommendationService;
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
-    public BudgetController(BudgetRepository budgetRepository, BudgetProgressViewRepository budgetProgressViewRepository, UserRepository userRepository, CategoryRepository categoryRepository) {
+    public BudgetController(BudgetRepository budgetRepository, BudgetSpendingRepository budgetSpendingRepository, BudgetAlertRepository budgetAlertRepository, BudgetSnapshotRepository budgetSnapshotRepository, CategorySpendingSketchRepository categorySpendingSketchRepository, CategoryClosureRepository categoryClosureRepository, UserRepository userRepository, ReferenceDataCache referenceDataCache) {
         this.budgetRepository = budgetRepository;
-        this.budgetProgressViewRepository = budgetProgressViewRepository;
+        this.budgetSpendingService = new BudgetSpendingService(budgetSpendingRepository, budgetRepository, budgetSnapshotRepository, categoryClosureRepository);
+        this.budgetAlertRepository = budgetAlertRepository;
+        this.budgetSnapshotRepository = budgetSnapshotRepository;
+        this.budgetRecommendationService = new BudgetRecommendationService(categorySpendingSketchRepository);
         this.userRepository = userRepository;
-        this.categoryRepository = categoryRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @PostMapping
@@ -40,7 +48,7 @@ public class BudgetController {
                     .body(new ApiResponse<>(404, "Provided user doesn't exist"));
         }
 
-        Optional<Category> category = categoryRepository.findByIdAndOwner(payload.getCategoryId(), user.get());
+        Optional<Category> category = referenceDataCache.findCategory(payload.getCategoryId(), user.get());
         if (category.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -62,11 +70,15 @@ public class BudgetController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't set a budget for different users"));
         }
 
+        Budget budget = budgetRepository.save(new Budget(
+                category.get(),
+                user.get(),
+                payload.getBudget(),
+                payload.getPeriod() == null ? BudgetPeriod.MONTHLY : payload.getPeriod()));
+        budgetSpendingService.initialize(budget);
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new ApiResponse<>(
-                        200,
-                        budgetRepository.save(new Budget(category.get(), user.get(), payload.getBudget()))));
+                .body(new ApiResponse<>(200, budget));
     }
 
     @GetMapping
@@ -94,7 +106,7 @@ public class BudgetController {
     }
 
     @GetMapping("/progress")
-    public ResponseEntity<ApiResponse<List<BudgetProgressView>>> getBudgetProgressByUuid(@RequestParam UUID uuid, HttpSession session) throws JsonProcessingException {
+    public ResponseEntity<ApiResponse<List<BudgetProgress>>> getBudgetProgressByUuid(@RequestParam UUID uuid, HttpSession session) throws JsonProcessingException {
         Optional<User> user = userRepository.findById(uuid);
         if (user.isEmpty()) {
             return ResponseEntity
@@ -111,12 +123,112 @@ public class BudgetController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't retrieve budgets for different users", new ArrayList<>()));
         }
 
-        List<BudgetProgressView> budgets = budgetProgressViewRepository.findAllByOwner(user.get());
+        List<BudgetProgress> budgets = budgetSpendingService.getProgress(user.get());
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(new ApiResponse<>(budgets));
     }
 
+    @GetMapping("/alerts")
+    public ResponseEntity<ApiResponse<List<BudgetAlert>>> getBudgetAlertsByUuid(@RequestParam UUID uuid, HttpSession session) throws JsonProcessingException {
+        Optional<User> user = userRepository.findById(uuid);
+        if (user.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided user doesn't exist", new ArrayList<>()));
+        }
+
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        } else if (!sessionUser.get().getUuid().equals(uuid)) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't retrieve budgets for different users", new ArrayList<>()));
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(budgetAlertRepository.findAllByOwnerOrderByCreatedAtDesc(user.get())));
+    }
+
+    @GetMapping("/recommendations")
+    public ResponseEntity<ApiResponse<List<BudgetRecommendation>>> getBudgetRecommendationsByUuid(
+            @RequestParam UUID uuid,
+            @RequestParam(defaultValue = "80") Integer percentile,
+            HttpSession session) throws JsonProcessingException {
+        if (percentile < 1 || percentile > 99) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST.value(), "The percentile needs to be between 1 and 99", new ArrayList<>()));
+        }
+
+        Optional<User> user = userRepository.findById(uuid);
+        if (user.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided user doesn't exist", new ArrayList<>()));
+        }
+
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        } else if (!sessionUser.get().getUuid().equals(uuid)) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't retrieve budgets for different users", new ArrayList<>()));
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(budgetRecommendationService.getRecommendations(user.get(), percentile)));
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<ApiResponse<List<BudgetSnapshot>>> getBudgetHistoryByUuid(
+            @RequestParam UUID uuid,
+            @RequestParam(required = false) Long budgetId,
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> user = userRepository.findById(uuid);
+        if (user.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided user doesn't exist", new ArrayList<>()));
+        }
+
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        } else if (!sessionUser.get().getUuid().equals(uuid)) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't retrieve budgets for different users", new ArrayList<>()));
+        }
+
+        LocalDate periodFrom = from == null ? LocalDate.EPOCH : from;
+        LocalDate periodTo = to == null ? LocalDate.now() : to;
+        if (budgetId == null) {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(new ApiResponse<>(budgetSnapshotRepository
+                            .findAllByOwnerAndPeriodStartBetweenOrderByPeriodStartDesc(user.get(), periodFrom, periodTo)));
+        }
+
+        Optional<Budget> budget = budgetRepository.findById(budgetId);
+        if (budget.isEmpty() || !budget.get().getOwner().getUuid().equals(uuid)) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided budget doesn't exist", new ArrayList<>()));
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(budgetSnapshotRepository
+                        .findAllByBudgetAndPeriodStartBetweenOrderByPeriodStartDesc(budget.get(), periodFrom, periodTo)));
+    }
+
     @PutMapping
     public ResponseEntity<ApiResponse<Budget>> updateBudget(@RequestBody Budget.Update payload, HttpSession session) throws JsonProcessingException {
         Optional<Budget> requestedBudget = budgetRepository.findById(payload.getBudgetId());
@@ -126,8 +238,8 @@ public class BudgetController {
                     .body(new ApiResponse<>(404, "Provided budget doesn't exist"));
         }
 
-        Optional<Category> category = categoryRepository
-                .findByIdAndOwner(payload.getCategoryId(), requestedBudget.get().getOwner());
+        Optional<Category> category = referenceDataCache
+                .findCategory(payload.getCategoryId(), requestedBudget.get().getOwner());
         if (category.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -144,7 +256,14 @@ public class BudgetController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't update budgets for different users"));
         }
 
-        Budget updatedBudget = new Budget(budget.getId(), category.get(), budget.getOwner(), payload.getBudget(), budget.getCreatedAt());
+        Budget updatedBudget = Budget.builder()
+                .id(budget.getId())
+                .category(category.get())
+                .owner(budget.getOwner())
+                .budget(payload.getBudget())
+                .period(payload.getPeriod() == null ? budget.getPeriod() : payload.getPeriod())
+                .createdAt(budget.getCreatedAt())
+                .build();
         Optional<Budget> existingBudget = budgetRepository.findByOwnerAndCategory(budget.getOwner(), category.get());
         if (existingBudget.isPresent() && !existingBudget.get().getId().equals(payload.getBudgetId())) {
             return ResponseEntity
@@ -152,11 +271,24 @@ public class BudgetController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "There is already an budget for this category"));
         }
 
+        boolean changedCategory = budget.getCategory() == null
+                || !category.get().getId().equals(budget.getCategory().getId());
+        boolean changedPeriod = budget.getPeriod() != updatedBudget.getPeriod();
+        boolean changedBudget = !Objects.equals(budget.getBudget(), payload.getBudget());
+        Budget savedBudget = budgetRepository.save(updatedBudget);
+        if (changedCategory || changedPeriod) {
+            budgetSpendingService.initialize(savedBudget);
+        }
+        if (changedCategory || changedPeriod || changedBudget) {
+            // Thresholds need to be able to alert again, since they now refer to a different amount
+            budgetAlertRepository.deleteAllByBudget(savedBudget);
+        }
+
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(new ApiResponse<>(
                         200,
-                        budgetRepository.save(updatedBudget)));
+                        savedBudget));
     }
 
     @DeleteMapping
@@ -185,6 +317,8 @@ public class BudgetController {
                         || !optSessionUser.get().getUuid().equals(budgetOwner.getUuid())) {
                     failedToDelete.add(payload);
                 } else {
+                    budgetSpendingService.remove(budget);
+                    budgetAlertRepository.deleteAllByBudget(budget);
                     budgetRepository.delete(budget);
                     successfullyDeleted.add(budget);
                 }
@@ -0,0 +1,77 @@
+package de.budgetbuddy.backend.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Getter
+@AllArgsConstructor
+public enum BudgetPeriod {
+    WEEKLY("week"),
+    MONTHLY("month"),
+    QUARTERLY("quarter"),
+    YEARLY("year"),
+    ROLLING_30_DAYS("day");
+
+    /**
+     * Unit passed to date_trunc in order to compute the bucket of a transaction
+     */
+    private final String bucketUnit;
+
+    /**
+     * Returns the start of the spending counter which contains the date.
+     * Fixed periods have a single counter per period, rolling budgets have a counter per day
+     */
+    public LocalDate getBucketStart(LocalDate date) {
+        return switch (this) {
+            case WEEKLY -> date.with(DayOfWeek.MONDAY);
+            case MONTHLY -> date.withDayOfMonth(1);
+            case QUARTERLY -> date.withMonth((date.getMonthValue() - 1) / 3 * 3 + 1).withDayOfMonth(1);
+            case YEARLY -> date.withDayOfYear(1);
+            case ROLLING_30_DAYS -> date;
+        };
+    }
+
+    /**
+     * Returns the start of the period which contains the date.
+     * For rolling budgets this is the start of the 30 day window ending with the date
+     */
+    public LocalDate getPeriodStart(LocalDate date) {
+        return this == ROLLING_30_DAYS ? date.minusDays(29) : getBucketStart(date);
+    }
+
+    /**
+     * Returns the exclusive end of the period starting at periodStart
+     */
+    public LocalDate getPeriodEnd(LocalDate periodStart) {
+        return switch (this) {
+            case WEEKLY -> periodStart.plusWeeks(1);
+            case MONTHLY -> periodStart.plusMonths(1);
+            case QUARTERLY -> periodStart.plusMonths(3);
+            case YEARLY -> periodStart.plusYears(1);
+            case ROLLING_30_DAYS -> periodStart.plusDays(30);
+        };
+    }
+
+    /**
+     * Returns the start of the period which has been closed by the beginning of the day.
+     * Rolling windows close every day, fixed periods only at their boundary
+     */
+    public Optional<LocalDate> getClosedPeriodStart(LocalDate date) {
+        if (this == ROLLING_30_DAYS) return Optional.of(date.minusDays(30));
+        if (!getBucketStart(date).equals(date)) return Optional.empty();
+        return Optional.of(getBucketStart(date.minusDays(1)));
+    }
+
+    /**
+     * Returns the period under which alerts are deduplicated.
+     * Rolling windows move every day, so their alerts are deduplicated in fixed blocks of 30 days instead
+     */
+    public LocalDate getAlertPeriodStart(LocalDate date) {
+        if (this == ROLLING_30_DAYS) return LocalDate.ofEpochDay(Math.floorDiv(date.toEpochDay(), 30) * 30);
+        return getPeriodStart(date);
+    }
+}
@@ -0,0 +1,37 @@
+package de.budgetbuddy.backend.budget;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.user.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BudgetProgress {
+    private Long id;
+    private Category category;
+    private User owner;
+    private Double budget;
+    private Double amount_spent;
+    private BudgetPeriod period;
+    private LocalDate periodStart;
+    private LocalDate periodEnd;
+    private Date createdAt;
+
+    public BudgetProgress(Budget budget, Double amountSpent, LocalDate periodStart) {
+        this.id = budget.getId();
+        this.category = budget.getCategory();
+        this.owner = budget.getOwner();
+        this.budget = budget.getBudget();
+        this.amount_spent = amountSpent == null ? 0.0 : amountSpent;
+        this.period = budget.getPeriod();
+        this.periodStart = periodStart;
+        this.periodEnd = budget.getPeriod().getPeriodEnd(periodStart);
+        this.createdAt = budget.getCreatedAt();
+    }
+}
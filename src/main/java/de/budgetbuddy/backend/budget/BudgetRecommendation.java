@@ -0,0 +1,18 @@
+package de.budgetbuddy.backend.budget;
+
+import de.budgetbuddy.backend.category.Category;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BudgetRecommendation {
+    private Category category;
+    private Integer months;
+    private Double p50;
+    private Double p80;
+    private Integer percentile;
+    private Double budget;
+}
@@ -0,0 +1,115 @@
+package de.budgetbuddy.backend.budget;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+
+@Service
+public class BudgetRecommendationService {
+    /**
+     * Number of completed months which are summarized by the sketches
+     */
+    public static final int MONTHS = 12;
+    private final CategorySpendingSketchRepository categorySpendingSketchRepository;
+
+    public BudgetRecommendationService(CategorySpendingSketchRepository categorySpendingSketchRepository) {
+        this.categorySpendingSketchRepository = categorySpendingSketchRepository;
+    }
+
+    /**
+     * Recommends a budget for every category with spending in the last months.
+     * Only the precomputed sketches are read, so no transactions are aggregated
+     * @param percentile Percentile of the monthly spending which is used as budget
+     */
+    public List<BudgetRecommendation> getRecommendations(User owner, int percentile) {
+        return categorySpendingSketchRepository.findAllByOwner(owner)
+                .stream()
+                .map(categorySketch -> {
+                    QuantileSketch sketch = QuantileSketch.fromBytes(categorySketch.getSketch());
+                    return new BudgetRecommendation(
+                            categorySketch.getCategory(),
+                            categorySketch.getMonths(),
+                            round(sketch.quantile(0.5)),
+                            round(sketch.quantile(0.8)),
+                            percentile,
+                            round(sketch.quantile(percentile / 100.0)));
+                })
+                .toList();
+    }
+
+    /**
+     * Rebuilds the sketches of all categories from the monthly spending of the last completed months.
+     * The transactions are aggregated and streamed by a single query, each owner is flushed before the next one is read
+     * @return Number of written sketches
+     */
+    @Transactional
+    public int computeSketches(LocalDate date) {
+        LocalDate endDate = date.withDayOfMonth(1);
+        LocalDate startDate = endDate.minusMonths(MONTHS);
+        Date computedAt = new java.util.Date();
+
+        int writtenSketches = 0;
+        try (Stream<Object[]> rows = categorySpendingSketchRepository.streamMonthlySpendings(startDate, endDate)) {
+            OwnerSpendings ownerSpendings = null;
+            for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext(); ) {
+                Object[] row = iterator.next();
+                UUID owner = (UUID) row[0];
+                if (ownerSpendings == null || !ownerSpendings.owner.equals(owner)) {
+                    if (ownerSpendings != null) writtenSketches += ownerSpendings.flush(endDate, computedAt);
+                    ownerSpendings = new OwnerSpendings(owner);
+                }
+                ownerSpendings.add(((Number) row[1]).longValue(), toLocalDate(row[2]), ((Number) row[3]).doubleValue());
+            }
+            if (ownerSpendings != null) writtenSketches += ownerSpendings.flush(endDate, computedAt);
+        }
+
+        categorySpendingSketchRepository.deleteAllByComputedAtBefore(computedAt);
+        return writtenSketches;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Monthly spending of all categories of a single owner
+     */
+    private class OwnerSpendings {
+        private final UUID owner;
+        private final Map<Long, List<Double>> spendingsByCategory = new LinkedHashMap<>();
+        private LocalDate firstMonth;
+
+        OwnerSpendings(UUID owner) {
+            this.owner = owner;
+        }
+
+        void add(Long category, LocalDate month, double amountSpent) {
+            spendingsByCategory.computeIfAbsent(category, key -> new ArrayList<>()).add(amountSpent);
+            if (firstMonth == null || month.isBefore(firstMonth)) firstMonth = month;
+        }
+
+        /**
+         * Months since the first spending of the owner without any spending in a category count as 0,
+         * otherwise rarely used categories would be recommended their few expensive months
+         */
+        int flush(LocalDate endDate, Date computedAt) {
+            int months = (int) ChronoUnit.MONTHS.between(firstMonth, endDate);
+            spendingsByCategory.forEach((category, spendings) -> {
+                QuantileSketch sketch = new QuantileSketch();
+                spendings.forEach(sketch::add);
+                for (int i = spendings.size(); i < months; i++) sketch.add(0);
+                categorySpendingSketchRepository.upsert(owner, category, months, sketch.toBytes(), computedAt);
+            });
+            return spendingsByCategory.size();
+        }
+    }
+}
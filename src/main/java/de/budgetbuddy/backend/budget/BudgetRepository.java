@@ -2,13 +2,26 @@ package de.budgetbuddy.backend.budget;
 
 import de.budgetbuddy.backend.category.Category;
 import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
+    @EntityGraph(attributePaths = {"category"})
     List<Budget> findAllByOwner(User owner);
     Optional<Budget> findByOwnerAndCategory(User owner, Category category);
+
+    /**
+     * Moves the budget to another category and replaces its amount, used when budgets are combined
+     */
+    @Modifying
+    @Transactional
+    @Query("update Budget b set b.category = :category, b.budget = :budget where b.id = :id")
+    int moveToCategory(@Param("id") Long id, @Param("category") Category category, @Param("budget") Double budget);
 }
@@ -0,0 +1,75 @@
+package de.budgetbuddy.backend.budget;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Performance of a budget in a closed period, written by the Scheduler once the period is over
+ */
+@Entity
+@Table(name = "budget_snapshot", schema = "public", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_budget_snapshot_budget_period", columnNames = {"budget", "period_start"})
+}, indexes = {
+        @Index(name = "idx_budget_snapshot_owner_period", columnList = "owner, period_start")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BudgetSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "budget", nullable = false)
+    private Budget budget;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    private User owner;
+
+    @ManyToOne
+    @JoinColumn(name = "category", nullable = false)
+    private Category category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period", length = 20, nullable = false)
+    private BudgetPeriod period;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    @Column(name = "budget_amount", nullable = false)
+    private Double budgetAmount;
+
+    @Column(name = "amount_spent", nullable = false)
+    private Double amountSpent;
+
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date createdAt;
+
+    @JsonProperty("budgetId")
+    public Long getBudgetId() {
+        return budget == null ? null : budget.getId();
+    }
+}
@@ -0,0 +1,43 @@
+package de.budgetbuddy.backend.budget;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface BudgetSnapshotRepository extends JpaRepository<BudgetSnapshot, Long> {
+    List<BudgetSnapshot> findAllByOwnerAndPeriodStartBetweenOrderByPeriodStartDesc(User owner, LocalDate from, LocalDate to);
+    List<BudgetSnapshot> findAllByBudgetAndPeriodStartBetweenOrderByPeriodStartDesc(Budget budget, LocalDate from, LocalDate to);
+
+    /**
+     * Writes a snapshot for every budget of the period type by summing up its spending counters of the closed period.
+     * Already existing snapshots are kept
+     * @return Number of written snapshots
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into budget_snapshot (budget, owner, category, period, period_start, period_end, budget_amount, amount_spent, created_at)\n" +
+            "select budget.id, budget.owner, budget.category, budget.period, :period_start, :period_end, budget.budget,\n" +
+            "       coalesce(sum(budget_spending.amount_spent), 0), now()\n" +
+            "from budget\n" +
+            "         left join budget_spending\n" +
+            "                   on budget_spending.budget = budget.id\n" +
+            "                       and budget_spending.period_start >= :period_start\n" +
+            "                       and budget_spending.period_start < :period_end\n" +
+            "where budget.period = :period\n" +
+            "group by budget.id\n" +
+            "on conflict (budget, period_start) do nothing", nativeQuery = true)
+    int snapshot(@Param("period") String period,
+                 @Param("period_start") LocalDate periodStart,
+                 @Param("period_end") LocalDate periodEnd);
+
+    @Modifying
+    @Transactional
+    @Query("delete from BudgetSnapshot s where s.budget = :budget")
+    int deleteAllByBudget(@Param("budget") Budget budget);
+}
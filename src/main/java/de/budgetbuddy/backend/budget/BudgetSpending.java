@@ -0,0 +1,45 @@
+package de.budgetbuddy.backend.budget;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Amount spent for a budget in a period.
+ * The counter is maintained by the TransactionService on every write and repaired by the Scheduler
+ */
+@Entity
+@Table(name = "budget_spending", schema = "public", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_budget_spending_budget_period", columnNames = {"budget", "period_start"})
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BudgetSpending {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "budget", nullable = false)
+    private Budget budget;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "amount_spent", nullable = false)
+    private Double amountSpent;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date updatedAt;
+}
@@ -0,0 +1,10 @@
+package de.budgetbuddy.backend.budget;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published by the TransactionService when the amount spent of the owners budgets has increased
+ */
+public record BudgetSpendingChangedEvent(Set<UUID> owners) {
+}
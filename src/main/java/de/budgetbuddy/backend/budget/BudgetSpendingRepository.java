@@ -0,0 +1,146 @@
+package de.budgetbuddy.backend.budget;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface BudgetSpendingRepository extends JpaRepository<BudgetSpending, Long> {
+
+    /**
+     * Sums up the counters of the budgets between periodStart (inclusive) and periodEnd (exclusive).
+     * Fixed periods have a single counter per period, rolling budgets a counter per day
+     * @return Rows of budget id and amount spent, budgets without any spending are missing
+     */
+    @Query("select s.budget.id, sum(s.amountSpent) from BudgetSpending s " +
+            "where s.budget in :budgets " +
+            "and s.periodStart >= :period_start " +
+            "and s.periodStart < :period_end " +
+            "group by s.budget.id")
+    List<Object[]> sumSpendings(@Param("budgets") Collection<Budget> budgets,
+                                @Param("period_start") LocalDate periodStart,
+                                @Param("period_end") LocalDate periodEnd);
+
+    /**
+     * Adds the amount to the counter of the budget which starts at periodStart
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into budget_spending (budget, period_start, amount_spent, updated_at)\n" +
+            "values (:budget, :period_start, :amount, now())\n" +
+            "on conflict (budget, period_start) do update\n" +
+            "    set amount_spent = budget_spending.amount_spent + excluded.amount_spent,\n" +
+            "        updated_at   = now()", nativeQuery = true)
+    int addSpending(@Param("budget") Long budget,
+                    @Param("period_start") LocalDate periodStart,
+                    @Param("amount") double amount);
+
+    /**
+     * Recomputes the counters of all budgets with the period type between periodStart and periodEnd
+     * from the transactions of the budgets category and all of its descendants,
+     * and overwrites every counter which is missing or has drifted.
+     * Counters whose transactions were deleted are reset by {@link #resetOrphaned}
+     * @return Number of repaired counters
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into budget_spending (budget, period_start, amount_spent, updated_at)\n" +
+            "select actual.budget, actual.period_start, actual.amount_spent, now()\n" +
+            "from (select budget.id                                                          as budget,\n" +
+            "             cast(date_trunc(cast(:unit as text), transaction.processed_at) as date) as period_start,\n" +
+            "             sum(-transaction.base_amount)                                      as amount_spent\n" +
+            "      from budget\n" +
+            "               join category_closure\n" +
+            "                    on category_closure.ancestor = budget.category\n" +
+            "               join transaction\n" +
+            "                    on transaction.owner = budget.owner\n" +
+            "                        and transaction.category = category_closure.descendant\n" +
+            "                        and transaction.base_amount < 0\n" +
+            "                        and transaction.processed_at >= :period_start\n" +
+            "                        and transaction.processed_at < :period_end\n" +
+            "      where budget.period = :period\n" +
+            "      group by 1, 2) as actual\n" +
+            "         left join budget_spending\n" +
+            "                   on budget_spending.budget = actual.budget\n" +
+            "                       and budget_spending.period_start = actual.period_start\n" +
+            "where budget_spending.id is null\n" +
+            "   or abs(budget_spending.amount_spent - actual.amount_spent) > 0.005\n" +
+            "on conflict (budget, period_start) do update\n" +
+            "    set amount_spent = excluded.amount_spent,\n" +
+            "        updated_at   = now()", nativeQuery = true)
+    int reconcile(@Param("period") String period,
+                  @Param("unit") String unit,
+                  @Param("period_start") LocalDate periodStart,
+                  @Param("period_end") LocalDate periodEnd);
+
+    /**
+     * Resets the counters between periodStart and periodEnd which no longer have any expenses
+     * @return Number of repaired counters
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update budget_spending\n" +
+            "set amount_spent = 0,\n" +
+            "    updated_at   = now()\n" +
+            "from budget\n" +
+            "where budget_spending.budget = budget.id\n" +
+            "  and budget.period = :period\n" +
+            "  and budget_spending.period_start >= :period_start\n" +
+            "  and budget_spending.period_start < :period_end\n" +
+            "  and budget_spending.amount_spent <> 0\n" +
+            "  and not exists (select 1\n" +
+            "                  from transaction\n" +
+            "                  where transaction.owner = budget.owner\n" +
+            "                    and transaction.category in (select category_closure.descendant\n" +
+            "                                                 from category_closure\n" +
+            "                                                 where category_closure.ancestor = budget.category)\n" +
+            "                    and transaction.base_amount < 0\n" +
+            "                    and transaction.processed_at >= budget_spending.period_start\n" +
+            "                    and transaction.processed_at < :period_end\n" +
+            "                    and cast(date_trunc(cast(:unit as text), transaction.processed_at) as date) = budget_spending.period_start)",
+            nativeQuery = true)
+    int resetOrphaned(@Param("period") String period,
+                      @Param("unit") String unit,
+                      @Param("period_start") LocalDate periodStart,
+                      @Param("period_end") LocalDate periodEnd);
+
+    /**
+     * Computes the counters of a single budget between periodStart and periodEnd from the transactions
+     * of its category and all of its descendants
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into budget_spending (budget, period_start, amount_spent, updated_at)\n" +
+            "select budget.id,\n" +
+            "       cast(date_trunc(cast(:unit as text), transaction.processed_at) as date),\n" +
+            "       sum(-transaction.base_amount),\n" +
+            "       now()\n" +
+            "from budget\n" +
+            "         join category_closure\n" +
+            "              on category_closure.ancestor = budget.category\n" +
+            "         join transaction\n" +
+            "              on transaction.owner = budget.owner\n" +
+            "                  and transaction.category = category_closure.descendant\n" +
+            "                  and transaction.base_amount < 0\n" +
+            "                  and transaction.processed_at >= :period_start\n" +
+            "                  and transaction.processed_at < :period_end\n" +
+            "where budget.id = :budget\n" +
+            "group by 1, 2\n" +
+            "on conflict (budget, period_start) do update\n" +
+            "    set amount_spent = excluded.amount_spent,\n" +
+            "        updated_at   = now()", nativeQuery = true)
+    int recompute(@Param("budget") Long budget,
+                  @Param("unit") String unit,
+                  @Param("period_start") LocalDate periodStart,
+                  @Param("period_end") LocalDate periodEnd);
+
+    @Modifying
+    @Transactional
+    @Query("delete from BudgetSpending s where s.budget = :budget")
+    int deleteAllByBudget(@Param("budget") Budget budget);
+}
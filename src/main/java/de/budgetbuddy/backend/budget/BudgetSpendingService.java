@@ -0,0 +1,210 @@
+package de.budgetbuddy.backend.budget;
+
+import de.budgetbuddy.backend.category.CategoryClosureRepository;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.transaction.TransactionChanges;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class BudgetSpendingService {
+    private final BudgetSpendingRepository budgetSpendingRepository;
+    private final BudgetRepository budgetRepository;
+    private final BudgetSnapshotRepository budgetSnapshotRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+
+    public BudgetSpendingService(
+            BudgetSpendingRepository budgetSpendingRepository,
+            BudgetRepository budgetRepository,
+            BudgetSnapshotRepository budgetSnapshotRepository,
+            CategoryClosureRepository categoryClosureRepository) {
+        this.budgetSpendingRepository = budgetSpendingRepository;
+        this.budgetRepository = budgetRepository;
+        this.budgetSnapshotRepository = budgetSnapshotRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+    }
+
+    /**
+     * Returns the progress of all budgets in their current period.
+     * The amount spent is read from the counters, so no transactions are aggregated
+     */
+    public List<BudgetProgress> getProgress(User owner) {
+        LocalDate today = LocalDate.now();
+        return getAmountsSpent(owner, today).entrySet()
+                .stream()
+                .map(entry -> new BudgetProgress(
+                        entry.getKey(),
+                        entry.getValue(),
+                        entry.getKey().getPeriod().getPeriodStart(today)))
+                .toList();
+    }
+
+    /**
+     * Returns every budget of the owner together with the amount spent in the period which contains the date.
+     * The counters are read by a single query per period type used by the owner
+     */
+    public Map<Budget, Double> getAmountsSpent(User owner, LocalDate date) {
+        List<Budget> budgets = budgetRepository.findAllByOwner(owner);
+        Map<Budget, Double> amountsSpent = new LinkedHashMap<>();
+        budgets.forEach(budget -> amountsSpent.put(budget, 0.0));
+
+        Map<BudgetPeriod, List<Budget>> budgetsByPeriod = budgets.stream()
+                .collect(Collectors.groupingBy(Budget::getPeriod));
+        budgetsByPeriod.forEach((period, periodBudgets) -> {
+            Map<Long, Budget> budgetsById = periodBudgets.stream()
+                    .collect(Collectors.toMap(Budget::getId, Function.identity()));
+            LocalDate periodStart = period.getPeriodStart(date);
+            for (Object[] row : budgetSpendingRepository.sumSpendings(periodBudgets, periodStart, period.getPeriodEnd(periodStart))) {
+                Budget budget = budgetsById.get((Long) row[0]);
+                if (budget != null && row[1] != null) {
+                    amountsSpent.put(budget, (Double) row[1]);
+                }
+            }
+        });
+        return amountsSpent;
+    }
+
+    /**
+     * Computes the counters of a newly created, re-categorized or re-periodized budget for the current period
+     */
+    public void initialize(Budget budget) {
+        budgetSpendingRepository.deleteAllByBudget(budget);
+        BudgetPeriod period = budget.getPeriod();
+        LocalDate periodStart = period.getPeriodStart(LocalDate.now());
+        budgetSpendingRepository.recompute(
+                budget.getId(),
+                period.getBucketUnit(),
+                periodStart,
+                period.getPeriodEnd(periodStart));
+    }
+
+    /**
+     * Recomputes the counters of all budgets of the owner, used after set-based updates which moved
+     * transactions between categories without recording the individual changes
+     */
+    public void initialize(User owner) {
+        budgetRepository.findAllByOwner(owner).forEach(this::initialize);
+    }
+
+    public void remove(Budget budget) {
+        budgetSpendingRepository.deleteAllByBudget(budget);
+        budgetSnapshotRepository.deleteAllByBudget(budget);
+    }
+
+    /**
+     * Repairs the counters of all budgets for the period which contains the provided date
+     * @return Number of counters which were missing or had drifted
+     */
+    public int reconcile(LocalDate date) {
+        int repairedCounters = 0;
+        for (BudgetPeriod period : BudgetPeriod.values()) {
+            LocalDate periodStart = period.getPeriodStart(date);
+            repairedCounters += reconcile(period, periodStart, period.getPeriodEnd(periodStart));
+        }
+        return repairedCounters;
+    }
+
+    private int reconcile(BudgetPeriod period, LocalDate periodStart, LocalDate periodEnd) {
+        return budgetSpendingRepository.reconcile(period.name(), period.getBucketUnit(), periodStart, periodEnd)
+                + budgetSpendingRepository.resetOrphaned(period.name(), period.getBucketUnit(), periodStart, periodEnd);
+    }
+
+    /**
+     * Writes the snapshots of every period which has been closed by the beginning of the date.
+     * The counters of a closed period are reconciled once more, since they won't change afterward
+     * @return Number of written snapshots
+     */
+    public int snapshotClosedPeriods(LocalDate date) {
+        int writtenSnapshots = 0;
+        for (BudgetPeriod period : BudgetPeriod.values()) {
+            Optional<LocalDate> periodStart = period.getClosedPeriodStart(date);
+            if (periodStart.isEmpty()) continue;
+
+            LocalDate periodEnd = period.getPeriodEnd(periodStart.get());
+            reconcile(period, periodStart.get(), periodEnd);
+            writtenSnapshots += budgetSnapshotRepository.snapshot(period.name(), periodStart.get(), periodEnd);
+        }
+        return writtenSnapshots;
+    }
+
+    public Changes changes() {
+        return new Changes();
+    }
+
+    /**
+     * Sums the expenses of the written transactions up per budget and period, the counters are written on apply
+     */
+    public class Changes extends TransactionChanges<Changes> {
+        private final Map<UUID, Map<Long, List<Budget>>> budgetsByOwner = new HashMap<>();
+        private final Map<SpendingKey, Double> deltas = new HashMap<>();
+
+        /**
+         * Only expenses are counted, income and transactions without a budget are skipped.
+         * A transaction counts towards the budgets of its category and of all ancestors of its category
+         */
+        @Override
+        protected void record(Transaction transaction, int sign) {
+            if (transaction.amountInBaseCurrency() == null || transaction.amountInBaseCurrency() >= 0) return;
+            if (transaction.getOwner() == null || transaction.getCategory() == null) return;
+
+            List<Budget> budgets = getBudgetsByCategory(transaction.getOwner()).get(transaction.getCategory().getId());
+            if (budgets == null) return;
+
+            LocalDate processedAt = transaction.processedDate();
+            for (Budget budget : budgets) {
+                SpendingKey key = new SpendingKey(
+                        budget.getId(),
+                        transaction.getOwner().getUuid(),
+                        budget.getPeriod().getBucketStart(processedAt));
+                deltas.merge(key, sign * Math.abs(transaction.amountInBaseCurrency()), Double::sum);
+            }
+        }
+
+        /**
+         * The budgets and the subtrees of their categories are loaded once per owner,
+         * no matter how many of their transactions are recorded
+         */
+        private Map<Long, List<Budget>> getBudgetsByCategory(User owner) {
+            return budgetsByOwner.computeIfAbsent(owner.getUuid(), uuid -> {
+                Map<Long, List<Budget>> budgetsByAncestor = budgetRepository.findAllByOwner(owner)
+                        .stream()
+                        .filter(budget -> budget.getCategory() != null)
+                        .collect(Collectors.groupingBy(budget -> budget.getCategory().getId()));
+                if (budgetsByAncestor.isEmpty()) return Map.of();
+
+                Map<Long, List<Budget>> budgetsByCategory = new HashMap<>();
+                budgetsByAncestor.forEach((category, budgets) ->
+                        budgetsByCategory.computeIfAbsent(category, key -> new ArrayList<>()).addAll(budgets));
+                for (Object[] row : categoryClosureRepository.findSubtrees(budgetsByAncestor.keySet())) {
+                    Long ancestor = (Long) row[0];
+                    Long descendant = (Long) row[1];
+                    if (ancestor.equals(descendant)) continue;
+                    budgetsByCategory.computeIfAbsent(descendant, key -> new ArrayList<>())
+                            .addAll(budgetsByAncestor.get(ancestor));
+                }
+                return budgetsByCategory;
+            });
+        }
+
+        /**
+         * @return Owners whose amount spent has increased
+         */
+        public Set<UUID> apply() {
+            Set<UUID> increasedOwners = new HashSet<>();
+            deltas.forEach((key, amount) -> {
+                if (amount == 0) return;
+                budgetSpendingRepository.addSpending(key.budget(), key.periodStart(), amount);
+                if (amount > 0) increasedOwners.add(key.owner());
+            });
+            deltas.clear();
+            return increasedOwners;
+        }
+    }
+
+    record SpendingKey(Long budget, UUID owner, LocalDate periodStart) {}
+}
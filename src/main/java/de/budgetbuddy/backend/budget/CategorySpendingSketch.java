@@ -0,0 +1,56 @@
+package de.budgetbuddy.backend.budget;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * Distribution of the monthly spending of a category, computed by the Scheduler every night
+ */
+@Entity
+@Table(name = "category_spending_sketch", schema = "public", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_category_spending_sketch_category", columnNames = {"category"})
+}, indexes = {
+        @Index(name = "idx_category_spending_sketch_owner", columnList = "owner")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategorySpendingSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    private User owner;
+
+    @ManyToOne
+    @JoinColumn(name = "category", nullable = false)
+    private Category category;
+
+    /**
+     * Number of months summarized by the sketch, including months without any spending
+     */
+    @Column(name = "months", nullable = false)
+    private Integer months;
+
+    @JsonIgnore
+    @Column(name = "sketch", nullable = false)
+    private byte[] sketch;
+
+    @Column(name = "computed_at", nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date computedAt;
+}
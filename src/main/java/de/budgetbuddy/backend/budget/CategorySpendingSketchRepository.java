@@ -0,0 +1,67 @@
+package de.budgetbuddy.backend.budget;
+
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface CategorySpendingSketchRepository extends JpaRepository<CategorySpendingSketch, Long> {
+    @EntityGraph(attributePaths = {"category"})
+    List<CategorySpendingSketch> findAllByOwner(User owner);
+
+    /**
+     * Streams the monthly spending of every category between startDate and endDate,
+     * ordered by owner so that each owner can be processed and flushed before the next one is read
+     * @return Rows of owner, category, month and amount spent
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "select transaction.owner,\n" +
+            "       transaction.category,\n" +
+            "       cast(date_trunc('month', transaction.processed_at) as date),\n" +
+            "       sum(-transaction.base_amount)\n" +
+            "from transaction\n" +
+            "where transaction.base_amount < 0\n" +
+            "  and transaction.category is not null\n" +
+            "  and transaction.processed_at >= :start_date\n" +
+            "  and transaction.processed_at < :end_date\n" +
+            "group by 1, 2, 3\n" +
+            "order by 1, 2, 3", nativeQuery = true)
+    Stream<Object[]> streamMonthlySpendings(@Param("start_date") LocalDate startDate, @Param("end_date") LocalDate endDate);
+
+    @Modifying
+    @Transactional
+    @Query(value = "insert into category_spending_sketch (owner, category, months, sketch, computed_at)\n" +
+            "values (:owner, :category, :months, :sketch, :computed_at)\n" +
+            "on conflict (category) do update\n" +
+            "    set months      = excluded.months,\n" +
+            "        sketch      = excluded.sketch,\n" +
+            "        computed_at = excluded.computed_at", nativeQuery = true)
+    int upsert(@Param("owner") UUID owner,
+               @Param("category") Long category,
+               @Param("months") int months,
+               @Param("sketch") byte[] sketch,
+               @Param("computed_at") Date computedAt);
+
+    /**
+     * Removes the sketches of categories which had no spending in the latest run
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from CategorySpendingSketch s where s.computedAt < :computed_before")
+    int deleteAllByComputedAtBefore(@Param("computed_before") Date computedBefore);
+
+    @Modifying
+    @Transactional
+    @Query("delete from CategorySpendingSketch s where s.owner = :owner and s.category.id in :categories")
+    int deleteAllByOwnerAndCategoryIn(@Param("owner") User owner, @Param("categories") Collection<Long> categories);
+}
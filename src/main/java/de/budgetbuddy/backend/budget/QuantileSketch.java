@@ -0,0 +1,108 @@
+package de.budgetbuddy.backend.budget;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact and mergeable summary of a distribution which answers quantile queries.
+ * Values are kept as weighted centroids ordered by their mean. As long as there are at most
+ * {@link #CAPACITY} values the quantiles are exact, afterward the neighboring centroids
+ * with the smallest combined weight are merged, so the sketch never grows beyond the capacity
+ */
+public class QuantileSketch {
+    public static final int CAPACITY = 32;
+    private final List<double[]> centroids = new ArrayList<>();
+
+    public static QuantileSketch of(double... values) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) sketch.add(value);
+        return sketch;
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double mean, double weight) {
+        int index = 0;
+        while (index < centroids.size() && centroids.get(index)[0] <= mean) index++;
+        centroids.add(index, new double[]{mean, weight});
+        compress();
+    }
+
+    public QuantileSketch merge(QuantileSketch other) {
+        for (double[] centroid : other.centroids) add(centroid[0], centroid[1]);
+        return this;
+    }
+
+    public long getCount() {
+        return Math.round(centroids.stream().mapToDouble(centroid -> centroid[1]).sum());
+    }
+
+    /**
+     * Returns the quantile (between 0 and 1) by linearly interpolating between the centroids,
+     * which is the same as interpolating between the order statistics as long as the sketch is exact
+     */
+    public double quantile(double q) {
+        if (centroids.isEmpty()) return 0;
+        if (centroids.size() == 1) return centroids.get(0)[0];
+
+        double rank = Math.max(0, Math.min(1, q)) * (getCount() - 1);
+        double cumulativeWeight = 0;
+        double previousCenter = 0;
+        double previousMean = centroids.get(0)[0];
+        for (int i = 0; i < centroids.size(); i++) {
+            double[] centroid = centroids.get(i);
+            double center = cumulativeWeight + (centroid[1] - 1) / 2;
+            if (rank <= center) {
+                if (i == 0 || center == previousCenter) return centroid[0];
+                return previousMean + (centroid[0] - previousMean) * (rank - previousCenter) / (center - previousCenter);
+            }
+            cumulativeWeight += centroid[1];
+            previousCenter = center;
+            previousMean = centroid[0];
+        }
+        return previousMean;
+    }
+
+    private void compress() {
+        while (centroids.size() > CAPACITY) {
+            int smallest = 0;
+            for (int i = 1; i < centroids.size() - 1; i++) {
+                if (centroids.get(i)[1] + centroids.get(i + 1)[1]
+                        < centroids.get(smallest)[1] + centroids.get(smallest + 1)[1]) {
+                    smallest = i;
+                }
+            }
+
+            double[] left = centroids.get(smallest);
+            double[] right = centroids.remove(smallest + 1);
+            double weight = left[1] + right[1];
+            left[0] = (left[0] * left[1] + right[0] * right[1]) / weight;
+            left[1] = weight;
+        }
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + centroids.size() * 2 * Double.BYTES);
+        buffer.putInt(centroids.size());
+        for (double[] centroid : centroids) {
+            buffer.putDouble(centroid[0]);
+            buffer.putDouble(centroid[1]);
+        }
+        return buffer.array();
+    }
+
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        QuantileSketch sketch = new QuantileSketch();
+        if (bytes == null || bytes.length < Integer.BYTES) return sketch;
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            sketch.centroids.add(new double[]{buffer.getDouble(), buffer.getDouble()});
+        }
+        return sketch;
+    }
+}
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
@@ -19,7 +20,8 @@ import java.util.UUID;
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_id_seq")
+    @SequenceGenerator(name = "category_id_seq", sequenceName = "category_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -33,6 +35,9 @@ public class Category {
     @Column(name = "description")
     private String description;
 
+    @Column(name = "parent")
+    private Long parentId;
+
     @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     @ColumnDefault("CURRENT_TIMESTAMP")
     private Date createdAt;
@@ -40,9 +45,14 @@ public class Category {
     public Category() {}
 
     public Category(User owner, String name, String description) {
+        this(owner, name, description, null);
+    }
+
+    public Category(User owner, String name, String description, Long parentId) {
         this.owner = owner;
         this.name = name;
         this.description = description;
+        this.parentId = parentId;
         this.createdAt = new Date();
     }
 
@@ -55,6 +65,7 @@ public class Category {
         public UUID owner;
         public String name;
         public String description;
+        public Long parentId;
     }
 
     @Data
@@ -62,6 +73,14 @@ public class Category {
         public Long categoryId;
         public String name;
         public String description;
+        /**
+         * The category keeps its current parent when no parentId is provided
+         */
+        public Long parentId;
+        /**
+         * Moves the category to the top level
+         */
+        public boolean root;
     }
 
     @Data
@@ -71,4 +90,13 @@ public class Category {
         public Long categoryId;
     }
 
+    @Data
+    public static class Merge {
+        /**
+         * Category which receives the transactions, subscriptions and budgets of the merged categories
+         */
+        public Long targetId;
+        public List<Long> categoryIds;
+    }
+
 }
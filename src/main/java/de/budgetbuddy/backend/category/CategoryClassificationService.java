@@ -0,0 +1,172 @@
+package de.budgetbuddy.backend.category;
+
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.referenceData.UserCache;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Suggests categories for new transactions. The model of a user is trained from their most recent transactions
+ * on the first use and afterward kept up to date by every committed write, only the most recently used models are kept in memory
+ */
+@Service
+public class CategoryClassificationService {
+    public static final int DEFAULT_MAX_USERS = 1_000;
+    static final int TRAINING_TRANSACTIONS = 5_000;
+    /**
+     * A category is only assigned automatically when the model is that sure about it
+     */
+    static final double MIN_PROBABILITY = 0.6;
+    static final int MIN_TRAINING_TRANSACTIONS = 10;
+    /**
+     * Bounds how long the writes of another replica are missing from the model, it's retrained afterward
+     */
+    static final long MAX_AGE_MILLIS = 10 * 60 * 1000;
+    private final TransactionRepository transactionRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final UserCache<CategoryClassifier> classifiers;
+
+    public CategoryClassificationService(TransactionRepository transactionRepository, ReferenceDataCache referenceDataCache) {
+        this(transactionRepository, referenceDataCache, DEFAULT_MAX_USERS);
+    }
+
+    @Autowired
+    public CategoryClassificationService(
+            TransactionRepository transactionRepository,
+            ReferenceDataCache referenceDataCache,
+            @Value("${de.budget-buddy.category-classifier.max-users:" + DEFAULT_MAX_USERS + "}") int maxUsers) {
+        this.transactionRepository = transactionRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.classifiers = new UserCache<>(maxUsers, MAX_AGE_MILLIS);
+    }
+
+    /**
+     * @return The category which should be assigned automatically, if the model is sure enough
+     */
+    public Optional<Category> suggest(User owner, String receiver, String description) {
+        CategoryClassifier classifier = getClassifier(owner);
+        if (classifier.getDocuments() < MIN_TRAINING_TRANSACTIONS) return Optional.empty();
+
+        return classifier.classify(receiver, description, 1)
+                .stream()
+                .filter(prediction -> prediction.probability() >= MIN_PROBABILITY)
+                .findFirst()
+                .flatMap(prediction -> referenceDataCache.findCategory(prediction.categoryId(), owner));
+    }
+
+    /**
+     * Categories which have been deleted in the meantime are skipped
+     */
+    public List<CategorySuggestion> getSuggestions(User owner, String receiver, String description, int limit) {
+        List<CategorySuggestion> suggestions = new ArrayList<>();
+        for (CategoryClassifier.Prediction prediction : getClassifier(owner).classify(receiver, description, limit)) {
+            referenceDataCache.findCategory(prediction.categoryId(), owner)
+                    .ifPresent(category -> suggestions.add(new CategorySuggestion(category, prediction.probability())));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Collects the written transactions, so that the models are only updated once they are committed
+     */
+    public Changes changes() {
+        return new Changes();
+    }
+
+    /**
+     * Imported transactions (those with a fingerprint) are neither learned nor forgotten, as they aren't part of the training data
+     */
+    public static class Changes {
+        private final List<CategoryTrainingDataChangedEvent.Document> forgotten = new ArrayList<>();
+        private final List<CategoryTrainingDataChangedEvent.Document> learned = new ArrayList<>();
+        private final Set<UUID> invalidatedOwners = new HashSet<>();
+
+        /**
+         * Copies the current values, so the transaction can be modified afterward
+         */
+        public Changes add(Transaction transaction) {
+            toDocument(transaction).ifPresent(learned::add);
+            return this;
+        }
+
+        public Changes addAll(Collection<Transaction> transactions) {
+            transactions.forEach(this::add);
+            return this;
+        }
+
+        /**
+         * Copies the current values, so the transaction can be modified afterward
+         */
+        public Changes remove(Transaction transaction) {
+            toDocument(transaction).ifPresent(forgotten::add);
+            return this;
+        }
+
+        /**
+         * Drops the model after writes which can't be applied incrementally, like bulk updates
+         */
+        public Changes invalidate(User owner) {
+            invalidatedOwners.add(owner.getUuid());
+            return this;
+        }
+
+        /**
+         * @return Has to be published, the models are updated by the listener once the transactions are committed
+         */
+        public CategoryTrainingDataChangedEvent apply() {
+            return new CategoryTrainingDataChangedEvent(forgotten, learned, invalidatedOwners);
+        }
+
+        private static Optional<CategoryTrainingDataChangedEvent.Document> toDocument(Transaction transaction) {
+            if (transaction.getOwner() == null || transaction.getCategory() == null || transaction.getFingerprint() != null) {
+                return Optional.empty();
+            }
+            return Optional.of(new CategoryTrainingDataChangedEvent.Document(
+                    transaction.getOwner().getUuid(),
+                    transaction.getCategory().getId(),
+                    transaction.getReceiver(),
+                    transaction.getDescription()));
+        }
+    }
+
+    /**
+     * Models which aren't in memory are skipped, they contain the transactions once they are trained
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainingDataChanged(CategoryTrainingDataChangedEvent event) {
+        event.invalidatedOwners().forEach(classifiers::invalidate);
+        for (CategoryTrainingDataChangedEvent.Document document : event.forgotten()) {
+            CategoryClassifier classifier = classifiers.getIfPresent(document.owner());
+            if (classifier != null) classifier.forget(document.category(), document.receiver(), document.description());
+        }
+        for (CategoryTrainingDataChangedEvent.Document document : event.learned()) {
+            CategoryClassifier classifier = classifiers.getIfPresent(document.owner());
+            if (classifier != null) classifier.learn(document.category(), document.receiver(), document.description());
+        }
+    }
+
+    /**
+     * Drops the model after writes which can't be applied incrementally, like merged categories
+     */
+    public void invalidate(User owner) {
+        classifiers.invalidate(owner.getUuid());
+    }
+
+    private CategoryClassifier getClassifier(User owner) {
+        return classifiers.get(owner.getUuid(), () -> {
+            CategoryClassifier classifier = new CategoryClassifier();
+            for (Object[] row : transactionRepository.findCategoryTrainingData(owner, PageRequest.of(0, TRAINING_TRANSACTIONS))) {
+                classifier.learn((Long) row[0], (String) row[1], (String) row[2]);
+            }
+            return classifier;
+        });
+    }
+}
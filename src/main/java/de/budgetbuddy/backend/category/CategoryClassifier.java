@@ -0,0 +1,142 @@
+package de.budgetbuddy.backend.category;
+
+import java.util.*;
+
+/**
+ * Multinomial naive Bayes model of a single user, which predicts the category of a transaction
+ * from the tokens of its receiver and description. Learning and forgetting only adjust counters,
+ * so the model can be trained incrementally on every write
+ */
+public class CategoryClassifier {
+    /**
+     * Bounds the memory of a single model, unknown tokens beyond the limit are ignored
+     */
+    static final int MAX_TOKENS = 20_000;
+    private final Map<Long, Integer> categoryIndexes = new HashMap<>();
+    private final Map<String, int[]> tokenCounts = new HashMap<>();
+    private long[] categoryIds = new long[8];
+    private int[] documentCounts = new int[8];
+    private int[] tokenTotals = new int[8];
+    private int categories;
+    private int documents;
+
+    public synchronized void learn(Long category, String receiver, String description) {
+        if (category == null) return;
+        update(getCategoryIndex(category), tokenize(receiver, description), 1);
+    }
+
+    public synchronized void forget(Long category, String receiver, String description) {
+        Integer index = category == null ? null : categoryIndexes.get(category);
+        if (index == null || documentCounts[index] == 0) return;
+        update(index, tokenize(receiver, description), -1);
+    }
+
+    public synchronized int getDocuments() {
+        return documents;
+    }
+
+    private void update(int category, List<String> tokens, int delta) {
+        documentCounts[category] += delta;
+        documents += delta;
+        for (String token : tokens) {
+            int[] counts = tokenCounts.get(token);
+            if (counts == null) {
+                if (delta < 0 || tokenCounts.size() >= MAX_TOKENS) continue;
+                counts = new int[categoryIds.length];
+                tokenCounts.put(token, counts);
+            } else if (counts.length <= category) {
+                counts = Arrays.copyOf(counts, categoryIds.length);
+                tokenCounts.put(token, counts);
+            }
+            if (counts[category] + delta < 0) continue;
+            counts[category] += delta;
+            tokenTotals[category] += delta;
+        }
+    }
+
+    private int getCategoryIndex(Long category) {
+        return categoryIndexes.computeIfAbsent(category, id -> {
+            if (categories == categoryIds.length) {
+                categoryIds = Arrays.copyOf(categoryIds, categories * 2);
+                documentCounts = Arrays.copyOf(documentCounts, categories * 2);
+                tokenTotals = Arrays.copyOf(tokenTotals, categories * 2);
+            }
+            categoryIds[categories] = id;
+            return categories++;
+        });
+    }
+
+    /**
+     * Uses Laplace smoothing, the probabilities of all known categories sum up to 1
+     * @return The most probable categories, starting with the best one.
+     * Empty if none of the tokens is known, since the prior alone would be confident about a user with only a few categories
+     */
+    public synchronized List<Prediction> classify(String receiver, String description, int limit) {
+        if (documents <= 0) return List.of();
+
+        List<String> tokens = tokenize(receiver, description);
+        if (tokens.stream().noneMatch(tokenCounts::containsKey)) return List.of();
+        double vocabulary = Math.max(1, tokenCounts.size());
+        double[] scores = new double[categories];
+        double maxScore = Double.NEGATIVE_INFINITY;
+        for (int category = 0; category < categories; category++) {
+            if (documentCounts[category] <= 0) {
+                scores[category] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+
+            double score = Math.log((double) documentCounts[category] / documents);
+            double denominator = Math.log(tokenTotals[category] + vocabulary);
+            for (String token : tokens) {
+                int[] counts = tokenCounts.get(token);
+                int count = counts == null || counts.length <= category ? 0 : counts[category];
+                score += Math.log(count + 1) - denominator;
+            }
+            scores[category] = score;
+            maxScore = Math.max(maxScore, score);
+        }
+
+        // Normalized in the log space, so that long token lists don't underflow
+        double sum = 0;
+        for (int category = 0; category < categories; category++) {
+            scores[category] = Math.exp(scores[category] - maxScore);
+            sum += scores[category];
+        }
+
+        List<Prediction> predictions = new ArrayList<>(categories);
+        for (int category = 0; category < categories; category++) {
+            if (scores[category] > 0) predictions.add(new Prediction(categoryIds[category], scores[category] / sum));
+        }
+        predictions.sort(Comparator.comparingDouble(Prediction::probability).reversed());
+        return predictions.size() > limit ? List.copyOf(predictions.subList(0, limit)) : predictions;
+    }
+
+    /**
+     * The receiver is split into words and additionally kept as a whole, since an exact receiver is the strongest hint.
+     * Words with a single character and plain numbers, like card or reference numbers, are skipped
+     */
+    static List<String> tokenize(String receiver, String description) {
+        List<String> tokens = new ArrayList<>();
+        String normalizedReceiver = addTokens(tokens, "r:", receiver);
+        if (!normalizedReceiver.isEmpty()) tokens.add("r=" + normalizedReceiver);
+        addTokens(tokens, "d:", description);
+        return tokens;
+    }
+
+    /**
+     * @return The concatenated words
+     */
+    private static String addTokens(List<String> tokens, String prefix, String value) {
+        if (value == null) return "";
+
+        StringBuilder normalized = new StringBuilder();
+        for (String word : value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() < 2 || word.chars().allMatch(Character::isDigit)) continue;
+            tokens.add(prefix + word);
+            normalized.append(word);
+        }
+        return normalized.toString();
+    }
+
+    public record Prediction(long categoryId, double probability) {}
+}
@@ -0,0 +1,42 @@
+package de.budgetbuddy.backend.category;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Links every category to itself and all of its descendants, so that a whole subtree can be selected
+ * by a single indexed join no matter how deep the hierarchy is
+ */
+@Entity
+@Table(name = "category_closure", schema = "public", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant, ancestor")
+})
+@IdClass(CategoryClosure.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryClosure {
+
+    @Id
+    @Column(name = "ancestor")
+    private Long ancestor;
+
+    @Id
+    @Column(name = "descendant")
+    private Long descendant;
+
+    @Column(name = "depth", nullable = false)
+    private Integer depth;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestor;
+        private Long descendant;
+    }
+}
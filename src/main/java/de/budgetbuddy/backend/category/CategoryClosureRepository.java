@@ -0,0 +1,94 @@
+package de.budgetbuddy.backend.category;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    /**
+     * @return Rows of ancestor and descendant for the subtrees of all provided categories
+     */
+    @Query("select c.ancestor, c.descendant from CategoryClosure c where c.ancestor in :ancestors")
+    List<Object[]> findSubtrees(@Param("ancestors") Collection<Long> ancestors);
+
+    /**
+     * Links a new category to itself and to all ancestors of its parent
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into category_closure (ancestor, descendant, depth)\n" +
+            "select :category, :category, 0\n" +
+            "union all\n" +
+            "select ancestor, :category, depth + 1\n" +
+            "from category_closure\n" +
+            "where descendant = :parent", nativeQuery = true)
+    int insertNode(@Param("category") Long category, @Param("parent") Long parent);
+
+    /**
+     * Removes the links of the subtree of the category to its former ancestors. Has to run as its own statement
+     * before {@link #attachSubtree}, since the sub-statements of a single query all see the rows from before the query
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "delete from category_closure\n" +
+            "where descendant in (select descendant from category_closure where ancestor = :category)\n" +
+            "  and ancestor not in (select descendant from category_closure where ancestor = :category)", nativeQuery = true)
+    int detachSubtree(@Param("category") Long category);
+
+    /**
+     * Links the subtree of the category to all ancestors of the new parent. Nothing is linked if parent is null
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into category_closure (ancestor, descendant, depth)\n" +
+            "select parent.ancestor, subtree.descendant, parent.depth + subtree.depth + 1\n" +
+            "from category_closure parent\n" +
+            "         cross join category_closure subtree\n" +
+            "where parent.descendant = :parent\n" +
+            "  and subtree.ancestor = :category\n" +
+            "on conflict (ancestor, descendant) do nothing", nativeQuery = true)
+    int attachSubtree(@Param("category") Long category, @Param("parent") Long parent);
+
+    /**
+     * Removes a category from the hierarchy, its children move up to its parent
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "with removed as (delete from category_closure where ancestor = :category or descendant = :category)\n" +
+            "update category_closure\n" +
+            "set depth = depth - 1\n" +
+            "where ancestor in (select ancestor from category_closure where descendant = :category and ancestor <> :category)\n" +
+            "  and descendant in (select descendant from category_closure where ancestor = :category and descendant <> :category)",
+            nativeQuery = true)
+    int removeNode(@Param("category") Long category);
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from category_closure\n" +
+            "where descendant in (select id from category where owner = :owner)", nativeQuery = true)
+    int deleteAllByOwner(@Param("owner") UUID owner);
+
+    /**
+     * Rebuilds the links of all categories of the owner from their parent column by a single recursive query
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into category_closure (ancestor, descendant, depth)\n" +
+            "with recursive tree (ancestor, descendant, depth) as (select id, id, 0\n" +
+            "                                                      from category\n" +
+            "                                                      where owner = :owner\n" +
+            "                                                      union all\n" +
+            "                                                      select tree.ancestor, category.id, tree.depth + 1\n" +
+            "                                                      from tree\n" +
+            "                                                               join category on category.parent = tree.descendant)\n" +
+            "select ancestor, descendant, depth\n" +
+            "from tree", nativeQuery = true)
+    int rebuild(@Param("owner") UUID owner);
+}
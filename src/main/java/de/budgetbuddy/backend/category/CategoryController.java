@@ -3,6 +3,7 @@ package de.budgetbuddy.backend.category;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import de.budgetbuddy.backend.ApiResponse;
 import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
 import de.budgetbuddy.backend.user.UserRepository;
 import de.budgetbuddy.backend.user.User;
 import jakarta.servlet.http.HttpSession;
@@ -16,13 +17,22 @@ import java.util.*;
 @RestController
 @RequestMapping("/v1/category")
 public class CategoryController {
+    private static final int MAX_SUGGESTIONS = 3;
     private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final CategoryService categoryService;
+    private final CategoryMergeService categoryMergeService;
+    private final CategoryClassificationService categoryClassificationService;
 
     @Autowired
-    public CategoryController(CategoryRepository categoryRepository, UserRepository userRepository) {
+    public CategoryController(CategoryRepository categoryRepository, UserRepository userRepository, ReferenceDataCache referenceDataCache, CategoryService categoryService, CategoryMergeService categoryMergeService, CategoryClassificationService categoryClassificationService) {
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.categoryService = categoryService;
+        this.categoryMergeService = categoryMergeService;
+        this.categoryClassificationService = categoryClassificationService;
     }
 
     @PostMapping
@@ -49,10 +59,19 @@ public class CategoryController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't create categories for other users"));
         }
 
-        Category category = new Category(user.get(), payload.getName(), payload.getDescription());
+        if (payload.getParentId() != null
+                && referenceDataCache.findCategory(payload.getParentId(), user.get()).isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided parent category doesn't exist"));
+        }
+
+        Category category = categoryService.createCategory(
+                new Category(user.get(), payload.getName(), payload.getDescription(), payload.getParentId()));
+        referenceDataCache.invalidate(user.get());
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new ApiResponse<>(categoryRepository.save(category)));
+                .body(new ApiResponse<>(category));
     }
 
     @GetMapping
@@ -70,12 +89,30 @@ public class CategoryController {
 
         return user.map(value -> ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new ApiResponse<>(categoryRepository.findAllByOwner(value)))).orElseGet(() -> ResponseEntity
+                .body(new ApiResponse<>(referenceDataCache.getCategories(value)))).orElseGet(() -> ResponseEntity
                 .status(HttpStatus.NOT_FOUND)
                 .body(new ApiResponse<>(404, "Provided user doesn't exist", new ArrayList<>())));
 
     }
 
+    /**
+     * Suggests categories for a transaction by the receiver and description, based on how the user categorized before
+     */
+    @GetMapping("/suggestion")
+    public ResponseEntity<ApiResponse<List<CategorySuggestion>>> getSuggestions(
+            @RequestParam String receiver,
+            @RequestParam(required = false) String description,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(categoryClassificationService.getSuggestions(sessionUser.get(), receiver, description, MAX_SUGGESTIONS)));
+    }
+
     @PutMapping
     public ResponseEntity<ApiResponse<Category>> updateCategory(@RequestBody Category.Update payload, HttpSession session) throws JsonProcessingException {
         Optional<Category> requestedCategory = categoryRepository.findById(payload.getCategoryId());
@@ -103,10 +140,80 @@ public class CategoryController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "There is already an category by this name"));
         }
 
-        Category updatedCategory = new Category(category.getId(), category.getOwner(), payload.getName(), payload.getDescription(), category.getCreatedAt());
+        Long parentId = payload.isRoot()
+                ? null
+                : payload.getParentId() != null ? payload.getParentId() : category.getParentId();
+        if (parentId != null && !parentId.equals(category.getParentId())) {
+            if (referenceDataCache.findCategory(parentId, category.getOwner()).isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(404, "Provided parent category doesn't exist"));
+            }
+
+            if (referenceDataCache.getCategorySubtree(category.getId(), category.getOwner()).contains(parentId)) {
+                return ResponseEntity
+                        .status(HttpStatus.CONFLICT)
+                        .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "A category can't be moved below itself or one of its children"));
+            }
+        }
+
+        Category updatedCategory = categoryService.updateCategory(
+                category,
+                new Category(category.getId(), category.getOwner(), payload.getName(), payload.getDescription(), parentId, category.getCreatedAt()));
+        referenceDataCache.invalidate(category.getOwner());
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(updatedCategory));
+    }
+
+    @PostMapping("/merge")
+    public ResponseEntity<ApiResponse<CategoryMergeResult>> mergeCategories(@RequestBody Category.Merge payload, HttpSession session) throws JsonProcessingException {
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+        User sessionUser = optSessionUser.get();
+
+        if (payload.getCategoryIds() == null || payload.getCategoryIds().isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST.value(), "No categories we're provided"));
+        }
+
+        Optional<Category> target = referenceDataCache.findCategory(payload.getTargetId(), sessionUser);
+        if (target.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided target category doesn't exist or isn't owned by you"));
+        }
+
+        Set<Long> categories = new LinkedHashSet<>(payload.getCategoryIds());
+        if (categories.contains(target.get().getId())) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "A category can't be merged into itself"));
+        }
+
+        for (Long categoryId : categories) {
+            if (referenceDataCache.findCategory(categoryId, sessionUser).isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(404, "Provided category doesn't exist or isn't owned by you"));
+            }
+
+            if (referenceDataCache.getCategorySubtree(categoryId, sessionUser).contains(target.get().getId())) {
+                return ResponseEntity
+                        .status(HttpStatus.CONFLICT)
+                        .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "A category can't be merged into one of its children"));
+            }
+        }
+
+        CategoryMergeResult result = categoryMergeService.mergeCategories(sessionUser, target.get(), categories);
+        referenceDataCache.invalidate(sessionUser);
+        categoryClassificationService.invalidate(sessionUser);
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new ApiResponse<>(categoryRepository.save(updatedCategory)));
+                .body(new ApiResponse<>(result));
     }
 
     @DeleteMapping
@@ -135,7 +242,9 @@ public class CategoryController {
                         || !optSessionUser.get().getUuid().equals(categoryOwner.getUuid())) {
                     failedToDelete.add(payload);
                 } else {
-                    categoryRepository.delete(category);
+                    categoryService.deleteCategory(category);
+                    referenceDataCache.invalidate(categoryOwner);
+                    categoryClassificationService.invalidate(categoryOwner);
                     successfullyDeleted.add(category);
                 }
             }
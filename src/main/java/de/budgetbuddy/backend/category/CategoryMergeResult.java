@@ -0,0 +1,22 @@
+package de.budgetbuddy.backend.category;
+
+import de.budgetbuddy.backend.budget.Budget;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryMergeResult {
+    private Category target;
+    private List<Long> mergedCategories;
+    private int movedTransactions;
+    private int movedSubscriptions;
+    /**
+     * Budget of the target after the conflicting budgets were combined, null if none of the categories had a budget
+     */
+    private Budget budget;
+}
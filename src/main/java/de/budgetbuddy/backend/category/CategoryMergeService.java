@@ -0,0 +1,119 @@
+package de.budgetbuddy.backend.category;
+
+import de.budgetbuddy.backend.analytics.MonthlyAggregateService;
+import de.budgetbuddy.backend.budget.*;
+import de.budgetbuddy.backend.subscription.SubscriptionRepository;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleRepository;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleService;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Merges categories into a target by set-based statements, so the number of queries
+ * doesn't depend on the number of transactions or subscriptions which get moved
+ */
+@Service
+public class CategoryMergeService {
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+    private final TransactionRepository transactionRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final BudgetRepository budgetRepository;
+    private final BudgetAlertRepository budgetAlertRepository;
+    private final BudgetSpendingService budgetSpendingService;
+    private final CategorySpendingSketchRepository categorySpendingSketchRepository;
+    private final TransactionRuleRepository transactionRuleRepository;
+    private final TransactionRuleService transactionRuleService;
+    private final MonthlyAggregateService monthlyAggregateService;
+
+    public CategoryMergeService(
+            CategoryRepository categoryRepository,
+            CategoryClosureRepository categoryClosureRepository,
+            TransactionRepository transactionRepository,
+            SubscriptionRepository subscriptionRepository,
+            BudgetRepository budgetRepository,
+            BudgetAlertRepository budgetAlertRepository,
+            BudgetSpendingService budgetSpendingService,
+            CategorySpendingSketchRepository categorySpendingSketchRepository,
+            TransactionRuleRepository transactionRuleRepository,
+            TransactionRuleService transactionRuleService,
+            MonthlyAggregateService monthlyAggregateService) {
+        this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+        this.transactionRepository = transactionRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.budgetRepository = budgetRepository;
+        this.budgetAlertRepository = budgetAlertRepository;
+        this.budgetSpendingService = budgetSpendingService;
+        this.categorySpendingSketchRepository = categorySpendingSketchRepository;
+        this.transactionRuleRepository = transactionRuleRepository;
+        this.transactionRuleService = transactionRuleService;
+        this.monthlyAggregateService = monthlyAggregateService;
+    }
+
+    /**
+     * Moves the transactions, subscriptions, rules and children of the categories to the target and deletes the categories.
+     * Conflicting budgets are combined into a single budget of the target, which keeps the target's budget
+     * (or the oldest budget of the merged categories) and the sum of all amounts.
+     * Everything happens in a single transaction, so either all categories are merged or none
+     */
+    @Transactional
+    public CategoryMergeResult mergeCategories(User owner, Category target, Set<Long> categories) {
+        Budget combinedBudget = combineBudgets(owner, target, categories);
+
+        int movedTransactions = transactionRepository.moveToCategory(owner, categories, target);
+        int movedSubscriptions = subscriptionRepository.moveToCategory(owner, categories, target);
+        transactionRuleRepository.moveToCategory(owner, categories, target);
+        transactionRuleService.invalidate(owner);
+        categorySpendingSketchRepository.deleteAllByOwnerAndCategoryIn(owner, categories);
+
+        categoryClosureRepository.deleteAllByOwner(owner.getUuid());
+        categoryRepository.reparentChildren(categories, target.getId());
+        categoryRepository.deleteAllByOwnerAndIdIn(owner, categories);
+        categoryClosureRepository.rebuild(owner.getUuid());
+        monthlyAggregateService.reconcile(owner);
+
+        // The moved transactions can affect every budget whose category is an ancestor of the merged categories
+        budgetRepository.findAllByOwner(owner).forEach(budgetSpendingService::initialize);
+
+        return new CategoryMergeResult(
+                target,
+                new ArrayList<>(categories),
+                movedTransactions,
+                movedSubscriptions,
+                combinedBudget);
+    }
+
+    private Budget combineBudgets(User owner, Category target, Set<Long> categories) {
+        List<Budget> budgets = budgetRepository.findAllByOwner(owner)
+                .stream()
+                .filter(budget -> budget.getCategory() != null)
+                .filter(budget -> budget.getCategory().getId().equals(target.getId())
+                        || categories.contains(budget.getCategory().getId()))
+                .sorted(Comparator
+                        .comparing((Budget budget) -> !budget.getCategory().getId().equals(target.getId()))
+                        .thenComparing(Budget::getId))
+                .toList();
+        if (budgets.isEmpty()) return null;
+
+        Budget combinedBudget = budgets.get(0);
+        List<Budget> removedBudgets = budgets.subList(1, budgets.size());
+        double amount = budgets.stream().mapToDouble(Budget::getBudget).sum();
+        for (Budget budget : removedBudgets) {
+            budgetSpendingService.remove(budget);
+            budgetAlertRepository.deleteAllByBudget(budget);
+        }
+        if (!removedBudgets.isEmpty()) {
+            budgetRepository.deleteAllInBatch(removedBudgets);
+        }
+        budgetRepository.moveToCategory(combinedBudget.getId(), target, amount);
+
+        combinedBudget.setCategory(target);
+        combinedBudget.setBudget(amount);
+        return combinedBudget;
+    }
+}
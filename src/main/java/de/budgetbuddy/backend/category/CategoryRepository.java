@@ -2,7 +2,12 @@ package de.budgetbuddy.backend.category;
 
 import de.budgetbuddy.backend.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +15,22 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     List<Category> findAllByOwner(User owner);
     Optional<Category> findByIdAndOwner(Long id, User owner);
     Optional<Category> findByOwnerAndName(User owner, String name);
+
+    @Modifying
+    @Transactional
+    @Query("update Category c set c.parentId = :parent where c.parentId = :category")
+    int reparentChildren(@Param("category") Long category, @Param("parent") Long parent);
+
+    /**
+     * Moves the children of the merged categories below the target, children which get merged themselves are skipped
+     */
+    @Modifying
+    @Transactional
+    @Query("update Category c set c.parentId = :target where c.parentId in :categories and c.id not in :categories")
+    int reparentChildren(@Param("categories") Collection<Long> categories, @Param("target") Long target);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Category c where c.owner = :owner and c.id in :categories")
+    int deleteAllByOwnerAndIdIn(@Param("owner") User owner, @Param("categories") Collection<Long> categories);
 }
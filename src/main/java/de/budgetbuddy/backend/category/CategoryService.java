@@ -0,0 +1,49 @@
+package de.budgetbuddy.backend.category;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+
+/**
+ * Keeps the category_closure in sync with the parent of each category
+ */
+@Service
+public class CategoryService {
+    private final CategoryRepository categoryRepository;
+    private final CategoryClosureRepository categoryClosureRepository;
+
+    public CategoryService(CategoryRepository categoryRepository, CategoryClosureRepository categoryClosureRepository) {
+        this.categoryRepository = categoryRepository;
+        this.categoryClosureRepository = categoryClosureRepository;
+    }
+
+    @Transactional
+    public Category createCategory(Category category) {
+        Category savedCategory = categoryRepository.save(category);
+        categoryClosureRepository.insertNode(savedCategory.getId(), savedCategory.getParentId());
+        return savedCategory;
+    }
+
+    /**
+     * The previous parent is read before saving, since the merge overwrites the managed entity.
+     * The subtree is moved by two statements, so the insert sees the links which were removed before
+     */
+    @Transactional
+    public Category updateCategory(Category category, Category updatedCategory) {
+        Long previousParent = category.getParentId();
+        Category savedCategory = categoryRepository.save(updatedCategory);
+        if (!Objects.equals(previousParent, updatedCategory.getParentId())) {
+            categoryClosureRepository.detachSubtree(savedCategory.getId());
+            categoryClosureRepository.attachSubtree(savedCategory.getId(), updatedCategory.getParentId());
+        }
+        return savedCategory;
+    }
+
+    @Transactional
+    public void deleteCategory(Category category) {
+        categoryRepository.reparentChildren(category.getId(), category.getParentId());
+        categoryClosureRepository.removeNode(category.getId());
+        categoryRepository.delete(category);
+    }
+}
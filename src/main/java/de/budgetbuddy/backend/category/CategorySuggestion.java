@@ -0,0 +1,16 @@
+package de.budgetbuddy.backend.category;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategorySuggestion {
+    private Category category;
+    /**
+     * Between 0 and 1, the probabilities of all suggestions sum up to at most 1
+     */
+    private double probability;
+}
@@ -0,0 +1,17 @@
+package de.budgetbuddy.backend.category;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published by the TransactionService when categorized transactions were written. The values are copied,
+ * because the transactions might be modified again before the surrounding database transaction is committed
+ */
+public record CategoryTrainingDataChangedEvent(List<Document> forgotten, List<Document> learned, Set<UUID> invalidatedOwners) {
+    public boolean isEmpty() {
+        return forgotten.isEmpty() && learned.isEmpty() && invalidatedOwners.isEmpty();
+    }
+
+    public record Document(UUID owner, Long category, String receiver, String description) {}
+}
@@ -0,0 +1,46 @@
+package de.budgetbuddy.backend.currency;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Units of the currency which equal one unit of the reference currency on the date
+ */
+@Entity
+@Table(name = "exchange_rate", schema = "public", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_exchange_rate_currency_date", columnNames = {"currency", "date"})
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExchangeRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * ISO 4217 code, e.g. USD
+     */
+    @Column(name = "currency", length = 3, nullable = false)
+    private String currency;
+
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "rate", nullable = false)
+    private Double rate;
+
+    public ExchangeRate(String currency, LocalDate date, double rate) {
+        this.currency = currency;
+        this.date = date;
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,15 @@
+package de.budgetbuddy.backend.currency;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Source of exchange rates against the reference currency. Every provider bean is asked by the ExchangeRateService,
+ * so further sources can be plugged in by declaring another bean
+ */
+public interface ExchangeRateProvider {
+    /**
+     * @param since Only rates of this date or later are required, all if null
+     */
+    List<ExchangeRate> fetchRates(LocalDate since);
+}
@@ -0,0 +1,21 @@
+package de.budgetbuddy.backend.currency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+    @Modifying
+    @Transactional
+    @Query(value = "insert into exchange_rate (currency, date, rate)\n" +
+            "values (:currency, :date, :rate)\n" +
+            "on conflict (currency, date) do update\n" +
+            "    set rate = excluded.rate", nativeQuery = true)
+    int upsert(@Param("currency") String currency,
+               @Param("date") LocalDate date,
+               @Param("rate") double rate);
+}
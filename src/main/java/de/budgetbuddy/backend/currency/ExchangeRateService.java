@@ -0,0 +1,176 @@
+package de.budgetbuddy.backend.currency;
+
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Converts amounts between currencies by the rates of the exchange_rate table. All rates are kept in memory,
+ * indexed by currency and date, so converting an amount doesn't query anything once they are loaded
+ */
+@Service
+public class ExchangeRateService {
+    /**
+     * Currency all rates are quoted against
+     */
+    public static final String REFERENCE_CURRENCY = "EUR";
+    /**
+     * Currency of users and payment-methods which were created before currencies existed
+     */
+    public static final String DEFAULT_CURRENCY = REFERENCE_CURRENCY;
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final List<ExchangeRateProvider> exchangeRateProviders;
+    /**
+     * Replaced as a whole on every refresh, so conversions never see a partially updated index
+     */
+    private volatile Map<String, Rates> rates;
+
+    public ExchangeRateService(ExchangeRateRepository exchangeRateRepository, List<ExchangeRateProvider> exchangeRateProviders) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.exchangeRateProviders = exchangeRateProviders;
+    }
+
+    public static boolean isCurrencyCode(String currency) {
+        return currency != null && currency.matches("[A-Z]{3}");
+    }
+
+    public boolean isSupported(String currency) {
+        return REFERENCE_CURRENCY.equals(currency) || (isCurrencyCode(currency) && getRates().containsKey(currency));
+    }
+
+    /**
+     * Uses the latest rates which were published on or before the date, or the earliest rates for dates before those
+     * @throws IllegalArgumentException If there are no rates for one of the currencies
+     */
+    public double convert(double amount, String fromCurrency, String toCurrency, LocalDate date) {
+        String from = fromCurrency == null ? DEFAULT_CURRENCY : fromCurrency;
+        String to = toCurrency == null ? DEFAULT_CURRENCY : toCurrency;
+        if (from.equals(to)) return amount;
+
+        Map<String, Rates> snapshot = getRates();
+        return amount / rate(snapshot, from, date) * rate(snapshot, to, date);
+    }
+
+    /**
+     * Assigns the currency of their payment-method to the transactions and converts their amount to the base currency
+     * of their owner. Converted amounts are rounded to cents
+     */
+    public void apply(Collection<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            PaymentMethod paymentMethod = transaction.getPaymentMethod();
+            String baseCurrency = getBaseCurrency(transaction.getOwner());
+            if (paymentMethod != null && paymentMethod.getCurrency() != null) {
+                transaction.setCurrency(paymentMethod.getCurrency());
+            } else if (transaction.getCurrency() == null) {
+                transaction.setCurrency(baseCurrency);
+            }
+
+            if (transaction.getTransferAmount() == null) {
+                transaction.setBaseAmount(null);
+            } else if (transaction.getCurrency().equals(baseCurrency)) {
+                transaction.setBaseAmount(transaction.getTransferAmount());
+            } else {
+                double baseAmount = convert(transaction.getTransferAmount(), transaction.getCurrency(), baseCurrency, transaction.processedDate());
+                transaction.setBaseAmount(Math.round(baseAmount * 100) / 100.0);
+            }
+        }
+    }
+
+    public static String getBaseCurrency(User owner) {
+        return owner == null || owner.getCurrency() == null ? DEFAULT_CURRENCY : owner.getCurrency();
+    }
+
+    /**
+     * Fetches the rates since the latest known date from every provider, so corrections of the latest rates are picked up as well.
+     * Runs once a day, so the rates are written one by one
+     * @return Number of fetched rates
+     */
+    public int refresh() {
+        Map<String, Rates> snapshot = getRates();
+        LocalDate since = snapshot.values().stream()
+                .map(Rates::getLatestDate)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+
+        List<ExchangeRate> fetchedRates = new ArrayList<>();
+        for (ExchangeRateProvider provider : exchangeRateProviders) {
+            fetchedRates.addAll(provider.fetchRates(since));
+        }
+        if (fetchedRates.isEmpty()) return 0;
+
+        for (ExchangeRate rate : fetchedRates) {
+            exchangeRateRepository.upsert(rate.getCurrency(), rate.getDate(), rate.getRate());
+        }
+        List<ExchangeRate> mergedRates = new ArrayList<>();
+        snapshot.forEach((currency, currencyRates) -> currencyRates.addTo(currency, mergedRates));
+        mergedRates.addAll(fetchedRates);
+        rates = index(mergedRates);
+        return fetchedRates.size();
+    }
+
+    private Map<String, Rates> getRates() {
+        Map<String, Rates> snapshot = rates;
+        if (snapshot != null) return snapshot;
+
+        synchronized (this) {
+            if (rates == null) rates = index(exchangeRateRepository.findAll());
+            return rates;
+        }
+    }
+
+    private static double rate(Map<String, Rates> snapshot, String currency, LocalDate date) {
+        if (REFERENCE_CURRENCY.equals(currency)) return 1;
+
+        Rates currencyRates = snapshot.get(currency);
+        if (currencyRates == null) throw new IllegalArgumentException("There are no exchange rates for " + currency);
+        return currencyRates.at(date);
+    }
+
+    /**
+     * Later rates of the same currency and date replace the earlier ones
+     */
+    private static Map<String, Rates> index(Collection<ExchangeRate> exchangeRates) {
+        Map<String, TreeMap<Long, Double>> ratesByCurrency = new HashMap<>();
+        for (ExchangeRate rate : exchangeRates) {
+            ratesByCurrency.computeIfAbsent(rate.getCurrency(), currency -> new TreeMap<>())
+                    .put(rate.getDate().toEpochDay(), rate.getRate());
+        }
+
+        Map<String, Rates> index = new HashMap<>();
+        ratesByCurrency.forEach((currency, currencyRates) -> {
+            long[] days = new long[currencyRates.size()];
+            double[] values = new double[currencyRates.size()];
+            int i = 0;
+            for (Map.Entry<Long, Double> entry : currencyRates.entrySet()) {
+                days[i] = entry.getKey();
+                values[i++] = entry.getValue();
+            }
+            index.put(currency, new Rates(days, values));
+        });
+        return index;
+    }
+
+    /**
+     * Rates of a currency, ordered by their epoch day
+     */
+    private record Rates(long[] days, double[] values) {
+        double at(LocalDate date) {
+            int index = Arrays.binarySearch(days, date.toEpochDay());
+            return values[index >= 0 ? index : Math.max(-index - 2, 0)];
+        }
+
+        LocalDate getLatestDate() {
+            return LocalDate.ofEpochDay(days[days.length - 1]);
+        }
+
+        void addTo(String currency, List<ExchangeRate> exchangeRates) {
+            for (int i = 0; i < days.length; i++) {
+                exchangeRates.add(new ExchangeRate(currency, LocalDate.ofEpochDay(days[i]), values[i]));
+            }
+        }
+    }
+}
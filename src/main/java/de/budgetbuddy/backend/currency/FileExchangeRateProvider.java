@@ -0,0 +1,71 @@
+package de.budgetbuddy.backend.currency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Reads the rates from local CSV files with lines of date (yyyy-MM-dd), currency and rate, e.g. 2023-10-02,USD,1.0530.
+ * The path can point to a single file or a directory, lines which can't be parsed (e.g. headers) are skipped.
+ * Nothing is provided if no path is configured
+ */
+@Component
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+    private final String path;
+
+    public FileExchangeRateProvider(@Value("${de.budget-buddy.exchange-rates.path:}") String path) {
+        this.path = path;
+    }
+
+    @Override
+    public List<ExchangeRate> fetchRates(LocalDate since) {
+        if (path == null || path.isBlank()) return List.of();
+
+        List<ExchangeRate> rates = new ArrayList<>();
+        try {
+            Path root = Path.of(path);
+            List<Path> files;
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> entries = Files.list(root)) {
+                    files = entries.filter(file -> file.toString().endsWith(".csv")).sorted().toList();
+                }
+            } else {
+                files = List.of(root);
+            }
+
+            for (Path file : files) {
+                for (String line : Files.readAllLines(file)) {
+                    ExchangeRate rate = parse(line);
+                    if (rate != null && (since == null || !rate.getDate().isBefore(since))) rates.add(rate);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rates;
+    }
+
+    static ExchangeRate parse(String line) {
+        String[] columns = line.split(",");
+        if (columns.length != 3) return null;
+
+        try {
+            String currency = columns[1].trim().toUpperCase(Locale.ROOT);
+            double rate = Double.parseDouble(columns[2].trim());
+            if (!ExchangeRateService.isCurrencyCode(currency) || !(rate > 0)) return null;
+            return new ExchangeRate(currency, LocalDate.parse(columns[0].trim()), rate);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.budgetbuddy.backend.forecast;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Forecast {
+    /**
+     * First projected day, which is the day after the forecast was computed
+     */
+    private LocalDate startDate;
+    /**
+     * Current balance of all payment-methods
+     */
+    private double openingBalance;
+    /**
+     * Projected balance at the end of every day, starting with the startDate
+     */
+    private double[] balances;
+    private double lowestBalance;
+    private LocalDate lowestBalanceDate;
+    private List<Month> months;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Month {
+        private YearMonth month;
+        private double income;
+        /**
+         * Positive sum of the projected expenses
+         */
+        private double expenses;
+        private double endBalance;
+    }
+
+    /**
+     * What-if overrides, which are only applied to the projection and never written
+     */
+    @Data
+    public static class Request {
+        private int months = ForecastService.DEFAULT_MONTHS;
+        private List<Long> pausedSubscriptionIds = new ArrayList<>();
+        private List<Long> ignoredSuggestionIds = new ArrayList<>();
+        private List<AddedSubscription> addedSubscriptions = new ArrayList<>();
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class AddedSubscription {
+        /**
+         * Day between 1 and 31
+         */
+        private int executeAt;
+        private double transferAmount;
+    }
+}
@@ -0,0 +1,66 @@
+package de.budgetbuddy.backend.forecast;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.subscription.Subscription;
+import de.budgetbuddy.backend.user.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/v1/forecast")
+public class ForecastController {
+    private final ForecastService forecastService;
+
+    @Autowired
+    public ForecastController(ForecastService forecastService) {
+        this.forecastService = forecastService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<Forecast>> getForecast(
+            @RequestParam(required = false, defaultValue = "" + ForecastService.DEFAULT_MONTHS) int months,
+            HttpSession session) throws JsonProcessingException {
+        Forecast.Request request = new Forecast.Request();
+        request.setMonths(months);
+        return simulateForecast(request, session);
+    }
+
+    /**
+     * Forecast with what-if overrides, e.g. paused or added subscriptions. Nothing is written
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<Forecast>> simulateForecast(
+            @RequestBody Forecast.Request payload,
+            HttpSession session) throws JsonProcessingException {
+        if (payload.getMonths() < 1 || payload.getMonths() > ForecastService.MAX_MONTHS) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The months need to be between 1 and " + ForecastService.MAX_MONTHS));
+        }
+
+        boolean hasInvalidSubscription = payload.getAddedSubscriptions().stream()
+                .anyMatch(subscription -> !Subscription.isValidExecutionDate(subscription.getExecuteAt()));
+        if (hasInvalidSubscription) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "Execution must lay between the first and 31nd of the month"));
+        }
+
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(forecastService.forecast(sessionUser.get(), LocalDate.now(), payload)));
+    }
+}
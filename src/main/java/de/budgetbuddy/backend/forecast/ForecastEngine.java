@@ -0,0 +1,149 @@
+package de.budgetbuddy.backend.forecast;
+
+import de.budgetbuddy.backend.subscription.RecurrenceInterval;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Projects the daily balance from recurring payments and the seasonal averages of the remaining amounts per category.
+ * Works on primitive arrays only, so a projection doesn't allocate per transaction or per day
+ */
+final class ForecastEngine {
+    private static final int MONTHS_PER_YEAR = 12;
+
+    private ForecastEngine() {}
+
+    /**
+     * Monthly payments are executed at the executeAt day, or on the last day of shorter months.
+     * Weekly and yearly payments continue from their last occurrence
+     */
+    record RecurringPayment(RecurrenceInterval interval, int executeAt, LocalDate lastOccurrence, double amount) {}
+
+    /**
+     * Seasonal average per month of the year of the amounts which aren't covered by recurring payments, summed over all categories.
+     * The average of a month of the year is blended with the average of all months, so a single unusual month doesn't dominate.
+     * The recurring payments of a category are subtracted, but never flip the sign of its average,
+     * e.g. a new subscription doesn't turn the remaining spending of its category into income
+     * @param net Net amount of every category (first index) in every history month (second index)
+     * @param firstMonth Month of the first history index
+     * @param recurring Monthly amount of the recurring payments of every category
+     * @return Remaining amount per month of the year, January first
+     */
+    static double[] residuals(double[][] net, YearMonth firstMonth, double[] recurring) {
+        double[] residuals = new double[MONTHS_PER_YEAR];
+        for (int category = 0; category < net.length; category++) {
+            double[] months = net[category];
+            if (months.length == 0) continue;
+
+            double[] seasonalSums = new double[MONTHS_PER_YEAR];
+            int[] seasonalCounts = new int[MONTHS_PER_YEAR];
+            double sum = 0;
+            for (int i = 0; i < months.length; i++) {
+                int monthOfYear = (firstMonth.getMonthValue() - 1 + i) % MONTHS_PER_YEAR;
+                seasonalSums[monthOfYear] += months[i];
+                seasonalCounts[monthOfYear]++;
+                sum += months[i];
+            }
+            double average = sum / months.length;
+
+            for (int monthOfYear = 0; monthOfYear < MONTHS_PER_YEAR; monthOfYear++) {
+                double seasonal = seasonalCounts[monthOfYear] == 0
+                        ? average
+                        : (seasonalSums[monthOfYear] / seasonalCounts[monthOfYear] + average) / 2;
+                double residual = seasonal - recurring[category];
+                residuals[monthOfYear] += seasonal <= 0 ? Math.min(residual, 0) : Math.max(residual, 0);
+            }
+        }
+        return residuals;
+    }
+
+    /**
+     * @param today The projection starts on the following day
+     * @param residuals Remaining amount per month of the year, spread evenly over the days of the month
+     */
+    static Forecast project(LocalDate today,
+                            int months,
+                            double openingBalance,
+                            List<RecurringPayment> payments,
+                            double[] residuals) {
+        LocalDate startDate = today.plusDays(1);
+        LocalDate endDate = today.plusMonths(months);
+        int days = (int) ChronoUnit.DAYS.between(today, endDate);
+        double[] income = new double[days];
+        double[] expenses = new double[days];
+
+        for (RecurringPayment payment : payments) {
+            switch (payment.interval()) {
+                case MONTHLY -> {
+                    for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+                        book(income, expenses, startDate, month.atDay(Math.min(payment.executeAt(), month.lengthOfMonth())), payment.amount());
+                    }
+                }
+                case WEEKLY -> {
+                    LocalDate date = payment.lastOccurrence().plusWeeks(1);
+                    if (date.isBefore(startDate)) {
+                        date = date.plusWeeks((ChronoUnit.DAYS.between(date, startDate) + 6) / 7);
+                    }
+                    for (; !date.isAfter(endDate); date = date.plusWeeks(1)) {
+                        book(income, expenses, startDate, date, payment.amount());
+                    }
+                }
+                case YEARLY -> {
+                    for (int years = 1; !payment.lastOccurrence().plusYears(years).isAfter(endDate); years++) {
+                        book(income, expenses, startDate, payment.lastOccurrence().plusYears(years), payment.amount());
+                    }
+                }
+            }
+        }
+
+        LocalDate date = startDate;
+        for (int day = 0; day < days; day++, date = date.plusDays(1)) {
+            double residual = residuals[date.getMonthValue() - 1] / date.lengthOfMonth();
+            if (residual > 0) {
+                income[day] += residual;
+            } else {
+                expenses[day] -= residual;
+            }
+        }
+
+        double[] balances = new double[days];
+        List<Forecast.Month> summaries = new ArrayList<>();
+        double balance = openingBalance;
+        double lowestBalance = openingBalance;
+        LocalDate lowestBalanceDate = today;
+        Forecast.Month summary = null;
+        date = startDate;
+        for (int day = 0; day < days; day++, date = date.plusDays(1)) {
+            balance += income[day] - expenses[day];
+            balances[day] = balance;
+            if (balance < lowestBalance) {
+                lowestBalance = balance;
+                lowestBalanceDate = date;
+            }
+
+            if (summary == null || !summary.getMonth().equals(YearMonth.from(date))) {
+                summary = new Forecast.Month(YearMonth.from(date), 0, 0, 0);
+                summaries.add(summary);
+            }
+            summary.setIncome(summary.getIncome() + income[day]);
+            summary.setExpenses(summary.getExpenses() + expenses[day]);
+            summary.setEndBalance(balance);
+        }
+        return new Forecast(startDate, openingBalance, balances, lowestBalance, lowestBalanceDate, summaries);
+    }
+
+    private static void book(double[] income, double[] expenses, LocalDate startDate, LocalDate date, double amount) {
+        long day = ChronoUnit.DAYS.between(startDate, date);
+        if (day < 0 || day >= income.length) return;
+
+        if (amount > 0) {
+            income[(int) day] += amount;
+        } else {
+            expenses[(int) day] -= amount;
+        }
+    }
+}
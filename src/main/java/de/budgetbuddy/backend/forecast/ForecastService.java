@@ -0,0 +1,151 @@
+package de.budgetbuddy.backend.forecast;
+
+import de.budgetbuddy.backend.analytics.MonthlyAggregate;
+import de.budgetbuddy.backend.analytics.MonthlyAggregateRepository;
+import de.budgetbuddy.backend.currency.ExchangeRateService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodBalance;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodBalanceService;
+import de.budgetbuddy.backend.subscription.*;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Projects the daily balance of a user from their active subscriptions, the detected recurring payments
+ * and the seasonal averages of the remaining amounts per category. The averages are computed from the monthly aggregates,
+ * so no transactions are read
+ */
+@Service
+public class ForecastService {
+    public static final int DEFAULT_MONTHS = 12;
+    public static final int MAX_MONTHS = 36;
+    /**
+     * Number of full months before the current one from which the seasonal averages are computed
+     */
+    static final int HISTORY_MONTHS = 24;
+    private final PaymentMethodBalanceService paymentMethodBalanceService;
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionSuggestionRepository subscriptionSuggestionRepository;
+    private final MonthlyAggregateRepository monthlyAggregateRepository;
+    private final ExchangeRateService exchangeRateService;
+
+    public ForecastService(PaymentMethodBalanceService paymentMethodBalanceService,
+                           SubscriptionRepository subscriptionRepository,
+                           SubscriptionSuggestionRepository subscriptionSuggestionRepository,
+                           MonthlyAggregateRepository monthlyAggregateRepository,
+                           ExchangeRateService exchangeRateService) {
+        this.paymentMethodBalanceService = paymentMethodBalanceService;
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionSuggestionRepository = subscriptionSuggestionRepository;
+        this.monthlyAggregateRepository = monthlyAggregateRepository;
+        this.exchangeRateService = exchangeRateService;
+    }
+
+    /**
+     * The overrides of the request only change the projected payments. The seasonal averages are always computed
+     * from the actual subscriptions, since those were the ones contained in the history.
+     * The forecast is in the base currency of the owner, balances and payments are converted by the rates of today
+     */
+    public Forecast forecast(User owner, LocalDate today, Forecast.Request request) {
+        String baseCurrency = ExchangeRateService.getBaseCurrency(owner);
+        double openingBalance = 0;
+        for (PaymentMethodBalance balance : paymentMethodBalanceService.getBalances(owner)) {
+            openingBalance += exchangeRateService.convert(balance.getBalance(), balance.getCurrency(), baseCurrency, today);
+        }
+        List<Subscription> subscriptions = subscriptionRepository.findAllByOwnerAndPaused(owner, false);
+        List<SubscriptionSuggestion> suggestions = subscriptionSuggestionRepository
+                .findAllByOwnerAndStatusOrderByConfidenceDesc(owner, SubscriptionSuggestionStatus.PENDING);
+
+        Set<Long> pausedSubscriptions = new HashSet<>(request.getPausedSubscriptionIds());
+        Set<Long> ignoredSuggestions = new HashSet<>(request.getIgnoredSuggestionIds());
+        List<ForecastEngine.RecurringPayment> payments = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (pausedSubscriptions.contains(subscription.getId())) continue;
+            payments.add(new ForecastEngine.RecurringPayment(
+                    RecurrenceInterval.MONTHLY,
+                    subscription.getExecuteAt(),
+                    null,
+                    exchangeRateService.convert(subscription.getTransferAmount(), subscription.getCurrency(), baseCurrency, today)));
+        }
+        for (SubscriptionSuggestion suggestion : suggestions) {
+            if (ignoredSuggestions.contains(suggestion.getId())) continue;
+            payments.add(new ForecastEngine.RecurringPayment(
+                    suggestion.getInterval(),
+                    suggestion.getExecuteAt(),
+                    Instant.ofEpochMilli(suggestion.getLastOccurrence().getTime()).atZone(ZoneId.systemDefault()).toLocalDate(),
+                    exchangeRateService.convert(suggestion.getTransferAmount(), getCurrency(suggestion), baseCurrency, today)));
+        }
+        for (Forecast.AddedSubscription subscription : request.getAddedSubscriptions()) {
+            payments.add(new ForecastEngine.RecurringPayment(
+                    RecurrenceInterval.MONTHLY,
+                    subscription.getExecuteAt(),
+                    null,
+                    subscription.getTransferAmount()));
+        }
+
+        return ForecastEngine.project(
+                today,
+                request.getMonths(),
+                openingBalance,
+                payments,
+                getResiduals(owner, today, baseCurrency, subscriptions, suggestions));
+    }
+
+    /**
+     * Suggestions are detected from the transfer amounts, which are in the currency of their payment-method
+     */
+    private static String getCurrency(SubscriptionSuggestion suggestion) {
+        return suggestion.getPaymentMethod() == null ? null : suggestion.getPaymentMethod().getCurrency();
+    }
+
+    private double[] getResiduals(User owner,
+                                  LocalDate today,
+                                  String baseCurrency,
+                                  List<Subscription> subscriptions,
+                                  List<SubscriptionSuggestion> suggestions) {
+        YearMonth lastMonth = YearMonth.from(today).minusMonths(1);
+        List<MonthlyAggregate> aggregates = monthlyAggregateRepository.findAllByOwnerAndMonthBetween(
+                owner,
+                lastMonth.minusMonths(HISTORY_MONTHS - 1).atDay(1),
+                lastMonth.atDay(1));
+        if (aggregates.isEmpty()) return new double[12];
+
+        // The history starts with the first month which contains any transaction, so new users aren't averaged down by empty months
+        YearMonth firstMonth = aggregates.stream()
+                .map(aggregate -> YearMonth.from(aggregate.getMonth()))
+                .min(Comparator.naturalOrder())
+                .get();
+        int months = (int) ChronoUnit.MONTHS.between(firstMonth, lastMonth) + 1;
+        Map<Long, Integer> categories = new HashMap<>();
+        for (MonthlyAggregate aggregate : aggregates) {
+            categories.putIfAbsent(aggregate.getCategoryId(), categories.size());
+        }
+        double[][] net = new double[categories.size()][months];
+        for (MonthlyAggregate aggregate : aggregates) {
+            int month = (int) ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(aggregate.getMonth()));
+            net[categories.get(aggregate.getCategoryId())][month] += aggregate.getIncome() - aggregate.getExpenses();
+        }
+
+        double[] recurring = new double[categories.size()];
+        for (Subscription subscription : subscriptions) {
+            Integer category = subscription.getCategory() == null ? null : categories.get(subscription.getCategory().getId());
+            if (category != null) {
+                recurring[category] += exchangeRateService.convert(subscription.getTransferAmount(), subscription.getCurrency(), baseCurrency, today);
+            }
+        }
+        for (SubscriptionSuggestion suggestion : suggestions) {
+            Integer category = suggestion.getCategory() == null ? null : categories.get(suggestion.getCategory().getId());
+            if (category != null) {
+                recurring[category] += exchangeRateService.convert(suggestion.getTransferAmount(), getCurrency(suggestion), baseCurrency, today)
+                        * RecurrenceInterval.MONTHLY.getDays() / suggestion.getInterval().getDays();
+            }
+        }
+        return ForecastEngine.residuals(net, firstMonth, recurring);
+    }
+}
@@ -19,7 +19,8 @@ import java.util.List;
 @Builder
 public class Log {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "log_id_seq")
+    @SequenceGenerator(name = "log_id_seq", sequenceName = "log_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
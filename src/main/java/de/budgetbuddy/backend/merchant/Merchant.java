@@ -0,0 +1,50 @@
+package de.budgetbuddy.backend.merchant;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * Canonical merchant which the receivers of transactions are normalized to.
+ * Merchants without owner belong to the shared dictionary, the others were created by a user for their own aliases
+ */
+@Entity
+@Table(name = "merchant", schema = "public")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Merchant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "merchant_id_seq")
+    @SequenceGenerator(name = "merchant_id_seq", sequenceName = "merchant_id_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "owner")
+    private User owner;
+
+    @Column(name = "name", length = 100, nullable = false)
+    private String name;
+
+    @Builder.Default
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date createdAt = new Date();
+
+    @JsonProperty("shared")
+    public boolean isShared() {
+        return owner == null;
+    }
+}
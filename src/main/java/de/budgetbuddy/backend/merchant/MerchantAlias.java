@@ -0,0 +1,71 @@
+package de.budgetbuddy.backend.merchant;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * Maps the receivers which start with the pattern to a merchant. Aliases without owner form the shared dictionary,
+ * the aliases of a user take precedence over it
+ */
+@Entity
+@Table(name = "merchant_alias", schema = "public")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MerchantAlias {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "merchant_alias_id_seq")
+    @SequenceGenerator(name = "merchant_alias_id_seq", sequenceName = "merchant_alias_id_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "owner")
+    private User owner;
+
+    /**
+     * Normalized by {@link MerchantMatcher#normalize(String)}, matches whole words only
+     */
+    @Column(name = "pattern", length = 80, nullable = false)
+    private String pattern;
+
+    @ManyToOne
+    @JoinColumn(name = "merchant", nullable = false)
+    private Merchant merchant;
+
+    @Builder.Default
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date createdAt = new Date();
+
+    @Data
+    public static class Create {
+        private String pattern;
+        /**
+         * Existing merchant of the shared dictionary or of the user
+         */
+        private Long merchantId;
+        /**
+         * Used when no merchantId is provided, the merchant is created unless the user already has one by this name
+         */
+        private String merchantName;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Delete {
+        private Long aliasId;
+    }
+}
@@ -0,0 +1,12 @@
+package de.budgetbuddy.backend.merchant;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MerchantAliasRepository extends JpaRepository<MerchantAlias, Long> {
+    List<MerchantAlias> findAllByOwnerIsNull();
+
+    List<MerchantAlias> findAllByOwner(User owner);
+}
@@ -0,0 +1,180 @@
+package de.budgetbuddy.backend.merchant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.user.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.*;
+
+@RestController
+@RequestMapping("/v1/merchant")
+public class MerchantController {
+    static final int MAX_ALIASES = 1_000;
+    private static final int MAX_PATTERN_LENGTH = 80;
+    private static final int MAX_NAME_LENGTH = 100;
+    private final MerchantRepository merchantRepository;
+    private final MerchantAliasRepository merchantAliasRepository;
+    private final MerchantService merchantService;
+
+    @Autowired
+    public MerchantController(MerchantRepository merchantRepository,
+                              MerchantAliasRepository merchantAliasRepository,
+                              MerchantService merchantService) {
+        this.merchantRepository = merchantRepository;
+        this.merchantAliasRepository = merchantAliasRepository;
+        this.merchantService = merchantService;
+    }
+
+    /**
+     * Income and expenses per merchant of the transactions within the range, ordered by the expenses
+     */
+    @GetMapping("/spending")
+    public ResponseEntity<ApiResponse<List<MerchantSpending>>> getSpendings(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            HttpSession session) throws JsonProcessingException {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The startDate needs to be before the endDate"));
+        }
+
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(merchantService.getSpendings(sessionUser.get(), startDate, endDate)));
+    }
+
+    @GetMapping("/alias")
+    public ResponseEntity<ApiResponse<List<MerchantAlias>>> getAliases(HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(merchantAliasRepository.findAllByOwner(sessionUser.get())));
+    }
+
+    /**
+     * Creates an alias which overrides the shared dictionary for the session user.
+     * The merchants of their existing transactions are reassigned
+     */
+    @PostMapping("/alias")
+    public ResponseEntity<ApiResponse<MerchantAlias>> createAlias(
+            @RequestBody MerchantAlias.Create payload,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+        User sessionUser = optSessionUser.get();
+
+        String pattern = MerchantMatcher.normalize(payload.getPattern());
+        if (pattern.isEmpty() || pattern.length() > MAX_PATTERN_LENGTH) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The pattern needs to contain between 1 and " + MAX_PATTERN_LENGTH + " characters"));
+        }
+
+        Merchant merchant;
+        if (payload.getMerchantId() != null) {
+            Optional<Merchant> optMerchant = merchantRepository.findById(payload.getMerchantId())
+                    .filter(existingMerchant -> existingMerchant.isShared()
+                            || existingMerchant.getOwner().getUuid().equals(sessionUser.getUuid()));
+            if (optMerchant.isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(404, "Provided merchant not found"));
+            }
+            merchant = optMerchant.get();
+        } else if (payload.getMerchantName() != null
+                && !payload.getMerchantName().isBlank()
+                && payload.getMerchantName().length() <= MAX_NAME_LENGTH) {
+            merchant = merchantRepository.findByOwnerAndNameIgnoreCase(sessionUser, payload.getMerchantName().trim())
+                    .orElseGet(() -> merchantRepository.save(Merchant.builder()
+                            .owner(sessionUser)
+                            .name(payload.getMerchantName().trim())
+                            .build()));
+        } else {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "A merchantId or merchantName needs to be provided"));
+        }
+
+        List<MerchantAlias> aliases = merchantAliasRepository.findAllByOwner(sessionUser);
+        if (aliases.size() >= MAX_ALIASES) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(409, "You can't create more than " + MAX_ALIASES + " aliases"));
+        }
+
+        // An existing alias with the same pattern is replaced
+        MerchantAlias alias = aliases.stream()
+                .filter(existingAlias -> existingAlias.getPattern().equals(pattern))
+                .findFirst()
+                .orElseGet(() -> MerchantAlias.builder().owner(sessionUser).pattern(pattern).build());
+        alias.setMerchant(merchant);
+        MerchantAlias savedAlias = merchantAliasRepository.save(alias);
+        merchantService.reassign(sessionUser);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(savedAlias));
+    }
+
+    @DeleteMapping("/alias")
+    public ResponseEntity<ApiResponse<Map<String, List<?>>>> deleteAliases(
+            @RequestBody List<MerchantAlias.Delete> payloads,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        if (payloads.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "No aliases we're provided"));
+        }
+
+        List<MerchantAlias> successfullyDeleted = new ArrayList<>();
+        List<MerchantAlias.Delete> failedToDelete = new ArrayList<>();
+        for (MerchantAlias.Delete payload : payloads) {
+            Optional<MerchantAlias> alias = payload.getAliasId() == null
+                    ? Optional.empty()
+                    : merchantAliasRepository.findById(payload.getAliasId());
+            if (alias.isEmpty()
+                    || alias.get().getOwner() == null
+                    || !alias.get().getOwner().getUuid().equals(optSessionUser.get().getUuid())) {
+                failedToDelete.add(payload);
+            } else {
+                merchantAliasRepository.delete(alias.get());
+                successfullyDeleted.add(alias.get());
+            }
+        }
+        if (!successfullyDeleted.isEmpty()) merchantService.reassign(optSessionUser.get());
+
+        Map<String, List<?>> response = new HashMap<>();
+        response.put("success", successfullyDeleted);
+        response.put("failed", failedToDelete);
+        boolean didAllFail = failedToDelete.size() == payloads.size();
+        return ResponseEntity
+                .status(didAllFail ? HttpStatus.BAD_REQUEST : HttpStatus.OK)
+                .body(new ApiResponse<>(
+                        didAllFail ? HttpStatus.BAD_REQUEST : HttpStatus.OK,
+                        didAllFail ? "All provided aliases we're invalid values" : null,
+                        response));
+    }
+}
@@ -0,0 +1,105 @@
+package de.budgetbuddy.backend.merchant;
+
+import java.util.*;
+
+/**
+ * Prefix trie over the normalized patterns of a set of aliases. A receiver is matched by a single walk
+ * along its normalized characters, the longest pattern which ends at a word boundary wins
+ */
+public class MerchantMatcher {
+    public static final MerchantMatcher EMPTY = compile(List.of());
+    private static final long NONE = 0;
+    private final char[][] keys;
+    private final int[][] targets;
+    private final long[] merchants;
+
+    private MerchantMatcher(char[][] keys, int[][] targets, long[] merchants) {
+        this.keys = keys;
+        this.targets = targets;
+        this.merchants = merchants;
+    }
+
+    /**
+     * Later aliases replace earlier ones with the same pattern
+     */
+    public static MerchantMatcher compile(List<MerchantAlias> aliases) {
+        List<TreeMap<Character, Integer>> transitions = new ArrayList<>(List.of(new TreeMap<>()));
+        List<Long> merchants = new ArrayList<>(List.of(NONE));
+        for (MerchantAlias alias : aliases) {
+            String pattern = normalize(alias.getPattern());
+            if (pattern.isEmpty()) continue;
+
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = transitions.get(state).get(pattern.charAt(i));
+                if (next == null) {
+                    next = transitions.size();
+                    transitions.add(new TreeMap<>());
+                    merchants.add(NONE);
+                    transitions.get(state).put(pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            merchants.set(state, alias.getMerchant().getId());
+        }
+
+        char[][] keys = new char[transitions.size()][];
+        int[][] targets = new int[transitions.size()][];
+        for (int state = 0; state < transitions.size(); state++) {
+            keys[state] = new char[transitions.get(state).size()];
+            targets[state] = new int[transitions.get(state).size()];
+            int index = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+                keys[state][index] = transition.getKey();
+                targets[state][index++] = transition.getValue();
+            }
+        }
+        return new MerchantMatcher(keys, targets, merchants.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 1;
+    }
+
+    /**
+     * @param normalizedReceiver Normalized by {@link #normalize(String)}
+     * @return Id of the merchant, null if no pattern matches
+     */
+    public Long match(String normalizedReceiver) {
+        long merchant = NONE;
+        int state = 0;
+        for (int i = 0; i < normalizedReceiver.length(); i++) {
+            int index = Arrays.binarySearch(keys[state], normalizedReceiver.charAt(i));
+            if (index < 0) break;
+
+            state = targets[state][index];
+            if (merchants[state] != NONE
+                    && (i + 1 == normalizedReceiver.length() || normalizedReceiver.charAt(i + 1) == ' ')) {
+                merchant = merchants[state];
+            }
+        }
+        return merchant == NONE ? null : merchant;
+    }
+
+    /**
+     * Lower-cases the receiver and replaces every run of punctuation and whitespace by a single space,
+     * e.g. "Amazon.de*AB12" becomes "amazon de ab12"
+     */
+    public static String normalize(String receiver) {
+        if (receiver == null) return "";
+
+        StringBuilder normalized = new StringBuilder(receiver.length());
+        boolean separator = false;
+        for (int i = 0; i < receiver.length(); i++) {
+            char c = receiver.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && !normalized.isEmpty()) normalized.append(' ');
+                normalized.append(Character.toLowerCase(c));
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package de.budgetbuddy.backend.merchant;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface MerchantRepository extends JpaRepository<Merchant, Long> {
+    Optional<Merchant> findByOwnerAndNameIgnoreCase(User owner, String name);
+}
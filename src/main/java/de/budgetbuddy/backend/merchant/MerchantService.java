@@ -0,0 +1,197 @@
+package de.budgetbuddy.backend.merchant;
+
+import de.budgetbuddy.backend.referenceData.UserCache;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Normalizes the receivers of transactions to canonical merchants. The shared dictionary is compiled once per replica,
+ * the aliases of the most recently used users are kept in memory as well
+ */
+@Service
+public class MerchantService {
+    public static final int DEFAULT_MAX_USERS = 1_000;
+    /**
+     * Bounds the staleness of dictionaries which have been changed on another replica or in the database
+     */
+    static final long MAX_AGE_MILLIS = 60 * 1000;
+    /**
+     * Number of transactions which are reassigned by a single statement
+     */
+    static final int BATCH_SIZE = 1_000;
+    private final MerchantRepository merchantRepository;
+    private final MerchantAliasRepository merchantAliasRepository;
+    private final TransactionRepository transactionRepository;
+    private final UserCache<MerchantMatcher> userMatchers;
+    private volatile SharedMatcher sharedMatcher;
+
+    public MerchantService(MerchantRepository merchantRepository,
+                           MerchantAliasRepository merchantAliasRepository,
+                           TransactionRepository transactionRepository) {
+        this(merchantRepository, merchantAliasRepository, transactionRepository, DEFAULT_MAX_USERS);
+    }
+
+    @Autowired
+    public MerchantService(
+            MerchantRepository merchantRepository,
+            MerchantAliasRepository merchantAliasRepository,
+            TransactionRepository transactionRepository,
+            @Value("${de.budget-buddy.merchants.max-users:" + DEFAULT_MAX_USERS + "}") int maxUsers) {
+        this.merchantRepository = merchantRepository;
+        this.merchantAliasRepository = merchantAliasRepository;
+        this.transactionRepository = transactionRepository;
+        this.userMatchers = new UserCache<>(maxUsers, MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Assigns the merchant of their receiver to the transactions
+     */
+    public void apply(Collection<Transaction> transactions) {
+        MerchantMatcher shared = getSharedMatcher();
+        Map<UUID, MerchantMatcher> matchersByOwner = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            User owner = transaction.getOwner();
+            MerchantMatcher matcher = matchersByOwner.computeIfAbsent(owner.getUuid(), uuid -> getUserMatcher(owner));
+            transaction.setMerchantId(match(matcher, shared, transaction.getReceiver()));
+        }
+    }
+
+    public Long findMerchant(User owner, String receiver) {
+        return match(getUserMatcher(owner), getSharedMatcher(), receiver);
+    }
+
+    /**
+     * Compiles the aliases of the owner without caching them, for batch jobs which visit every user once
+     * and would otherwise evict the matchers of the active users
+     * @return Finds the merchant of a receiver
+     */
+    public Function<String, Long> loadMatcher(User owner) {
+        MerchantMatcher userMatcher = compileUserMatcher(owner);
+        MerchantMatcher sharedMatcher = getSharedMatcher();
+        return receiver -> match(userMatcher, sharedMatcher, receiver);
+    }
+
+    private Long match(MerchantMatcher userMatcher, MerchantMatcher sharedMatcher, String receiver) {
+        String normalizedReceiver = MerchantMatcher.normalize(receiver);
+        Long merchant = userMatcher.isEmpty() ? null : userMatcher.match(normalizedReceiver);
+        return merchant != null ? merchant : sharedMatcher.match(normalizedReceiver);
+    }
+
+    public List<MerchantSpending> getSpendings(User owner, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = transactionRepository.findMerchantSpendings(
+                owner,
+                Date.from(startDate.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                Date.from(endDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        Map<Long, Merchant> merchants = new HashMap<>();
+        merchantRepository.findAllById(rows.stream().map(row -> (Long) row[0]).toList())
+                .forEach(merchant -> merchants.put(merchant.getId(), merchant));
+
+        List<MerchantSpending> spendings = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Merchant merchant = merchants.get((Long) row[0]);
+            if (merchant == null) continue;
+            spendings.add(new MerchantSpending(
+                    merchant,
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).doubleValue(),
+                    ((Number) row[3]).doubleValue()));
+        }
+        spendings.sort(Comparator.comparingDouble(MerchantSpending::getExpenses).reversed());
+        return spendings;
+    }
+
+    /**
+     * Reassigns the merchants of all transactions of the owner, after their aliases have changed
+     * @return Number of transactions whose merchant has changed
+     */
+    public int reassign(User owner) {
+        invalidate(owner);
+        MerchantMatcher userMatcher = getUserMatcher(owner);
+        MerchantMatcher sharedMatcher = getSharedMatcher();
+        int changedTransactions = 0;
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = transactionRepository.findMerchants(owner, afterId, PageRequest.of(0, BATCH_SIZE));
+            Map<Long, List<Long>> changes = new HashMap<>();
+            for (Object[] row : rows) {
+                Long merchant = match(userMatcher, sharedMatcher, (String) row[1]);
+                if (!Objects.equals(merchant, row[2])) {
+                    changes.computeIfAbsent(merchant, id -> new ArrayList<>()).add((Long) row[0]);
+                }
+                afterId = (Long) row[0];
+            }
+            changedTransactions += update(changes);
+        } while (rows.size() == BATCH_SIZE);
+        return changedTransactions;
+    }
+
+    /**
+     * Assigns the merchants of the transactions which didn't match any alias yet,
+     * e.g. those which were written before the matching alias was added to the shared dictionary
+     * @return Number of transactions which got a merchant
+     */
+    public int assignMissing() {
+        MerchantMatcher sharedMatcher = getSharedMatcher();
+        Map<UUID, MerchantMatcher> matchersByOwner = new HashMap<>();
+        int assignedTransactions = 0;
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = transactionRepository.findUnassignedMerchants(afterId, PageRequest.of(0, BATCH_SIZE));
+            Map<Long, List<Long>> changes = new HashMap<>();
+            for (Object[] row : rows) {
+                UUID owner = (UUID) row[1];
+                MerchantMatcher userMatcher = matchersByOwner.computeIfAbsent(owner, uuid -> getUserMatcher(new User(uuid)));
+                Long merchant = match(userMatcher, sharedMatcher, (String) row[2]);
+                if (merchant != null) changes.computeIfAbsent(merchant, id -> new ArrayList<>()).add((Long) row[0]);
+                afterId = (Long) row[0];
+            }
+            assignedTransactions += update(changes);
+        } while (rows.size() == BATCH_SIZE);
+        return assignedTransactions;
+    }
+
+    private int update(Map<Long, List<Long>> changes) {
+        int updatedTransactions = 0;
+        for (Map.Entry<Long, List<Long>> change : changes.entrySet()) {
+            updatedTransactions += transactionRepository.updateMerchant(change.getValue(), change.getKey());
+        }
+        return updatedTransactions;
+    }
+
+    public void invalidate(User owner) {
+        userMatchers.invalidate(owner.getUuid());
+    }
+
+    private MerchantMatcher getSharedMatcher() {
+        SharedMatcher entry = sharedMatcher;
+        if (entry != null && System.currentTimeMillis() - entry.loadedAt() <= MAX_AGE_MILLIS) return entry.matcher();
+
+        long loadedAt = System.currentTimeMillis();
+        MerchantMatcher matcher = MerchantMatcher.compile(merchantAliasRepository.findAllByOwnerIsNull());
+        sharedMatcher = new SharedMatcher(matcher, loadedAt);
+        return matcher;
+    }
+
+    private MerchantMatcher getUserMatcher(User owner) {
+        return userMatchers.get(owner.getUuid(), () -> compileUserMatcher(owner));
+    }
+
+    private MerchantMatcher compileUserMatcher(User owner) {
+        List<MerchantAlias> aliases = merchantAliasRepository.findAllByOwner(owner);
+        return aliases.isEmpty() ? MerchantMatcher.EMPTY : MerchantMatcher.compile(aliases);
+    }
+
+    private record SharedMatcher(MerchantMatcher matcher, long loadedAt) {}
+}
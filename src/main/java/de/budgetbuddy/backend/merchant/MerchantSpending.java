@@ -0,0 +1,15 @@
+package de.budgetbuddy.backend.merchant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MerchantSpending {
+    private Merchant merchant;
+    private long transactions;
+    private double income;
+    private double expenses;
+}
@@ -1,5 +1,6 @@
 package de.budgetbuddy.backend.paymentMethod;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import de.budgetbuddy.backend.user.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -19,7 +20,8 @@ import java.util.UUID;
 public class PaymentMethod {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_method_id_seq")
+    @SequenceGenerator(name = "payment_method_id_seq", sequenceName = "payment_method_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -39,6 +41,26 @@ public class PaymentMethod {
     @Column(name = "description")
     private String description;
 
+    /**
+     * The transactions, opening balance and balance of the payment-method are in this currency
+     */
+    @Column(name = "currency", length = 3, nullable = false)
+    @ColumnDefault("'EUR'")
+    private String currency;
+
+    @Column(name = "opening_balance", nullable = false)
+    @ColumnDefault("0")
+    private Double openingBalance;
+
+    /**
+     * Sum of all transactions, maintained by the PaymentMethodBalanceService.
+     * Isn't serialized, since the payment-methods are cached and the balance changes with every transaction
+     */
+    @Column(name = "balance", insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Double balance;
+
     @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     @ColumnDefault("CURRENT_TIMESTAMP")
     private Date createdAt;
@@ -46,14 +68,23 @@ public class PaymentMethod {
     public PaymentMethod() {}
 
     public PaymentMethod(User user, String name, String address, String provider, String description) {
+        this(user, name, address, provider, description, 0.0);
+    }
+
+    public PaymentMethod(User user, String name, String address, String provider, String description, Double openingBalance) {
         this.owner = user;
         this.name = name;
         this.address = address;
         this.provider = provider;
         this.description = description;
+        this.openingBalance = openingBalance;
         this.createdAt = new Date();
     }
 
+    public Double getOpeningBalance() {
+        return openingBalance == null ? 0.0 : openingBalance;
+    }
+
     public PaymentMethod.Delete toDelete() {
         return new PaymentMethod.Delete(this.id);
     }
@@ -65,6 +96,11 @@ public class PaymentMethod {
         public String address;
         public String provider;
         public String description;
+        /**
+         * Base currency of the owner when omitted. Can't be changed afterward
+         */
+        public String currency;
+        public Double openingBalance = 0.0;
     }
 
     @Data
@@ -74,6 +110,10 @@ public class PaymentMethod {
         public String address;
         public String provider;
         public String description;
+        /**
+         * The payment-method keeps its current opening balance when none is provided
+         */
+        public Double openingBalance;
     }
 
     @Data
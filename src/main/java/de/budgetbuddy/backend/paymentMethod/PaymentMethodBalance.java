@@ -0,0 +1,32 @@
+package de.budgetbuddy.backend.paymentMethod;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentMethodBalance {
+    private Long paymentMethodId;
+    private String name;
+    private String currency;
+    private Double openingBalance;
+    /**
+     * Opening balance plus all transactions booked on the payment-method, in the currency of the payment-method
+     */
+    private Double balance;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        /**
+         * Balance at the end of the day
+         */
+        private Double balance;
+    }
+}
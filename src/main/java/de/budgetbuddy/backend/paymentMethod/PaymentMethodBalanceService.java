@@ -0,0 +1,106 @@
+package de.budgetbuddy.backend.paymentMethod;
+
+import de.budgetbuddy.backend.currency.ExchangeRateService;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.transaction.TransactionChanges;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class PaymentMethodBalanceService {
+    private final PaymentMethodRepository paymentMethodRepository;
+    private final PaymentMethodDailyBalanceRepository paymentMethodDailyBalanceRepository;
+
+    public PaymentMethodBalanceService(PaymentMethodRepository paymentMethodRepository,
+                                       PaymentMethodDailyBalanceRepository paymentMethodDailyBalanceRepository) {
+        this.paymentMethodRepository = paymentMethodRepository;
+        this.paymentMethodDailyBalanceRepository = paymentMethodDailyBalanceRepository;
+    }
+
+    /**
+     * Returns the current balance of all payment-methods of the owner, read from the running balances
+     */
+    public List<PaymentMethodBalance> getBalances(User owner) {
+        return paymentMethodRepository.findAllByOwner(owner)
+                .stream()
+                .map(paymentMethod -> new PaymentMethodBalance(
+                        paymentMethod.getId(),
+                        paymentMethod.getName(),
+                        paymentMethod.getCurrency() == null ? ExchangeRateService.DEFAULT_CURRENCY : paymentMethod.getCurrency(),
+                        paymentMethod.getOpeningBalance(),
+                        paymentMethod.getOpeningBalance()
+                                + (paymentMethod.getBalance() == null ? 0 : paymentMethod.getBalance())))
+                .toList();
+    }
+
+    /**
+     * Returns the balance at the end of every day between startDate and endDate (both inclusive).
+     * Only the daily rows of the range and a single sum of the rows before it are read, no transactions are aggregated
+     */
+    public List<PaymentMethodBalance.Day> getBalanceHistory(PaymentMethod paymentMethod, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Double> amounts = paymentMethodDailyBalanceRepository
+                .findAllByPaymentMethodAndDateBetweenOrderByDate(paymentMethod, startDate, endDate)
+                .stream()
+                .collect(Collectors.toMap(PaymentMethodDailyBalance::getDate, PaymentMethodDailyBalance::getAmount));
+
+        double balance = paymentMethod.getOpeningBalance()
+                + paymentMethodDailyBalanceRepository.sumAmountsBefore(paymentMethod.getId(), startDate);
+        List<PaymentMethodBalance.Day> days = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            balance += amounts.getOrDefault(date, 0.0);
+            days.add(new PaymentMethodBalance.Day(date, balance));
+        }
+        return days;
+    }
+
+    /**
+     * Repairs the running balances and daily rows of all payment-methods, or only those of the owner if provided
+     * @return Number of balances and daily rows which were missing or had drifted
+     */
+    public int reconcile(User owner) {
+        UUID uuid = owner == null ? null : owner.getUuid();
+        return paymentMethodDailyBalanceRepository.reconcileBalances(uuid)
+                + paymentMethodDailyBalanceRepository.reconcileDays(uuid)
+                + paymentMethodDailyBalanceRepository.resetOrphaned(uuid);
+    }
+
+    public void remove(PaymentMethod paymentMethod) {
+        paymentMethodDailyBalanceRepository.deleteAllByPaymentMethod(paymentMethod);
+    }
+
+    public Changes changes() {
+        return new Changes();
+    }
+
+    /**
+     * Sums the transfer amounts of the written transactions up per payment-method and day,
+     * the running balances and daily rows are written on apply
+     */
+    public class Changes extends TransactionChanges<Changes> {
+        private final Map<BalanceKey, Double> deltas = new HashMap<>();
+
+        @Override
+        protected void record(Transaction transaction, int sign) {
+            if (transaction.getTransferAmount() == null || transaction.getPaymentMethod() == null) return;
+
+            deltas.merge(
+                    new BalanceKey(transaction.getPaymentMethod().getId(), transaction.processedDate()),
+                    sign * transaction.getTransferAmount(),
+                    Double::sum);
+        }
+
+        public void apply() {
+            deltas.forEach((key, amount) -> {
+                if (amount == 0) return;
+                paymentMethodDailyBalanceRepository.addAmount(key.paymentMethod(), key.date(), amount);
+            });
+            deltas.clear();
+        }
+    }
+
+    record BalanceKey(Long paymentMethod, LocalDate date) {}
+}
@@ -3,6 +3,8 @@ package de.budgetbuddy.backend.paymentMethod;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import de.budgetbuddy.backend.ApiResponse;
 import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.currency.ExchangeRateService;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
 import jakarta.servlet.http.HttpSession;
@@ -11,18 +13,27 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @RestController
 @RequestMapping("/v1/payment-method")
 public class PaymentMethodController {
+    private static final int MAX_BALANCE_HISTORY_DAYS = 366 * 5;
     private final PaymentMethodRepository paymentMethodRepository;
     private final UserRepository userRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final PaymentMethodBalanceService paymentMethodBalanceService;
+    private final ExchangeRateService exchangeRateService;
 
     @Autowired
-    public PaymentMethodController(PaymentMethodRepository paymentMethodRepository, UserRepository userRepository) {
+    public PaymentMethodController(PaymentMethodRepository paymentMethodRepository, UserRepository userRepository, ReferenceDataCache referenceDataCache, PaymentMethodBalanceService paymentMethodBalanceService, ExchangeRateService exchangeRateService) {
         this.paymentMethodRepository = paymentMethodRepository;
         this.userRepository = userRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.paymentMethodBalanceService = paymentMethodBalanceService;
+        this.exchangeRateService = exchangeRateService;
     }
 
     @PostMapping
@@ -49,10 +60,20 @@ public class PaymentMethodController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't create payment-methods for other users"));
         }
 
-        PaymentMethod paymentMethod = new PaymentMethod(user.get(), payload.getName(), payload.getAddress(), payload.getProvider(), payload.getDescription());
+        String currency = payload.getCurrency() != null ? payload.getCurrency() : ExchangeRateService.getBaseCurrency(user.get());
+        if (!exchangeRateService.isSupported(currency)) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST.value(), "Provided currency isn't supported"));
+        }
+
+        PaymentMethod newPaymentMethod = new PaymentMethod(user.get(), payload.getName(), payload.getAddress(), payload.getProvider(), payload.getDescription(), payload.getOpeningBalance() == null ? 0.0 : payload.getOpeningBalance());
+        newPaymentMethod.setCurrency(currency);
+        PaymentMethod paymentMethod = paymentMethodRepository.save(newPaymentMethod);
+        referenceDataCache.invalidate(user.get());
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new ApiResponse<>(paymentMethodRepository.save(paymentMethod)));
+                .body(new ApiResponse<>(paymentMethod));
     }
 
     @GetMapping
@@ -64,12 +85,60 @@ public class PaymentMethodController {
                     .body(new ApiResponse<>(404, "Provided user doesn't exist", new ArrayList<>()));
         }
 
-        List<PaymentMethod> paymentMethods = paymentMethodRepository.findAllByOwner(user.get());
+        List<PaymentMethod> paymentMethods = referenceDataCache.getPaymentMethods(user.get());
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(new ApiResponse<>(paymentMethods));
     }
 
+    @GetMapping("/balance")
+    public ResponseEntity<ApiResponse<List<PaymentMethodBalance>>> getBalances(HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(paymentMethodBalanceService.getBalances(sessionUser.get())));
+    }
+
+    @GetMapping("/balance/history")
+    public ResponseEntity<ApiResponse<List<PaymentMethodBalance.Day>>> getBalanceHistory(
+            @RequestParam Long paymentMethodId,
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            HttpSession session
+    ) throws JsonProcessingException {
+        if (startDate.isAfter(endDate)) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The startDate needs to be before the endDate"));
+        }
+
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_BALANCE_HISTORY_DAYS) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The balance history can't span more than " + MAX_BALANCE_HISTORY_DAYS + " days"));
+        }
+
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        Optional<PaymentMethod> paymentMethod = paymentMethodRepository.findByIdAndOwner(paymentMethodId, sessionUser.get());
+        if (paymentMethod.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided payment-method doesn't exist"));
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(paymentMethodBalanceService.getBalanceHistory(paymentMethod.get(), startDate, endDate)));
+    }
+
     @PutMapping
     public ResponseEntity<ApiResponse<PaymentMethod>> updatePaymentMethod(@RequestBody PaymentMethod.Update payload, HttpSession session) throws JsonProcessingException {
         Optional<PaymentMethod> requestedPaymentMethod = paymentMethodRepository.findById(payload.getId());
@@ -98,10 +167,11 @@ public class PaymentMethodController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You can't modify payment-methods from other users"));
         }
 
-        PaymentMethod updatedPaymentMethod = new PaymentMethod(paymentMethod.getId(), paymentMethod.getOwner(), payload.getName(), payload.getAddress(), payload.getProvider(), payload.getDescription(), paymentMethod.getCreatedAt());
+        PaymentMethod updatedPaymentMethod = paymentMethodRepository.save(new PaymentMethod(paymentMethod.getId(), paymentMethod.getOwner(), payload.getName(), payload.getAddress(), payload.getProvider(), payload.getDescription(), paymentMethod.getCurrency(), payload.getOpeningBalance() == null ? paymentMethod.getOpeningBalance() : payload.getOpeningBalance(), paymentMethod.getBalance(), paymentMethod.getCreatedAt()));
+        referenceDataCache.invalidate(paymentMethod.getOwner());
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new ApiResponse<>(paymentMethodRepository.save(updatedPaymentMethod)));
+                .body(new ApiResponse<>(updatedPaymentMethod));
     }
 
     @DeleteMapping
@@ -130,7 +200,9 @@ public class PaymentMethodController {
                         || !optSessionUser.get().getUuid().equals(paymentMethodOwner.getUuid())) {
                     failedToDelete.add(payload);
                 } else {
+                    paymentMethodBalanceService.remove(paymentMethod);
                     paymentMethodRepository.delete(paymentMethod);
+                    referenceDataCache.invalidate(paymentMethodOwner);
                     successfullyDeleted.add(paymentMethod);
                 }
             }
@@ -0,0 +1,54 @@
+package de.budgetbuddy.backend.paymentMethod;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Net amount booked on a payment-method at a day.
+ * Maintained by the TransactionService on every write and repaired by the Scheduler,
+ * the balance at the end of a day is the opening balance plus the running sum of these rows
+ */
+@Entity
+@Table(name = "payment_method_daily_balance", schema = "public", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_payment_method_daily_balance_date", columnNames = {"payment_method", "date"})
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentMethodDailyBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "payment_method", nullable = false)
+    @JsonIgnore
+    private PaymentMethod paymentMethod;
+
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    @JsonIgnore
+    private User owner;
+
+    @Column(name = "date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "amount", nullable = false)
+    private Double amount;
+
+    @Column(name = "updated_at", nullable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date updatedAt;
+}
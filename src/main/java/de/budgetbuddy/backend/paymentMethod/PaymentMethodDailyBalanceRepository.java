@@ -0,0 +1,116 @@
+package de.budgetbuddy.backend.paymentMethod;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface PaymentMethodDailyBalanceRepository extends JpaRepository<PaymentMethodDailyBalance, Long> {
+
+    /**
+     * Adds the amount to the running balance of the payment-method and to its row of the day by a single statement
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "with updated as (update payment_method\n" +
+            "                 set balance = coalesce(balance, 0) + :amount\n" +
+            "                 where id = :payment_method\n" +
+            "                 returning id, owner)\n" +
+            "insert into payment_method_daily_balance (payment_method, owner, date, amount, updated_at)\n" +
+            "select id, owner, :date, :amount, now()\n" +
+            "from updated\n" +
+            "on conflict (payment_method, date) do update\n" +
+            "    set amount     = payment_method_daily_balance.amount + excluded.amount,\n" +
+            "        updated_at = now()", nativeQuery = true)
+    int addAmount(@Param("payment_method") Long paymentMethod,
+                  @Param("date") LocalDate date,
+                  @Param("amount") double amount);
+
+    /**
+     * @return Sum of all amounts booked on the payment-method before the date
+     */
+    @Query(value = "select coalesce(sum(amount), 0)\n" +
+            "from payment_method_daily_balance\n" +
+            "where payment_method = :payment_method\n" +
+            "  and date < :date", nativeQuery = true)
+    Double sumAmountsBefore(@Param("payment_method") Long paymentMethod, @Param("date") LocalDate date);
+
+    List<PaymentMethodDailyBalance> findAllByPaymentMethodAndDateBetweenOrderByDate(PaymentMethod paymentMethod,
+                                                                                   LocalDate startDate,
+                                                                                   LocalDate endDate);
+
+    /**
+     * Recomputes the running balances of all payment-methods (or only those of the owner) from the transactions
+     * @return Number of balances which had drifted
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update payment_method\n" +
+            "set balance = actual.balance\n" +
+            "from (select payment_method.id, coalesce(sum(transaction.transfer_amount), 0) as balance\n" +
+            "      from payment_method\n" +
+            "               left join transaction on transaction.payment_method = payment_method.id\n" +
+            "      where cast(:owner as uuid) is null\n" +
+            "         or payment_method.owner = cast(:owner as uuid)\n" +
+            "      group by payment_method.id) as actual\n" +
+            "where payment_method.id = actual.id\n" +
+            "  and (payment_method.balance is null or abs(payment_method.balance - actual.balance) > 0.005)",
+            nativeQuery = true)
+    int reconcileBalances(@Param("owner") UUID owner);
+
+    /**
+     * Recomputes the daily rows of all payment-methods (or only those of the owner) from the transactions
+     * and overwrites every row which is missing or has drifted
+     * @return Number of repaired rows
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into payment_method_daily_balance (payment_method, owner, date, amount, updated_at)\n" +
+            "select actual.payment_method, actual.owner, actual.date, actual.amount, now()\n" +
+            "from (select transaction.payment_method,\n" +
+            "             transaction.owner,\n" +
+            "             cast(transaction.processed_at as date) as date,\n" +
+            "             sum(transaction.transfer_amount)       as amount\n" +
+            "      from transaction\n" +
+            "      where cast(:owner as uuid) is null\n" +
+            "         or transaction.owner = cast(:owner as uuid)\n" +
+            "      group by 1, 2, 3) as actual\n" +
+            "         left join payment_method_daily_balance\n" +
+            "                   on payment_method_daily_balance.payment_method = actual.payment_method\n" +
+            "                       and payment_method_daily_balance.date = actual.date\n" +
+            "where payment_method_daily_balance.id is null\n" +
+            "   or abs(payment_method_daily_balance.amount - actual.amount) > 0.005\n" +
+            "on conflict (payment_method, date) do update\n" +
+            "    set amount     = excluded.amount,\n" +
+            "        updated_at = now()", nativeQuery = true)
+    int reconcileDays(@Param("owner") UUID owner);
+
+    /**
+     * Resets the daily rows which no longer have any transactions
+     * @return Number of repaired rows
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update payment_method_daily_balance\n" +
+            "set amount     = 0,\n" +
+            "    updated_at = now()\n" +
+            "where amount <> 0\n" +
+            "  and (cast(:owner as uuid) is null or owner = cast(:owner as uuid))\n" +
+            "  and not exists (select 1\n" +
+            "                  from transaction\n" +
+            "                  where transaction.payment_method = payment_method_daily_balance.payment_method\n" +
+            "                    and transaction.processed_at >= payment_method_daily_balance.date\n" +
+            "                    and transaction.processed_at < payment_method_daily_balance.date + 1)",
+            nativeQuery = true)
+    int resetOrphaned(@Param("owner") UUID owner);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PaymentMethodDailyBalance b where b.paymentMethod = :payment_method")
+    int deleteAllByPaymentMethod(@Param("payment_method") PaymentMethod paymentMethod);
+}
@@ -0,0 +1,70 @@
+package de.budgetbuddy.backend.referenceData;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+
+import java.util.*;
+
+/**
+ * Categories and payment methods of a single user, indexed by their id and name.
+ * The category hierarchy is kept as the children of each category
+ */
+public record ReferenceData(
+        List<Category> categories,
+        Map<Long, Category> categoriesById,
+        Map<String, Category> categoriesByName,
+        Map<Long, List<Long>> childrenByCategory,
+        List<PaymentMethod> paymentMethods,
+        Map<Long, PaymentMethod> paymentMethodsById,
+        Map<String, PaymentMethod> paymentMethodsByName) {
+
+    public static ReferenceData of(List<Category> categories, List<PaymentMethod> paymentMethods) {
+        Map<Long, Category> categoriesById = new HashMap<>();
+        Map<String, Category> categoriesByName = new HashMap<>();
+        Map<Long, List<Long>> childrenByCategory = new HashMap<>();
+        for (Category category : categories) {
+            categoriesById.put(category.getId(), category);
+            if (category.getName() != null) categoriesByName.putIfAbsent(category.getName().toLowerCase(), category);
+            if (category.getParentId() != null) {
+                childrenByCategory.computeIfAbsent(category.getParentId(), parent -> new ArrayList<>()).add(category.getId());
+            }
+        }
+
+        Map<Long, PaymentMethod> paymentMethodsById = new HashMap<>();
+        Map<String, PaymentMethod> paymentMethodsByName = new HashMap<>();
+        for (PaymentMethod paymentMethod : paymentMethods) {
+            paymentMethodsById.put(paymentMethod.getId(), paymentMethod);
+            if (paymentMethod.getName() != null) paymentMethodsByName.putIfAbsent(paymentMethod.getName().toLowerCase(), paymentMethod);
+        }
+
+        return new ReferenceData(
+                List.copyOf(categories),
+                Collections.unmodifiableMap(categoriesById),
+                Collections.unmodifiableMap(categoriesByName),
+                Collections.unmodifiableMap(childrenByCategory),
+                List.copyOf(paymentMethods),
+                Collections.unmodifiableMap(paymentMethodsById),
+                Collections.unmodifiableMap(paymentMethodsByName));
+    }
+
+    /**
+     * Returns the ids of the category and all of its descendants, or an empty set if the category doesn't exist
+     */
+    public Set<Long> getSubtree(Long categoryId) {
+        Set<Long> subtree = new LinkedHashSet<>();
+        if (!categoriesById.containsKey(categoryId)) return subtree;
+
+        Deque<Long> pending = new ArrayDeque<>(List.of(categoryId));
+        while (!pending.isEmpty()) {
+            Long category = pending.pop();
+            if (subtree.add(category)) {
+                pending.addAll(childrenByCategory.getOrDefault(category, List.of()));
+            }
+        }
+        return subtree;
+    }
+
+    public int size() {
+        return categories.size() + paymentMethods.size();
+    }
+}
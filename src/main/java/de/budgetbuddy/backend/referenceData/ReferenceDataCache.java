@@ -0,0 +1,207 @@
+package de.budgetbuddy.backend.referenceData;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.log.Log;
+import de.budgetbuddy.backend.log.LogType;
+import de.budgetbuddy.backend.log.Logger;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.user.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of the categories and payment methods of each user.
+ * All of them are loaded at once on the first lookup, so validating the references of a write doesn't need any query.
+ * Entries are dropped on every write in the CategoryController or PaymentMethodController,
+ * other replicas are notified through Redis pub/sub on {@link #INVALIDATION_CHANNEL}
+ */
+@Component
+public class ReferenceDataCache {
+    public static final String INVALIDATION_CHANNEL = "budget-buddy:reference-data:invalidate";
+    public static final int DEFAULT_MAX_USERS = 10_000;
+    public static final int DEFAULT_MAX_ENTRIES_PER_USER = 1_000;
+    /**
+     * Bounds the staleness of entries whose invalidation got lost, e.g. while Redis was unreachable
+     */
+    public static final long MAX_AGE_MILLIS = 10 * 60 * 1000;
+    /**
+     * Cached for users who have too many entries, so that they aren't loaded over and over again
+     */
+    private static final ReferenceData TOO_LARGE = ReferenceData.of(List.of(), List.of());
+    private final CategoryRepository categoryRepository;
+    private final PaymentMethodRepository paymentMethodRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final int maxEntriesPerUser;
+    private final UserCache<ReferenceData> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ReferenceDataCache(CategoryRepository categoryRepository, PaymentMethodRepository paymentMethodRepository) {
+        this(categoryRepository, paymentMethodRepository, DEFAULT_MAX_USERS, DEFAULT_MAX_ENTRIES_PER_USER, null, null);
+    }
+
+    @Autowired
+    public ReferenceDataCache(
+            CategoryRepository categoryRepository,
+            PaymentMethodRepository paymentMethodRepository,
+            @Value("${de.budget-buddy.reference-cache.max-users:" + DEFAULT_MAX_USERS + "}") int maxUsers,
+            @Value("${de.budget-buddy.reference-cache.max-entries-per-user:" + DEFAULT_MAX_ENTRIES_PER_USER + "}") int maxEntriesPerUser,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.categoryRepository = categoryRepository;
+        this.paymentMethodRepository = paymentMethodRepository;
+        this.redisTemplate = redisTemplate == null ? null : redisTemplate.getIfAvailable();
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.entries = new UserCache<>(maxUsers, MAX_AGE_MILLIS);
+
+        MeterRegistry registry = meterRegistry == null ? null : meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registerMetrics(registry);
+        }
+    }
+
+    public List<Category> getCategories(User owner) {
+        ReferenceData referenceData = get(owner);
+        return referenceData != null
+                ? new ArrayList<>(referenceData.categories())
+                : categoryRepository.findAllByOwner(owner);
+    }
+
+    public Optional<Category> findCategory(Long id, User owner) {
+        if (id == null) return Optional.empty();
+        ReferenceData referenceData = get(owner);
+        return referenceData != null
+                ? Optional.ofNullable(referenceData.categoriesById().get(id))
+                : categoryRepository.findByIdAndOwner(id, owner);
+    }
+
+    public Optional<Category> findCategoryByName(String name, User owner) {
+        if (name == null) return Optional.empty();
+        ReferenceData referenceData = get(owner);
+        return referenceData != null
+                ? Optional.ofNullable(referenceData.categoriesByName().get(name.toLowerCase()))
+                : categoryRepository.findAllByOwner(owner).stream()
+                        .filter(category -> name.equalsIgnoreCase(category.getName()))
+                        .findFirst();
+    }
+
+    /**
+     * Returns the ids of the category and all of its descendants, or an empty set if the owner has no such category
+     */
+    public Set<Long> getCategorySubtree(Long id, User owner) {
+        if (id == null) return Set.of();
+        ReferenceData referenceData = get(owner);
+        return referenceData != null
+                ? referenceData.getSubtree(id)
+                : ReferenceData.of(categoryRepository.findAllByOwner(owner), List.of()).getSubtree(id);
+    }
+
+    public List<PaymentMethod> getPaymentMethods(User owner) {
+        ReferenceData referenceData = get(owner);
+        return referenceData != null
+                ? new ArrayList<>(referenceData.paymentMethods())
+                : paymentMethodRepository.findAllByOwner(owner);
+    }
+
+    public Optional<PaymentMethod> findPaymentMethod(Long id, User owner) {
+        if (id == null) return Optional.empty();
+        ReferenceData referenceData = get(owner);
+        return referenceData != null
+                ? Optional.ofNullable(referenceData.paymentMethodsById().get(id))
+                : paymentMethodRepository.findByIdAndOwner(id, owner);
+    }
+
+    public Optional<PaymentMethod> findPaymentMethodByName(String name, User owner) {
+        if (name == null) return Optional.empty();
+        ReferenceData referenceData = get(owner);
+        return referenceData != null
+                ? Optional.ofNullable(referenceData.paymentMethodsByName().get(name.toLowerCase()))
+                : paymentMethodRepository.findAllByOwner(owner).stream()
+                        .filter(paymentMethod -> name.equalsIgnoreCase(paymentMethod.getName()))
+                        .findFirst();
+    }
+
+    /**
+     * Drops the cached entry of the owner on this and every other replica
+     */
+    public void invalidate(User owner) {
+        evict(owner.getUuid());
+        if (redisTemplate == null) return;
+
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, owner.getUuid().toString());
+        } catch (Exception e) {
+            Logger.getInstance()
+                    .log(new Log("Backend", LogType.ERROR, "reference-data-cache", e.getMessage()));
+        }
+    }
+
+    /**
+     * Drops the cached entry of the owner on this replica only
+     */
+    public void evict(UUID owner) {
+        entries.invalidate(owner);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public double getHitRatio() {
+        long requests = hits.get() + misses.get();
+        return requests == 0 ? 0 : (double) hits.get() / requests;
+    }
+
+    /**
+     * Returns the cached entry of the owner or loads it with a single query per type.
+     * Users with more than maxEntriesPerUser categories and payment methods aren't cached,
+     * in this case null is returned and the caller needs to query the repository directly
+     */
+    private ReferenceData get(User owner) {
+        ReferenceData referenceData = entries.getIfPresent(owner.getUuid());
+        if (referenceData != null && referenceData != TOO_LARGE) {
+            hits.incrementAndGet();
+            return referenceData;
+        }
+
+        misses.incrementAndGet();
+        if (referenceData == null) {
+            referenceData = entries.get(owner.getUuid(), () -> {
+                ReferenceData loadedData = ReferenceData.of(
+                        categoryRepository.findAllByOwner(owner),
+                        paymentMethodRepository.findAllByOwner(owner));
+                return loadedData.size() > maxEntriesPerUser ? TOO_LARGE : loadedData;
+            });
+        }
+        return referenceData == TOO_LARGE ? null : referenceData;
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", "reference-data", "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", "reference-data", "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", entries, UserCache::getEvictions)
+                .tags("cache", "reference-data")
+                .register(registry);
+        Gauge.builder("cache.size", entries, UserCache::size)
+                .tags("cache", "reference-data")
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", this, ReferenceDataCache::getHitRatio)
+                .tags("cache", "reference-data")
+                .register(registry);
+    }
+}
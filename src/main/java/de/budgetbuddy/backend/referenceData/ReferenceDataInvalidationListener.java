@@ -0,0 +1,55 @@
+package de.budgetbuddy.backend.referenceData;
+
+import de.budgetbuddy.backend.log.LogType;
+import de.budgetbuddy.backend.log.Logger;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Evicts the cache entries which were invalidated by other replicas
+ */
+@Component
+public class ReferenceDataInvalidationListener {
+    private final RedisMessageListenerContainer container;
+    private final ReferenceDataCache referenceDataCache;
+
+    public ReferenceDataInvalidationListener(RedisConnectionFactory connectionFactory, ReferenceDataCache referenceDataCache) {
+        this.referenceDataCache = referenceDataCache;
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(connectionFactory);
+        this.container.addMessageListener(
+                (message, pattern) -> referenceDataCache.evict(UUID.fromString(new String(message.getBody(), StandardCharsets.UTF_8))),
+                new ChannelTopic(ReferenceDataCache.INVALIDATION_CHANNEL));
+        this.container.afterPropertiesSet();
+    }
+
+    /**
+     * Subscribes as soon as Redis is reachable, so the application also starts while Redis is down.
+     * Invalidations might have been missed while we were unsubscribed, so the cache is cleared after subscribing
+     */
+    @Scheduled(initialDelay = 0, fixedDelay = 30000)
+    public void subscribe() {
+        if (container.isRunning()) return;
+
+        try {
+            container.start();
+            referenceDataCache.clear();
+        } catch (Exception e) {
+            container.stop();
+            Logger.getInstance()
+                    .log("Backend", LogType.WARNING, "reference-data-cache", "Couldn't subscribe to invalidations: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void unsubscribe() throws Exception {
+        container.destroy();
+    }
+}
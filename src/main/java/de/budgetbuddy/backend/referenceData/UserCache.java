@@ -0,0 +1,91 @@
+package de.budgetbuddy.backend.referenceData;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of a value per user which is derived from the database, e.g. a compiled matcher or a trained model.
+ * Only the most recently used users are kept, entries expire after maxAgeMillis,
+ * which bounds the staleness of entries that have been changed on another replica
+ */
+public class UserCache<V> {
+    private final long maxAgeMillis;
+    private final Map<UUID, Entry<V>> entries;
+    /**
+     * Incremented on every invalidation, so that a load which raced with a write isn't cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserCache(int maxUsers, long maxAgeMillis) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry<V>> eldest) {
+                boolean evict = size() > maxUsers;
+                if (evict) evictions.incrementAndGet();
+                return evict;
+            }
+        });
+    }
+
+    /**
+     * Returns the cached value of the owner or loads it. The loader runs outside of the lock, so that a slow query
+     * doesn't block the other users. If another thread cached a value in the meantime, that one is returned instead
+     */
+    public V get(UUID owner, Supplier<V> loader) {
+        V value = getIfPresent(owner);
+        if (value != null) return value;
+
+        long loadedGeneration = generation.get();
+        long loadedAt = System.currentTimeMillis();
+        V loadedValue = loader.get();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(owner);
+            if (entry != null && !isExpired(entry)) return entry.value();
+            if (generation.get() == loadedGeneration) {
+                entries.put(owner, new Entry<>(loadedValue, loadedAt));
+            }
+        }
+        return loadedValue;
+    }
+
+    /**
+     * @return The cached value of the owner, or null if there is none or it has expired
+     */
+    public V getIfPresent(UUID owner) {
+        Entry<V> entry = entries.get(owner);
+        return entry == null || isExpired(entry) ? null : entry.value();
+    }
+
+    public void invalidate(UUID owner) {
+        generation.incrementAndGet();
+        entries.remove(owner);
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Number of entries which have been dropped to make room for another user
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return System.currentTimeMillis() - entry.loadedAt() > maxAgeMillis;
+    }
+
+    private record Entry<V>(V value, long loadedAt) {}
+}
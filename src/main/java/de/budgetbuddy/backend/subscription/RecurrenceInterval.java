@@ -0,0 +1,35 @@
+package de.budgetbuddy.backend.subscription;
+
+/**
+ * Period of a recurring payment. The tolerance covers weekends, bank holidays and months of different length
+ */
+public enum RecurrenceInterval {
+    WEEKLY(7, 1, 6),
+    MONTHLY(30.44, 4, 3),
+    YEARLY(365.25, 10, 2);
+
+    private final double days;
+    private final int toleranceDays;
+    private final int minOccurrences;
+
+    RecurrenceInterval(double days, int toleranceDays, int minOccurrences) {
+        this.days = days;
+        this.toleranceDays = toleranceDays;
+        this.minOccurrences = minOccurrences;
+    }
+
+    public double getDays() {
+        return days;
+    }
+
+    public int getToleranceDays() {
+        return toleranceDays;
+    }
+
+    /**
+     * Number of payments which are required before a period is suggested
+     */
+    public int getMinOccurrences() {
+        return minOccurrences;
+    }
+}
@@ -0,0 +1,245 @@
+package de.budgetbuddy.backend.subscription;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.log.Log;
+import de.budgetbuddy.backend.log.LogType;
+import de.budgetbuddy.backend.log.Logger;
+import de.budgetbuddy.backend.merchant.MerchantMatcher;
+import de.budgetbuddy.backend.merchant.MerchantService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.user.User;
+import de.budgetbuddy.backend.user.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Proposes subscriptions for the recurring payments of the users. The transactions of a user are read by a single query
+ * and analyzed in memory, the users are processed in parallel on a dedicated fork/join pool
+ */
+@Service
+public class RecurringPaymentDetectionService {
+    public static final int DEFAULT_PARALLELISM = 4;
+    /**
+     * How far back the transactions are analyzed, covers at least two payments of a yearly subscription
+     */
+    static final int LOOKBACK_YEARS = 3;
+    /**
+     * Number of users which are loaded by a single query
+     */
+    static final int USER_BATCH_SIZE = 1_000;
+    /**
+     * Number of users below which a task isn't split any further
+     */
+    private static final int USERS_PER_TASK = 16;
+    private final UserRepository userRepository;
+    private final TransactionRepository transactionRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionSuggestionRepository subscriptionSuggestionRepository;
+    private final CategoryRepository categoryRepository;
+    private final PaymentMethodRepository paymentMethodRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final MerchantService merchantService;
+    private final int parallelism;
+
+    public RecurringPaymentDetectionService(UserRepository userRepository,
+                                            TransactionRepository transactionRepository,
+                                            SubscriptionRepository subscriptionRepository,
+                                            SubscriptionSuggestionRepository subscriptionSuggestionRepository,
+                                            CategoryRepository categoryRepository,
+                                            PaymentMethodRepository paymentMethodRepository,
+                                            ReferenceDataCache referenceDataCache,
+                                            MerchantService merchantService) {
+        this(userRepository, transactionRepository, subscriptionRepository, subscriptionSuggestionRepository,
+                categoryRepository, paymentMethodRepository, referenceDataCache, merchantService, DEFAULT_PARALLELISM);
+    }
+
+    @Autowired
+    public RecurringPaymentDetectionService(
+            UserRepository userRepository,
+            TransactionRepository transactionRepository,
+            SubscriptionRepository subscriptionRepository,
+            SubscriptionSuggestionRepository subscriptionSuggestionRepository,
+            CategoryRepository categoryRepository,
+            PaymentMethodRepository paymentMethodRepository,
+            ReferenceDataCache referenceDataCache,
+            MerchantService merchantService,
+            @Value("${de.budget-buddy.recurring-payments.parallelism:" + DEFAULT_PARALLELISM + "}") int parallelism) {
+        this.userRepository = userRepository;
+        this.transactionRepository = transactionRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionSuggestionRepository = subscriptionSuggestionRepository;
+        this.categoryRepository = categoryRepository;
+        this.paymentMethodRepository = paymentMethodRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.merchantService = merchantService;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Detects the recurring payments of all users
+     * @return Number of pending suggestions
+     */
+    public int detectAll(LocalDate today) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int suggestions = 0;
+            UUID after = new UUID(0, 0);
+            List<UUID> users;
+            do {
+                users = userRepository.findUuidsAfter(after, PageRequest.of(0, USER_BATCH_SIZE));
+                if (users.isEmpty()) break;
+                suggestions += pool.invoke(new DetectionTask(users, today));
+                after = users.get(users.size() - 1);
+            } while (users.size() == USER_BATCH_SIZE);
+            return suggestions;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Replaces the pending suggestions of the owner by the recurring payments which are detected in their transactions.
+     * Accepted and dismissed suggestions aren't suggested again
+     * @return Pending suggestions of the owner
+     */
+    public List<SubscriptionSuggestion> detect(User owner, LocalDate today) {
+        return detect(owner, today, true);
+    }
+
+    /**
+     * @param cached False when all users are processed, so that the merchant matchers and reference data of the
+     *               active users aren't evicted from the caches by users who aren't active
+     */
+    private List<SubscriptionSuggestion> detect(User owner, LocalDate today, boolean cached) {
+        List<Object[]> rows = transactionRepository.findRecurringPaymentCandidates(
+                owner,
+                Date.from(today.minusYears(LOOKBACK_YEARS).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        List<RecurringPaymentDetector.Payment> payments = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[3] == null) continue;
+            payments.add(new RecurringPaymentDetector.Payment(
+                    (String) row[0],
+                    (Long) row[1],
+                    Instant.ofEpochMilli(((Date) row[2]).getTime()).atZone(ZoneId.systemDefault()).toLocalDate(),
+                    ((Number) row[3]).doubleValue(),
+                    (Long) row[4],
+                    (Long) row[5]));
+        }
+
+        // Recurring payments which are already booked by a subscription aren't suggested
+        Set<String> subscribedReceivers = new HashSet<>();
+        Set<Long> subscribedMerchants = new HashSet<>();
+        List<Subscription> subscriptions = subscriptionRepository.findAllByOwner(owner);
+        if (!subscriptions.isEmpty()) {
+            Function<String, Long> findMerchant = cached
+                    ? receiver -> merchantService.findMerchant(owner, receiver)
+                    : merchantService.loadMatcher(owner);
+            for (Subscription subscription : subscriptions) {
+                subscribedReceivers.add(MerchantMatcher.normalize(subscription.getReceiver()));
+                Long merchant = findMerchant.apply(subscription.getReceiver());
+                if (merchant != null) subscribedMerchants.add(merchant);
+            }
+        }
+        Function<Long, Optional<Category>> findCategory = cached
+                ? id -> referenceDataCache.findCategory(id, owner)
+                : id -> id == null ? Optional.empty() : categoryRepository.findByIdAndOwner(id, owner);
+        Function<Long, Optional<PaymentMethod>> findPaymentMethod = cached
+                ? id -> referenceDataCache.findPaymentMethod(id, owner)
+                : id -> id == null ? Optional.empty() : paymentMethodRepository.findByIdAndOwner(id, owner);
+
+        Map<String, SubscriptionSuggestion> existingSuggestions = new HashMap<>();
+        for (SubscriptionSuggestion suggestion : subscriptionSuggestionRepository.findAllByOwner(owner)) {
+            existingSuggestions.put(suggestion.getSignature(), suggestion);
+        }
+
+        List<SubscriptionSuggestion> pendingSuggestions = new ArrayList<>();
+        for (RecurringPaymentDetector.Finding finding : RecurringPaymentDetector.detect(payments, today)) {
+            if (subscribedReceivers.contains(MerchantMatcher.normalize(finding.receiver()))
+                    || (finding.merchantId() != null && subscribedMerchants.contains(finding.merchantId()))) {
+                continue;
+            }
+
+            SubscriptionSuggestion suggestion = existingSuggestions.remove(finding.signature());
+            if (suggestion == null) {
+                suggestion = SubscriptionSuggestion.builder()
+                        .owner(owner)
+                        .signature(finding.signature())
+                        .status(SubscriptionSuggestionStatus.PENDING)
+                        .build();
+            } else if (suggestion.getStatus() != SubscriptionSuggestionStatus.PENDING) {
+                continue;
+            }
+            suggestion.setInterval(finding.interval());
+            suggestion.setReceiver(finding.receiver());
+            suggestion.setMerchantId(finding.merchantId());
+            suggestion.setCategory(findCategory.apply(finding.categoryId()).orElse(null));
+            suggestion.setPaymentMethod(findPaymentMethod.apply(finding.paymentMethodId()).orElse(null));
+            suggestion.setTransferAmount(finding.transferAmount());
+            suggestion.setExecuteAt(finding.executeAt());
+            suggestion.setOccurrences(finding.occurrences());
+            suggestion.setLastOccurrence(Date.from(finding.lastOccurrence().atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            suggestion.setConfidence(finding.confidence());
+            pendingSuggestions.add(suggestion);
+        }
+
+        List<SubscriptionSuggestion> outdatedSuggestions = existingSuggestions.values().stream()
+                .filter(suggestion -> suggestion.getStatus() == SubscriptionSuggestionStatus.PENDING)
+                .toList();
+        if (!outdatedSuggestions.isEmpty()) subscriptionSuggestionRepository.deleteAll(outdatedSuggestions);
+        return pendingSuggestions.isEmpty() ? pendingSuggestions : subscriptionSuggestionRepository.saveAll(pendingSuggestions);
+    }
+
+    /**
+     * Splits the users in halves until a task is small enough to be processed sequentially
+     */
+    private class DetectionTask extends RecursiveTask<Integer> {
+        private final List<UUID> users;
+        private final LocalDate today;
+
+        DetectionTask(List<UUID> users, LocalDate today) {
+            this.users = users;
+            this.today = today;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (users.size() > USERS_PER_TASK) {
+                int middle = users.size() / 2;
+                DetectionTask left = new DetectionTask(users.subList(0, middle), today);
+                left.fork();
+                int right = new DetectionTask(users.subList(middle, users.size()), today).compute();
+                return left.join() + right;
+            }
+
+            int suggestions = 0;
+            for (UUID user : users) {
+                try {
+                    suggestions += detect(new User(user), today, false).size();
+                } catch (RuntimeException e) {
+                    // A single broken user shouldn't stop the detection of the others
+                    Logger.log(Log.builder()
+                            .application("Backend")
+                            .type(LogType.ERROR)
+                            .category("detect-recurring-payments")
+                            .content("Couldn't detect the recurring payments of " + user + ": " + e.getMessage())
+                            .build());
+                }
+            }
+            return suggestions;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package de.budgetbuddy.backend.subscription;
+
+import de.budgetbuddy.backend.merchant.MerchantMatcher;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Finds recurring payments in the transactions of a single user. The payments are grouped by their merchant
+ * (or normalized receiver if they don't have one) and split into bands of similar amounts, every band is checked
+ * for a weekly, monthly or yearly period
+ */
+class RecurringPaymentDetector {
+    /**
+     * A payment starts a new band if it exceeds the previous amount by more than this ratio
+     */
+    static final double AMOUNT_TOLERANCE = 0.1;
+    /**
+     * Share of the gaps between the payments which need to match the interval
+     */
+    static final double MIN_CONFIDENCE = 0.75;
+    /**
+     * A recurring payment is considered cancelled if it wasn't paid for this many periods
+     */
+    static final double MAX_MISSED_PERIODS = 1.5;
+    private static final int MAX_KEY_LENGTH = 80;
+    private static final int MAX_RECEIVER_LENGTH = 80;
+
+    private RecurringPaymentDetector() {}
+
+    record Payment(String receiver, Long merchantId, LocalDate date, double amount, Long categoryId, Long paymentMethodId) {}
+
+    record Finding(String signature,
+                   String receiver,
+                   Long merchantId,
+                   RecurrenceInterval interval,
+                   double transferAmount,
+                   int executeAt,
+                   int occurrences,
+                   LocalDate lastOccurrence,
+                   double confidence,
+                   Long categoryId,
+                   Long paymentMethodId) {}
+
+    /**
+     * @param payments Ordered by their date
+     * @param today Recurring payments whose last occurrence is too long ago aren't returned
+     */
+    static List<Finding> detect(List<Payment> payments, LocalDate today) {
+        Map<String, List<Payment>> groups = new HashMap<>();
+        for (Payment payment : payments) {
+            if (payment.amount() == 0) continue;
+            String key = key(payment);
+            if (key.isEmpty()) continue;
+            groups.computeIfAbsent(key + (payment.amount() < 0 ? "|-" : "|+"), k -> new ArrayList<>()).add(payment);
+        }
+
+        List<Finding> findings = new ArrayList<>();
+        for (Map.Entry<String, List<Payment>> group : groups.entrySet()) {
+            if (group.getValue().size() < RecurrenceInterval.YEARLY.getMinOccurrences()) continue;
+
+            for (List<Payment> band : splitByAmount(group.getValue())) {
+                findPeriod(group.getKey(), band, today).ifPresent(findings::add);
+            }
+        }
+        findings.sort(Comparator.comparingDouble(Finding::confidence).reversed().thenComparing(Finding::signature));
+        return findings;
+    }
+
+    private static String key(Payment payment) {
+        if (payment.merchantId() != null) return "m" + payment.merchantId();
+        String receiver = MerchantMatcher.normalize(payment.receiver());
+        if (receiver.isEmpty()) return "";
+        return "r" + (receiver.length() > MAX_KEY_LENGTH ? receiver.substring(0, MAX_KEY_LENGTH) : receiver);
+    }
+
+    /**
+     * Splits the payments into bands of similar amounts, every band is ordered by date
+     */
+    private static List<List<Payment>> splitByAmount(List<Payment> payments) {
+        List<Payment> byAmount = new ArrayList<>(payments);
+        byAmount.sort(Comparator.comparingDouble(payment -> Math.abs(payment.amount())));
+
+        List<List<Payment>> bands = new ArrayList<>();
+        List<Payment> band = new ArrayList<>();
+        double previousAmount = 0;
+        for (Payment payment : byAmount) {
+            double amount = Math.abs(payment.amount());
+            if (!band.isEmpty() && amount > previousAmount * (1 + AMOUNT_TOLERANCE)) {
+                bands.add(band);
+                band = new ArrayList<>();
+            }
+            band.add(payment);
+            previousAmount = amount;
+        }
+        bands.add(band);
+
+        for (List<Payment> amountBand : bands) {
+            amountBand.sort(Comparator.comparing(Payment::date));
+        }
+        return bands;
+    }
+
+    private static Optional<Finding> findPeriod(String key, List<Payment> payments, LocalDate today) {
+        Payment last = payments.get(payments.size() - 1);
+        for (RecurrenceInterval interval : RecurrenceInterval.values()) {
+            if (payments.size() < interval.getMinOccurrences()) continue;
+
+            int matchingGaps = 0;
+            for (int i = 1; i < payments.size(); i++) {
+                long gap = ChronoUnit.DAYS.between(payments.get(i - 1).date(), payments.get(i).date());
+                if (Math.abs(gap - interval.getDays()) <= interval.getToleranceDays()) matchingGaps++;
+            }
+            double confidence = (double) matchingGaps / (payments.size() - 1);
+            if (confidence < MIN_CONFIDENCE || matchingGaps + 1 < interval.getMinOccurrences()) continue;
+
+            long daysSinceLast = ChronoUnit.DAYS.between(last.date(), today);
+            if (daysSinceLast > interval.getDays() * MAX_MISSED_PERIODS + interval.getToleranceDays()) continue;
+
+            double amount = median(payments.stream().mapToDouble(Payment::amount).toArray());
+            int executeAt = (int) Math.round(median(payments.stream().mapToDouble(payment -> payment.date().getDayOfMonth()).toArray()));
+            String receiver = last.receiver() == null ? "" : last.receiver().trim();
+            return Optional.of(new Finding(
+                    key + "|" + interval + "|" + band(amount),
+                    receiver.length() > MAX_RECEIVER_LENGTH ? receiver.substring(0, MAX_RECEIVER_LENGTH) : receiver,
+                    last.merchantId(),
+                    interval,
+                    Math.round(amount * 100) / 100.0,
+                    executeAt,
+                    payments.size(),
+                    last.date(),
+                    confidence,
+                    last.categoryId(),
+                    last.paymentMethodId()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Logarithmic band of the amount, so that the signature of a finding survives small price changes
+     */
+    static long band(double amount) {
+        return Math.round(Math.log(Math.abs(amount)) / Math.log(1 + AMOUNT_TOLERANCE));
+    }
+
+    private static double median(double[] values) {
+        Arrays.sort(values);
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+    }
+}
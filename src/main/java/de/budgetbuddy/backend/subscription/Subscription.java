@@ -1,6 +1,7 @@
 package de.budgetbuddy.backend.subscription;
 
 import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.currency.ExchangeRateService;
 import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
 import de.budgetbuddy.backend.user.User;
 import jakarta.persistence.*;
@@ -9,19 +10,22 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.Date;
 import java.util.UUID;
 
 @Entity
 @Table(name = "subscription", schema = "public")
+@DynamicUpdate
 @Data
 @Builder
 @AllArgsConstructor
 public class Subscription {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscription_id_seq")
+    @SequenceGenerator(name = "subscription_id_seq", sequenceName = "subscription_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -55,12 +59,41 @@ public class Subscription {
     @Column(name = "transfer_amount", nullable = false)
     private Double transferAmount;
 
+    /**
+     * Currency of the payment-method, assigned when the subscription is written
+     */
+    @Column(name = "currency", length = 3, nullable = false)
+    @ColumnDefault("'EUR'")
+    private String currency;
+
     @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     @ColumnDefault("CURRENT_TIMESTAMP")
     private Date createdAt;
 
+    /**
+     * Incremented by every update, so that concurrent modifications don't overwrite each other
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
+    /**
+     * Aggregated over the transactions which were booked for this subscription
+     */
+    @Transient
+    private SubscriptionBookings bookings;
+
     public Subscription() {}
 
+    @PrePersist
+    @PreUpdate
+    void assignCurrency() {
+        currency = paymentMethod != null && paymentMethod.getCurrency() != null
+                ? paymentMethod.getCurrency()
+                : ExchangeRateService.DEFAULT_CURRENCY;
+    }
+
     public Subscription(User owner, Category category, PaymentMethod paymentMethod, boolean paused, int executeAt, String receiver, String description, Double transferAmount) {
         this.owner = owner;
         this.category = category;
@@ -97,6 +130,10 @@ public class Subscription {
     @Data
     public static class Update {
         private Long subscriptionId;
+        /**
+         * Version the update is based on, the update is rejected if the subscription was modified in the meantime
+         */
+        private Long version;
         private Long categoryId;
         private Long paymentMethodId;
         private Boolean paused;
@@ -106,6 +143,25 @@ public class Subscription {
         private Double transferAmount;
     }
 
+    /**
+     * Only the provided attributes are changed, missing attributes keep their current value
+     */
+    @Data
+    public static class Patch {
+        private Long subscriptionId;
+        /**
+         * Version the patch is based on, the patch is rejected if the subscription was modified in the meantime
+         */
+        private Long version;
+        private Long categoryId;
+        private Long paymentMethodId;
+        private Boolean paused;
+        private Integer executeAt;
+        private String receiver;
+        private String description;
+        private Double transferAmount;
+    }
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
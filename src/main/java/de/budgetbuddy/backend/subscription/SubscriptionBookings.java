@@ -0,0 +1,17 @@
+package de.budgetbuddy.backend.subscription;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionBookings {
+    private Long subscriptionId;
+    private Date lastBookedAt;
+    private Double lifetimeTotal;
+    private Long bookings;
+}
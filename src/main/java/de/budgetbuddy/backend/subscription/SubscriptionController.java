@@ -4,9 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import de.budgetbuddy.backend.ApiResponse;
 import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
 import de.budgetbuddy.backend.category.Category;
-import de.budgetbuddy.backend.category.CategoryRepository;
 import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
-import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
 import de.budgetbuddy.backend.transaction.Transaction;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
@@ -14,6 +13,7 @@ import de.budgetbuddy.backend.user.role.RolePermission;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -23,19 +23,18 @@ import java.util.*;
 @RequestMapping("/v1/subscription")
 public class SubscriptionController {
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
-    private final PaymentMethodRepository paymentMethodRepository;
+    private final ReferenceDataCache referenceDataCache;
     private final SubscriptionRepository subscriptionRepository;
+    private final SubscriptionService subscriptionService;
 
     public SubscriptionController(
             UserRepository userRepository,
-            CategoryRepository categoryRepository,
-            PaymentMethodRepository paymentMethodRepository,
+            ReferenceDataCache referenceDataCache,
             SubscriptionRepository subscriptionRepository) {
         this.userRepository = userRepository;
-        this.categoryRepository = categoryRepository;
-        this.paymentMethodRepository = paymentMethodRepository;
+        this.referenceDataCache = referenceDataCache;
         this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionService = new SubscriptionService(subscriptionRepository);
     }
 
     @PostMapping
@@ -71,14 +70,14 @@ public class SubscriptionController {
             }
         }
 
-        Optional<Category> optCategory = categoryRepository.findByIdAndOwner(payload.getCategoryId(), subscriptionOwner);
+        Optional<Category> optCategory = referenceDataCache.findCategory(payload.getCategoryId(), subscriptionOwner);
         if (optCategory.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
                     .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided category not found"));
         }
 
-        Optional<PaymentMethod> optPaymentMethod = paymentMethodRepository.findByIdAndOwner(payload.getPaymentMethodId(), subscriptionOwner);
+        Optional<PaymentMethod> optPaymentMethod = referenceDataCache.findPaymentMethod(payload.getPaymentMethodId(), subscriptionOwner);
         if (optPaymentMethod.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -126,12 +125,54 @@ public class SubscriptionController {
             }
         }
 
-        List<Subscription> subscriptions = subscriptionRepository.findAllByOwner(user.get());
+        List<Subscription> subscriptions = subscriptionService
+                .attachBookings(subscriptionRepository.findAllByOwner(user.get()));
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(new ApiResponse<>(subscriptions));
     }
 
+    @GetMapping("/projection")
+    public ResponseEntity<ApiResponse<SubscriptionProjection>> getSubscriptionProjection(
+            @RequestParam UUID uuid,
+            @RequestParam(defaultValue = "12") int months,
+            HttpSession session) throws JsonProcessingException {
+        if (months < 1 || months > 60) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST.value(), "The projection needs to cover between 1 and 60 months"));
+        }
+
+        Optional<User> user = userRepository.findById(uuid);
+        if (user.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided user doesn't exist"));
+        }
+
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        } else {
+            User sessionUser = optSessionUser.get();
+            if (!sessionUser.getUuid().equals(uuid)
+                    && !sessionUser.getRole().isGreaterOrEqualThan(RolePermission.SERVICE_ACCOUNT)) {
+                return ResponseEntity
+                        .status(HttpStatus.CONFLICT)
+                        .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You don't have the permissions to retrieve subscriptions from a different user"));
+
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(subscriptionService.getProjection(
+                        user.get(),
+                        today.plusDays(1),
+                        today.plusMonths(months))));
+    }
+
     @GetMapping("/all")
     public ResponseEntity<ApiResponse<List<Subscription>>> getSubscriptions(
             @RequestParam(name = "execute_at") int executeAt,
@@ -185,38 +226,127 @@ public class SubscriptionController {
                     .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You don't own this subscription"));
         }
 
-        Optional<Category> optCategory = categoryRepository
-                .findByIdAndOwner(payload.getCategoryId(), subscriptionOwner);
+        if (payload.getVersion() != null && !payload.getVersion().equals(subscription.getVersion())) {
+            return modifiedInTheMeantime(subscription);
+        }
+
+        Optional<Category> optCategory = referenceDataCache
+                .findCategory(payload.getCategoryId(), subscriptionOwner);
         if (optCategory.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
                     .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided category not found"));
         }
 
-        Optional<PaymentMethod> optPaymentMethod = paymentMethodRepository
-                .findByIdAndOwner(payload.getPaymentMethodId(), subscriptionOwner);
+        Optional<PaymentMethod> optPaymentMethod = referenceDataCache
+                .findPaymentMethod(payload.getPaymentMethodId(), subscriptionOwner);
         if (optPaymentMethod.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
                     .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided payment-method not found"));
         }
 
-        Subscription updatedSubscription = new Subscription(
-                subscription.getId(),
-                subscriptionOwner,
-                optCategory.get(),
-                optPaymentMethod.get(),
-                payload.getPaused(),
-                payload.getExecuteAt(),
-                payload.getReceiver(),
-                payload.getDescription(),
-                payload.getTransferAmount(),
-                subscription.getCreatedAt()
-        );
+        Subscription updatedSubscription = Subscription.builder()
+                .id(subscription.getId())
+                .owner(subscriptionOwner)
+                .category(optCategory.get())
+                .paymentMethod(optPaymentMethod.get())
+                .paused(payload.getPaused())
+                .executeAt(payload.getExecuteAt())
+                .receiver(payload.getReceiver())
+                .description(payload.getDescription())
+                .transferAmount(payload.getTransferAmount())
+                .createdAt(subscription.getCreatedAt())
+                .version(payload.getVersion() != null ? payload.getVersion() : subscription.getVersion())
+                .build();
+
+        try {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(new ApiResponse<>(subscriptionRepository.save(updatedSubscription)));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return modifiedInTheMeantime(subscriptionRepository.findById(subscription.getId()).orElse(null));
+        }
+    }
+
+    @PatchMapping
+    public ResponseEntity<ApiResponse<Subscription>> patchSubscription(@RequestBody Subscription.Patch payload, HttpSession session) throws JsonProcessingException {
+        if (payload.getExecuteAt() != null && !Subscription.isValidExecutionDate(payload.getExecuteAt())) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "Execution must lay between the first and 31nd of the month"));
+        }
+
+        Optional<Subscription> optionalSubscription = subscriptionRepository.findById(payload.getSubscriptionId());
+        if (optionalSubscription.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided subscription not found"));
+        }
+
+        Subscription subscription = optionalSubscription.get();
+        User subscriptionOwner  = subscription.getOwner();
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        } else if (!optSessionUser.get().getUuid().equals(subscriptionOwner.getUuid())) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(HttpStatus.CONFLICT.value(), "You don't own this subscription"));
+        }
+
+        if (payload.getVersion() != null && !payload.getVersion().equals(subscription.getVersion())) {
+            return modifiedInTheMeantime(subscription);
+        }
 
+        Optional<Category> optCategory = Optional.empty();
+        if (payload.getCategoryId() != null) {
+            optCategory = referenceDataCache.findCategory(payload.getCategoryId(), subscriptionOwner);
+            if (optCategory.isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided category not found"));
+            }
+        }
+
+        Optional<PaymentMethod> optPaymentMethod = Optional.empty();
+        if (payload.getPaymentMethodId() != null) {
+            optPaymentMethod = referenceDataCache.findPaymentMethod(payload.getPaymentMethodId(), subscriptionOwner);
+            if (optPaymentMethod.isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided payment-method not found"));
+            }
+        }
+
+        // Only the changed columns are written, since the subscription is updated dynamically
+        optCategory.ifPresent(subscription::setCategory);
+        optPaymentMethod.ifPresent(subscription::setPaymentMethod);
+        if (payload.getPaused() != null) subscription.setPaused(payload.getPaused());
+        if (payload.getExecuteAt() != null) subscription.setExecuteAt(payload.getExecuteAt());
+        if (payload.getReceiver() != null) subscription.setReceiver(payload.getReceiver());
+        if (payload.getDescription() != null) subscription.setDescription(payload.getDescription());
+        if (payload.getTransferAmount() != null) subscription.setTransferAmount(payload.getTransferAmount());
+
+        try {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(new ApiResponse<>(subscriptionRepository.saveAndFlush(subscription)));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return modifiedInTheMeantime(subscriptionRepository.findById(subscription.getId()).orElse(null));
+        }
+    }
+
+    /**
+     * Responds with the current state of the subscription, so that the client can reapply its changes
+     */
+    private ResponseEntity<ApiResponse<Subscription>> modifiedInTheMeantime(Subscription currentSubscription) {
         return ResponseEntity
-                .status(HttpStatus.OK)
-                .body(new ApiResponse<>(subscriptionRepository.save(updatedSubscription)));
+                .status(HttpStatus.CONFLICT)
+                .body(new ApiResponse<>(
+                        HttpStatus.CONFLICT.value(),
+                        "The subscription was modified in the meantime",
+                        currentSubscription));
     }
 
     @DeleteMapping
@@ -245,6 +375,7 @@ public class SubscriptionController {
                         || !optSessionUser.get().getUuid().equals(subscriptionOwner.getUuid())) {
                     failedToDelete.add(payload);
                 } else {
+                    subscriptionRepository.detachTransactions(subscription);
                     subscriptionRepository.delete(subscription);
                     successfullyDeleted.add(subscription);
                 }
@@ -0,0 +1,106 @@
+package de.budgetbuddy.backend.subscription;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionProjection {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Double income;
+    private Double expenses;
+    private List<Day> days;
+    private List<Month> months;
+
+    /**
+     * Expands the subscriptions into their executions between startDate and endDate (both inclusive).
+     * Like the Scheduler, a subscription is only executed on days which exist in the month,
+     * so a subscription executed at the 31st is skipped in shorter months.
+     * Expenses are returned as absolute values, just like in the MonthlyBalance
+     */
+    public static SubscriptionProjection of(List<Subscription> subscriptions, LocalDate startDate, LocalDate endDate) {
+        TreeMap<LocalDate, Day> days = new TreeMap<>();
+        Map<YearMonth, Month> months = new LinkedHashMap<>();
+        double income = 0;
+        double expenses = 0;
+
+        for (YearMonth month = YearMonth.from(startDate);
+             !month.isAfter(YearMonth.from(endDate));
+             month = month.plusMonths(1)) {
+            Month monthlyTotal = new Month(month.atDay(1), 0.0, 0.0);
+            months.put(month, monthlyTotal);
+
+            for (Subscription subscription : subscriptions) {
+                if (!month.isValidDay(subscription.getExecuteAt())) continue;
+                LocalDate executionDate = month.atDay(subscription.getExecuteAt());
+                if (executionDate.isBefore(startDate) || executionDate.isAfter(endDate)) continue;
+
+                double transferAmount = subscription.getTransferAmount();
+                days.computeIfAbsent(executionDate, Day::new).add(subscription);
+                if (transferAmount >= 0) {
+                    monthlyTotal.setIncome(monthlyTotal.getIncome() + transferAmount);
+                    income += transferAmount;
+                } else {
+                    monthlyTotal.setExpenses(monthlyTotal.getExpenses() + Math.abs(transferAmount));
+                    expenses += Math.abs(transferAmount);
+                }
+            }
+        }
+
+        return new SubscriptionProjection(
+                startDate,
+                endDate,
+                income,
+                expenses,
+                new ArrayList<>(days.values()),
+                new ArrayList<>(months.values()));
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        private Double income = 0.0;
+        private Double expenses = 0.0;
+        private List<Execution> executions = new ArrayList<>();
+
+        public Day(LocalDate date) {
+            this.date = date;
+        }
+
+        void add(Subscription subscription) {
+            double transferAmount = subscription.getTransferAmount();
+            if (transferAmount >= 0) {
+                income += transferAmount;
+            } else {
+                expenses += Math.abs(transferAmount);
+            }
+            executions.add(new Execution(subscription.getId(), subscription.getReceiver(), transferAmount));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Month {
+        private LocalDate month;
+        private Double income;
+        private Double expenses;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Execution {
+        private Long subscriptionId;
+        private String receiver;
+        private Double transferAmount;
+    }
+}
@@ -1,30 +1,48 @@
 package de.budgetbuddy.backend.subscription;
 
+import de.budgetbuddy.backend.category.Category;
 import de.budgetbuddy.backend.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
-import java.util.UUID;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
     List<Subscription> findAllByOwner(User owner);
     List<Subscription> findAllByOwnerAndPaused(User owner, Boolean paused);
     List<Subscription> findAllByExecuteAtAndPaused(int executeAt, Boolean paused);
 
-    @Query(value = "select coalesce(sum(subscription.transfer_amount), 0) as upcoming_income_subscriptions\n" +
-            "from subscription\n" +
-            "where subscription.owner = :uuid\n" +
-            "  and subscription.paused = false\n" +
-            "  and subscription.transfer_amount > 0\n" +
-            "  and subscription.execute_at > extract(DAY from now())", nativeQuery = true)
-    Double getUpcomingSubscriptioEarnings(@Param("uuid") UUID uuid);
-    @Query(value = "select coalesce(sum(subscription.transfer_amount), 0) as upcoming_income_subscriptions\n" +
-            "from subscription\n" +
-            "where subscription.owner = :uuid\n" +
-            "  and subscription.paused = false\n" +
-            "  and subscription.transfer_amount < 0\n" +
-            "  and subscription.execute_at > extract(DAY from now())", nativeQuery = true)
-    Double getUpcomingSubscriptionExpenses(@Param("uuid") UUID uuid);
+    @Query("select new de.budgetbuddy.backend.subscription.SubscriptionBookings(" +
+            "t.subscription.id, max(t.processedAt), sum(t.transferAmount), count(t)) " +
+            "from Transaction t where t.subscription in :subscriptions " +
+            "group by t.subscription.id")
+    List<SubscriptionBookings> getBookings(@Param("subscriptions") List<Subscription> subscriptions);
+
+    @Query("select distinct t.subscription.id from Transaction t " +
+            "where t.subscription in :subscriptions " +
+            "and t.processedAt >= :start_date and t.processedAt < :end_date")
+    List<Long> findBookedSubscriptionIds(@Param("subscriptions") List<Subscription> subscriptions,
+                                         @Param("start_date") Date startDate,
+                                         @Param("end_date") Date endDate);
+
+    @Modifying
+    @Transactional
+    @Query("update versioned Transaction t set t.subscription = null where t.subscription = :subscription")
+    int detachTransactions(@Param("subscription") Subscription subscription);
+
+    /**
+     * Moves all subscriptions of the merged categories to the target by a single statement
+     * @return Number of moved subscriptions
+     */
+    @Modifying
+    @Transactional
+    @Query("update versioned Subscription s set s.category = :target where s.owner = :owner and s.category.id in :categories")
+    int moveToCategory(@Param("owner") User owner,
+                       @Param("categories") Collection<Long> categories,
+                       @Param("target") Category target);
 }
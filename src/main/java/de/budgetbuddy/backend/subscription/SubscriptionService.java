@@ -0,0 +1,84 @@
+package de.budgetbuddy.backend.subscription;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class SubscriptionService {
+    private final SubscriptionRepository subscriptionRepository;
+
+    public SubscriptionService(SubscriptionRepository subscriptionRepository) {
+        this.subscriptionRepository = subscriptionRepository;
+    }
+
+    /**
+     * Projects the executions of all active subscriptions of the owner between startDate and endDate.
+     * Only a single query is executed, the expansion itself happens in memory
+     */
+    public SubscriptionProjection getProjection(User owner, LocalDate startDate, LocalDate endDate) {
+        return SubscriptionProjection.of(
+                subscriptionRepository.findAllByOwnerAndPaused(owner, false),
+                startDate,
+                endDate);
+    }
+
+    /**
+     * Projects the executions of all active subscriptions which will be processed for the rest of the current month
+     */
+    public SubscriptionProjection getUpcomingProjection(User owner) {
+        LocalDate today = LocalDate.now();
+        return getProjection(owner, today.plusDays(1), today.with(TemporalAdjusters.lastDayOfMonth()));
+    }
+
+    /**
+     * Like getUpcomingProjection, but only the subscriptions of the provided categories are projected
+     */
+    public SubscriptionProjection getUpcomingProjection(User owner, Set<Long> categories) {
+        LocalDate today = LocalDate.now();
+        return SubscriptionProjection.of(
+                subscriptionRepository.findAllByOwnerAndPaused(owner, false)
+                        .stream()
+                        .filter(subscription -> categories.contains(subscription.getCategory().getId()))
+                        .toList(),
+                today.plusDays(1),
+                today.with(TemporalAdjusters.lastDayOfMonth()));
+    }
+
+    /**
+     * Attaches the last booking date and lifetime total to the subscriptions.
+     * All subscriptions are aggregated by a single query on the indexed transaction.subscription column
+     */
+    public List<Subscription> attachBookings(List<Subscription> subscriptions) {
+        if (subscriptions.isEmpty()) return subscriptions;
+
+        Map<Long, SubscriptionBookings> bookings = subscriptionRepository.getBookings(subscriptions)
+                .stream()
+                .collect(Collectors.toMap(SubscriptionBookings::getSubscriptionId, Function.identity()));
+        subscriptions.forEach(subscription -> subscription.setBookings(bookings.get(subscription.getId())));
+        return subscriptions;
+    }
+
+    /**
+     * Returns the subscriptions which haven't been booked in the provided month yet
+     */
+    public List<Subscription> filterUnbooked(List<Subscription> subscriptions, YearMonth month) {
+        if (subscriptions.isEmpty()) return subscriptions;
+
+        ZoneId zone = ZoneId.systemDefault();
+        Set<Long> bookedSubscriptions = new HashSet<>(subscriptionRepository.findBookedSubscriptionIds(
+                subscriptions,
+                Date.from(month.atDay(1).atStartOfDay(zone).toInstant()),
+                Date.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant())));
+        return subscriptions.stream()
+                .filter(subscription -> !bookedSubscriptions.contains(subscription.getId()))
+                .toList();
+    }
+}
@@ -0,0 +1,108 @@
+package de.budgetbuddy.backend.subscription;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * Recurring payment which was detected in the transactions of a user, but isn't booked by a subscription yet
+ */
+@Entity
+@Table(name = "subscription_suggestion", schema = "public", indexes = {
+        @Index(name = "uq_subscription_suggestion_signature", columnList = "owner, signature", unique = true)
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubscriptionSuggestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subscription_suggestion_id_seq")
+    @SequenceGenerator(name = "subscription_suggestion_id_seq", sequenceName = "subscription_suggestion_id_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    private User owner;
+
+    /**
+     * Identifies the same finding across the nightly runs, so that dismissed suggestions aren't suggested again
+     */
+    @JsonIgnore
+    @Column(name = "signature", length = 120, nullable = false)
+    private String signature;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recurrence_interval", length = 20, nullable = false)
+    private RecurrenceInterval interval;
+
+    @Column(name = "receiver", length = 80, nullable = false)
+    private String receiver;
+
+    @Column(name = "merchant")
+    private Long merchantId;
+
+    /**
+     * Taken from the most recent payment
+     */
+    @ManyToOne
+    @JoinColumn(name = "category")
+    private Category category;
+
+    /**
+     * Taken from the most recent payment
+     */
+    @ManyToOne
+    @JoinColumn(name = "payment_method")
+    private PaymentMethod paymentMethod;
+
+    /**
+     * Median of the payments
+     */
+    @Column(name = "transfer_amount", nullable = false)
+    private double transferAmount;
+
+    /**
+     * Median day of the month of the payments
+     */
+    @Column(name = "execute_at", nullable = false)
+    private int executeAt;
+
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences;
+
+    @Column(name = "last_occurrence", nullable = false)
+    private Date lastOccurrence;
+
+    /**
+     * Share of the gaps between the payments which match the interval
+     */
+    @Column(name = "confidence", nullable = false)
+    private double confidence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private SubscriptionSuggestionStatus status;
+
+    @Builder.Default
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date createdAt = new Date();
+
+    @Data
+    public static class Decision {
+        private Long suggestionId;
+    }
+}
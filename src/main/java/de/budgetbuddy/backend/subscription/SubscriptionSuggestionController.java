@@ -0,0 +1,144 @@
+package de.budgetbuddy.backend.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.user.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/v1/subscription/suggestion")
+public class SubscriptionSuggestionController {
+    private final SubscriptionSuggestionRepository subscriptionSuggestionRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final RecurringPaymentDetectionService recurringPaymentDetectionService;
+
+    @Autowired
+    public SubscriptionSuggestionController(SubscriptionSuggestionRepository subscriptionSuggestionRepository,
+                                            SubscriptionRepository subscriptionRepository,
+                                            RecurringPaymentDetectionService recurringPaymentDetectionService) {
+        this.subscriptionSuggestionRepository = subscriptionSuggestionRepository;
+        this.subscriptionRepository = subscriptionRepository;
+        this.recurringPaymentDetectionService = recurringPaymentDetectionService;
+    }
+
+    /**
+     * Pending suggestions of the session user, as detected by the last nightly run
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SubscriptionSuggestion>>> getSuggestions(HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(subscriptionSuggestionRepository.findAllByOwnerAndStatusOrderByConfidenceDesc(
+                        sessionUser.get(),
+                        SubscriptionSuggestionStatus.PENDING)));
+    }
+
+    /**
+     * Detects the recurring payments of the session user right away, instead of waiting for the nightly run
+     */
+    @PostMapping("/detect")
+    public ResponseEntity<ApiResponse<List<SubscriptionSuggestion>>> detectSuggestions(HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(recurringPaymentDetectionService.detect(sessionUser.get(), LocalDate.now())));
+    }
+
+    /**
+     * Creates a subscription from the suggestion. Subscriptions are executed monthly, so only monthly suggestions can be accepted
+     */
+    @PostMapping("/accept")
+    public ResponseEntity<ApiResponse<Subscription>> acceptSuggestion(
+            @RequestBody SubscriptionSuggestion.Decision payload,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        Optional<SubscriptionSuggestion> optSuggestion = findPendingSuggestion(payload, sessionUser.get());
+        if (optSuggestion.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided suggestion not found"));
+        }
+
+        SubscriptionSuggestion suggestion = optSuggestion.get();
+        if (suggestion.getInterval() != RecurrenceInterval.MONTHLY) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(409, "Only monthly payments can be accepted as subscription"));
+        }
+
+        if (suggestion.getCategory() == null || suggestion.getPaymentMethod() == null) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(409, "The category or payment-method of the suggestion doesn't exist anymore"));
+        }
+
+        Subscription subscription = subscriptionRepository.save(new Subscription(
+                sessionUser.get(),
+                suggestion.getCategory(),
+                suggestion.getPaymentMethod(),
+                false,
+                suggestion.getExecuteAt(),
+                suggestion.getReceiver(),
+                null,
+                suggestion.getTransferAmount()));
+        suggestion.setStatus(SubscriptionSuggestionStatus.ACCEPTED);
+        subscriptionSuggestionRepository.save(suggestion);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(subscription));
+    }
+
+    /**
+     * Dismissed suggestions aren't suggested again
+     */
+    @PostMapping("/dismiss")
+    public ResponseEntity<ApiResponse<SubscriptionSuggestion>> dismissSuggestion(
+            @RequestBody SubscriptionSuggestion.Decision payload,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        Optional<SubscriptionSuggestion> optSuggestion = findPendingSuggestion(payload, sessionUser.get());
+        if (optSuggestion.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided suggestion not found"));
+        }
+
+        SubscriptionSuggestion suggestion = optSuggestion.get();
+        suggestion.setStatus(SubscriptionSuggestionStatus.DISMISSED);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(subscriptionSuggestionRepository.save(suggestion)));
+    }
+
+    private Optional<SubscriptionSuggestion> findPendingSuggestion(SubscriptionSuggestion.Decision payload, User owner) {
+        if (payload.getSuggestionId() == null) return Optional.empty();
+        return subscriptionSuggestionRepository.findByIdAndOwner(payload.getSuggestionId(), owner)
+                .filter(suggestion -> suggestion.getStatus() == SubscriptionSuggestionStatus.PENDING);
+    }
+}
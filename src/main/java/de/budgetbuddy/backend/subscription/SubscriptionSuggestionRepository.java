@@ -0,0 +1,15 @@
+package de.budgetbuddy.backend.subscription;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SubscriptionSuggestionRepository extends JpaRepository<SubscriptionSuggestion, Long> {
+    List<SubscriptionSuggestion> findAllByOwner(User owner);
+
+    List<SubscriptionSuggestion> findAllByOwnerAndStatusOrderByConfidenceDesc(User owner, SubscriptionSuggestionStatus status);
+
+    Optional<SubscriptionSuggestion> findByIdAndOwner(Long id, User owner);
+}
@@ -0,0 +1,7 @@
+package de.budgetbuddy.backend.subscription;
+
+public enum SubscriptionSuggestionStatus {
+    PENDING,
+    ACCEPTED,
+    DISMISSED
+}
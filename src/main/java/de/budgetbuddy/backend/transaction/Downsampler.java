@@ -0,0 +1,59 @@
+package de.budgetbuddy.backend.transaction;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling. The first and last point are kept, every bucket in between
+ * is represented by the point which spans the largest triangle with the previously selected point and the
+ * average of the next bucket, so peaks and valleys of the series survive
+ */
+final class Downsampler {
+    private Downsampler() {}
+
+    /**
+     * @param x Ascending x values
+     * @param y The y values of the points
+     * @param threshold Number of points which are kept, at least 3
+     * @return Ascending indexes of the kept points, all indexes if there aren't more points than the threshold
+     */
+    static int[] lttb(double[] x, double[] y, int threshold) {
+        int length = x.length;
+        if (threshold >= length || threshold < 3) {
+            int[] indexes = new int[length];
+            for (int i = 0; i < length; i++) indexes[i] = i;
+            return indexes;
+        }
+
+        int[] selected = new int[threshold];
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = nextStart;
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                // Twice the area of the triangle, the factor doesn't change the comparison
+                double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                        - (x[previous] - x[i]) * (averageY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected[bucket + 1] = maxIndex;
+            previous = maxIndex;
+        }
+        selected[threshold - 1] = length - 1;
+        return selected;
+    }
+}
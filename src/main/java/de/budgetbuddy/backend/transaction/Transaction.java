@@ -1,5 +1,7 @@
 package de.budgetbuddy.backend.transaction;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import de.budgetbuddy.backend.category.Category;
 import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
 import de.budgetbuddy.backend.subscription.Subscription;
@@ -9,22 +11,34 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transaction", schema = "public")
+@Table(name = "transaction", schema = "public", indexes = {
+        @Index(name = "idx_transaction_subscription", columnList = "subscription, processed_at, transfer_amount"),
+        @Index(name = "uq_transaction_fingerprint", columnList = "fingerprint", unique = true),
+        @Index(name = "idx_transaction_merchant", columnList = "owner, merchant, processed_at")
+})
+@DynamicUpdate
 @Data
 @Builder
 @AllArgsConstructor
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_id_seq")
+    @SequenceGenerator(name = "transaction_id_seq", sequenceName = "transaction_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -47,12 +61,52 @@ public class Transaction {
     @Column(name = "receiver", length = 80, nullable = false)
     private String receiver;
 
+    /**
+     * Canonical merchant of the receiver, assigned by the MerchantService on every write.
+     * Not set when no alias matches the receiver
+     */
+    @Column(name = "merchant")
+    private Long merchantId;
+
     @Column(name = "description")
     private String description;
 
     @Column(name = "transfer_amount", nullable = false)
     private Double transferAmount;
 
+    /**
+     * Currency of the transfer amount, which is the one of the payment-method. Assigned by the ExchangeRateService on every write
+     */
+    @Column(name = "currency", length = 3, nullable = false)
+    @ColumnDefault("'EUR'")
+    private String currency;
+
+    /**
+     * Transfer amount in the base currency of the owner, converted by the rate of the processing date on every write.
+     * The budget counters, monthly aggregates and charts are summed up from it
+     */
+    @Column(name = "base_amount", nullable = false)
+    private Double baseAmount;
+
+    /**
+     * Set when the transaction was booked by the Scheduler for a subscription.
+     * Loaded lazily, the id is available from the proxy without a query
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subscription")
+    private Subscription subscription;
+
+    /**
+     * Identifies imported transactions, so that importing the same statement line again is detected.
+     * Not set for transactions which were entered by hand, until they are matched by an import
+     */
+    @JsonIgnore
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
     @OneToMany(mappedBy = "transaction", cascade = CascadeType.ALL)
     private List<TransactionFile> attachedFiles;
 
@@ -60,29 +114,71 @@ public class Transaction {
     @ColumnDefault("CURRENT_TIMESTAMP")
     private Date createdAt;
 
+    /**
+     * Incremented by every update, so that concurrent modifications don't overwrite each other
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+
     public Transaction() {}
 
     public Transaction.Delete toDelete() {
         return new Transaction.Delete(this.id);
     }
 
+    /**
+     * Falls back to the transfer amount for transactions which haven't been converted yet
+     */
+    public Double amountInBaseCurrency() {
+        return baseAmount != null ? baseAmount : transferAmount;
+    }
+
+    /**
+     * Processing date in the time zone of the server, falls back to today for transactions which haven't been processed yet
+     */
+    public LocalDate processedDate() {
+        return processedAt == null
+                ? LocalDate.now()
+                : Instant.ofEpochMilli(processedAt.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    @JsonProperty("subscriptionId")
+    public Long getSubscriptionId() {
+        return subscription == null ? null : subscription.getId();
+    }
+
     @Data
     public static class DailyTransaction {
+        /**
+         * First day of the bucket if the amounts were summed up by a coarser granularity than days
+         */
         private Date date;
         private Double amount;
     }
 
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DailyTransactionSeries {
+        private DailyTransactionType type;
+        private List<DailyTransaction> points;
+    }
+
     public static Transaction ofSubscription(Subscription subscription) {
         Date processedDate = new Date();
         processedDate.setDate(subscription.getExecuteAt());
         return Transaction.builder()
                 .owner(subscription.getOwner())
+                .subscription(subscription)
                 .processedAt(processedDate)
                 .category(subscription.getCategory())
                 .paymentMethod(subscription.getPaymentMethod())
                 .receiver(subscription.getReceiver())
                 .description(subscription.getDescription())
                 .transferAmount(subscription.getTransferAmount())
+                .currency(subscription.getCurrency())
                 .attachedFiles(new ArrayList<>())
                 .createdAt(new Date())
                 .build();
@@ -91,7 +187,13 @@ public class Transaction {
     @Data
     public static class Create {
         private UUID owner;
+        /**
+         * When omitted, the category of a matching rule or the one suggested by the CategoryClassificationService is assigned
+         */
         private Long categoryId;
+        /**
+         * When omitted, the payment-method of a matching rule is assigned
+         */
         private Long paymentMethodId;
         private Date processedAt;
         private String receiver;
@@ -102,6 +204,28 @@ public class Transaction {
     @Data
     public static class Update {
         private Long transactionId;
+        /**
+         * Version the update is based on, the update is rejected if the transaction was modified in the meantime
+         */
+        private Long version;
+        private Long categoryId;
+        private Long paymentMethodId;
+        private Date processedAt;
+        private String receiver;
+        private String description;
+        private Double transferAmount;
+    }
+
+    /**
+     * Only the provided attributes are changed, missing attributes keep their current value
+     */
+    @Data
+    public static class Patch {
+        private Long transactionId;
+        /**
+         * Version the patch is based on, the patch is rejected if the transaction was modified in the meantime
+         */
+        private Long version;
         private Long categoryId;
         private Long paymentMethodId;
         private Date processedAt;
@@ -116,4 +240,53 @@ public class Transaction {
     public static class Delete {
         private Long transactionId;
     }
+
+    @Data
+    public static class BulkUpdate {
+        private Filter filter = new Filter();
+        private Changes changes = new Changes();
+        /**
+         * Only counts the transactions which would be updated
+         */
+        private boolean dryRun;
+
+        /**
+         * Every provided attribute narrows down the selected transactions, missing attributes match everything
+         */
+        @Data
+        public static class Filter {
+            private LocalDate startDate;
+            private LocalDate endDate;
+            /**
+             * Case-insensitive LIKE pattern, e.g. "%amazon%"
+             */
+            private String receiver;
+            private Long categoryId;
+            private Long paymentMethodId;
+            private List<Long> transactionIds;
+        }
+
+        /**
+         * Missing attributes keep their current value
+         */
+        @Data
+        public static class Changes {
+            private Long categoryId;
+            private Long paymentMethodId;
+            private String description;
+
+            @JsonIgnore
+            public boolean isEmpty() {
+                return categoryId == null && paymentMethodId == null && description == null;
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BulkUpdateResult {
+        private int affectedTransactions;
+        private boolean dryRun;
+    }
 }
@@ -0,0 +1,35 @@
+package de.budgetbuddy.backend.transaction;
+
+import java.util.Collection;
+
+/**
+ * Collects the deltas caused by transaction writes per key of a derived table, e.g. a counter or a running balance.
+ * Every key is written by a single statement once the changes are applied, no matter how many transactions were written.
+ * An update is recorded by removing the previous and adding the new values of the transaction
+ */
+public abstract class TransactionChanges<C extends TransactionChanges<C>> {
+    public C add(Transaction transaction) {
+        record(transaction, 1);
+        return self();
+    }
+
+    public C addAll(Collection<Transaction> transactions) {
+        transactions.forEach(this::add);
+        return self();
+    }
+
+    public C remove(Transaction transaction) {
+        record(transaction, -1);
+        return self();
+    }
+
+    /**
+     * @param sign 1 for added and -1 for removed transactions
+     */
+    protected abstract void record(Transaction transaction, int sign);
+
+    @SuppressWarnings("unchecked")
+    private C self() {
+        return (C) this;
+    }
+}
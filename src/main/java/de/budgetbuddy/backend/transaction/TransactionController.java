@@ -4,20 +4,27 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import de.budgetbuddy.backend.ApiResponse;
 import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
 import de.budgetbuddy.backend.category.Category;
-import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.category.CategoryClassificationService;
 import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
-import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.subscription.SubscriptionProjection;
 import de.budgetbuddy.backend.subscription.SubscriptionRepository;
+import de.budgetbuddy.backend.subscription.SubscriptionService;
 import de.budgetbuddy.backend.transaction.file.TransactionFile;
 import de.budgetbuddy.backend.transaction.file.TransactionFileRepository;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleService;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
 import de.budgetbuddy.backend.user.role.RolePermission;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
@@ -25,27 +32,38 @@ import java.util.*;
 @RestController
 @RequestMapping("/v1/transaction")
 public class TransactionController {
+    /**
+     * LTTB keeps the first and last point, so at least one point in between is required
+     */
+    static final int MIN_POINTS = 3;
     private final UserRepository userRepository;
-    private final CategoryRepository categoryRepository;
-    private final PaymentMethodRepository paymentMethodRepository;
-    private final SubscriptionRepository subscriptionRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final SubscriptionService subscriptionService;
     private final TransactionRepository transactionRepository;
     private final TransactionFileRepository transactionFileRepository;
     private final TransactionService transactionService;
+    private final TransactionIngestService transactionIngestService;
+    private final CategoryClassificationService categoryClassificationService;
+    private final TransactionRuleService transactionRuleService;
 
     public TransactionController(UserRepository userRepository,
-                                 CategoryRepository categoryRepository,
-                                 PaymentMethodRepository paymentMethodRepository,
+                                 ReferenceDataCache referenceDataCache,
                                  SubscriptionRepository subscriptionRepository,
                                  TransactionRepository transactionRepository,
-                                 TransactionFileRepository transactionFileRepository) {
+                                 TransactionFileRepository transactionFileRepository,
+                                 TransactionService transactionService,
+                                 TransactionIngestService transactionIngestService,
+                                 CategoryClassificationService categoryClassificationService,
+                                 TransactionRuleService transactionRuleService) {
         this.userRepository = userRepository;
-        this.categoryRepository = categoryRepository;
-        this.paymentMethodRepository = paymentMethodRepository;
-        this.subscriptionRepository = subscriptionRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.subscriptionService = new SubscriptionService(subscriptionRepository);
         this.transactionRepository = transactionRepository;
         this.transactionFileRepository = transactionFileRepository;
-        this.transactionService = new TransactionService(transactionRepository);
+        this.transactionService = transactionService;
+        this.transactionIngestService = transactionIngestService;
+        this.categoryClassificationService = categoryClassificationService;
+        this.transactionRuleService = transactionRuleService;
     }
 
     @PostMapping
@@ -80,18 +98,34 @@ public class TransactionController {
                                 "You don't have the permissions to create transactions for a different user"));
             }
 
-            Optional<Category> optCategory = categoryRepository
-                    .findByIdAndOwner(transactionAttrs.getCategoryId(), transactionOwner);
+            Optional<Category> optCategory = transactionAttrs.getCategoryId() != null
+                    ? referenceDataCache.findCategory(transactionAttrs.getCategoryId(), transactionOwner)
+                    : transactionRuleService.findCategory(
+                                    transactionOwner,
+                                    transactionAttrs.getReceiver(),
+                                    transactionAttrs.getDescription(),
+                                    transactionAttrs.getTransferAmount())
+                            .or(() -> categoryClassificationService.suggest(
+                                    transactionOwner,
+                                    transactionAttrs.getReceiver(),
+                                    transactionAttrs.getDescription()));
             if (optCategory.isEmpty()) {
                 return ResponseEntity
                         .status(HttpStatus.NOT_FOUND)
                         .body(new ApiResponse<>(
                                 HttpStatus.NOT_FOUND.value(),
-                                "Provided category not found"));
+                                transactionAttrs.getCategoryId() != null
+                                        ? "Provided category not found"
+                                        : "No category could be suggested, please provide one"));
             }
 
-            Optional<PaymentMethod> optPaymentMethod = paymentMethodRepository
-                    .findByIdAndOwner(transactionAttrs.getPaymentMethodId(), transactionOwner);
+            Optional<PaymentMethod> optPaymentMethod = transactionAttrs.getPaymentMethodId() != null
+                    ? referenceDataCache.findPaymentMethod(transactionAttrs.getPaymentMethodId(), transactionOwner)
+                    : transactionRuleService.findPaymentMethod(
+                            transactionOwner,
+                            transactionAttrs.getReceiver(),
+                            transactionAttrs.getDescription(),
+                            transactionAttrs.getTransferAmount());
             if (optPaymentMethod.isEmpty()) {
                 return ResponseEntity
                         .status(HttpStatus.NOT_FOUND)
@@ -115,7 +149,32 @@ public class TransactionController {
 
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new ApiResponse<>(transactionRepository.saveAll(transactions)));
+                .body(new ApiResponse<>(transactionService.createTransactions(transactions)));
+    }
+
+    /**
+     * Same as creating transactions, but the payload is parsed and written in chunks instead of being bound as a whole.
+     * Meant for service accounts pushing large amounts of transactions
+     */
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<TransactionIngestResult>> ingestTransactions(
+            HttpServletRequest request,
+            HttpSession session) throws IOException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        TransactionIngestResult result = transactionIngestService.ingest(request.getInputStream(), sessionUser.get());
+        if (result.getError() != null) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST.value(), result.getError(), result));
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(result));
     }
 
     @GetMapping("/single")
@@ -185,8 +244,12 @@ public class TransactionController {
                             "You don't own this transaction"));
         }
 
-        Optional<Category> optCategory = categoryRepository
-                .findByIdAndOwner(payload.getCategoryId(), transactionOwner);
+        if (payload.getVersion() != null && !payload.getVersion().equals(transaction.getVersion())) {
+            return modifiedInTheMeantime(transaction);
+        }
+
+        Optional<Category> optCategory = referenceDataCache
+                .findCategory(payload.getCategoryId(), transactionOwner);
         if (optCategory.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -195,8 +258,8 @@ public class TransactionController {
                             "Provided category not found"));
         }
 
-        Optional<PaymentMethod> optPaymentMethod = paymentMethodRepository
-                .findByIdAndOwner(payload.getPaymentMethodId(), transactionOwner);
+        Optional<PaymentMethod> optPaymentMethod = referenceDataCache
+                .findPaymentMethod(payload.getPaymentMethodId(), transactionOwner);
         if (optPaymentMethod.isEmpty()) {
             return ResponseEntity
                     .status(HttpStatus.NOT_FOUND)
@@ -205,9 +268,10 @@ public class TransactionController {
                             "Provided payment-method not found"));
         }
 
-        return ResponseEntity
-                .status(HttpStatus.OK)
-                .body(new ApiResponse<>(transactionRepository.save(Transaction.builder()
+        try {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(new ApiResponse<>(transactionService.updateTransaction(transaction, Transaction.builder()
                         .id(transaction.getId())
                         .owner(transactionOwner)
                         .category(optCategory.get())
@@ -216,9 +280,143 @@ public class TransactionController {
                         .receiver(payload.getReceiver())
                         .description(payload.getDescription())
                         .transferAmount(payload.getTransferAmount())
+                        .subscription(transaction.getSubscription())
+                        .fingerprint(transaction.getFingerprint())
                         .attachedFiles(transaction.getAttachedFiles())
                         .createdAt(transaction.getCreatedAt())
+                        .version(payload.getVersion() != null ? payload.getVersion() : transaction.getVersion())
                         .build())));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return modifiedInTheMeantime(transactionRepository.findById(transaction.getId()).orElse(null));
+        }
+    }
+
+    @PatchMapping
+    public ResponseEntity<ApiResponse<Transaction>> patchTransaction(@RequestBody Transaction.Patch payload,
+                                                                     HttpSession session) throws JsonProcessingException {
+        Optional<Transaction> optTransaction = transactionRepository.findById(payload.getTransactionId());
+        if (optTransaction.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided transaction not found"));
+        }
+
+        Transaction transaction = optTransaction.get();
+        User transactionOwner  = transaction.getOwner();
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        } else if (!optSessionUser.get().getUuid().equals(transactionOwner.getUuid())) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(
+                            HttpStatus.CONFLICT.value(),
+                            "You don't own this transaction"));
+        }
+
+        if (payload.getVersion() != null && !payload.getVersion().equals(transaction.getVersion())) {
+            return modifiedInTheMeantime(transaction);
+        }
+
+        Optional<Category> optCategory = Optional.empty();
+        if (payload.getCategoryId() != null) {
+            optCategory = referenceDataCache.findCategory(payload.getCategoryId(), transactionOwner);
+            if (optCategory.isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(
+                                HttpStatus.NOT_FOUND.value(),
+                                "Provided category not found"));
+            }
+        }
+
+        Optional<PaymentMethod> optPaymentMethod = Optional.empty();
+        if (payload.getPaymentMethodId() != null) {
+            optPaymentMethod = referenceDataCache.findPaymentMethod(payload.getPaymentMethodId(), transactionOwner);
+            if (optPaymentMethod.isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(
+                                HttpStatus.NOT_FOUND.value(),
+                                "Provided payment-method not found"));
+            }
+        }
+
+        Optional<Category> category = optCategory;
+        Optional<PaymentMethod> paymentMethod = optPaymentMethod;
+        try {
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .body(new ApiResponse<>(transactionService.patchTransaction(transaction, patchedTransaction -> {
+                        category.ifPresent(patchedTransaction::setCategory);
+                        paymentMethod.ifPresent(patchedTransaction::setPaymentMethod);
+                        if (payload.getProcessedAt() != null) patchedTransaction.setProcessedAt(payload.getProcessedAt());
+                        if (payload.getReceiver() != null) patchedTransaction.setReceiver(payload.getReceiver());
+                        if (payload.getDescription() != null) patchedTransaction.setDescription(payload.getDescription());
+                        if (payload.getTransferAmount() != null) patchedTransaction.setTransferAmount(payload.getTransferAmount());
+                    })));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return modifiedInTheMeantime(transactionRepository.findById(transaction.getId()).orElse(null));
+        }
+    }
+
+    /**
+     * Responds with the current state of the transaction, so that the client can reapply its changes
+     */
+    private ResponseEntity<ApiResponse<Transaction>> modifiedInTheMeantime(Transaction currentTransaction) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ApiResponse<>(
+                        HttpStatus.CONFLICT.value(),
+                        "The transaction was modified in the meantime",
+                        currentTransaction));
+    }
+
+    @PatchMapping("/bulk")
+    public ResponseEntity<ApiResponse<Transaction.BulkUpdateResult>> bulkUpdateTransactions(@RequestBody Transaction.BulkUpdate payload,
+                                                                                            HttpSession session) throws JsonProcessingException {
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+        User sessionUser = optSessionUser.get();
+        Transaction.BulkUpdate.Filter filter = payload.getFilter() != null ? payload.getFilter() : new Transaction.BulkUpdate.Filter();
+        Transaction.BulkUpdate.Changes changes = payload.getChanges() != null ? payload.getChanges() : new Transaction.BulkUpdate.Changes();
+
+        if (!payload.isDryRun() && changes.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST.value(), "No changes we're provided"));
+        }
+
+        if (filter.getStartDate() != null && filter.getEndDate() != null && filter.getStartDate().isAfter(filter.getEndDate())) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST.value(), "The startDate needs to be before the endDate"));
+        }
+
+        for (Long categoryId : new Long[]{filter.getCategoryId(), changes.getCategoryId()}) {
+            if (categoryId != null && referenceDataCache.findCategory(categoryId, sessionUser).isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided category not found"));
+            }
+        }
+
+        for (Long paymentMethodId : new Long[]{filter.getPaymentMethodId(), changes.getPaymentMethodId()}) {
+            if (paymentMethodId != null && referenceDataCache.findPaymentMethod(paymentMethodId, sessionUser).isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(HttpStatus.NOT_FOUND.value(), "Provided payment-method not found"));
+            }
+        }
+
+        int affectedTransactions = payload.isDryRun()
+                ? transactionService.countForBulkUpdate(sessionUser, filter)
+                : transactionService.bulkUpdate(sessionUser, filter, changes);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(new Transaction.BulkUpdateResult(affectedTransactions, payload.isDryRun())));
     }
 
     @PostMapping("/file")
@@ -340,7 +538,7 @@ public class TransactionController {
                         || !optSessionUser.get().getUuid().equals(transactionOwner.getUuid())) {
                     failedToDelete.add(payload);
                 } else {
-                    transactionRepository.delete(transaction);
+                    transactionService.deleteTransaction(transaction);
                     successfullyDeleted.add(transaction);
                 }
             }
@@ -358,17 +556,23 @@ public class TransactionController {
                         response));
     }
 
+    /**
+     * One point per day, or per bucket of the granularity. Long ranges can be downsampled to maxPoints
+     */
     @GetMapping("/daily")
     public ResponseEntity<ApiResponse<List<Transaction.DailyTransaction>>> getDailyTransactions(
        @RequestParam LocalDate startDate,
        @RequestParam LocalDate endDate,
        @RequestParam DailyTransactionType requestedData,
+       @RequestParam(required = false) TimeGranularity granularity,
+       @RequestParam(required = false) Integer maxPoints,
        HttpSession session
     ) throws JsonProcessingException {
-        if (startDate.isAfter(endDate)) {
+        Optional<String> invalidRange = validateSeriesRequest(startDate, endDate, maxPoints);
+        if (invalidRange.isPresent()) {
             return ResponseEntity
                     .status(400)
-                    .body(new ApiResponse<>(400, "The startDate needs to be before the endDate"));
+                    .body(new ApiResponse<>(400, invalidRange.get()));
         }
 
         Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
@@ -382,11 +586,67 @@ public class TransactionController {
                         startDate,
                         endDate,
                         requestedData,
+                        granularity,
+                        maxPoints,
+                        optSessionUser.get().getUuid())));
+    }
+
+    /**
+     * Same as /daily, but for several series at once, e.g. requestedData=INCOME,SPENDINGS
+     */
+    @GetMapping("/daily/series")
+    public ResponseEntity<ApiResponse<List<Transaction.DailyTransactionSeries>>> getDailyTransactionSeries(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            @RequestParam List<DailyTransactionType> requestedData,
+            @RequestParam(required = false) TimeGranularity granularity,
+            @RequestParam(required = false) Integer maxPoints,
+            HttpSession session
+    ) throws JsonProcessingException {
+        Optional<String> invalidRange = validateSeriesRequest(startDate, endDate, maxPoints);
+        if (invalidRange.isPresent()) {
+            return ResponseEntity
+                    .status(400)
+                    .body(new ApiResponse<>(400, invalidRange.get()));
+        }
+
+        if (requestedData.isEmpty()) {
+            return ResponseEntity
+                    .status(400)
+                    .body(new ApiResponse<>(400, "No requestedData we're provided"));
+        }
+
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(200)
+                .body(new ApiResponse<>(transactionService.getTransactionSeries(
+                        startDate,
+                        endDate,
+                        requestedData,
+                        granularity,
+                        maxPoints,
                         optSessionUser.get().getUuid())));
     }
 
+    private Optional<String> validateSeriesRequest(LocalDate startDate, LocalDate endDate, Integer maxPoints) {
+        if (startDate.isAfter(endDate)) {
+            return Optional.of("The startDate needs to be before the endDate");
+        }
+        if (maxPoints != null && maxPoints < MIN_POINTS) {
+            return Optional.of("The maxPoints need to be at least " + MIN_POINTS);
+        }
+        return Optional.empty();
+    }
+
     @GetMapping("/stats")
-    public ResponseEntity<ApiResponse<DashboardStats>> getDashboardStats(HttpSession session) throws JsonProcessingException {
+    public ResponseEntity<ApiResponse<DashboardStats>> getDashboardStats(
+            @RequestParam(required = false) Long category,
+            HttpSession session
+    ) throws JsonProcessingException {
         Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
         if (optSessionUser.isEmpty()) {
             return AuthorizationInterceptor.noValidSessionResponse();
@@ -394,26 +654,29 @@ public class TransactionController {
         User sessionUser = optSessionUser.get();
         UUID sessionUserUUID = sessionUser.getUuid();
 
+        if (category != null && referenceDataCache.findCategory(category, sessionUser).isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided category doesn't exist or isn't owned by you"));
+        }
+
         LocalDate today = LocalDate.now();
         LocalDate tomorrow = today.plusDays(1);
         LocalDate firstDayOfMonth = LocalDate.now().withDayOfMonth(1);
         LocalDate lastDayOfMonth = LocalDate.now().with(TemporalAdjusters.lastDayOfMonth());
 
-        Double receivedEarnings = transactionRepository
-                .getTransactionSumByDateRange(firstDayOfMonth, lastDayOfMonth, sessionUserUUID, DailyTransactionType.INCOME.toString());
-        Double paidExpenses = transactionRepository
-                .getTransactionSumByDateRange(firstDayOfMonth, lastDayOfMonth, sessionUserUUID, DailyTransactionType.SPENDINGS.toString());
-        Double balance = transactionRepository.getBalance(firstDayOfMonth, lastDayOfMonth, sessionUserUUID);
+        Double receivedEarnings = getTransactionSum(firstDayOfMonth, lastDayOfMonth, sessionUserUUID, category, DailyTransactionType.INCOME);
+        Double paidExpenses = getTransactionSum(firstDayOfMonth, lastDayOfMonth, sessionUserUUID, category, DailyTransactionType.SPENDINGS);
+        Double balance = getTransactionSum(firstDayOfMonth, lastDayOfMonth, sessionUserUUID, category, DailyTransactionType.BALANCE);
 
-        Double upcomingSubscriptionEarnings = subscriptionRepository.getUpcomingSubscriptioEarnings(sessionUserUUID);
-        Double upcomingTransactionEarnings = transactionRepository
-                .getTransactionSumByDateRange(tomorrow, lastDayOfMonth, sessionUserUUID, DailyTransactionType.INCOME.toString());
-        Double upcomingSubscriptioExpenses = subscriptionRepository.getUpcomingSubscriptionExpenses(sessionUserUUID);
-        Double upcomingTransactionExpenses = transactionRepository
-                .getTransactionSumByDateRange(tomorrow, lastDayOfMonth, sessionUserUUID, DailyTransactionType.SPENDINGS.toString());
+        SubscriptionProjection upcomingSubscriptions = category == null
+                ? subscriptionService.getUpcomingProjection(sessionUser)
+                : subscriptionService.getUpcomingProjection(sessionUser, referenceDataCache.getCategorySubtree(category, sessionUser));
+        Double upcomingTransactionEarnings = getTransactionSum(tomorrow, lastDayOfMonth, sessionUserUUID, category, DailyTransactionType.INCOME);
+        Double upcomingTransactionExpenses = getTransactionSum(tomorrow, lastDayOfMonth, sessionUserUUID, category, DailyTransactionType.SPENDINGS);
 
-        Double upcomingEarnings = upcomingSubscriptionEarnings + upcomingTransactionEarnings;
-        Double upcomingExpenses = upcomingSubscriptioExpenses + upcomingTransactionExpenses;
+        Double upcomingEarnings = upcomingSubscriptions.getIncome() + upcomingTransactionEarnings;
+        Double upcomingExpenses = upcomingSubscriptions.getExpenses() + Math.abs(upcomingTransactionExpenses);
 
         return ResponseEntity
                 .status(200)
@@ -425,15 +688,42 @@ public class TransactionController {
                         balance)));
     }
 
+    /**
+     * Sums up the transactions of the user, or only those of the category subtree if a category is provided
+     */
+    private Double getTransactionSum(LocalDate startDate, LocalDate endDate, UUID owner, Long category, DailyTransactionType type) {
+        if (category != null) {
+            return transactionRepository.getCategoryTransactionSumByDateRange(startDate, endDate, owner, category, type.toString());
+        }
+        return type == DailyTransactionType.BALANCE
+                ? transactionRepository.getBalance(startDate, endDate, owner)
+                : transactionRepository.getTransactionSumByDateRange(startDate, endDate, owner, type.toString());
+    }
+
     @GetMapping("/monthly-balance")
-    public ResponseEntity<ApiResponse<List<MonthlyBalance>>> getMonthlyBalance(HttpSession session) throws JsonProcessingException {
+    public ResponseEntity<ApiResponse<List<MonthlyBalance>>> getMonthlyBalance(
+            @RequestParam(required = false) Long category,
+            HttpSession session
+    ) throws JsonProcessingException {
         Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
         if (optSessionUser.isEmpty()) {
             return AuthorizationInterceptor.noValidSessionResponse();
         }
 
+        if (category == null) {
+            return ResponseEntity
+                    .status(200)
+                    .body(new ApiResponse<>(transactionRepository.getMonthlyBalance(optSessionUser.get())));
+        }
+
+        if (referenceDataCache.findCategory(category, optSessionUser.get()).isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided category doesn't exist or isn't owned by you"));
+        }
+
         return ResponseEntity
                 .status(200)
-                .body(new ApiResponse<>(transactionRepository.getMonthlyBalance(optSessionUser.get())));
+                .body(new ApiResponse<>(transactionRepository.getMonthlyBalance(optSessionUser.get(), category)));
     }
 }
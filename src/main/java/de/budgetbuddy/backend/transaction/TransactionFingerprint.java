@@ -0,0 +1,62 @@
+package de.budgetbuddy.backend.transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Hashes the normalized date, amount, receiver and payment-method of a transaction.
+ * The receiver is compared case-insensitive and without punctuation or whitespace, the amount in cents
+ */
+public final class TransactionFingerprint {
+    private TransactionFingerprint() {}
+
+    /**
+     * Identical transactions, like two coffees on the same day, are told apart by their occurrence within the import
+     */
+    public static String of(Transaction transaction, int occurrence) {
+        return of(key(transaction), occurrence);
+    }
+
+    static String of(String key, int occurrence) {
+        return hash(key + "|" + occurrence);
+    }
+
+    static String key(Transaction transaction) {
+        String date = transaction.processedDate().toString();
+        long cents = Math.round(transaction.getTransferAmount() * 100);
+        String receiver = transaction.getReceiver() == null
+                ? ""
+                : transaction.getReceiver().toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", "");
+        return date + "|" + cents + "|" + receiver + "|" + transaction.getPaymentMethod().getId();
+    }
+
+    /**
+     * Counts identical transactions across all chunks of one import, so that identical transactions
+     * on both sides of a chunk boundary receive different fingerprints. Only the keys are kept, not the transactions
+     */
+    public static final class Occurrences {
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        /**
+         * Assigns the fingerprint of the next occurrence of the transaction within the import
+         */
+        public void assign(Transaction transaction) {
+            String key = key(transaction);
+            transaction.setFingerprint(of(key, counts.merge(key, 1, Integer::sum)));
+        }
+    }
+
+    private static String hash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package de.budgetbuddy.backend.transaction;
+
+public enum TransactionImportOutcome {
+    /**
+     * The transaction has been created
+     */
+    NEW,
+    /**
+     * The transaction has been imported before and was skipped
+     */
+    DUPLICATE,
+    /**
+     * The transaction already existed without fingerprint, e.g. because it was entered by hand.
+     * The existing transaction received the fingerprint and no transaction was created
+     */
+    MATCHED
+}
@@ -0,0 +1,41 @@
+package de.budgetbuddy.backend.transaction;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TransactionIngestResult {
+    private int processedTransactions;
+    private int createdTransactions;
+    /**
+     * Transactions which have been imported before and were skipped
+     */
+    private int duplicateTransactions;
+    /**
+     * Transactions which matched an existing transaction without fingerprint, e.g. one that was entered by hand
+     */
+    private int matchedTransactions;
+    private int rejectedTransactions;
+    /**
+     * Reasons of the rejected transactions, prefixed by their zero-based index within the payload.
+     * Only the first rejections are reported
+     */
+    private List<String> errors = new ArrayList<>();
+    /**
+     * Zero-based indexes of the first duplicate and matched transactions, every transaction which is neither listed
+     * here nor rejected has been created
+     */
+    private List<Integer> duplicates = new ArrayList<>();
+    private List<Integer> matches = new ArrayList<>();
+    /**
+     * Set when the payload couldn't be parsed any further, the transactions before the error are created anyway
+     */
+    private String error;
+    private long durationMillis;
+
+    public double getTransactionsPerSecond() {
+        return durationMillis == 0 ? processedTransactions : processedTransactions * 1000.0 / durationMillis;
+    }
+}
@@ -0,0 +1,222 @@
+package de.budgetbuddy.backend.transaction;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryClassificationService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleService;
+import de.budgetbuddy.backend.user.User;
+import de.budgetbuddy.backend.user.UserRepository;
+import de.budgetbuddy.backend.user.role.RolePermission;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates transactions from a JSON array which is parsed element by element,
+ * so apart from the occurrence counts of the fingerprints the heap usage doesn't depend on the size of the payload.
+ * Transactions which have been ingested before are skipped, see TransactionService.importTransactions
+ */
+@Service
+public class TransactionIngestService {
+    /**
+     * Number of transactions which are validated and inserted together
+     */
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ROWS = 100;
+    private final UserRepository userRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final TransactionService transactionService;
+    private final CategoryClassificationService categoryClassificationService;
+    private final TransactionRuleService transactionRuleService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public TransactionIngestService(UserRepository userRepository,
+                                    ReferenceDataCache referenceDataCache,
+                                    TransactionService transactionService,
+                                    CategoryClassificationService categoryClassificationService,
+                                    TransactionRuleService transactionRuleService,
+                                    ObjectMapper objectMapper,
+                                    EntityManager entityManager) {
+        this.userRepository = userRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.transactionService = transactionService;
+        this.categoryClassificationService = categoryClassificationService;
+        this.transactionRuleService = transactionRuleService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Invalid transactions, including those with values of the wrong type, are rejected one by one,
+     * every chunk is created by its own database transaction.
+     * When the payload can't be parsed any further, the transactions which have been read until then are still created
+     */
+    public TransactionIngestResult ingest(InputStream payload, User sessionUser) throws IOException {
+        long start = System.nanoTime();
+        TransactionIngestResult result = new TransactionIngestResult();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        TransactionFingerprint.Occurrences occurrences = new TransactionFingerprint.Occurrences();
+        int index = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                result.setError("Expected an array of transactions");
+            } else {
+                for (; parser.nextToken() == JsonToken.START_OBJECT; index++) {
+                    JsonStreamContext array = parser.getParsingContext().getParent();
+                    result.setProcessedTransactions(index + 1);
+                    try {
+                        chunk.add(new Row(index, objectMapper.readValue(parser, Transaction.Create.class)));
+                    } catch (MismatchedInputException e) {
+                        reject(result, index, e.getOriginalMessage());
+                        skipToEndOfElement(parser, array);
+                    }
+                    if (chunk.size() == CHUNK_SIZE) {
+                        writeChunk(chunk, sessionUser, occurrences, result);
+                    }
+                }
+                if (parser.currentToken() != JsonToken.END_ARRAY) {
+                    result.setError("Expected an object for the transaction at index " + index);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            result.setError("Invalid transaction at index " + index + ": " + e.getOriginalMessage());
+        }
+        writeChunk(chunk, sessionUser, occurrences, result);
+
+        result.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Advances the parser to the end of the element which failed to bind, so the next element can be read.
+     * The element ends once the parser is back in the context of the array
+     */
+    private static void skipToEndOfElement(JsonParser parser, JsonStreamContext array) throws IOException {
+        while (parser.currentToken() != JsonToken.END_OBJECT || parser.getParsingContext() != array) {
+            if (parser.nextToken() == null) throw new JsonParseException(parser, "Unexpected end of the transaction");
+        }
+    }
+
+    /**
+     * The owners of the chunk are loaded by a single query, the categories and payment-methods are read from the cache.
+     * The ingest runs on the request thread, whose EntityManager stays open for the whole request,
+     * so it's cleared after every chunk. Otherwise, the written transactions and everything loaded for them would stay managed
+     */
+    private void writeChunk(List<Row> chunk,
+                            User sessionUser,
+                            TransactionFingerprint.Occurrences occurrences,
+                            TransactionIngestResult result) {
+        if (chunk.isEmpty()) return;
+
+        Set<UUID> ownerIds = chunk.stream()
+                .map(row -> row.attrs().getOwner())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, User> owners = userRepository.findAllById(ownerIds)
+                .stream()
+                .collect(Collectors.toMap(User::getUuid, Function.identity()));
+        boolean isServiceAccount = sessionUser.getRole() != null
+                && sessionUser.getRole().isGreaterOrEqualThan(RolePermission.SERVICE_ACCOUNT);
+
+        List<Transaction> transactions = new ArrayList<>(chunk.size());
+        List<Integer> indexes = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            int index = row.index();
+            Transaction.Create transactionAttrs = row.attrs();
+            User owner = transactionAttrs.getOwner() == null ? null : owners.get(transactionAttrs.getOwner());
+            if (owner == null) {
+                reject(result, index, "Provided owner not found");
+                continue;
+            }
+
+            if (!isServiceAccount && !sessionUser.getUuid().equals(owner.getUuid())) {
+                reject(result, index, "You don't have the permissions to create transactions for a different user");
+                continue;
+            }
+
+            if (transactionAttrs.getProcessedAt() == null
+                    || transactionAttrs.getReceiver() == null
+                    || transactionAttrs.getTransferAmount() == null) {
+                reject(result, index, "The processedAt, receiver and transferAmount are required");
+                continue;
+            }
+
+            Optional<Category> category = transactionAttrs.getCategoryId() != null
+                    ? referenceDataCache.findCategory(transactionAttrs.getCategoryId(), owner)
+                    : transactionRuleService.findCategory(owner, transactionAttrs.getReceiver(), transactionAttrs.getDescription(), transactionAttrs.getTransferAmount())
+                            .or(() -> categoryClassificationService.suggest(owner, transactionAttrs.getReceiver(), transactionAttrs.getDescription()));
+            if (category.isEmpty()) {
+                reject(result, index, transactionAttrs.getCategoryId() != null
+                        ? "Provided category not found"
+                        : "No category could be suggested, please provide one");
+                continue;
+            }
+
+            Optional<PaymentMethod> paymentMethod = transactionAttrs.getPaymentMethodId() != null
+                    ? referenceDataCache.findPaymentMethod(transactionAttrs.getPaymentMethodId(), owner)
+                    : transactionRuleService.findPaymentMethod(owner, transactionAttrs.getReceiver(), transactionAttrs.getDescription(), transactionAttrs.getTransferAmount());
+            if (paymentMethod.isEmpty()) {
+                reject(result, index, "Provided payment-method not found");
+                continue;
+            }
+
+            transactions.add(Transaction.builder()
+                    .owner(owner)
+                    .category(category.get())
+                    .paymentMethod(paymentMethod.get())
+                    .processedAt(transactionAttrs.getProcessedAt())
+                    .receiver(transactionAttrs.getReceiver())
+                    .description(transactionAttrs.getDescription())
+                    .transferAmount(transactionAttrs.getTransferAmount())
+                    .attachedFiles(new ArrayList<>())
+                    .createdAt(new Date())
+                    .build());
+            indexes.add(index);
+        }
+        chunk.clear();
+
+        List<TransactionImportOutcome> outcomes = transactions.isEmpty()
+                ? List.of()
+                : transactionService.importTransactions(transactions, occurrences);
+        entityManager.clear();
+        for (int i = 0; i < outcomes.size(); i++) {
+            switch (outcomes.get(i)) {
+                case NEW -> result.setCreatedTransactions(result.getCreatedTransactions() + 1);
+                case DUPLICATE -> {
+                    result.setDuplicateTransactions(result.getDuplicateTransactions() + 1);
+                    if (result.getDuplicates().size() < MAX_REPORTED_ROWS) result.getDuplicates().add(indexes.get(i));
+                }
+                case MATCHED -> {
+                    result.setMatchedTransactions(result.getMatchedTransactions() + 1);
+                    if (result.getMatches().size() < MAX_REPORTED_ROWS) result.getMatches().add(indexes.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param index Zero-based index of the transaction within the payload
+     */
+    private record Row(int index, Transaction.Create attrs) {}
+
+    private void reject(TransactionIngestResult result, int index, String reason) {
+        result.setRejectedTransactions(result.getRejectedTransactions() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ROWS) {
+            result.getErrors().add(index + ": " + reason);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.budgetbuddy.backend.transaction;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Matches imported transactions against existing transactions of the same payment-method by a sorted-merge join.
+ * Both sides are sorted by date, so every imported transaction only visits the candidates within the date tolerance
+ */
+final class TransactionMatcher {
+    static final int DATE_TOLERANCE_DAYS = 3;
+    static final double AMOUNT_TOLERANCE = 0.01;
+
+    private TransactionMatcher() {}
+
+    /**
+     * Every candidate is matched at most once, the candidate with the closest date wins
+     * @return The matched candidate for every imported transaction, null if there is none
+     */
+    static Transaction[] match(List<Transaction> imported, List<Transaction> candidates) {
+        Transaction[] matches = new Transaction[imported.size()];
+        if (candidates.isEmpty()) return matches;
+
+        Map<Long, List<Transaction>> candidatesByPaymentMethod = candidates.stream()
+                .collect(Collectors.groupingBy(transaction -> transaction.getPaymentMethod().getId()));
+        Map<Long, List<Integer>> importedByPaymentMethod = new HashMap<>();
+        for (int i = 0; i < imported.size(); i++) {
+            importedByPaymentMethod
+                    .computeIfAbsent(imported.get(i).getPaymentMethod().getId(), key -> new ArrayList<>())
+                    .add(i);
+        }
+
+        importedByPaymentMethod.forEach((paymentMethod, indexes) -> {
+            List<Transaction> sortedCandidates = candidatesByPaymentMethod.get(paymentMethod);
+            if (sortedCandidates == null) return;
+
+            sortedCandidates.sort(Comparator.comparingLong(TransactionMatcher::getDay));
+            indexes.sort(Comparator.comparingLong(index -> getDay(imported.get(index))));
+            long[] candidateDays = sortedCandidates.stream().mapToLong(TransactionMatcher::getDay).toArray();
+            boolean[] used = new boolean[sortedCandidates.size()];
+
+            int windowStart = 0;
+            for (int index : indexes) {
+                Transaction transaction = imported.get(index);
+                long day = getDay(transaction);
+                while (windowStart < candidateDays.length && candidateDays[windowStart] < day - DATE_TOLERANCE_DAYS) {
+                    windowStart++;
+                }
+
+                int best = -1;
+                for (int j = windowStart; j < candidateDays.length && candidateDays[j] <= day + DATE_TOLERANCE_DAYS; j++) {
+                    if (used[j]) continue;
+                    double amountDifference = Math.abs(sortedCandidates.get(j).getTransferAmount() - transaction.getTransferAmount());
+                    if (amountDifference > AMOUNT_TOLERANCE + 1e-9) continue;
+                    if (best == -1 || Math.abs(candidateDays[j] - day) < Math.abs(candidateDays[best] - day)) {
+                        best = j;
+                    }
+                }
+
+                if (best != -1) {
+                    used[best] = true;
+                    matches[index] = sortedCandidates.get(best);
+                }
+            }
+        });
+        return matches;
+    }
+
+    static long getDay(Transaction transaction) {
+        return transaction.processedDate().toEpochDay();
+    }
+}
@@ -1,17 +1,109 @@
 package de.budgetbuddy.backend.transaction;
 
+import de.budgetbuddy.backend.category.Category;
 import de.budgetbuddy.backend.user.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+    /**
+     * Selects the transactions of the owner for a bulk update, every filter which is null matches all transactions
+     */
+    String BULK_UPDATE_FILTER = "where owner = :owner\n" +
+            "  and (cast(:start_date as date) is null or processed_at >= cast(:start_date as date))\n" +
+            "  and (cast(:end_date as date) is null or processed_at < cast(:end_date as date) + 1)\n" +
+            "  and (cast(:receiver as text) is null or receiver ilike cast(:receiver as text))\n" +
+            "  and (cast(:category as bigint) is null or category = cast(:category as bigint))\n" +
+            "  and (cast(:payment_method as bigint) is null or payment_method = cast(:payment_method as bigint))\n" +
+            "  and (:filter_ids = false or id in (:ids))";
+
     Optional<Transaction> findByIdAndOwner(Long id, User owner);
+
+    /**
+     * Category, receiver and description of the most recent transactions, used to train the CategoryClassifier.
+     * Imported transactions are skipped, their category may have been guessed by the classifier itself
+     */
+    @Query("select t.category.id, t.receiver, t.description from Transaction t where t.owner = :owner and t.fingerprint is null order by t.processedAt desc")
+    List<Object[]> findCategoryTrainingData(@Param("owner") User owner, Pageable pageable);
+
+    /**
+     * Id, owner and receiver of the transactions without merchant after the provided id, used to assign the merchants page by page
+     */
+    @Query("select t.id, t.owner.uuid, t.receiver from Transaction t where t.merchantId is null and t.id > :afterId order by t.id")
+    List<Object[]> findUnassignedMerchants(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Id, receiver and merchant of the transactions of the owner after the provided id, used to reassign the merchants page by page
+     */
+    @Query("select t.id, t.receiver, t.merchantId from Transaction t where t.owner = :owner and t.id > :afterId order by t.id")
+    List<Object[]> findMerchants(@Param("owner") User owner, @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Transactions of the payment-method after the provided id, which aren't in the currency of the payment-method,
+     * used to convert the transactions page by page after they were moved between payment-methods of different currencies
+     */
+    @Query("select t from Transaction t where t.owner = :owner and t.paymentMethod.id = :paymentMethod " +
+            "and t.currency <> t.paymentMethod.currency and t.id > :afterId order by t.id")
+    List<Transaction> findAllWithOtherCurrency(@Param("owner") User owner,
+                                               @Param("paymentMethod") Long paymentMethod,
+                                               @Param("afterId") long afterId,
+                                               Pageable pageable);
+
+    /**
+     * Doesn't increment the version, the merchant is derived from the receiver on every write,
+     * so reassigning it mustn't reject the next update of a client with a conflict
+     */
+    @Modifying
+    @Transactional
+    @Query("update Transaction t set t.merchantId = :merchant where t.id in :ids")
+    int updateMerchant(@Param("ids") Collection<Long> ids, @Param("merchant") Long merchant);
+
+    /**
+     * Number of transactions, income and expenses per merchant, served by the index on owner, merchant and processed_at
+     */
+    @Query("select t.merchantId, count(t), " +
+            "sum(case when t.baseAmount > 0 then t.baseAmount else 0 end), " +
+            "sum(case when t.baseAmount < 0 then -t.baseAmount else 0 end) " +
+            "from Transaction t " +
+            "where t.owner = :owner and t.merchantId is not null and t.processedAt >= :start and t.processedAt < :end " +
+            "group by t.merchantId")
+    List<Object[]> findMerchantSpendings(@Param("owner") User owner, @Param("start") Date start, @Param("end") Date end);
+
+    /**
+     * Receiver, merchant, processing date, amount, category and payment-method of the transactions which weren't booked
+     * by a subscription, ordered by their processing date. Used by the RecurringPaymentDetector in a single pass
+     */
+    @Query("select t.receiver, t.merchantId, t.processedAt, t.transferAmount, t.category.id, t.paymentMethod.id " +
+            "from Transaction t " +
+            "where t.owner = :owner and t.subscription is null and t.processedAt >= :start " +
+            "order by t.processedAt")
+    List<Object[]> findRecurringPaymentCandidates(@Param("owner") User owner, @Param("start") Date start);
+
+    @Query("select t.fingerprint from Transaction t where t.fingerprint in :fingerprints")
+    Set<String> findExistingFingerprints(@Param("fingerprints") Collection<String> fingerprints);
+
+    /**
+     * Transactions without fingerprint, which may be matched by imported transactions of the same payment-methods
+     */
+    @Query("select t from Transaction t " +
+            "where t.paymentMethod.id in :paymentMethods " +
+            "  and t.fingerprint is null " +
+            "  and t.processedAt >= :start and t.processedAt < :end")
+    List<Transaction> findReconciliationCandidates(@Param("paymentMethods") Collection<Long> paymentMethods,
+                                                   @Param("start") Date start,
+                                                   @Param("end") Date end);
     List<Transaction> findAllByOwner(User owner);
     List<Transaction> findTransactionsByOwnerOrderByProcessedAtDesc(User owner);
     @Query(value = "select * from f_get_daily_transactions(:start_date, :end_date, :requested_data, :user_id)", nativeQuery = true)
@@ -33,13 +125,125 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
                       @Param("end_date") LocalDate endDate,
                       @Param("user_id") UUID userId);
 
+    /**
+     * Like getTransactionSumByDateRange, but only the transactions of the category and all of its descendants are summed up
+     */
+    @Query(value = "select coalesce(sum(t.base_amount), 0)\n" +
+            "from category_closure\n" +
+            "         join transaction t on t.category = category_closure.descendant\n" +
+            "where category_closure.ancestor = :category\n" +
+            "  and t.owner = :user_id\n" +
+            "  and t.processed_at >= :start_date\n" +
+            "  and t.processed_at < cast(:end_date as date) + 1\n" +
+            "  and (:data_type = 'BALANCE'\n" +
+            "    or (:data_type = 'INCOME' and t.base_amount >= 0)\n" +
+            "    or (:data_type = 'SPENDINGS' and t.base_amount < 0))", nativeQuery = true)
+    Double getCategoryTransactionSumByDateRange(@Param("start_date") LocalDate startDate,
+                                                @Param("end_date") LocalDate endDate,
+                                                @Param("user_id") UUID userId,
+                                                @Param("category") Long category,
+                                                @Param("data_type") String dataType);
+
     @Query("select new de.budgetbuddy.backend.transaction.MonthlyBalance(" +
             "date_trunc('month', t.processedAt), " +
-            "sum(case when t.transferAmount >= 0 then t.transferAmount else 0 end), " +
-            "sum(case when t.transferAmount < 0 then t.transferAmount else 0 end), " +
-            "sum(t.transferAmount)) " +
+            "sum(case when t.baseAmount >= 0 then t.baseAmount else 0 end), " +
+            "sum(case when t.baseAmount < 0 then t.baseAmount else 0 end), " +
+            "sum(t.baseAmount)) " +
             "from Transaction t where t.owner = :user " +
             "group by date_trunc('month', t.processedAt) " +
             "order by date_trunc('month', t.processedAt) desc")
     List<MonthlyBalance> getMonthlyBalance(@Param("user") User user);
+
+    @Query("select new de.budgetbuddy.backend.transaction.MonthlyBalance(" +
+            "date_trunc('month', t.processedAt), " +
+            "sum(case when t.baseAmount >= 0 then t.baseAmount else 0 end), " +
+            "sum(case when t.baseAmount < 0 then t.baseAmount else 0 end), " +
+            "sum(t.baseAmount)) " +
+            "from Transaction t where t.owner = :user " +
+            "and t.category.id in (select c.descendant from CategoryClosure c where c.ancestor = :category) " +
+            "group by date_trunc('month', t.processedAt) " +
+            "order by date_trunc('month', t.processedAt) desc")
+    List<MonthlyBalance> getMonthlyBalance(@Param("user") User user, @Param("category") Long category);
+
+    /**
+     * Creation date of the oldest transaction which is linked to its subscription
+     */
+    @Query("select min(t.createdAt) from Transaction t where t.subscription is not null")
+    Optional<Date> findFirstSubscriptionBookingDate();
+
+    /**
+     * Links transactions which were booked before the transaction.subscription column existed to their subscription.
+     * A transaction matches when it has the same attributes as the subscription and was processed on its execution day
+     * @param createdBefore Transactions created afterward are either linked when booked or were entered by hand
+     * @return Number of linked transactions. Is smaller than the batchSize when there is nothing left to link
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update transaction\n" +
+            "set subscription = matches.subscription,\n" +
+            "    version      = version + 1\n" +
+            "from (select t.id, min(s.id) as subscription\n" +
+            "      from transaction t\n" +
+            "               join subscription s\n" +
+            "                    on s.owner = t.owner\n" +
+            "                        and s.category = t.category\n" +
+            "                        and s.payment_method = t.payment_method\n" +
+            "                        and s.receiver = t.receiver\n" +
+            "                        and s.transfer_amount = t.transfer_amount\n" +
+            "                        and s.execute_at = extract(DAY from t.processed_at)\n" +
+            "      where t.subscription is null\n" +
+            "        and t.created_at < :created_before\n" +
+            "      group by t.id\n" +
+            "      limit :batch_size) as matches\n" +
+            "where transaction.id = matches.id", nativeQuery = true)
+    int linkSubscriptionTransactions(@Param("created_before") Date createdBefore, @Param("batch_size") int batchSize);
+
+    /**
+     * Moves all transactions of the merged categories to the target by a single statement
+     * @return Number of moved transactions
+     */
+    @Modifying
+    @Transactional
+    @Query("update versioned Transaction t set t.category = :target where t.owner = :owner and t.category.id in :categories")
+    int moveToCategory(@Param("owner") User owner,
+                       @Param("categories") Collection<Long> categories,
+                       @Param("target") Category target);
+
+    @Query(value = "select count(*) from transaction\n" + BULK_UPDATE_FILTER, nativeQuery = true)
+    int countForBulkUpdate(@Param("owner") UUID owner,
+                           @Param("start_date") LocalDate startDate,
+                           @Param("end_date") LocalDate endDate,
+                           @Param("receiver") String receiver,
+                           @Param("category") Long category,
+                           @Param("payment_method") Long paymentMethod,
+                           @Param("filter_ids") boolean filterIds,
+                           @Param("ids") Collection<Long> ids);
+
+    /**
+     * Applies the changes to all selected transactions by a single statement, changes which are null keep the current value.
+     * Transactions moved to a payment-method of another currency keep their currency and amount in the base currency,
+     * they need to be converted afterward, see findAllWithOtherCurrency.
+     * The version is incremented, so edits based on the previous state fail the version check
+     * @return Number of updated transactions
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "update transaction\n" +
+            "set category       = coalesce(cast(:new_category as bigint), category),\n" +
+            "    payment_method = coalesce(cast(:new_payment_method as bigint), payment_method),\n" +
+            "    description    = coalesce(cast(:new_description as text), description),\n" +
+            "    version        = version + 1\n" +
+            BULK_UPDATE_FILTER,
+            nativeQuery = true)
+    int bulkUpdate(@Param("owner") UUID owner,
+                   @Param("start_date") LocalDate startDate,
+                   @Param("end_date") LocalDate endDate,
+                   @Param("receiver") String receiver,
+                   @Param("category") Long category,
+                   @Param("payment_method") Long paymentMethod,
+                   @Param("filter_ids") boolean filterIds,
+                   @Param("ids") Collection<Long> ids,
+                   @Param("new_category") Long newCategory,
+                   @Param("new_payment_method") Long newPaymentMethod,
+                   @Param("new_description") String newDescription);
 }
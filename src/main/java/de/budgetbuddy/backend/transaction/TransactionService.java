@@ -1,19 +1,426 @@
 package de.budgetbuddy.backend.transaction;
 
+import de.budgetbuddy.backend.analytics.MonthlyAggregateService;
+import de.budgetbuddy.backend.anomaly.SpendingAnomaly;
+import de.budgetbuddy.backend.anomaly.SpendingAnomalyDetectedEvent;
+import de.budgetbuddy.backend.anomaly.SpendingAnomalyService;
+import de.budgetbuddy.backend.budget.BudgetSpendingChangedEvent;
+import de.budgetbuddy.backend.budget.BudgetSpendingService;
+import de.budgetbuddy.backend.category.CategoryClassificationService;
+import de.budgetbuddy.backend.category.CategoryTrainingDataChangedEvent;
+import de.budgetbuddy.backend.currency.ExchangeRateService;
+import de.budgetbuddy.backend.merchant.MerchantService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodBalanceService;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleService;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 public class TransactionService {
+    /**
+     * Number of transactions which are converted to another currency per page
+     */
+    static final int CONVERSION_BATCH_SIZE = 1_000;
     private final TransactionRepository transactionRepository;
+    private final BudgetSpendingService budgetSpendingService;
+    private final PaymentMethodBalanceService paymentMethodBalanceService;
+    private final MonthlyAggregateService monthlyAggregateService;
+    private final CategoryClassificationService categoryClassificationService;
+    private final TransactionRuleService transactionRuleService;
+    private final MerchantService merchantService;
+    private final SpendingAnomalyService spendingAnomalyService;
+    private final ExchangeRateService exchangeRateService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TransactionService(TransactionRepository transactionRepository) {
+    public TransactionService(TransactionRepository transactionRepository,
+                              BudgetSpendingService budgetSpendingService,
+                              PaymentMethodBalanceService paymentMethodBalanceService,
+                              MonthlyAggregateService monthlyAggregateService,
+                              CategoryClassificationService categoryClassificationService,
+                              TransactionRuleService transactionRuleService,
+                              MerchantService merchantService,
+                              SpendingAnomalyService spendingAnomalyService,
+                              ExchangeRateService exchangeRateService,
+                              ApplicationEventPublisher eventPublisher) {
         this.transactionRepository = transactionRepository;
+        this.budgetSpendingService = budgetSpendingService;
+        this.paymentMethodBalanceService = paymentMethodBalanceService;
+        this.monthlyAggregateService = monthlyAggregateService;
+        this.categoryClassificationService = categoryClassificationService;
+        this.transactionRuleService = transactionRuleService;
+        this.merchantService = merchantService;
+        this.spendingAnomalyService = spendingAnomalyService;
+        this.exchangeRateService = exchangeRateService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Applies the rules of the owners to omitted categories and payment-methods, saves the transactions and updates the budget counters, payment-method balances
+     * and monthly aggregates within the same database transaction. The categories of the transactions are learned by the CategoryClassificationService,
+     * unusually large expenses are flagged by the SpendingAnomalyService
+     */
+    @Transactional
+    public List<Transaction> createTransactions(List<Transaction> transactions) {
+        transactionRuleService.apply(transactions);
+        List<Transaction> savedTransactions = saveTransactions(transactions);
+        publishTrainingData(categoryClassificationService.changes()
+                .addAll(transactions)
+                .apply());
+        return savedTransactions;
+    }
+
+    private List<Transaction> saveTransactions(List<Transaction> transactions) {
+        exchangeRateService.apply(transactions);
+        merchantService.apply(transactions);
+        List<Transaction> savedTransactions = transactionRepository.saveAll(transactions);
+        paymentMethodBalanceService.changes()
+                .addAll(transactions)
+                .apply();
+        monthlyAggregateService.changes()
+                .addAll(transactions)
+                .apply();
+        publishSpendingChanges(budgetSpendingService.changes()
+                .addAll(transactions)
+                .apply());
+        publishAnomalies(spendingAnomalyService.changes()
+                .addAll(transactions)
+                .apply());
+        return savedTransactions;
+    }
+
+    /**
+     * Creates the imported transactions within the same database transaction, except those which have been imported before (same fingerprint) and those
+     * which match an existing transaction without fingerprint, e.g. one that was entered by hand.
+     * The matched transactions receive the fingerprint, so that later imports detect them as duplicates
+     * @param occurrences Shared by all chunks of the same import
+     * @return The outcome of every transaction, in the order of the provided transactions
+     */
+    @Transactional
+    public List<TransactionImportOutcome> importTransactions(List<Transaction> transactions,
+                                                             TransactionFingerprint.Occurrences occurrences) {
+        TransactionImportOutcome[] outcomes = new TransactionImportOutcome[transactions.size()];
+        transactions.forEach(occurrences::assign);
+
+        Set<String> existingFingerprints = transactionRepository.findExistingFingerprints(
+                transactions.stream().map(Transaction::getFingerprint).toList());
+        List<Transaction> remainingTransactions = new ArrayList<>();
+        List<Integer> remainingIndexes = new ArrayList<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            if (existingFingerprints.contains(transactions.get(i).getFingerprint())) {
+                outcomes[i] = TransactionImportOutcome.DUPLICATE;
+            } else {
+                remainingTransactions.add(transactions.get(i));
+                remainingIndexes.add(i);
+            }
+        }
+        if (remainingTransactions.isEmpty()) return Arrays.asList(outcomes);
+
+        Transaction[] matches = TransactionMatcher.match(remainingTransactions, findReconciliationCandidates(remainingTransactions));
+        List<Transaction> newTransactions = new ArrayList<>();
+        CategoryClassificationService.Changes trainingChanges = categoryClassificationService.changes();
+        for (int i = 0; i < remainingTransactions.size(); i++) {
+            if (matches[i] != null) {
+                // The matched transaction is managed, so the fingerprint gets written on commit. From then on it's no longer training data
+                trainingChanges.remove(matches[i]);
+                matches[i].setFingerprint(remainingTransactions.get(i).getFingerprint());
+                outcomes[remainingIndexes.get(i)] = TransactionImportOutcome.MATCHED;
+            } else {
+                newTransactions.add(remainingTransactions.get(i));
+                outcomes[remainingIndexes.get(i)] = TransactionImportOutcome.NEW;
+            }
+        }
+        // The rules are already applied by the TransactionImportService. Imported categories may be guessed, so they aren't learned
+        if (!newTransactions.isEmpty()) saveTransactions(newTransactions);
+        publishTrainingData(trainingChanges.apply());
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * Loads the transactions without fingerprint of the same payment-methods within the date range of the
+     * imported transactions, widened by the date tolerance and a day for the time zone
+     */
+    private List<Transaction> findReconciliationCandidates(List<Transaction> transactions) {
+        Set<Long> paymentMethods = new HashSet<>();
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (Transaction transaction : transactions) {
+            paymentMethods.add(transaction.getPaymentMethod().getId());
+            start = Math.min(start, transaction.getProcessedAt().getTime());
+            end = Math.max(end, transaction.getProcessedAt().getTime());
+        }
+        long tolerance = Duration.ofDays(TransactionMatcher.DATE_TOLERANCE_DAYS + 1L).toMillis();
+        return transactionRepository.findReconciliationCandidates(
+                paymentMethods,
+                new java.util.Date(start - tolerance),
+                new java.util.Date(end + tolerance));
+    }
+
+    /**
+     * Replaces the transaction and moves its amount between the budget counters, payment-method balances
+     * and monthly aggregates within the same database transaction
+     */
+    @Transactional
+    public Transaction updateTransaction(Transaction transaction, Transaction updatedTransaction) {
+        // The changes need to be collected before saving, because the managed transaction gets overwritten by the merge
+        exchangeRateService.apply(List.of(updatedTransaction));
+        BudgetSpendingService.Changes changes = budgetSpendingService.changes()
+                .remove(transaction)
+                .add(updatedTransaction);
+        PaymentMethodBalanceService.Changes balanceChanges = paymentMethodBalanceService.changes()
+                .remove(transaction)
+                .add(updatedTransaction);
+        MonthlyAggregateService.Changes aggregateChanges = monthlyAggregateService.changes()
+                .remove(transaction)
+                .add(updatedTransaction);
+        CategoryClassificationService.Changes trainingChanges = categoryClassificationService.changes()
+                .remove(transaction)
+                .add(updatedTransaction);
+        merchantService.apply(List.of(updatedTransaction));
+        Transaction savedTransaction = transactionRepository.save(updatedTransaction);
+        balanceChanges.apply();
+        aggregateChanges.apply();
+        publishSpendingChanges(changes.apply());
+        publishTrainingData(trainingChanges.apply());
+        return savedTransaction;
+    }
+
+    /**
+     * Applies the patch to the transaction, so that only the changed columns are written, and moves its amount
+     * between the budget counters, payment-method balances and monthly aggregates within the same database transaction.
+     * A concurrent modification is detected by the version check of the update statement
+     * and results in an ObjectOptimisticLockingFailureException
+     */
+    @Transactional
+    public Transaction patchTransaction(Transaction transaction, Consumer<Transaction> patch) {
+        // The changes need to be collected before patching, otherwise the previous values are lost
+        BudgetSpendingService.Changes changes = budgetSpendingService.changes().remove(transaction);
+        PaymentMethodBalanceService.Changes balanceChanges = paymentMethodBalanceService.changes().remove(transaction);
+        MonthlyAggregateService.Changes aggregateChanges = monthlyAggregateService.changes().remove(transaction);
+        CategoryClassificationService.Changes trainingChanges = categoryClassificationService.changes().remove(transaction);
+        patch.accept(transaction);
+        exchangeRateService.apply(List.of(transaction));
+        merchantService.apply(List.of(transaction));
+        trainingChanges.add(transaction);
+        changes.add(transaction);
+        balanceChanges.add(transaction);
+        aggregateChanges.add(transaction);
+        Transaction savedTransaction = transactionRepository.saveAndFlush(transaction);
+        balanceChanges.apply();
+        aggregateChanges.apply();
+        publishSpendingChanges(changes.apply());
+        publishTrainingData(trainingChanges.apply());
+        return savedTransaction;
+    }
+
+    /**
+     * Deletes the transaction and updates the budget counters, payment-method balances and monthly aggregates
+     * within the same database transaction
+     */
+    @Transactional
+    public void deleteTransaction(Transaction transaction) {
+        transactionRepository.delete(transaction);
+        publishTrainingData(categoryClassificationService.changes()
+                .remove(transaction)
+                .apply());
+        budgetSpendingService.changes()
+                .remove(transaction)
+                .apply();
+        paymentMethodBalanceService.changes()
+                .remove(transaction)
+                .apply();
+        monthlyAggregateService.changes()
+                .remove(transaction)
+                .apply();
+    }
+
+    public int countForBulkUpdate(User owner, Transaction.BulkUpdate.Filter filter) {
+        return transactionRepository.countForBulkUpdate(
+                owner.getUuid(),
+                filter.getStartDate(),
+                filter.getEndDate(),
+                filter.getReceiver(),
+                filter.getCategoryId(),
+                filter.getPaymentMethodId(),
+                filter.getTransactionIds() != null,
+                getBulkUpdateIds(filter));
+    }
+
+    /**
+     * Applies the changes to all transactions of the owner which match the filter by a single statement.
+     * Moving transactions between categories can affect every budget of the owner, so their counters are recomputed.
+     * The same applies to the balances when transactions are moved between payment-methods, the monthly aggregates are affected by both.
+     * Transactions moved to a payment-method of another currency are converted afterward, which changes their amount in the base currency
+     * @return Number of updated transactions
+     */
+    @Transactional
+    public int bulkUpdate(User owner, Transaction.BulkUpdate.Filter filter, Transaction.BulkUpdate.Changes changes) {
+        int updatedTransactions = transactionRepository.bulkUpdate(
+                owner.getUuid(),
+                filter.getStartDate(),
+                filter.getEndDate(),
+                filter.getReceiver(),
+                filter.getCategoryId(),
+                filter.getPaymentMethodId(),
+                filter.getTransactionIds() != null,
+                getBulkUpdateIds(filter),
+                changes.getCategoryId(),
+                changes.getPaymentMethodId(),
+                changes.getDescription());
+        int convertedTransactions = updatedTransactions > 0 && changes.getPaymentMethodId() != null
+                ? convertToPaymentMethodCurrency(owner, changes.getPaymentMethodId())
+                : 0;
+        if (updatedTransactions > 0 && (changes.getCategoryId() != null || convertedTransactions > 0)) {
+            budgetSpendingService.initialize(owner);
+            publishSpendingChanges(Set.of(owner.getUuid()));
+        }
+        if (updatedTransactions > 0 && changes.getPaymentMethodId() != null) {
+            paymentMethodBalanceService.reconcile(owner);
+        }
+        if (updatedTransactions > 0 && (changes.getCategoryId() != null || changes.getPaymentMethodId() != null)) {
+            monthlyAggregateService.reconcile(owner);
+        }
+        if (updatedTransactions > 0 && (changes.getCategoryId() != null || changes.getDescription() != null)) {
+            publishTrainingData(categoryClassificationService.changes()
+                    .invalidate(owner)
+                    .apply());
+        }
+        return updatedTransactions;
+    }
+
+    /**
+     * Assigns the currency of the payment-method to its transactions which are still in another currency
+     * and converts their amount to the base currency, page by page by the rates in memory
+     * @return Number of converted transactions
+     */
+    private int convertToPaymentMethodCurrency(User owner, Long paymentMethod) {
+        int convertedTransactions = 0;
+        long afterId = 0;
+        List<Transaction> transactions;
+        do {
+            transactions = transactionRepository.findAllWithOtherCurrency(owner, paymentMethod, afterId, PageRequest.of(0, CONVERSION_BATCH_SIZE));
+            if (transactions.isEmpty()) break;
+            exchangeRateService.apply(transactions);
+            transactionRepository.saveAllAndFlush(transactions);
+            convertedTransactions += transactions.size();
+            afterId = transactions.get(transactions.size() - 1).getId();
+        } while (transactions.size() == CONVERSION_BATCH_SIZE);
+        return convertedTransactions;
+    }
+
+    /**
+     * An empty IN list isn't valid SQL, the placeholder is never compared unless ids were provided
+     */
+    private List<Long> getBulkUpdateIds(Transaction.BulkUpdate.Filter filter) {
+        return filter.getTransactionIds() == null || filter.getTransactionIds().isEmpty()
+                ? List.of(-1L)
+                : filter.getTransactionIds();
+    }
+
+    /**
+     * Budget alerts are evaluated asynchronously, once the changes are committed
+     */
+    private void publishSpendingChanges(Set<UUID> owners) {
+        if (owners.isEmpty()) return;
+        eventPublisher.publishEvent(new BudgetSpendingChangedEvent(owners));
+    }
+
+    /**
+     * The models are updated once the transactions are committed, so they never learn a rolled back write
+     */
+    private void publishTrainingData(CategoryTrainingDataChangedEvent event) {
+        if (event.isEmpty()) return;
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * The amounts are added to the sketches and the owners are notified asynchronously, once the transactions are committed
+     */
+    private void publishAnomalies(SpendingAnomalyService.Result result) {
+        if (!result.addedAmounts().amounts().isEmpty()) eventPublisher.publishEvent(result.addedAmounts());
+        if (result.anomalies().isEmpty()) return;
+        eventPublisher.publishEvent(new SpendingAnomalyDetectedEvent(result.anomalies().stream().map(SpendingAnomaly::getId).toList()));
+    }
+
+    /**
+     * Sums the daily amounts of every requested series up by the granularity. If a series has more points than maxPoints,
+     * it's downsampled by LTTB, so the payload depends on the width of the chart instead of the length of the range
+     * @param maxPoints At least 3, null to keep all points
+     */
+    public List<Transaction.DailyTransactionSeries> getTransactionSeries(LocalDate startDate,
+                                                                         LocalDate endDate,
+                                                                         Collection<DailyTransactionType> requestedData,
+                                                                         TimeGranularity granularity,
+                                                                         Integer maxPoints,
+                                                                         UUID uuid) {
+        List<Transaction.DailyTransactionSeries> series = new ArrayList<>(requestedData.size());
+        for (DailyTransactionType type : new LinkedHashSet<>(requestedData)) {
+            series.add(new Transaction.DailyTransactionSeries(
+                    type,
+                    getDailyTransactions(startDate, endDate, type, granularity, maxPoints, uuid)));
+        }
+        return series;
+    }
+
+    public List<Transaction.DailyTransaction> getDailyTransactions(LocalDate startDate,
+                                                                   LocalDate endDate,
+                                                                   DailyTransactionType requestedData,
+                                                                   TimeGranularity granularity,
+                                                                   Integer maxPoints,
+                                                                   UUID uuid) {
+        List<Transaction.DailyTransaction> points = getDailyTransactions(startDate, endDate, requestedData, uuid);
+        if (granularity != null && granularity != TimeGranularity.DAY) points = bucket(points, granularity);
+        if (maxPoints != null && points.size() > maxPoints) points = downsample(points, maxPoints);
+        return points;
+    }
+
+    /**
+     * The daily points are ordered by date, so every bucket is a consecutive run of points
+     */
+    private List<Transaction.DailyTransaction> bucket(List<Transaction.DailyTransaction> points, TimeGranularity granularity) {
+        List<Transaction.DailyTransaction> buckets = new ArrayList<>();
+        Transaction.DailyTransaction bucket = null;
+        for (Transaction.DailyTransaction point : points) {
+            LocalDate bucketStart = granularity.getBucketStart(toLocalDate(point.getDate()));
+            if (bucket == null || !toLocalDate(bucket.getDate()).equals(bucketStart)) {
+                bucket = new Transaction.DailyTransaction();
+                bucket.setDate(Date.valueOf(bucketStart));
+                bucket.setAmount(0.0);
+                buckets.add(bucket);
+            }
+            if (point.getAmount() != null) bucket.setAmount(bucket.getAmount() + point.getAmount());
+        }
+        return buckets;
+    }
+
+    private List<Transaction.DailyTransaction> downsample(List<Transaction.DailyTransaction> points, int maxPoints) {
+        double[] x = new double[points.size()];
+        double[] y = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            x[i] = points.get(i).getDate().getTime();
+            y[i] = points.get(i).getAmount() == null ? 0 : points.get(i).getAmount();
+        }
+        List<Transaction.DailyTransaction> sampledPoints = new ArrayList<>(maxPoints);
+        for (int index : Downsampler.lttb(x, y, maxPoints)) {
+            sampledPoints.add(points.get(index));
+        }
+        return sampledPoints;
+    }
+
+    private static LocalDate toLocalDate(java.util.Date date) {
+        return date instanceof Date sqlDate
+                ? sqlDate.toLocalDate()
+                : Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
     public List<Transaction.DailyTransaction> getDailyTransactions(LocalDate startDate, LocalDate endDate, DailyTransactionType requestedData, UUID uuid) {
@@ -0,0 +1,152 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the entries (Ntry) of an ISO 20022 CAMT.053 statement with StAX, so that no document tree is built.
+ * Works with the versions 001.02 up to 001.08, which differ in the nesting of the related parties
+ */
+public class CamtStatementReader implements StatementReader {
+    private static final int MAX_TEXT_LENGTH = 4 * 1024;
+    private final InputStream inputStream;
+    private final XMLStreamReader xml;
+    /**
+     * Local names of the open elements below the current entry
+     */
+    private final List<String> path = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder();
+    private int entry;
+
+    public CamtStatementReader(InputStream inputStream) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Statements are uploaded by users, so neither DTDs nor external entities are resolved
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        this.inputStream = inputStream;
+        try {
+            this.xml = factory.createXMLStreamReader(inputStream);
+        } catch (XMLStreamException e) {
+            throw new IOException("The statement isn't valid XML", e);
+        }
+    }
+
+    @Override
+    public StatementEntry next() throws IOException, StatementEntryException {
+        try {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("Ntry")) {
+                    entry++;
+                    return readEntry();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("The statement isn't valid XML", e);
+        }
+    }
+
+    private StatementEntry readEntry() throws XMLStreamException, StatementEntryException {
+        path.clear();
+        String amount = null;
+        String indicator = null;
+        String bookingDate = null;
+        String valueDate = null;
+        String creditor = null;
+        String debtor = null;
+        String additionalInfo = null;
+        StringBuilder remittanceInfo = new StringBuilder();
+
+        while (xml.hasNext()) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    path.add(xml.getLocalName());
+                    text.setLength(0);
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                    if (text.length() < MAX_TEXT_LENGTH) text.append(xml.getText());
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if (path.isEmpty()) {
+                        // End of the entry
+                        return toEntry(amount, indicator, bookingDate != null ? bookingDate : valueDate,
+                                creditor, debtor, additionalInfo, remittanceInfo);
+                    }
+
+                    String element = String.join("/", path);
+                    String value = text.toString().trim();
+                    text.setLength(0);
+                    path.remove(path.size() - 1);
+                    switch (element) {
+                        case "Amt" -> amount = value;
+                        case "CdtDbtInd" -> indicator = value;
+                        case "BookgDt/Dt", "BookgDt/DtTm" -> bookingDate = value;
+                        case "ValDt/Dt", "ValDt/DtTm" -> valueDate = value;
+                        case "AddtlNtryInf" -> additionalInfo = value;
+                        default -> {
+                            if (creditor == null && (element.endsWith("RltdPties/Cdtr/Nm") || element.endsWith("RltdPties/Cdtr/Pty/Nm"))) {
+                                creditor = value;
+                            } else if (debtor == null && (element.endsWith("RltdPties/Dbtr/Nm") || element.endsWith("RltdPties/Dbtr/Pty/Nm"))) {
+                                debtor = value;
+                            } else if (element.endsWith("RmtInf/Ustrd") && remittanceInfo.length() < MAX_TEXT_LENGTH) {
+                                if (!remittanceInfo.isEmpty()) remittanceInfo.append(' ');
+                                remittanceInfo.append(value);
+                            }
+                        }
+                    }
+                }
+                default -> {}
+            }
+        }
+        throw new StatementEntryException("Entry " + entry + ": The statement ends within the entry");
+    }
+
+    /**
+     * Expenses (DBIT) are paid to the creditor, income (CRDT) is received from the debtor
+     */
+    private StatementEntry toEntry(String amount, String indicator, String date, String creditor, String debtor,
+                                   String additionalInfo, StringBuilder remittanceInfo) throws StatementEntryException {
+        if (amount == null || indicator == null || date == null) {
+            throw new StatementEntryException("Entry " + entry + ": The amount, credit-debit indicator or booking date is missing");
+        }
+
+        boolean expense = indicator.equals("DBIT");
+        String description = remittanceInfo.isEmpty() ? additionalInfo : remittanceInfo.toString();
+        String receiver = expense ? creditor : debtor;
+        if (receiver == null || receiver.isEmpty()) receiver = additionalInfo;
+        if (receiver == null || receiver.isEmpty()) receiver = description;
+        if (receiver == null || receiver.isEmpty()) {
+            throw new StatementEntryException("Entry " + entry + ": The related party is missing");
+        }
+
+        try {
+            double transferAmount = Math.abs(Double.parseDouble(amount));
+            // DtTm values contain the time as well, e.g. 2023-10-01T12:00:00
+            LocalDate processedAt = LocalDate.parse(date.length() > 10 ? date.substring(0, 10) : date);
+            return new StatementEntry(processedAt, receiver, description, expense ? -transferAmount : transferAmount);
+        } catch (NumberFormatException e) {
+            throw new StatementEntryException("Entry " + entry + ": Invalid amount '" + amount + "'");
+        } catch (DateTimeParseException e) {
+            throw new StatementEntryException("Entry " + entry + ": Invalid booking date '" + date + "'");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException ignored) {
+            // The underlying stream gets closed anyway
+        }
+        inputStream.close();
+    }
+}
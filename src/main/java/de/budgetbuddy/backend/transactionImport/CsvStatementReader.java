@@ -0,0 +1,151 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a CSV statement record by record. Quoted fields may contain delimiters, line breaks and doubled quotes
+ */
+public class CsvStatementReader implements StatementReader {
+    /**
+     * Protects the heap against files with an unterminated quote, which would otherwise be read as a single record
+     */
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private final Reader reader;
+    private final TransactionImport.CsvOptions options;
+    private final DateTimeFormatter dateFormatter;
+    private final StringBuilder field = new StringBuilder();
+    private int line = 1;
+    private int recordLine;
+    private int skippedLines;
+    private boolean endReached;
+
+    public CsvStatementReader(Reader reader, TransactionImport.CsvOptions options) {
+        // The statement is read char by char and the quote handling needs to look ahead
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        this.options = options;
+        this.dateFormatter = DateTimeFormatter.ofPattern(options.getDatePattern());
+    }
+
+    @Override
+    public StatementEntry next() throws IOException, StatementEntryException {
+        for (; skippedLines < options.getSkipLines(); skippedLines++) {
+            if (readRecord() == null) return null;
+        }
+
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) return null;
+        } while (isBlank(record));
+
+        try {
+            LocalDate processedAt = LocalDate.parse(getField(record, options.getDateColumn()), dateFormatter);
+            String description = options.getDescriptionColumn() == null
+                    ? null
+                    : emptyToNull(getField(record, options.getDescriptionColumn()));
+            String receiver = emptyToNull(getField(record, options.getReceiverColumn()));
+            if (receiver == null) receiver = description;
+            if (receiver == null) {
+                throw new StatementEntryException("Line " + recordLine + ": The receiver is missing");
+            }
+            return new StatementEntry(processedAt, receiver, description, parseAmount(getField(record, options.getAmountColumn())));
+        } catch (DateTimeParseException e) {
+            throw new StatementEntryException("Line " + recordLine + ": Invalid date '" + e.getParsedString() + "'");
+        } catch (NumberFormatException e) {
+            throw new StatementEntryException("Line " + recordLine + ": Invalid amount");
+        }
+    }
+
+    /**
+     * @return The fields of the next record or null, if the end of the file has been reached
+     */
+    private List<String> readRecord() throws IOException {
+        if (endReached) return null;
+
+        List<String> record = new ArrayList<>();
+        field.setLength(0);
+        recordLine = line;
+        int recordLength = 0;
+        boolean quoted = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (++recordLength > MAX_RECORD_LENGTH) {
+                throw new IOException("The record in line " + line + " exceeds " + MAX_RECORD_LENGTH + " characters");
+            }
+
+            if (quoted) {
+                if (c == options.getQuote()) {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == options.getQuote()) {
+                        field.append((char) c);
+                    } else {
+                        quoted = false;
+                        if (following != -1) reader.reset();
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == options.getQuote()) {
+                quoted = true;
+            } else if (c == options.getDelimiter()) {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                record.add(field.toString());
+                return record;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+
+        endReached = true;
+        if (recordLength == 0) return null;
+        record.add(field.toString());
+        return record;
+    }
+
+    private String getField(List<String> record, int column) throws StatementEntryException {
+        if (column >= record.size()) {
+            throw new StatementEntryException("Line " + recordLine + ": Expected at least " + (column + 1) + " columns");
+        }
+        return record.get(column).trim();
+    }
+
+    /**
+     * Ignores currency symbols and the thousands separator, e.g. "-1.234,56 €" with ',' as decimal separator
+     */
+    double parseAmount(String value) {
+        StringBuilder amount = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (Character.isDigit(c) || c == '-' || c == '+') {
+                amount.append(c);
+            } else if (c == options.getDecimalSeparator()) {
+                amount.append('.');
+            }
+        }
+        return Double.parseDouble(amount.toString());
+    }
+
+    private static boolean isBlank(List<String> record) {
+        return record.stream().allMatch(String::isBlank);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
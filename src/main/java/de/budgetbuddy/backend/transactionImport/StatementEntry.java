@@ -0,0 +1,8 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import java.time.LocalDate;
+
+/**
+ * A single booking read from a bank statement, expenses have a negative amount
+ */
+public record StatementEntry(LocalDate processedAt, String receiver, String description, double transferAmount) {}
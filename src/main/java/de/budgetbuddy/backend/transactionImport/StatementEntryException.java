@@ -0,0 +1,11 @@
+package de.budgetbuddy.backend.transactionImport;
+
+/**
+ * Thrown when a single entry of a statement can't be read.
+ * The reader has skipped the entry, so that reading can be continued with the next one
+ */
+public class StatementEntryException extends Exception {
+    public StatementEntryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads the entries of a statement one by one, so that only the current entry is held in memory
+ */
+public interface StatementReader extends Closeable {
+    /**
+     * @return The next entry or null, if the end of the statement has been reached
+     * @throws StatementEntryException if the next entry is invalid, reading can be continued afterward
+     * @throws IOException if the statement can't be read any further
+     */
+    StatementEntry next() throws IOException, StatementEntryException;
+}
@@ -0,0 +1,161 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Background job which imports the entries of an uploaded bank statement as transactions
+ */
+@Entity
+@Table(name = "transaction_import", schema = "public")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionImport {
+
+    @Id
+    @GeneratedValue
+    @Column(columnDefinition = "uuid", updatable = false, nullable = false)
+    private UUID id;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    private User owner;
+
+    /**
+     * Category of the imported transactions, unless a better one is suggested for them
+     */
+    @ManyToOne
+    @JoinColumn(name = "category", nullable = false)
+    private Category category;
+
+    /**
+     * Payment-method of the imported transactions
+     */
+    @ManyToOne
+    @JoinColumn(name = "payment_method", nullable = false)
+    private PaymentMethod paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", length = 20, nullable = false)
+    private StatementFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private TransactionImportStatus status;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    @Column(name = "bytes_read", nullable = false)
+    @ColumnDefault("0")
+    private long bytesRead;
+
+    /**
+     * Number of entries read from the statement, including the skipped ones
+     */
+    @Column(name = "processed_entries", nullable = false)
+    @ColumnDefault("0")
+    private int processedEntries;
+
+    @Column(name = "imported_transactions", nullable = false)
+    @ColumnDefault("0")
+    private int importedTransactions;
+
+    /**
+     * Entries which have been imported before
+     */
+    @Column(name = "duplicate_entries", nullable = false)
+    @ColumnDefault("0")
+    private int duplicateEntries;
+
+    /**
+     * Entries which matched an existing transaction without fingerprint, e.g. one that was entered by hand
+     */
+    @Column(name = "matched_entries", nullable = false)
+    @ColumnDefault("0")
+    private int matchedEntries;
+
+    /**
+     * Entries which couldn't be read
+     */
+    @Column(name = "skipped_entries", nullable = false)
+    @ColumnDefault("0")
+    private int skippedEntries;
+
+    /**
+     * Reason of the first skipped entry or why the import has failed
+     */
+    @Column(name = "error")
+    private String error;
+
+    @Builder.Default
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date createdAt = new Date();
+
+    @Column(name = "finished_at")
+    private Date finishedAt;
+
+    /**
+     * Percentage of the statement which has been read
+     */
+    @JsonProperty("progress")
+    public int getProgress() {
+        if (status == TransactionImportStatus.DONE) return 100;
+        if (fileSize <= 0) return 0;
+        return (int) Math.min(99, bytesRead * 100 / fileSize);
+    }
+
+    @Data
+    public static class Create {
+        private StatementFormat format;
+        private Long categoryId;
+        private Long paymentMethodId;
+        /**
+         * Assigns the category suggested by the CategoryClassificationService, if the model is sure enough about it
+         */
+        private boolean autoCategorize = true;
+        /**
+         * Only used for the CSV format
+         */
+        private CsvOptions csv = new CsvOptions();
+    }
+
+    /**
+     * Describes the layout of a CSV statement, columns are zero-based
+     */
+    @Data
+    public static class CsvOptions {
+        private char delimiter = ',';
+        private char quote = '"';
+        private String charset = "UTF-8";
+        /**
+         * Number of leading lines to skip, like the header
+         */
+        private int skipLines = 1;
+        private int dateColumn = 0;
+        private String datePattern = "yyyy-MM-dd";
+        private int receiverColumn = 1;
+        private Integer descriptionColumn = 2;
+        private int amountColumn = 3;
+        private char decimalSeparator = '.';
+    }
+}
@@ -0,0 +1,165 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.user.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/v1/transaction/import")
+public class TransactionImportController {
+    private final TransactionImportRepository transactionImportRepository;
+    private final TransactionImportService transactionImportService;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    public TransactionImportController(TransactionImportRepository transactionImportRepository,
+                                       TransactionImportService transactionImportService,
+                                       ReferenceDataCache referenceDataCache) {
+        this.transactionImportRepository = transactionImportRepository;
+        this.transactionImportService = transactionImportService;
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    /**
+     * Starts the import of the statement and returns immediately, the progress can be polled afterward
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<TransactionImport>> importStatement(
+            @RequestPart("options") TransactionImport.Create payload,
+            @RequestPart("file") MultipartFile file,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        if (payload.getFormat() == null) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "No format was provided"));
+        }
+
+        if (file.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, "The provided statement is empty"));
+        }
+
+        if (payload.getFormat() == StatementFormat.CSV) {
+            Optional<String> invalidOption = validate(payload.getCsv());
+            if (invalidOption.isPresent()) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(new ApiResponse<>(400, invalidOption.get()));
+            }
+        }
+
+        Optional<Category> category = referenceDataCache.findCategory(payload.getCategoryId(), sessionUser.get());
+        if (category.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided category not found"));
+        }
+
+        Optional<PaymentMethod> paymentMethod = referenceDataCache.findPaymentMethod(payload.getPaymentMethodId(), sessionUser.get());
+        if (paymentMethod.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided payment-method not found"));
+        }
+
+        try {
+            TransactionImport transactionImport = transactionImportService.start(
+                    sessionUser.get(),
+                    category.get(),
+                    paymentMethod.get(),
+                    payload.getFormat(),
+                    payload.getCsv(),
+                    payload.isAutoCategorize(),
+                    file);
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse<>(HttpStatus.ACCEPTED.value(), transactionImport));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse<>(503, "Too many imports are running at the moment, please try again later"));
+        } catch (IOException e) {
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(500, "The statement couldn't be stored"));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<TransactionImport>>> getImports(HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(transactionImportRepository.findAllByOwnerOrderByCreatedAtDesc(sessionUser.get())));
+    }
+
+    @GetMapping("/single")
+    public ResponseEntity<ApiResponse<TransactionImport>> getImport(@RequestParam UUID id, HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return transactionImportRepository.findByIdAndOwner(id, sessionUser.get())
+                .map(transactionImport -> ResponseEntity
+                        .status(HttpStatus.OK)
+                        .body(new ApiResponse<>(transactionImport)))
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(404, "Provided import not found")));
+    }
+
+    /**
+     * @return Reason why the options can't be used
+     */
+    private Optional<String> validate(TransactionImport.CsvOptions options) {
+        if (options == null) return Optional.of("No CSV options we're provided");
+        if (options.getDelimiter() == options.getQuote()) {
+            return Optional.of("The delimiter and quote need to be different");
+        }
+        if (options.getDateColumn() < 0 || options.getReceiverColumn() < 0 || options.getAmountColumn() < 0
+                || (options.getDescriptionColumn() != null && options.getDescriptionColumn() < 0)) {
+            return Optional.of("The columns can't be negative");
+        }
+        try {
+            DateTimeFormatter.ofPattern(options.getDatePattern());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Optional.of("Invalid date pattern");
+        }
+        try {
+            Charset.forName(options.getCharset());
+        } catch (IllegalArgumentException e) {
+            return Optional.of("Unsupported charset");
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,14 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TransactionImportRepository extends JpaRepository<TransactionImport, UUID> {
+    Optional<TransactionImport> findByIdAndOwner(UUID id, User owner);
+
+    List<TransactionImport> findAllByOwnerOrderByCreatedAtDesc(User owner);
+}
@@ -0,0 +1,260 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryClassificationService;
+import de.budgetbuddy.backend.log.Log;
+import de.budgetbuddy.backend.log.LogType;
+import de.budgetbuddy.backend.log.Logger;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.transaction.TransactionFingerprint;
+import de.budgetbuddy.backend.transaction.TransactionImportOutcome;
+import de.budgetbuddy.backend.transaction.TransactionService;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleService;
+import de.budgetbuddy.backend.user.User;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class TransactionImportService {
+    /**
+     * Number of transactions which are inserted by a single database transaction
+     */
+    static final int BATCH_SIZE = 500;
+    static final int MAX_RUNNING_IMPORTS = 2;
+    static final int MAX_QUEUED_IMPORTS = 50;
+    private static final int MAX_RECEIVER_LENGTH = 80;
+    private final TransactionImportRepository transactionImportRepository;
+    private final TransactionService transactionService;
+    private final CategoryClassificationService categoryClassificationService;
+    private final TransactionRuleService transactionRuleService;
+    private final Executor executor;
+
+    @Autowired
+    public TransactionImportService(TransactionImportRepository transactionImportRepository,
+                                    TransactionService transactionService,
+                                    CategoryClassificationService categoryClassificationService,
+                                    TransactionRuleService transactionRuleService) {
+        this(transactionImportRepository, transactionService, categoryClassificationService, transactionRuleService, createExecutor());
+    }
+
+    TransactionImportService(TransactionImportRepository transactionImportRepository,
+                             TransactionService transactionService,
+                             CategoryClassificationService categoryClassificationService,
+                             TransactionRuleService transactionRuleService,
+                             Executor executor) {
+        this.transactionImportRepository = transactionImportRepository;
+        this.transactionService = transactionService;
+        this.categoryClassificationService = categoryClassificationService;
+        this.transactionRuleService = transactionRuleService;
+        this.executor = executor;
+    }
+
+    private static ExecutorService createExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(
+                MAX_RUNNING_IMPORTS,
+                MAX_RUNNING_IMPORTS,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_IMPORTS),
+                runnable -> new Thread(runnable, "transaction-import-" + threadNumber.incrementAndGet()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) executorService.shutdownNow();
+    }
+
+    /**
+     * Moves the uploaded statement to a temporary file and imports it in the background,
+     * so that the request doesn't need to wait for the import
+     * @throws RejectedExecutionException if too many imports are queued already
+     */
+    public TransactionImport start(User owner,
+                                   Category category,
+                                   PaymentMethod paymentMethod,
+                                   StatementFormat format,
+                                   TransactionImport.CsvOptions csvOptions,
+                                   boolean autoCategorize,
+                                   MultipartFile file) throws IOException {
+        Path statement = Files.createTempFile("transaction-import-", ".statement");
+        try {
+            file.transferTo(statement);
+        } catch (IOException e) {
+            Files.deleteIfExists(statement);
+            throw e;
+        }
+
+        TransactionImport transactionImport = transactionImportRepository.save(TransactionImport.builder()
+                .owner(owner)
+                .category(category)
+                .paymentMethod(paymentMethod)
+                .format(format)
+                .status(TransactionImportStatus.PENDING)
+                .fileName(file.getOriginalFilename())
+                .fileSize(Files.size(statement))
+                .build());
+        UUID id = transactionImport.getId();
+        try {
+            executor.execute(() -> run(id, statement, csvOptions, autoCategorize));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(statement);
+            transactionImport.setStatus(TransactionImportStatus.FAILED);
+            transactionImport.setError("Too many imports are running at the moment");
+            transactionImport.setFinishedAt(new Date());
+            transactionImportRepository.save(transactionImport);
+            throw e;
+        }
+        return transactionImport;
+    }
+
+    /**
+     * Reads the statement entry by entry and inserts them in batches, so apart from the occurrence counts of the fingerprints
+     * the heap usage doesn't depend on the size of the statement.
+     * Invalid entries are skipped, batches which have been inserted before a failure are kept.
+     * Importing the same statement again doesn't create duplicates, see TransactionService.importTransactions
+     */
+    void run(UUID id, Path statement, TransactionImport.CsvOptions csvOptions, boolean autoCategorize) {
+        TransactionImport transactionImport = transactionImportRepository.findById(id).orElse(null);
+        if (transactionImport == null) {
+            deleteStatement(statement);
+            return;
+        }
+
+        transactionImport.setStatus(TransactionImportStatus.RUNNING);
+        transactionImportRepository.save(transactionImport);
+        CountingInputStream inputStream = null;
+        try {
+            inputStream = new CountingInputStream(Files.newInputStream(statement));
+            try (StatementReader reader = openReader(transactionImport.getFormat(), new BufferedInputStream(inputStream), csvOptions)) {
+                List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+                TransactionFingerprint.Occurrences occurrences = new TransactionFingerprint.Occurrences();
+                while (true) {
+                    StatementEntry entry;
+                    try {
+                        entry = reader.next();
+                    } catch (StatementEntryException e) {
+                        transactionImport.setProcessedEntries(transactionImport.getProcessedEntries() + 1);
+                        transactionImport.setSkippedEntries(transactionImport.getSkippedEntries() + 1);
+                        if (transactionImport.getError() == null) transactionImport.setError(e.getMessage());
+                        continue;
+                    }
+                    if (entry == null) break;
+
+                    transactionImport.setProcessedEntries(transactionImport.getProcessedEntries() + 1);
+                    batch.add(toTransaction(transactionImport, entry, autoCategorize));
+                    if (batch.size() == BATCH_SIZE) {
+                        insertBatch(transactionImport, batch, occurrences, inputStream.getBytesRead());
+                    }
+                }
+                insertBatch(transactionImport, batch, occurrences, inputStream.getBytesRead());
+            }
+            transactionImport.setStatus(TransactionImportStatus.DONE);
+        } catch (Exception e) {
+            transactionImport.setStatus(TransactionImportStatus.FAILED);
+            transactionImport.setError(e.getMessage());
+            Logger.getInstance()
+                    .log(new Log("Backend", LogType.ERROR, "transaction-import", e.getMessage()));
+        } finally {
+            if (inputStream != null) {
+                transactionImport.setBytesRead(inputStream.getBytesRead());
+                closeQuietly(inputStream);
+            }
+            transactionImport.setFinishedAt(new Date());
+            transactionImportRepository.save(transactionImport);
+            deleteStatement(statement);
+        }
+    }
+
+    private StatementReader openReader(StatementFormat format,
+                                       InputStream inputStream,
+                                       TransactionImport.CsvOptions csvOptions) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvStatementReader(
+                    new InputStreamReader(inputStream, Charset.forName(csvOptions.getCharset())),
+                    csvOptions);
+            case CAMT_053 -> new CamtStatementReader(inputStream);
+        };
+    }
+
+    private void insertBatch(TransactionImport transactionImport,
+                             List<Transaction> batch,
+                             TransactionFingerprint.Occurrences occurrences,
+                             long bytesRead) {
+        if (!batch.isEmpty()) {
+            for (TransactionImportOutcome outcome : transactionService.importTransactions(batch, occurrences)) {
+                switch (outcome) {
+                    case NEW -> transactionImport.setImportedTransactions(transactionImport.getImportedTransactions() + 1);
+                    case DUPLICATE -> transactionImport.setDuplicateEntries(transactionImport.getDuplicateEntries() + 1);
+                    case MATCHED -> transactionImport.setMatchedEntries(transactionImport.getMatchedEntries() + 1);
+                }
+            }
+            batch.clear();
+        }
+        transactionImport.setBytesRead(bytesRead);
+        transactionImportRepository.save(transactionImport);
+    }
+
+    /**
+     * The category is assigned by the first rule of the owner which matches, otherwise it's suggested by the classifier
+     * if requested, and the category of the import is the fallback. The payment-method is always the one of the statement
+     */
+    private Transaction toTransaction(TransactionImport transactionImport, StatementEntry entry, boolean autoCategorize) {
+        User owner = transactionImport.getOwner();
+        String receiver = entry.receiver().length() > MAX_RECEIVER_LENGTH
+                ? entry.receiver().substring(0, MAX_RECEIVER_LENGTH)
+                : entry.receiver();
+        Category category = transactionRuleService.findCategory(owner, receiver, entry.description(), entry.transferAmount())
+                .or(() -> autoCategorize
+                        ? categoryClassificationService.suggest(owner, receiver, entry.description())
+                        : Optional.empty())
+                .orElse(transactionImport.getCategory());
+        return Transaction.builder()
+                .owner(owner)
+                .category(category)
+                .paymentMethod(transactionImport.getPaymentMethod())
+                .processedAt(Date.from(entry.processedAt().atStartOfDay(ZoneId.systemDefault()).toInstant()))
+                .receiver(receiver)
+                .description(entry.description())
+                .transferAmount(entry.transferAmount())
+                .attachedFiles(new ArrayList<>())
+                .createdAt(new Date())
+                .build();
+    }
+
+    /**
+     * Only required if the reader couldn't be opened, otherwise the stream is already closed by the reader
+     */
+    private void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException ignored) {
+            // Nothing left to read from it
+        }
+    }
+
+    private void deleteStatement(Path statement) {
+        try {
+            Files.deleteIfExists(statement);
+        } catch (IOException e) {
+            Logger.getInstance()
+                    .log(new Log("Backend", LogType.WARNING, "transaction-import", "Couldn't delete " + statement));
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package de.budgetbuddy.backend.transactionImport;
+
+public enum TransactionImportStatus {
+    PENDING, RUNNING, DONE, FAILED
+}
@@ -0,0 +1,93 @@
+package de.budgetbuddy.backend.transactionRule;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.user.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Date;
+
+/**
+ * Assigns a category and/or payment-method to the transactions whose receiver or description contains the pattern
+ * and whose amount is within the bounds. Rules are applied on create, import and subscription booking
+ * and take precedence over the values of the transaction. When multiple rules match, the one with the lowest priority wins
+ */
+@Entity
+@Table(name = "transaction_rule", schema = "public")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_rule_id_seq")
+    @SequenceGenerator(name = "transaction_rule_id_seq", sequenceName = "transaction_rule_id_seq", allocationSize = 50)
+    @Column(name = "id")
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "owner", nullable = false)
+    private User owner;
+
+    @Column(name = "priority", nullable = false)
+    @ColumnDefault("0")
+    private int priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "field", length = 20)
+    private TransactionRuleField field;
+
+    /**
+     * Matched case-insensitive anywhere within the field, rules without pattern only check the amount
+     */
+    @Column(name = "pattern", length = 100)
+    private String pattern;
+
+    @Column(name = "min_amount")
+    private Double minAmount;
+
+    @Column(name = "max_amount")
+    private Double maxAmount;
+
+    @ManyToOne
+    @JoinColumn(name = "category")
+    private Category category;
+
+    @ManyToOne
+    @JoinColumn(name = "payment_method")
+    private PaymentMethod paymentMethod;
+
+    @Builder.Default
+    @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private Date createdAt = new Date();
+
+    @Data
+    public static class Create {
+        /**
+         * The rule is appended after the existing ones when no priority is provided
+         */
+        private Integer priority;
+        private TransactionRuleField field;
+        private String pattern;
+        private Double minAmount;
+        private Double maxAmount;
+        private Long categoryId;
+        private Long paymentMethodId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Delete {
+        private Long ruleId;
+    }
+}
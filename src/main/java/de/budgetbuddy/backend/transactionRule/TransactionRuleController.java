@@ -0,0 +1,164 @@
+package de.budgetbuddy.backend.transactionRule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.auth.AuthorizationInterceptor;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.user.User;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/v1/transaction/rule")
+public class TransactionRuleController {
+    static final int MAX_RULES = 1_000;
+    static final int MAX_PATTERN_LENGTH = 100;
+    private final TransactionRuleRepository transactionRuleRepository;
+    private final TransactionRuleService transactionRuleService;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    public TransactionRuleController(TransactionRuleRepository transactionRuleRepository,
+                                     TransactionRuleService transactionRuleService,
+                                     ReferenceDataCache referenceDataCache) {
+        this.transactionRuleRepository = transactionRuleRepository;
+        this.transactionRuleService = transactionRuleService;
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<TransactionRule>>> getRules(HttpSession session) throws JsonProcessingException {
+        Optional<User> sessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (sessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(transactionRuleRepository.findAllByOwnerOrderByPriorityAscIdAsc(sessionUser.get())));
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<TransactionRule>> createRule(
+            @RequestBody TransactionRule.Create payload,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+        User sessionUser = optSessionUser.get();
+
+        Optional<String> invalidPayload = validate(payload);
+        if (invalidPayload.isPresent()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(400, invalidPayload.get()));
+        }
+
+        Optional<Category> category = referenceDataCache.findCategory(payload.getCategoryId(), sessionUser);
+        if (payload.getCategoryId() != null && category.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided category not found"));
+        }
+
+        Optional<PaymentMethod> paymentMethod = referenceDataCache.findPaymentMethod(payload.getPaymentMethodId(), sessionUser);
+        if (payload.getPaymentMethodId() != null && paymentMethod.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(404, "Provided payment-method not found"));
+        }
+
+        long existingRules = transactionRuleRepository.countByOwner(sessionUser);
+        if (existingRules >= MAX_RULES) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(409, "You can't create more than " + MAX_RULES + " rules"));
+        }
+
+        boolean hasPattern = payload.getPattern() != null && !payload.getPattern().isEmpty();
+        TransactionRule rule = transactionRuleRepository.save(TransactionRule.builder()
+                .owner(sessionUser)
+                .priority(payload.getPriority() != null ? payload.getPriority() : (int) existingRules)
+                .field(hasPattern ? payload.getField() : null)
+                .pattern(hasPattern ? payload.getPattern() : null)
+                .minAmount(payload.getMinAmount())
+                .maxAmount(payload.getMaxAmount())
+                .category(category.orElse(null))
+                .paymentMethod(paymentMethod.orElse(null))
+                .build());
+        transactionRuleService.invalidate(sessionUser);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new ApiResponse<>(rule));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<Map<String, List<?>>>> deleteRules(
+            @RequestBody List<TransactionRule.Delete> payloads,
+            HttpSession session) throws JsonProcessingException {
+        Optional<User> optSessionUser = AuthorizationInterceptor.getSessionUser(session);
+        if (optSessionUser.isEmpty()) {
+            return AuthorizationInterceptor.noValidSessionResponse();
+        }
+
+        if (payloads.isEmpty()) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(HttpStatus.BAD_REQUEST, "No rules we're provided"));
+        }
+
+        List<TransactionRule> successfullyDeleted = new ArrayList<>();
+        List<TransactionRule.Delete> failedToDelete = new ArrayList<>();
+        for (TransactionRule.Delete payload : payloads) {
+            Optional<TransactionRule> rule = payload.getRuleId() == null
+                    ? Optional.empty()
+                    : transactionRuleRepository.findById(payload.getRuleId());
+            if (rule.isEmpty() || !rule.get().getOwner().getUuid().equals(optSessionUser.get().getUuid())) {
+                failedToDelete.add(payload);
+            } else {
+                transactionRuleRepository.delete(rule.get());
+                successfullyDeleted.add(rule.get());
+            }
+        }
+        if (!successfullyDeleted.isEmpty()) transactionRuleService.invalidate(optSessionUser.get());
+
+        Map<String, List<?>> response = new HashMap<>();
+        response.put("success", successfullyDeleted);
+        response.put("failed", failedToDelete);
+        boolean didAllFail = failedToDelete.size() == payloads.size();
+        return ResponseEntity
+                .status(didAllFail ? HttpStatus.BAD_REQUEST : HttpStatus.OK)
+                .body(new ApiResponse<>(
+                        didAllFail ? HttpStatus.BAD_REQUEST : HttpStatus.OK,
+                        didAllFail ? "All provided rules we're invalid values" : null,
+                        response));
+    }
+
+    private Optional<String> validate(TransactionRule.Create payload) {
+        if (payload.getCategoryId() == null && payload.getPaymentMethodId() == null) {
+            return Optional.of("A rule needs to assign a category or payment-method");
+        }
+        boolean hasPattern = payload.getPattern() != null && !payload.getPattern().isEmpty();
+        if (hasPattern && payload.getField() == null) {
+            return Optional.of("No field was provided for the pattern");
+        }
+        if (hasPattern && payload.getPattern().length() > MAX_PATTERN_LENGTH) {
+            return Optional.of("The pattern can't be longer than " + MAX_PATTERN_LENGTH + " characters");
+        }
+        if (!hasPattern && payload.getMinAmount() == null && payload.getMaxAmount() == null) {
+            return Optional.of("A rule needs a pattern or an amount range");
+        }
+        if (payload.getMinAmount() != null && payload.getMaxAmount() != null && payload.getMinAmount() > payload.getMaxAmount()) {
+            return Optional.of("The minAmount can't be greater than the maxAmount");
+        }
+        return Optional.empty();
+    }
+}
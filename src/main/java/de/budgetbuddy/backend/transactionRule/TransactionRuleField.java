@@ -0,0 +1,9 @@
+package de.budgetbuddy.backend.transactionRule;
+
+/**
+ * Attribute of a transaction which is searched for the pattern of a rule
+ */
+public enum TransactionRuleField {
+    RECEIVER,
+    DESCRIPTION
+}
@@ -0,0 +1,222 @@
+package de.budgetbuddy.backend.transactionRule;
+
+import java.util.*;
+
+/**
+ * Compiled rule set of a single user. The patterns of all rules are merged into one Aho-Corasick automaton per field,
+ * so a transaction is checked against every rule by a single pass over its receiver and description.
+ * The amount bounds are kept in a table indexed by the position of the rule and are only checked for the rules whose pattern occurred
+ */
+public class TransactionRuleMatcher {
+    public static final TransactionRuleMatcher EMPTY = compile(List.of());
+    private static final long NONE = 0;
+    private final Automaton receiverAutomaton;
+    private final Automaton descriptionAutomaton;
+    /**
+     * Rules without pattern, which are checked for every transaction
+     */
+    private final int[] amountOnlyRules;
+    private final double[] minAmounts;
+    private final double[] maxAmounts;
+    private final long[] categoryIds;
+    private final long[] paymentMethodIds;
+
+    private TransactionRuleMatcher(Automaton receiverAutomaton,
+                                   Automaton descriptionAutomaton,
+                                   int[] amountOnlyRules,
+                                   double[] minAmounts,
+                                   double[] maxAmounts,
+                                   long[] categoryIds,
+                                   long[] paymentMethodIds) {
+        this.receiverAutomaton = receiverAutomaton;
+        this.descriptionAutomaton = descriptionAutomaton;
+        this.amountOnlyRules = amountOnlyRules;
+        this.minAmounts = minAmounts;
+        this.maxAmounts = maxAmounts;
+        this.categoryIds = categoryIds;
+        this.paymentMethodIds = paymentMethodIds;
+    }
+
+    /**
+     * @param rules Ordered by their priority, the first one wins
+     */
+    public static TransactionRuleMatcher compile(List<TransactionRule> rules) {
+        Automaton.Builder receiverPatterns = new Automaton.Builder();
+        Automaton.Builder descriptionPatterns = new Automaton.Builder();
+        List<Integer> amountOnlyRules = new ArrayList<>();
+        double[] minAmounts = new double[rules.size()];
+        double[] maxAmounts = new double[rules.size()];
+        long[] categoryIds = new long[rules.size()];
+        long[] paymentMethodIds = new long[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            TransactionRule rule = rules.get(i);
+            minAmounts[i] = rule.getMinAmount() != null ? rule.getMinAmount() : Double.NEGATIVE_INFINITY;
+            maxAmounts[i] = rule.getMaxAmount() != null ? rule.getMaxAmount() : Double.POSITIVE_INFINITY;
+            categoryIds[i] = rule.getCategory() != null ? rule.getCategory().getId() : NONE;
+            paymentMethodIds[i] = rule.getPaymentMethod() != null ? rule.getPaymentMethod().getId() : NONE;
+
+            if (rule.getPattern() == null || rule.getPattern().isEmpty()) {
+                amountOnlyRules.add(i);
+            } else if (rule.getField() == TransactionRuleField.DESCRIPTION) {
+                descriptionPatterns.add(rule.getPattern(), i);
+            } else {
+                receiverPatterns.add(rule.getPattern(), i);
+            }
+        }
+
+        return new TransactionRuleMatcher(
+                receiverPatterns.build(),
+                descriptionPatterns.build(),
+                amountOnlyRules.stream().mapToInt(Integer::intValue).toArray(),
+                minAmounts,
+                maxAmounts,
+                categoryIds,
+                paymentMethodIds);
+    }
+
+    public int getRules() {
+        return categoryIds.length;
+    }
+
+    /**
+     * @return The ids of the category and payment-method of the first matching rules which assign them, null if no rule assigns them
+     */
+    public Match match(String receiver, String description, double amount) {
+        MatchState state = new MatchState(amount);
+        for (int rule : amountOnlyRules) {
+            state.consider(rule);
+        }
+        receiverAutomaton.scan(receiver, state);
+        descriptionAutomaton.scan(description, state);
+
+        return new Match(
+                state.categoryRule == Integer.MAX_VALUE ? null : categoryIds[state.categoryRule],
+                state.paymentMethodRule == Integer.MAX_VALUE ? null : paymentMethodIds[state.paymentMethodRule]);
+    }
+
+    public record Match(Long categoryId, Long paymentMethodId) {
+        public boolean isEmpty() {
+            return categoryId == null && paymentMethodId == null;
+        }
+    }
+
+    private final class MatchState {
+        private final double amount;
+        private int categoryRule = Integer.MAX_VALUE;
+        private int paymentMethodRule = Integer.MAX_VALUE;
+
+        private MatchState(double amount) {
+            this.amount = amount;
+        }
+
+        private void consider(int rule) {
+            if (rule > categoryRule && rule > paymentMethodRule) return;
+            if (amount < minAmounts[rule] || amount > maxAmounts[rule]) return;
+            if (categoryIds[rule] != NONE && rule < categoryRule) categoryRule = rule;
+            if (paymentMethodIds[rule] != NONE && rule < paymentMethodRule) paymentMethodRule = rule;
+        }
+    }
+
+    /**
+     * Case-insensitive multi-pattern automaton. The transitions of a state are kept as sorted arrays,
+     * the outputs of a state already contain those of its failure states
+     */
+    private static final class Automaton {
+        private final char[][] keys;
+        private final int[][] targets;
+        private final int[] failures;
+        private final int[][] outputs;
+
+        private Automaton(char[][] keys, int[][] targets, int[] failures, int[][] outputs) {
+            this.keys = keys;
+            this.targets = targets;
+            this.failures = failures;
+            this.outputs = outputs;
+        }
+
+        private void scan(String text, MatchState matchState) {
+            if (text == null || keys.length == 1) return;
+
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = Character.toLowerCase(text.charAt(i));
+                int next = next(state, c);
+                while (next < 0 && state != 0) {
+                    state = failures[state];
+                    next = next(state, c);
+                }
+                state = Math.max(next, 0);
+                for (int rule : outputs[state]) {
+                    matchState.consider(rule);
+                }
+            }
+        }
+
+        private int next(int state, char c) {
+            int index = Arrays.binarySearch(keys[state], c);
+            return index >= 0 ? targets[state][index] : -1;
+        }
+
+        private static final class Builder {
+            private final List<TreeMap<Character, Integer>> transitions = new ArrayList<>(List.of(new TreeMap<>()));
+            private final List<List<Integer>> outputs = new ArrayList<>(List.of(new ArrayList<>()));
+
+            private void add(String pattern, int rule) {
+                int state = 0;
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = Character.toLowerCase(pattern.charAt(i));
+                    Integer next = transitions.get(state).get(c);
+                    if (next == null) {
+                        next = transitions.size();
+                        transitions.add(new TreeMap<>());
+                        outputs.add(new ArrayList<>());
+                        transitions.get(state).put(c, next);
+                    }
+                    state = next;
+                }
+                outputs.get(state).add(rule);
+            }
+
+            /**
+             * Computes the failure links breadth-first, so the failure state of a state is always complete before the state itself
+             */
+            private Automaton build() {
+                int states = transitions.size();
+                int[] failures = new int[states];
+                Deque<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+                while (!queue.isEmpty()) {
+                    int state = queue.poll();
+                    for (Map.Entry<Character, Integer> transition : transitions.get(state).entrySet()) {
+                        int child = transition.getValue();
+                        queue.add(child);
+                        int failure = state == 0 ? -1 : failures[state];
+                        Integer target = null;
+                        while (failure >= 0) {
+                            target = transitions.get(failure).get(transition.getKey());
+                            if (target != null || failure == 0) break;
+                            failure = failures[failure];
+                        }
+                        failures[child] = target != null && target != child ? target : 0;
+                        outputs.get(child).addAll(outputs.get(failures[child]));
+                    }
+                }
+
+                char[][] keys = new char[states][];
+                int[][] targets = new int[states][];
+                int[][] outputArrays = new int[states][];
+                for (int state = 0; state < states; state++) {
+                    TreeMap<Character, Integer> stateTransitions = transitions.get(state);
+                    keys[state] = new char[stateTransitions.size()];
+                    targets[state] = new int[stateTransitions.size()];
+                    int index = 0;
+                    for (Map.Entry<Character, Integer> transition : stateTransitions.entrySet()) {
+                        keys[state][index] = transition.getKey();
+                        targets[state][index++] = transition.getValue();
+                    }
+                    outputArrays[state] = outputs.get(state).stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+                }
+                return new Automaton(keys, targets, failures, outputArrays);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package de.budgetbuddy.backend.transactionRule;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TransactionRuleRepository extends JpaRepository<TransactionRule, Long> {
+    List<TransactionRule> findAllByOwnerOrderByPriorityAscIdAsc(User owner);
+
+    long countByOwner(User owner);
+
+    /**
+     * Points the rules of the merged categories to the target by a single statement
+     * @return Number of moved rules
+     */
+    @Modifying
+    @Transactional
+    @Query("update TransactionRule r set r.category = :target where r.owner = :owner and r.category.id in :categories")
+    int moveToCategory(@Param("owner") User owner,
+                       @Param("categories") Collection<Long> categories,
+                       @Param("target") Category target);
+}
@@ -0,0 +1,93 @@
+package de.budgetbuddy.backend.transactionRule;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.referenceData.UserCache;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Applies the rules of the users to their transactions. The compiled rule set of the most recently used users is kept in memory,
+ * the assigned categories and payment-methods are resolved by the ReferenceDataCache, so rules pointing to deleted ones are ignored
+ */
+@Service
+public class TransactionRuleService {
+    public static final int DEFAULT_MAX_USERS = 1_000;
+    /**
+     * Bounds the staleness of rule sets which have been changed on another replica
+     */
+    static final long MAX_AGE_MILLIS = 60 * 1000;
+    private final TransactionRuleRepository transactionRuleRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final UserCache<TransactionRuleMatcher> matchers;
+
+    public TransactionRuleService(TransactionRuleRepository transactionRuleRepository, ReferenceDataCache referenceDataCache) {
+        this(transactionRuleRepository, referenceDataCache, DEFAULT_MAX_USERS);
+    }
+
+    @Autowired
+    public TransactionRuleService(
+            TransactionRuleRepository transactionRuleRepository,
+            ReferenceDataCache referenceDataCache,
+            @Value("${de.budget-buddy.transaction-rules.max-users:" + DEFAULT_MAX_USERS + "}") int maxUsers) {
+        this.transactionRuleRepository = transactionRuleRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.matchers = new UserCache<>(maxUsers, MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Assigns the category and payment-method of the transactions which match a rule of their owner,
+     * as long as they haven't been provided explicitly
+     */
+    public void apply(Collection<Transaction> transactions) {
+        Map<UUID, TransactionRuleMatcher> matchersByOwner = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            User owner = transaction.getOwner();
+            TransactionRuleMatcher matcher = matchersByOwner.computeIfAbsent(owner.getUuid(), uuid -> getMatcher(owner));
+            if (matcher.getRules() == 0
+                    || (transaction.getCategory() != null && transaction.getPaymentMethod() != null)) continue;
+
+            TransactionRuleMatcher.Match match = matcher.match(
+                    transaction.getReceiver(),
+                    transaction.getDescription(),
+                    transaction.getTransferAmount() != null ? transaction.getTransferAmount() : 0);
+            if (match.isEmpty()) continue;
+
+            if (transaction.getCategory() == null) {
+                referenceDataCache.findCategory(match.categoryId(), owner).ifPresent(transaction::setCategory);
+            }
+            if (transaction.getPaymentMethod() == null) {
+                referenceDataCache.findPaymentMethod(match.paymentMethodId(), owner).ifPresent(transaction::setPaymentMethod);
+            }
+        }
+    }
+
+    public Optional<Category> findCategory(User owner, String receiver, String description, Double amount) {
+        return referenceDataCache.findCategory(match(owner, receiver, description, amount).categoryId(), owner);
+    }
+
+    public Optional<PaymentMethod> findPaymentMethod(User owner, String receiver, String description, Double amount) {
+        return referenceDataCache.findPaymentMethod(match(owner, receiver, description, amount).paymentMethodId(), owner);
+    }
+
+    private TransactionRuleMatcher.Match match(User owner, String receiver, String description, Double amount) {
+        return getMatcher(owner).match(receiver, description, amount != null ? amount : 0);
+    }
+
+    public void invalidate(User owner) {
+        matchers.invalidate(owner.getUuid());
+    }
+
+    TransactionRuleMatcher getMatcher(User owner) {
+        return matchers.get(owner.getUuid(), () -> {
+            List<TransactionRule> rules = transactionRuleRepository.findAllByOwnerOrderByPriorityAscIdAsc(owner);
+            return rules.isEmpty() ? TransactionRuleMatcher.EMPTY : TransactionRuleMatcher.compile(rules);
+        });
+    }
+}
@@ -45,6 +45,13 @@ public class User {
     @Column(name = "password")
     private String password;
 
+    /**
+     * Base currency, all rollups and dashboards of the user are in this currency
+     */
+    @Column(name = "currency", length = 3, nullable = false)
+    @ColumnDefault("'EUR'")
+    private String currency = "EUR";
+
     @Column(name = "created_at", nullable = false, updatable = false, columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     @ColumnDefault("CURRENT_TIMESTAMP")
     private Date createdAt = new Date();
@@ -1,8 +1,10 @@
 package de.budgetbuddy.backend.user;
 
 import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,5 +17,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query(value = "select * from public.user", nativeQuery = true)
     List<User> test();
 
+    /**
+     * Ids of the users after the provided one, used to process all users page by page
+     */
+    @Query("select u.uuid from User u where u.uuid > :after order by u.uuid")
+    List<UUID> findUuidsAfter(@Param("after") UUID after, Pageable pageable);
 
 }
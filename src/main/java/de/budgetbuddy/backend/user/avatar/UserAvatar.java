@@ -12,7 +12,8 @@ import org.hibernate.annotations.ColumnDefault;
 public class UserAvatar {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_avatar_id_seq")
+    @SequenceGenerator(name = "user_avatar_id_seq", sequenceName = "user_avatar_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
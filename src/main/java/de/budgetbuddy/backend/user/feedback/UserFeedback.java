@@ -12,7 +12,8 @@ import java.util.Date;
 public class UserFeedback {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_feedback_id_seq")
+    @SequenceGenerator(name = "user_feedback_id_seq", sequenceName = "user_feedback_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -0,0 +1,129 @@
+package de.budgetbuddy.backend.analytics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class AnalyticsControllerTests {
+    private final MonthlyAggregateRepository monthlyAggregateRepository = Mockito.mock(MonthlyAggregateRepository.class);
+    private final CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+    private final PaymentMethodRepository paymentMethodRepository = Mockito.mock(PaymentMethodRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AnalyticsController analyticsController = new AnalyticsController(new MonthlyAggregateService(
+            monthlyAggregateRepository,
+            new ReferenceDataCache(categoryRepository, paymentMethodRepository)));
+    private final User owner = new User(UUID.randomUUID());
+    private MockHttpSession session;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        session = new MockHttpSession();
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+        when(categoryRepository.findAllByOwner(owner)).thenReturn(List.of(
+                Category.builder().id(2L).owner(owner).name("Groceries").build(),
+                Category.builder().id(10L).owner(owner).name("Rent").build()));
+        when(paymentMethodRepository.findAllByOwner(owner)).thenReturn(List.of(
+                PaymentMethod.builder().id(1L).owner(owner).name("Giro").build(),
+                PaymentMethod.builder().id(3L).owner(owner).name("Credit Card").build()));
+        when(monthlyAggregateRepository.findAllByOwnerAndMonthBetween(
+                owner, LocalDate.of(2023, 11, 1), LocalDate.of(2024, 1, 1))).thenReturn(List.of(
+                aggregate(10L, 1L, LocalDate.of(2023, 12, 1), 0, 800, 1),
+                aggregate(2L, 1L, LocalDate.of(2023, 12, 1), 0, 120, 6),
+                aggregate(2L, 3L, LocalDate.of(2023, 12, 1), 10, 30, 3),
+                aggregate(2L, 1L, LocalDate.of(2024, 1, 1), 0, 90, 4),
+                aggregate(10L, 1L, LocalDate.of(2024, 1, 1), 0, 800, 1),
+                // Category which was deleted in the meantime
+                aggregate(99L, 1L, LocalDate.of(2024, 1, 1), 0, 50, 1)));
+    }
+
+    @Test
+    void testGetPivotTable_CategoryByMonth() throws JsonProcessingException {
+        ResponseEntity<ApiResponse<PivotTable>> response = analyticsController.getPivotTable(
+                YearMonth.of(2023, 11), YearMonth.of(2024, 1),
+                PivotDimension.CATEGORY, PivotDimension.MONTH,
+                null, null, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        PivotTable table = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(List.of("2023-12", "2024-01"), table.getColumns().stream().map(PivotTable.Header::getKey).toList());
+        // Ids are ordered numerically
+        assertEquals(List.of("Groceries", "Rent"), table.getRows().stream().map(row -> row.getHeader().getLabel()).toList());
+
+        PivotTable.Row groceries = table.getRows().get(0);
+        assertEquals(150, groceries.getCells().get(0).getExpenses());
+        assertEquals(10, groceries.getCells().get(0).getIncome());
+        assertEquals(9, groceries.getCells().get(0).getTransactions());
+        assertEquals(90, groceries.getCells().get(1).getExpenses());
+        assertEquals(240, groceries.getTotal().getExpenses());
+
+        assertEquals(950, table.getColumnTotals().get(0).getExpenses());
+        assertEquals(890, table.getColumnTotals().get(1).getExpenses());
+        assertEquals(1840, table.getTotal().getExpenses());
+        assertEquals(-1830, table.getTotal().getBalance());
+        assertEquals(15, table.getTotal().getTransactions());
+    }
+
+    @Test
+    void testGetPivotTable_SlicedWithoutColumns() throws JsonProcessingException {
+        ResponseEntity<ApiResponse<PivotTable>> response = analyticsController.getPivotTable(
+                YearMonth.of(2023, 11), YearMonth.of(2024, 1),
+                PivotDimension.PAYMENT_METHOD, null,
+                Set.of(2L), null, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        PivotTable table = Objects.requireNonNull(response.getBody()).getData();
+        assertTrue(table.getColumns().isEmpty());
+        assertEquals(2, table.getRows().size());
+        assertEquals("Giro", table.getRows().get(0).getHeader().getLabel());
+        assertEquals(210, table.getRows().get(0).getTotal().getExpenses());
+        assertEquals(1, table.getRows().get(0).getCells().size());
+        assertEquals("Credit Card", table.getRows().get(1).getHeader().getLabel());
+        assertEquals(30, table.getRows().get(1).getTotal().getExpenses());
+        assertEquals(240, table.getTotal().getExpenses());
+    }
+
+    @Test
+    void testGetPivotTable_InvalidRequest() throws JsonProcessingException {
+        assertEquals(HttpStatus.BAD_REQUEST, analyticsController.getPivotTable(
+                YearMonth.of(2024, 2), YearMonth.of(2024, 1),
+                PivotDimension.CATEGORY, null, null, null, session).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, analyticsController.getPivotTable(
+                YearMonth.of(2000, 1), YearMonth.of(2024, 1),
+                PivotDimension.CATEGORY, null, null, null, session).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, analyticsController.getPivotTable(
+                YearMonth.of(2023, 1), YearMonth.of(2024, 1),
+                PivotDimension.MONTH, PivotDimension.MONTH, null, null, session).getStatusCode());
+    }
+
+    private MonthlyAggregate aggregate(Long category, Long paymentMethod, LocalDate month, double income, double expenses, long transactions) {
+        return MonthlyAggregate.builder()
+                .owner(owner)
+                .categoryId(category)
+                .paymentMethodId(paymentMethod)
+                .month(month)
+                .income(income)
+                .expenses(expenses)
+                .transactions(transactions)
+                .build();
+    }
+}
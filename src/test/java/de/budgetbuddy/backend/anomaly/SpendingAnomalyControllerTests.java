@@ -0,0 +1,44 @@
+package de.budgetbuddy.backend.anomaly;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+public class SpendingAnomalyControllerTests {
+    private final SpendingAnomalyRepository spendingAnomalyRepository = Mockito.mock(SpendingAnomalyRepository.class);
+    private final SpendingAnomalyController spendingAnomalyController = new SpendingAnomalyController(spendingAnomalyRepository);
+
+    @Test
+    void testGetAnomalies_InvalidSession() throws JsonProcessingException {
+        ResponseEntity<ApiResponse<List<SpendingAnomaly>>> response = spendingAnomalyController.getAnomalies(new MockHttpSession());
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+
+    @Test
+    void testGetAnomalies() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute("user", new ObjectMapper().writeValueAsString(owner));
+        SpendingAnomaly anomaly = SpendingAnomaly.builder().id(1L).owner(owner).amount(300.0).typicalAmount(50.0).ratio(6.0).build();
+        when(spendingAnomalyRepository.findAllByOwnerOrderByCreatedAtDesc(owner)).thenReturn(List.of(anomaly));
+
+        ResponseEntity<ApiResponse<List<SpendingAnomaly>>> response = spendingAnomalyController.getAnomalies(session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(anomaly), Objects.requireNonNull(response.getBody()).getData());
+    }
+}
@@ -0,0 +1,132 @@
+package de.budgetbuddy.backend.anomaly;
+
+import de.budgetbuddy.backend.MailService;
+import de.budgetbuddy.backend.budget.QuantileSketch;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SpendingAnomalyServiceTests {
+    private final CategoryAmountSketchRepository categoryAmountSketchRepository = Mockito.mock(CategoryAmountSketchRepository.class);
+    private final SpendingAnomalyRepository spendingAnomalyRepository = Mockito.mock(SpendingAnomalyRepository.class);
+    private final SpendingAnomalyService spendingAnomalyService = new SpendingAnomalyService(
+            categoryAmountSketchRepository,
+            spendingAnomalyRepository,
+            Mockito.mock(MailService.class));
+    private final User owner = new User(UUID.randomUUID());
+    private final Category groceries = Category.builder().id(1L).owner(owner).name("Groceries").build();
+
+    @BeforeEach
+    void setUp() {
+        when(spendingAnomalyRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testApply_FlagsUnusuallyLargeExpense() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) transactions.add(expense(40 + i));
+        transactions.add(expense(80));
+        transactions.add(expense(300));
+
+        List<SpendingAnomaly> anomalies = spendingAnomalyService.changes().addAll(transactions).apply().anomalies();
+
+        assertEquals(1, anomalies.size());
+        assertEquals(300, anomalies.get(0).getAmount());
+        assertSame(transactions.get(21), anomalies.get(0).getTransaction());
+        assertTrue(anomalies.get(0).getRatio() >= SpendingAnomalyService.MIN_RATIO);
+        // The sketches of the owner are loaded once for the whole batch
+        verify(categoryAmountSketchRepository, times(1)).findAllByOwner(any());
+    }
+
+    @Test
+    void testApply_SkipsCategoriesWithFewExpenses() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 1; i < SpendingAnomalyService.MIN_AMOUNTS; i++) transactions.add(expense(10));
+        transactions.add(expense(500));
+
+        assertTrue(spendingAnomalyService.changes().addAll(transactions).apply().anomalies().isEmpty());
+        verify(spendingAnomalyRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testApply_ScoresAgainstPersistedSketch() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 50; i++) sketch.add(20 + i % 10);
+        when(categoryAmountSketchRepository.findAllByOwner(any())).thenReturn(List.of(CategoryAmountSketch.builder()
+                .owner(owner)
+                .category(groceries)
+                .sketch(sketch.toBytes())
+                .build()));
+
+        assertEquals(1, spendingAnomalyService.changes().addAll(List.of(expense(150))).apply().anomalies().size());
+        // Income and the second call are scored from memory
+        assertTrue(spendingAnomalyService.changes().addAll(List.of(expense(25), income(1000))).apply().anomalies().isEmpty());
+        verify(categoryAmountSketchRepository, times(1)).findAllByOwner(any());
+    }
+
+    @Test
+    void testApply_AddsAmountsOnlyOnceCommitted() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) transactions.add(expense(40 + i));
+
+        SpendingAnomalyService.Result rolledBack = spendingAnomalyService.changes().addAll(transactions).apply();
+        assertEquals(20, rolledBack.addedAmounts().amounts().get(owner.getUuid()).get(1L).getCount());
+        // Without a commit the next expense is scored against an empty sketch
+        assertTrue(spendingAnomalyService.changes().addAll(List.of(expense(300))).apply().anomalies().isEmpty());
+
+        spendingAnomalyService.onCategoryAmountsAdded(rolledBack.addedAmounts());
+        assertEquals(1, spendingAnomalyService.changes().addAll(List.of(expense(300))).apply().anomalies().size());
+    }
+
+    @Test
+    void testPersist_MergesPendingAmountsOnce() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 20; i++) sketch.add(40 + i);
+        when(categoryAmountSketchRepository.findAllByOwner(any())).thenReturn(List.of(CategoryAmountSketch.builder()
+                .owner(owner)
+                .category(groceries)
+                .sketch(sketch.toBytes())
+                .build()));
+        when(categoryAmountSketchRepository.merge(any(), any(), any(), any())).thenReturn(1);
+        spendingAnomalyService.onCategoryAmountsAdded(spendingAnomalyService.changes()
+                .addAll(List.of(expense(10), expense(12)))
+                .apply()
+                .addedAmounts());
+
+        assertEquals(1, spendingAnomalyService.persist());
+        assertEquals(0, spendingAnomalyService.persist());
+        // Only the pending amounts are written, the persisted sketch is merged with them by the repository
+        verify(categoryAmountSketchRepository, times(1)).merge(eq(owner.getUuid()), eq(1L),
+                argThat(amounts -> amounts.getCount() == 2), any());
+        verify(categoryAmountSketchRepository, never()).upsert(any(), any(), any(), any());
+        // The merged sketches are reloaded
+        spendingAnomalyService.changes().addAll(List.of(expense(50))).apply();
+        verify(categoryAmountSketchRepository, times(2)).findAllByOwner(any());
+    }
+
+    private Transaction expense(double amount) {
+        return income(-amount);
+    }
+
+    private Transaction income(double amount) {
+        return Transaction.builder()
+                .owner(owner)
+                .category(groceries)
+                .receiver("Supermarket")
+                .processedAt(new Date())
+                .transferAmount(amount)
+                .build();
+    }
+}
@@ -5,7 +5,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import de.budgetbuddy.backend.ApiResponse;
 import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryClosureRepository;
 import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +22,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,7 +38,10 @@ public class BudgetControllerTests {
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final BudgetRepository budgetRepository;
-    private final BudgetProgressViewRepository budgetProgressViewRepository;
+    private final BudgetSpendingRepository budgetSpendingRepository;
+    private final BudgetAlertRepository budgetAlertRepository;
+    private final BudgetSnapshotRepository budgetSnapshotRepository;
+    private final CategorySpendingSketchRepository categorySpendingSketchRepository;
     private final BudgetController budgetController;
     private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
     private MockHttpSession session;
@@ -41,12 +50,18 @@ public class BudgetControllerTests {
         UserRepository userRepository = Mockito.mock(UserRepository.class);
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         BudgetRepository budgetRepository = Mockito.mock(BudgetRepository.class);
-        BudgetProgressViewRepository budgetProgressViewRepository = Mockito.mock(BudgetProgressViewRepository.class);
+        BudgetSpendingRepository budgetSpendingRepository = Mockito.mock(BudgetSpendingRepository.class);
+        BudgetAlertRepository budgetAlertRepository = Mockito.mock(BudgetAlertRepository.class);
+        BudgetSnapshotRepository budgetSnapshotRepository = Mockito.mock(BudgetSnapshotRepository.class);
+        CategorySpendingSketchRepository categorySpendingSketchRepository = Mockito.mock(CategorySpendingSketchRepository.class);
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
         this.budgetRepository = budgetRepository;
-        this.budgetProgressViewRepository = budgetProgressViewRepository;
-        this.budgetController = new BudgetController(budgetRepository, budgetProgressViewRepository, userRepository, categoryRepository);
+        this.budgetSpendingRepository = budgetSpendingRepository;
+        this.budgetAlertRepository = budgetAlertRepository;
+        this.budgetSnapshotRepository = budgetSnapshotRepository;
+        this.categorySpendingSketchRepository = categorySpendingSketchRepository;
+        this.budgetController = new BudgetController(budgetRepository, budgetSpendingRepository, budgetAlertRepository, budgetSnapshotRepository, categorySpendingSketchRepository, Mockito.mock(CategoryClosureRepository.class), userRepository, new ReferenceDataCache(categoryRepository, Mockito.mock(PaymentMethodRepository.class)));
     }
 
     @BeforeEach
@@ -82,7 +97,7 @@ public class BudgetControllerTests {
         payload.setCategoryId(1L);
 
         when(userRepository.findById(uuid)).thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner)).thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner)).thenReturn(List.of());
 
         ResponseEntity<ApiResponse<Budget>> response = budgetController.createBudget(payload, session);
 
@@ -112,7 +127,7 @@ public class BudgetControllerTests {
         alreadyExistingBudget.setCategory(category);
 
         when(userRepository.findById(uuid)).thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(category.getId(), owner)).thenReturn(Optional.of(category));
+        when(categoryRepository.findAllByOwner(owner)).thenReturn(List.of(category));
         when(budgetRepository.findByOwnerAndCategory(owner, category))
                 .thenReturn(Optional.of(alreadyExistingBudget));
 
@@ -143,8 +158,8 @@ public class BudgetControllerTests {
         payload.setOwner(owner.getUuid());
 
         when(userRepository.findById(uuid)).thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(category.getId(), owner))
-                .thenReturn(Optional.of(category));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
         when(budgetRepository.findByOwnerAndCategory(owner, category))
                 .thenReturn(Optional.empty());
 
@@ -178,7 +193,7 @@ public class BudgetControllerTests {
         budget.setCategory(category);
 
         when(userRepository.findById(uuid)).thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(category.getId(), owner)).thenReturn(Optional.of(category));
+        when(categoryRepository.findAllByOwner(owner)).thenReturn(List.of(category));
         when(budgetRepository.findByOwnerAndCategory(owner, category))
                 .thenReturn(Optional.empty());
         when(budgetRepository.save(any(Budget.class))).thenReturn(budget);
@@ -277,8 +292,8 @@ public class BudgetControllerTests {
 
         when(budgetRepository.findById(1L))
                 .thenReturn(Optional.of(budget));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), user))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(user))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<Budget>> response = budgetController.updateBudget(payload, session);
 
@@ -319,7 +334,7 @@ public class BudgetControllerTests {
         payload.setCategoryId(c1.getId());
 
         when(budgetRepository.findById(b2.getId())).thenReturn(Optional.of(b2));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner)).thenReturn(Optional.of(c1));
+        when(categoryRepository.findAllByOwner(owner)).thenReturn(List.of(c1));
         when(budgetRepository.findByOwnerAndCategory(owner, c1)).thenReturn(Optional.of(b1));
 
         ResponseEntity<ApiResponse<Budget>> response = budgetController.updateBudget(payload, session);
@@ -354,8 +369,8 @@ public class BudgetControllerTests {
 
         when(budgetRepository.findById(payload.getBudgetId()))
                 .thenReturn(Optional.of(budget));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.of(category));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
         when(budgetRepository.save(any(Budget.class)))
                 .thenReturn(budget);
 
@@ -394,8 +409,8 @@ public class BudgetControllerTests {
 
         when(budgetRepository.findById(payload.getBudgetId()))
                 .thenReturn(Optional.of(budget));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.of(category));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
         when(budgetRepository.save(any(Budget.class)))
                 .thenReturn(updatedBudget);
 
@@ -406,6 +421,209 @@ public class BudgetControllerTests {
         assertEquals(updatedBudget, Objects.requireNonNull(response.getBody()).getData());
     }
 
+    @Test
+    void testGetBudgetProgress_Success() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Budget spentBudget = Budget.builder()
+                .id(1L)
+                .owner(owner)
+                .budget(200.0)
+                .build();
+        Budget untouchedBudget = Budget.builder()
+                .id(2L)
+                .owner(owner)
+                .budget(50.0)
+                .build();
+        Budget weeklyBudget = Budget.builder()
+                .id(3L)
+                .owner(owner)
+                .budget(30.0)
+                .period(BudgetPeriod.WEEKLY)
+                .build();
+
+        when(userRepository.findById(owner.getUuid()))
+                .thenReturn(Optional.of(owner));
+        when(budgetRepository.findAllByOwner(owner))
+                .thenReturn(List.of(spentBudget, untouchedBudget, weeklyBudget));
+        when(budgetSpendingRepository.sumSpendings(
+                List.of(spentBudget, untouchedBudget),
+                LocalDate.now().withDayOfMonth(1),
+                LocalDate.now().withDayOfMonth(1).plusMonths(1)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 120.0}));
+        when(budgetSpendingRepository.sumSpendings(
+                List.of(weeklyBudget),
+                LocalDate.now().with(DayOfWeek.MONDAY),
+                LocalDate.now().with(DayOfWeek.MONDAY).plusWeeks(1)))
+                .thenReturn(List.<Object[]>of(new Object[]{3L, 12.5}));
+
+        ResponseEntity<ApiResponse<List<BudgetProgress>>> response =
+                budgetController.getBudgetProgressByUuid(owner.getUuid(), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<BudgetProgress> progress = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(3, progress.size());
+        assertEquals(120.0, progress.get(0).getAmount_spent());
+        assertEquals(0.0, progress.get(1).getAmount_spent());
+        assertEquals(12.5, progress.get(2).getAmount_spent());
+        assertEquals(BudgetPeriod.MONTHLY, progress.get(0).getPeriod());
+        assertEquals(LocalDate.now().withDayOfMonth(1), progress.get(0).getPeriodStart());
+        assertEquals(LocalDate.now().with(DayOfWeek.MONDAY), progress.get(2).getPeriodStart());
+    }
+
+    @Test
+    void testGetBudgetRecommendations_InvalidPercentile() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        ResponseEntity<ApiResponse<List<BudgetRecommendation>>> response =
+                budgetController.getBudgetRecommendationsByUuid(owner.getUuid(), 100, session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The percentile needs to be between 1 and 99",
+                Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
+    @Test
+    void testGetBudgetRecommendations_Success() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Category category = new Category();
+        category.setId(1L);
+        CategorySpendingSketch categorySketch = CategorySpendingSketch.builder()
+                .id(1L)
+                .owner(owner)
+                .category(category)
+                .months(6)
+                .sketch(QuantileSketch.of(0, 100, 200, 300, 400, 500).toBytes())
+                .build();
+
+        when(userRepository.findById(owner.getUuid()))
+                .thenReturn(Optional.of(owner));
+        when(categorySpendingSketchRepository.findAllByOwner(owner))
+                .thenReturn(List.of(categorySketch));
+
+        ResponseEntity<ApiResponse<List<BudgetRecommendation>>> response =
+                budgetController.getBudgetRecommendationsByUuid(owner.getUuid(), 90, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<BudgetRecommendation> recommendations = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(1, recommendations.size());
+        assertEquals(category, recommendations.get(0).getCategory());
+        assertEquals(6, recommendations.get(0).getMonths());
+        assertEquals(250.0, recommendations.get(0).getP50());
+        assertEquals(400.0, recommendations.get(0).getP80());
+        assertEquals(450.0, recommendations.get(0).getBudget());
+    }
+
+    @Test
+    void testGetBudgetHistory_WrongSessionUser() throws JsonProcessingException {
+        session.setAttribute("user", objectMapper.writeValueAsString(new User(UUID.randomUUID())));
+        User owner = new User(UUID.randomUUID());
+
+        when(userRepository.findById(owner.getUuid()))
+                .thenReturn(Optional.of(owner));
+
+        ResponseEntity<ApiResponse<List<BudgetSnapshot>>> response =
+                budgetController.getBudgetHistoryByUuid(owner.getUuid(), null, null, null, session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("You can't retrieve budgets for different users",
+                Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
+    @Test
+    void testGetBudgetHistory_BudgetNotFound() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+        Budget foreignBudget = Budget.builder()
+                .id(1L)
+                .owner(new User(UUID.randomUUID()))
+                .build();
+
+        when(userRepository.findById(owner.getUuid()))
+                .thenReturn(Optional.of(owner));
+        when(budgetRepository.findById(1L))
+                .thenReturn(Optional.of(foreignBudget));
+
+        ResponseEntity<ApiResponse<List<BudgetSnapshot>>> response =
+                budgetController.getBudgetHistoryByUuid(owner.getUuid(), 1L, null, null, session);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Provided budget doesn't exist", Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
+    @Test
+    void testGetBudgetHistory_Success() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        LocalDate to = LocalDate.of(2023, 12, 31);
+
+        List<BudgetSnapshot> snapshots = List.of(BudgetSnapshot.builder()
+                .id(1L)
+                .owner(owner)
+                .period(BudgetPeriod.QUARTERLY)
+                .periodStart(LocalDate.of(2023, 10, 1))
+                .periodEnd(LocalDate.of(2024, 1, 1))
+                .budgetAmount(300.0)
+                .amountSpent(280.0)
+                .build());
+
+        when(userRepository.findById(owner.getUuid()))
+                .thenReturn(Optional.of(owner));
+        when(budgetSnapshotRepository.findAllByOwnerAndPeriodStartBetweenOrderByPeriodStartDesc(owner, from, to))
+                .thenReturn(snapshots);
+
+        ResponseEntity<ApiResponse<List<BudgetSnapshot>>> response =
+                budgetController.getBudgetHistoryByUuid(owner.getUuid(), null, from, to, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(snapshots, Objects.requireNonNull(response.getBody()).getData());
+    }
+
+    @Test
+    void testGetBudgetAlerts_WrongSessionUser() throws JsonProcessingException {
+        session.setAttribute("user", objectMapper.writeValueAsString(new User(UUID.randomUUID())));
+        User owner = new User(UUID.randomUUID());
+
+        when(userRepository.findById(owner.getUuid()))
+                .thenReturn(Optional.of(owner));
+
+        ResponseEntity<ApiResponse<List<BudgetAlert>>> response =
+                budgetController.getBudgetAlertsByUuid(owner.getUuid(), session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("You can't retrieve budgets for different users",
+                Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
+    @Test
+    void testGetBudgetAlerts_Success() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        List<BudgetAlert> alerts = List.of(BudgetAlert.builder()
+                .id(1L)
+                .owner(owner)
+                .threshold(80)
+                .amountSpent(85.0)
+                .build());
+
+        when(userRepository.findById(owner.getUuid()))
+                .thenReturn(Optional.of(owner));
+        when(budgetAlertRepository.findAllByOwnerOrderByCreatedAtDesc(owner))
+                .thenReturn(alerts);
+
+        ResponseEntity<ApiResponse<List<BudgetAlert>>> response =
+                budgetController.getBudgetAlertsByUuid(owner.getUuid(), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(alerts, Objects.requireNonNull(response.getBody()).getData());
+    }
+
     @Test
     void testDeleteBudget_EmptyList() throws JsonProcessingException {
         List<Budget.Delete> payload = new ArrayList<>();
@@ -433,7 +651,7 @@ public class BudgetControllerTests {
                 .toDelete());
 
 
-        when(budgetProgressViewRepository.findById(any(Long.class)))
+        when(budgetRepository.findById(any(Long.class)))
                 .thenReturn(Optional.empty());
 
         ResponseEntity<ApiResponse<Map<String, List<?>>>> response =
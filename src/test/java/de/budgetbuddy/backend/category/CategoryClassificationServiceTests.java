@@ -0,0 +1,97 @@
+package de.budgetbuddy.backend.category;
+
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class CategoryClassificationServiceTests {
+    private final TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+    private final ReferenceDataCache referenceDataCache = Mockito.mock(ReferenceDataCache.class);
+    private final CategoryClassificationService categoryClassificationService =
+            new CategoryClassificationService(transactionRepository, referenceDataCache);
+    private final User owner = new User(UUID.randomUUID());
+    private final Category groceries = Category.builder().id(1L).owner(owner).name("Groceries").build();
+    private final Category leisure = Category.builder().id(2L).owner(owner).name("Leisure").build();
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> trainingData = new ArrayList<>();
+        for (int i = 0; i < CategoryClassificationService.MIN_TRAINING_TRANSACTIONS; i++) {
+            trainingData.add(new Object[]{groceries.getId(), "Supermarket", null});
+        }
+        when(transactionRepository.findCategoryTrainingData(any(), any())).thenReturn(trainingData);
+        when(referenceDataCache.findCategory(eq(groceries.getId()), any())).thenReturn(Optional.of(groceries));
+        when(referenceDataCache.findCategory(eq(leisure.getId()), any())).thenReturn(Optional.of(leisure));
+    }
+
+    @Test
+    void testChanges_ModelIsOnlyUpdatedOnceCommitted() {
+        assertTrue(categoryClassificationService.suggest(owner, "Cinema", null).isEmpty());
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) transactions.add(transaction(leisure, "Cinema"));
+        CategoryTrainingDataChangedEvent event = categoryClassificationService.changes().addAll(transactions).apply();
+        // A rolled back transaction never publishes the event, so the model stays unchanged
+        assertTrue(categoryClassificationService.suggest(owner, "Cinema", null).isEmpty());
+
+        categoryClassificationService.onTrainingDataChanged(event);
+        assertEquals(Optional.of(leisure), categoryClassificationService.suggest(owner, "Cinema", null));
+        verify(transactionRepository, times(1)).findCategoryTrainingData(any(), any());
+    }
+
+    @Test
+    void testChanges_CopiesValuesOfTheTransaction() {
+        Transaction transaction = transaction(groceries, "Supermarket");
+        CategoryClassificationService.Changes changes = categoryClassificationService.changes().remove(transaction);
+        transaction.setCategory(leisure);
+        changes.add(transaction);
+
+        CategoryTrainingDataChangedEvent event = changes.apply();
+        assertEquals(groceries.getId(), event.forgotten().get(0).category());
+        assertEquals(leisure.getId(), event.learned().get(0).category());
+    }
+
+    @Test
+    void testChanges_SkipsImportedTransactions() {
+        Transaction transaction = transaction(groceries, "Supermarket");
+        transaction.setFingerprint("imported");
+
+        CategoryTrainingDataChangedEvent event = categoryClassificationService.changes()
+                .remove(transaction)
+                .add(transaction)
+                .apply();
+        assertTrue(event.isEmpty());
+    }
+
+    @Test
+    void testChanges_InvalidatesModelOnceCommitted() {
+        categoryClassificationService.suggest(owner, "Supermarket", null);
+        categoryClassificationService.onTrainingDataChanged(categoryClassificationService.changes().invalidate(owner).apply());
+        categoryClassificationService.suggest(owner, "Supermarket", null);
+
+        verify(transactionRepository, times(2)).findCategoryTrainingData(any(), any());
+    }
+
+    private Transaction transaction(Category category, String receiver) {
+        return Transaction.builder()
+                .owner(owner)
+                .category(category)
+                .receiver(receiver)
+                .transferAmount(-10.0)
+                .build();
+    }
+}
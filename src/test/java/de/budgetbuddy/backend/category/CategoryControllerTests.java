@@ -4,6 +4,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,6 +23,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
@@ -34,6 +38,8 @@ public class CategoryControllerTests {
 //    private CategoryController categoryController;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final CategoryMergeService categoryMergeService;
+    private final TransactionRepository transactionRepository;
     private final CategoryController categoryController;
     private MockHttpSession session;
     private final ObjectMapper objMapper = new ObjectMapper().registerModule(new JavaTimeModule());
@@ -43,7 +49,16 @@ public class CategoryControllerTests {
         CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
-        this.categoryController = new CategoryController(categoryRepository, userRepository);
+        this.categoryMergeService = Mockito.mock(CategoryMergeService.class);
+        this.transactionRepository = Mockito.mock(TransactionRepository.class);
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(categoryRepository, Mockito.mock(PaymentMethodRepository.class));
+        this.categoryController = new CategoryController(
+                categoryRepository,
+                userRepository,
+                referenceDataCache,
+                new CategoryService(categoryRepository, Mockito.mock(CategoryClosureRepository.class)),
+                categoryMergeService,
+                new CategoryClassificationService(transactionRepository, referenceDataCache));
     }
 
     @BeforeEach
@@ -185,6 +200,31 @@ public class CategoryControllerTests {
         assertEquals(categories, Objects.requireNonNull(response.getBody()).getData());
     }
 
+    @Test
+    void retrieveCategoriesFromCacheUntilCreate() throws JsonProcessingException {
+        UUID uuid = UUID.randomUUID();
+        User user = new User();
+        user.setUuid(uuid);
+        session.setAttribute("user", objMapper.writeValueAsString(user));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category(user, "Shopping", null);
+        de.budgetbuddy.backend.category.Category.Create payload = new de.budgetbuddy.backend.category.Category.Create();
+        payload.setOwner(uuid);
+        payload.setName(category.getName());
+
+        when(userRepository.findById(uuid)).thenReturn(Optional.of(user));
+        when(categoryRepository.findAllByOwner(user)).thenReturn(List.of(), List.of(category));
+        when(categoryRepository.findByOwnerAndName(user, payload.getName())).thenReturn(Optional.empty());
+        when(categoryRepository.save(any(de.budgetbuddy.backend.category.Category.class))).thenReturn(category);
+
+        categoryController.getCategoriesByUuid(uuid, session);
+        assertEquals(List.of(), Objects.requireNonNull(categoryController.getCategoriesByUuid(uuid, session).getBody()).getData());
+        categoryController.createCategory(payload, session);
+        assertEquals(List.of(category), Objects.requireNonNull(categoryController.getCategoriesByUuid(uuid, session).getBody()).getData());
+
+        Mockito.verify(categoryRepository, Mockito.times(2)).findAllByOwner(user);
+    }
+
     @Test
     void testUpdateCategory_CategoryNotFound() throws JsonProcessingException {
         de.budgetbuddy.backend.category.Category.Update payload = new de.budgetbuddy.backend.category.Category.Update();
@@ -262,6 +302,40 @@ public class CategoryControllerTests {
         assertEquals(updatedCategory, Objects.requireNonNull(response.getBody()).getData());
     }
 
+    @Test
+    void testUpdateCategory_MoveBelowOwnChild() throws JsonProcessingException {
+        User user = new User();
+        user.setUuid(UUID.randomUUID());
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(user);
+        category.setName("Shopping");
+
+        de.budgetbuddy.backend.category.Category child = new de.budgetbuddy.backend.category.Category();
+        child.setId(2L);
+        child.setOwner(user);
+        child.setName("Groceries");
+        child.setParentId(1L);
+
+        de.budgetbuddy.backend.category.Category.Update payload = new de.budgetbuddy.backend.category.Category.Update();
+        payload.setCategoryId(1L);
+        payload.setName("Shopping");
+        payload.setParentId(2L);
+
+        session.setAttribute("user", objMapper.writeValueAsString(user));
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryRepository.findByOwnerAndName(user, payload.getName())).thenReturn(Optional.of(category));
+        when(categoryRepository.findAllByOwner(user)).thenReturn(List.of(category, child));
+
+        ResponseEntity<ApiResponse<de.budgetbuddy.backend.category.Category>> response = categoryController.updateCategory(payload, session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("A category can't be moved below itself or one of its children", Objects.requireNonNull(response.getBody()).getMessage());
+        assertNull(Objects.requireNonNull(response.getBody()).getData());
+    }
+
     @Test
     void testUpdateCategory_TryForDiffUser() throws JsonProcessingException {
         User user = new User();
@@ -291,6 +365,71 @@ public class CategoryControllerTests {
         assertEquals("You can't modify categories from other users", Objects.requireNonNull(response.getBody()).getMessage());
         assertNull(Objects.requireNonNull(response.getBody()).getData());
     }
+    @Test
+    void testMergeCategories_IntoOwnChild() throws JsonProcessingException {
+        User user = new User();
+        user.setUuid(UUID.randomUUID());
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(user);
+        category.setName("Food");
+
+        de.budgetbuddy.backend.category.Category child = new de.budgetbuddy.backend.category.Category();
+        child.setId(2L);
+        child.setOwner(user);
+        child.setName("Groceries");
+        child.setParentId(1L);
+
+        de.budgetbuddy.backend.category.Category.Merge payload = new de.budgetbuddy.backend.category.Category.Merge();
+        payload.setTargetId(2L);
+        payload.setCategoryIds(List.of(1L));
+
+        session.setAttribute("user", objMapper.writeValueAsString(user));
+
+        when(categoryRepository.findAllByOwner(user)).thenReturn(List.of(category, child));
+
+        ResponseEntity<ApiResponse<CategoryMergeResult>> response = categoryController.mergeCategories(payload, session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("A category can't be merged into one of its children", Objects.requireNonNull(response.getBody()).getMessage());
+        Mockito.verifyNoInteractions(categoryMergeService);
+    }
+
+    @Test
+    void testMergeCategories_Success() throws JsonProcessingException {
+        User user = new User();
+        user.setUuid(UUID.randomUUID());
+
+        de.budgetbuddy.backend.category.Category target = new de.budgetbuddy.backend.category.Category();
+        target.setId(1L);
+        target.setOwner(user);
+        target.setName("Groceries");
+
+        de.budgetbuddy.backend.category.Category duplicate = new de.budgetbuddy.backend.category.Category();
+        duplicate.setId(2L);
+        duplicate.setOwner(user);
+        duplicate.setName("Food");
+
+        de.budgetbuddy.backend.category.Category.Merge payload = new de.budgetbuddy.backend.category.Category.Merge();
+        payload.setTargetId(1L);
+        payload.setCategoryIds(List.of(2L));
+
+        CategoryMergeResult result = new CategoryMergeResult(target, List.of(2L), 50000, 2, null);
+
+        session.setAttribute("user", objMapper.writeValueAsString(user));
+
+        when(categoryRepository.findAllByOwner(user)).thenReturn(List.of(target, duplicate));
+        when(categoryMergeService.mergeCategories(any(User.class), any(de.budgetbuddy.backend.category.Category.class), any()))
+                .thenReturn(result);
+
+        ResponseEntity<ApiResponse<CategoryMergeResult>> response = categoryController.mergeCategories(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, Objects.requireNonNull(response.getBody()).getData());
+        Mockito.verify(categoryMergeService).mergeCategories(any(User.class), Mockito.eq(target), Mockito.eq(Set.of(2L)));
+    }
+
     @Test
     void testDeleteCategory_EmptyList() throws JsonProcessingException {
         List<Category.Delete> payload = new ArrayList<>();
@@ -431,4 +570,35 @@ public class CategoryControllerTests {
         assertEquals(2, responseBody.get("success").size());
         assertEquals(List.of(c1, c2), responseBody.get("success"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetSuggestions_Success() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objMapper.writeValueAsString(owner));
+
+        Category groceries = Category.builder().id(1L).owner(owner).build();
+        Category salary = Category.builder().id(2L).owner(owner).build();
+        List<Object[]> trainingData = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            trainingData.add(new Object[]{1L, "Rewe Markt", "Groceries"});
+            trainingData.add(new Object[]{2L, "Employer GmbH", "Salary " + i});
+        }
+        // Category 3 has been deleted since, so it mustn't be suggested
+        trainingData.add(new Object[]{3L, "Rewe Markt", null});
+
+        when(transactionRepository.findCategoryTrainingData(any(User.class), any()))
+                .thenReturn(trainingData);
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(groceries, salary));
+
+        ResponseEntity<ApiResponse<List<CategorySuggestion>>> response =
+                categoryController.getSuggestions("REWE Markt", null, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<CategorySuggestion> suggestions = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(2, suggestions.size());
+        assertEquals(groceries, suggestions.get(0).getCategory());
+        assertTrue(suggestions.get(0).getProbability() > 0.8);
+        assertEquals(salary, suggestions.get(1).getCategory());
+    }
+}
@@ -0,0 +1,112 @@
+package de.budgetbuddy.backend.currency;
+
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExchangeRateServiceTests {
+    private final ExchangeRateRepository exchangeRateRepository = Mockito.mock(ExchangeRateRepository.class);
+    private final ExchangeRateService exchangeRateService = new ExchangeRateService(exchangeRateRepository, List.of());
+
+    @Test
+    void testConvert_UsesLatestRateOnOrBeforeDate() {
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(
+                new ExchangeRate("USD", LocalDate.of(2023, 10, 2), 1.05),
+                new ExchangeRate("USD", LocalDate.of(2023, 10, 4), 1.10),
+                new ExchangeRate("GBP", LocalDate.of(2023, 10, 2), 0.80)));
+
+        assertEquals(105.0, exchangeRateService.convert(100, "EUR", "USD", LocalDate.of(2023, 10, 3)), 1e-9);
+        assertEquals(110.0, exchangeRateService.convert(100, "EUR", "USD", LocalDate.of(2023, 10, 4)), 1e-9);
+        assertEquals(105.0, exchangeRateService.convert(100, "EUR", "USD", LocalDate.of(2023, 9, 1)), 1e-9);
+        assertEquals(100.0, exchangeRateService.convert(110, "USD", "EUR", LocalDate.of(2023, 10, 5)), 1e-9);
+        assertEquals(80.0, exchangeRateService.convert(105, "USD", "GBP", LocalDate.of(2023, 10, 2)), 1e-9);
+        verify(exchangeRateRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testConvert_UnknownCurrency() {
+        when(exchangeRateRepository.findAll()).thenReturn(List.of());
+
+        assertEquals(42.0, exchangeRateService.convert(42, "CHF", "CHF", LocalDate.now()));
+        assertThrows(IllegalArgumentException.class,
+                () -> exchangeRateService.convert(42, "EUR", "CHF", LocalDate.now()));
+    }
+
+    @Test
+    void testIsSupported() {
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(new ExchangeRate("USD", LocalDate.of(2023, 10, 2), 1.05)));
+
+        assertTrue(exchangeRateService.isSupported("EUR"));
+        assertTrue(exchangeRateService.isSupported("USD"));
+        assertFalse(exchangeRateService.isSupported("CHF"));
+        assertFalse(exchangeRateService.isSupported("usd"));
+        assertFalse(exchangeRateService.isSupported(null));
+    }
+
+    @Test
+    void testApply_ConvertsToBaseCurrencyOfOwner() {
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(new ExchangeRate("USD", LocalDate.of(2023, 10, 2), 1.05)));
+        User owner = new User(UUID.randomUUID());
+        PaymentMethod card = PaymentMethod.builder().id(1L).owner(owner).name("Card").currency("USD").build();
+        Transaction converted = Transaction.builder()
+                .owner(owner)
+                .paymentMethod(card)
+                .processedAt(Date.valueOf(LocalDate.of(2023, 10, 3)))
+                .transferAmount(-10.0)
+                .build();
+        Transaction unconverted = Transaction.builder().owner(owner).transferAmount(-5.0).build();
+
+        exchangeRateService.apply(List.of(converted, unconverted));
+
+        assertEquals("USD", converted.getCurrency());
+        assertEquals(-9.52, converted.getBaseAmount());
+        assertEquals("EUR", unconverted.getCurrency());
+        assertEquals(-5.0, unconverted.getBaseAmount());
+    }
+
+    @Test
+    void testRefresh_FetchesSinceLatestDate() {
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(new ExchangeRate("USD", LocalDate.of(2023, 10, 2), 1.05)));
+        List<LocalDate> requestedDates = new ArrayList<>();
+        ExchangeRateProvider provider = since -> {
+            requestedDates.add(since);
+            return List.of(
+                    new ExchangeRate("USD", LocalDate.of(2023, 10, 3), 1.10),
+                    new ExchangeRate("GBP", LocalDate.of(2023, 10, 3), 0.80));
+        };
+        ExchangeRateService service = new ExchangeRateService(exchangeRateRepository, List.of(provider));
+
+        assertEquals(2, service.refresh());
+
+        assertEquals(List.of(LocalDate.of(2023, 10, 2)), requestedDates);
+        verify(exchangeRateRepository).upsert("USD", LocalDate.of(2023, 10, 3), 1.10);
+        verify(exchangeRateRepository).upsert("GBP", LocalDate.of(2023, 10, 3), 0.80);
+        assertTrue(service.isSupported("GBP"));
+        assertEquals(105.0, service.convert(100, "EUR", "USD", LocalDate.of(2023, 10, 2)), 1e-9);
+        assertEquals(110.0, service.convert(100, "EUR", "USD", LocalDate.of(2023, 10, 3)), 1e-9);
+    }
+
+    @Test
+    void testParse() {
+        ExchangeRate rate = FileExchangeRateProvider.parse("2023-10-02, usd ,1.0530");
+
+        assertNotNull(rate);
+        assertEquals("USD", rate.getCurrency());
+        assertEquals(LocalDate.of(2023, 10, 2), rate.getDate());
+        assertEquals(1.053, rate.getRate());
+        assertNull(FileExchangeRateProvider.parse("date,currency,rate"));
+        assertNull(FileExchangeRateProvider.parse("2023-10-02,USD,-1"));
+        assertNull(FileExchangeRateProvider.parse("2023-10-02,USD"));
+    }
+}
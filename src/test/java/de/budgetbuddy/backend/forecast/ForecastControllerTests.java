@@ -0,0 +1,90 @@
+package de.budgetbuddy.backend.forecast;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.analytics.MonthlyAggregateRepository;
+import de.budgetbuddy.backend.currency.ExchangeRateRepository;
+import de.budgetbuddy.backend.currency.ExchangeRateService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodBalanceService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodDailyBalanceRepository;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.subscription.Subscription;
+import de.budgetbuddy.backend.subscription.SubscriptionRepository;
+import de.budgetbuddy.backend.subscription.SubscriptionSuggestionRepository;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class ForecastControllerTests {
+    private final PaymentMethodRepository paymentMethodRepository = Mockito.mock(PaymentMethodRepository.class);
+    private final SubscriptionRepository subscriptionRepository = Mockito.mock(SubscriptionRepository.class);
+    private final MonthlyAggregateRepository monthlyAggregateRepository = Mockito.mock(MonthlyAggregateRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ForecastController forecastController = new ForecastController(new ForecastService(
+            new PaymentMethodBalanceService(paymentMethodRepository, Mockito.mock(PaymentMethodDailyBalanceRepository.class)),
+            subscriptionRepository,
+            Mockito.mock(SubscriptionSuggestionRepository.class),
+            monthlyAggregateRepository,
+            new ExchangeRateService(Mockito.mock(ExchangeRateRepository.class), List.of())));
+    private final User owner = new User(UUID.randomUUID());
+    private MockHttpSession session;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        session = new MockHttpSession();
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+        when(paymentMethodRepository.findAllByOwner(owner)).thenReturn(List.of(
+                PaymentMethod.builder().id(1L).owner(owner).name("Giro").openingBalance(500.0).balance(500.0).build()));
+        Subscription rent = new Subscription(owner, null, null, false, 1, "Landlord", null, -800.0);
+        rent.setId(7L);
+        when(subscriptionRepository.findAllByOwnerAndPaused(owner, false)).thenReturn(List.of(rent));
+    }
+
+    @Test
+    void testGetForecast() throws JsonProcessingException {
+        ResponseEntity<ApiResponse<Forecast>> response = forecastController.getForecast(3, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Forecast forecast = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(1000, forecast.getOpeningBalance());
+        assertEquals(-1400, forecast.getBalances()[forecast.getBalances().length - 1]);
+        assertEquals(-1400, forecast.getLowestBalance());
+    }
+
+    @Test
+    void testSimulateForecast_WhatIfOverrides() throws JsonProcessingException {
+        Forecast.Request request = new Forecast.Request();
+        request.setMonths(3);
+        request.setPausedSubscriptionIds(List.of(7L));
+        request.setAddedSubscriptions(List.of(new Forecast.AddedSubscription(15, 100)));
+
+        ResponseEntity<ApiResponse<Forecast>> response = forecastController.simulateForecast(request, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Forecast forecast = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(1300, forecast.getBalances()[forecast.getBalances().length - 1]);
+        Mockito.verify(subscriptionRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void testSimulateForecast_InvalidRequest() throws JsonProcessingException {
+        assertEquals(HttpStatus.BAD_REQUEST, forecastController.getForecast(0, session).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, forecastController.getForecast(ForecastService.MAX_MONTHS + 1, session).getStatusCode());
+
+        Forecast.Request request = new Forecast.Request();
+        request.setAddedSubscriptions(List.of(new Forecast.AddedSubscription(32, -10)));
+        assertEquals(HttpStatus.BAD_REQUEST, forecastController.simulateForecast(request, session).getStatusCode());
+    }
+}
@@ -0,0 +1,81 @@
+package de.budgetbuddy.backend.forecast;
+
+import de.budgetbuddy.backend.subscription.RecurrenceInterval;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ForecastEngineTests {
+
+    @Test
+    void testProject_RecurringPayments() {
+        Forecast forecast = ForecastEngine.project(
+                LocalDate.of(2024, 1, 15),
+                2,
+                1000,
+                List.of(
+                        new ForecastEngine.RecurringPayment(RecurrenceInterval.MONTHLY, 31, null, -100),
+                        new ForecastEngine.RecurringPayment(RecurrenceInterval.WEEKLY, 0, LocalDate.of(2024, 1, 12), -10),
+                        new ForecastEngine.RecurringPayment(RecurrenceInterval.YEARLY, 0, LocalDate.of(2023, 2, 1), -50)),
+                new double[12]);
+
+        assertEquals(LocalDate.of(2024, 1, 16), forecast.getStartDate());
+        assertEquals(60, forecast.getBalances().length);
+        assertEquals(1000, forecast.getBalances()[2]);
+        // The first weekly payment
+        assertEquals(990, forecast.getBalances()[3]);
+        assertEquals(660, forecast.getBalances()[59]);
+        assertEquals(660, forecast.getLowestBalance());
+        assertEquals(LocalDate.of(2024, 3, 15), forecast.getLowestBalanceDate());
+
+        assertEquals(3, forecast.getMonths().size());
+        Forecast.Month january = forecast.getMonths().get(0);
+        assertEquals(YearMonth.of(2024, 1), january.getMonth());
+        assertEquals(120, january.getExpenses());
+        assertEquals(880, january.getEndBalance());
+        // The monthly payment is executed on the last day of february and the yearly one on its first
+        assertEquals(190, forecast.getMonths().get(1).getExpenses());
+        assertEquals(690, forecast.getMonths().get(1).getEndBalance());
+        assertEquals(30, forecast.getMonths().get(2).getExpenses());
+    }
+
+    @Test
+    void testProject_SpreadsResidualsOverTheMonth() {
+        double[] residuals = new double[12];
+        residuals[1] = -290;
+        residuals[2] = 310;
+
+        Forecast forecast = ForecastEngine.project(LocalDate.of(2024, 1, 31), 2, 0, List.of(), residuals);
+
+        assertEquals(-10, forecast.getBalances()[0], 1e-9);
+        assertEquals(-290, forecast.getMonths().get(0).getEndBalance(), 1e-9);
+        assertEquals(310, forecast.getMonths().get(1).getIncome(), 1e-9);
+        assertEquals(20, forecast.getBalances()[forecast.getBalances().length - 1], 1e-9);
+    }
+
+    @Test
+    void testResiduals_SeasonalAndWithoutRecurringPayments() {
+        double[] groceries = new double[24];
+        Arrays.fill(groceries, -100);
+        groceries[11] = -400;
+        groceries[23] = -400;
+        double[] salary = new double[24];
+        Arrays.fill(salary, 2000);
+        double[] streaming = new double[24];
+        Arrays.fill(streaming, -10);
+
+        double[] residuals = ForecastEngine.residuals(
+                new double[][]{groceries, salary, streaming},
+                YearMonth.of(2022, 1),
+                new double[]{-20, 2000, -50});
+
+        assertEquals(-92.5, residuals[0], 1e-9);
+        assertEquals(-92.5, residuals[6], 1e-9);
+        assertEquals(-242.5, residuals[11], 1e-9);
+    }
+}
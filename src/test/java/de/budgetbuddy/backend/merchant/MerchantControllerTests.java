@@ -0,0 +1,114 @@
+package de.budgetbuddy.backend.merchant;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+public class MerchantControllerTests {
+    private final MerchantRepository merchantRepository = Mockito.mock(MerchantRepository.class);
+    private final MerchantAliasRepository merchantAliasRepository = Mockito.mock(MerchantAliasRepository.class);
+    private final TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final MerchantController merchantController = new MerchantController(
+            merchantRepository,
+            merchantAliasRepository,
+            new MerchantService(merchantRepository, merchantAliasRepository, transactionRepository));
+    private final User owner = new User(UUID.randomUUID());
+    private MockHttpSession session;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        session = new MockHttpSession();
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+    }
+
+    @Test
+    void testCreateAlias_OverridesSharedDictionary() throws JsonProcessingException {
+        Merchant shared = Merchant.builder().id(1L).name("Amazon").build();
+        Merchant own = Merchant.builder().id(2L).owner(owner).name("Amazon Business").build();
+        List<MerchantAlias> userAliases = new ArrayList<>();
+
+        when(merchantAliasRepository.findAllByOwnerIsNull())
+                .thenReturn(List.of(MerchantAlias.builder().pattern("amazon").merchant(shared).build()));
+        when(merchantAliasRepository.findAllByOwner(owner))
+                .thenAnswer(invocation -> List.copyOf(userAliases));
+        when(merchantAliasRepository.save(any(MerchantAlias.class)))
+                .thenAnswer(invocation -> {
+                    userAliases.add(invocation.getArgument(0));
+                    return invocation.getArgument(0);
+                });
+        when(merchantRepository.findByOwnerAndNameIgnoreCase(owner, "Amazon Business"))
+                .thenReturn(Optional.of(own));
+        when(transactionRepository.findMerchants(any(User.class), anyLong(), any()))
+                .thenReturn(List.of(
+                        new Object[]{1L, "AMAZON EU SARL", 1L},
+                        new Object[]{2L, "Amazon Business EU", 1L},
+                        new Object[]{3L, "Bakery", null}));
+
+        MerchantAlias.Create payload = new MerchantAlias.Create();
+        payload.setPattern("Amazon  Business*");
+        payload.setMerchantName("Amazon Business");
+        ResponseEntity<ApiResponse<MerchantAlias>> response = merchantController.createAlias(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("amazon business", Objects.requireNonNull(response.getBody()).getData().getPattern());
+        // Only the transaction whose merchant changed is updated
+        Mockito.verify(transactionRepository).updateMerchant(List.of(2L), 2L);
+        Mockito.verify(transactionRepository, Mockito.times(1))
+                .updateMerchant(ArgumentMatchers.anyCollection(), any());
+    }
+
+    @Test
+    void testCreateAlias_ForeignMerchant() throws JsonProcessingException {
+        when(merchantRepository.findById(3L))
+                .thenReturn(Optional.of(Merchant.builder().id(3L).owner(new User(UUID.randomUUID())).name("Other").build()));
+
+        MerchantAlias.Create payload = new MerchantAlias.Create();
+        payload.setPattern("other");
+        payload.setMerchantId(3L);
+        ResponseEntity<ApiResponse<MerchantAlias>> response = merchantController.createAlias(payload, session);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Provided merchant not found", Objects.requireNonNull(response.getBody()).getMessage());
+        Mockito.verify(merchantAliasRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testGetSpendings_Success() throws JsonProcessingException {
+        Merchant amazon = Merchant.builder().id(1L).name("Amazon").build();
+        Merchant rewe = Merchant.builder().id(2L).name("Rewe").build();
+        when(transactionRepository.findMerchantSpendings(any(User.class), any(Date.class), any(Date.class)))
+                .thenReturn(List.of(
+                        new Object[]{1L, 3L, 20.0, 80.5},
+                        new Object[]{2L, 12L, 0.0, 240.0}));
+        when(merchantRepository.findAllById(ArgumentMatchers.anyIterable()))
+                .thenReturn(List.of(amazon, rewe));
+
+        ResponseEntity<ApiResponse<List<MerchantSpending>>> response = merchantController
+                .getSpendings(LocalDate.of(2023, 10, 1), LocalDate.of(2023, 10, 31), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<MerchantSpending> spendings = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(List.of(
+                new MerchantSpending(rewe, 12, 0.0, 240.0),
+                new MerchantSpending(amazon, 3, 20.0, 80.5)), spendings);
+    }
+}
@@ -0,0 +1,42 @@
+package de.budgetbuddy.backend.merchant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MerchantMatcherTests {
+
+    private static MerchantAlias alias(String pattern, long merchant) {
+        return MerchantAlias.builder()
+                .pattern(pattern)
+                .merchant(Merchant.builder().id(merchant).build())
+                .build();
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("amazon de ab12", MerchantMatcher.normalize("Amazon.de*AB12"));
+        assertEquals("amazon eu sarl", MerchantMatcher.normalize("  AMAZON EU  SARL "));
+        assertEquals("", MerchantMatcher.normalize("*** "));
+        assertEquals("", MerchantMatcher.normalize(null));
+    }
+
+    @Test
+    void testMatch_LongestWholeWordPrefix() {
+        MerchantMatcher matcher = MerchantMatcher.compile(List.of(
+                alias("amazon", 1),
+                alias("Amazon Prime", 2),
+                alias("rewe", 3)));
+
+        assertEquals(1L, matcher.match(MerchantMatcher.normalize("AMAZON EU SARL")));
+        assertEquals(1L, matcher.match(MerchantMatcher.normalize("Amazon.de*AB12")));
+        assertEquals(2L, matcher.match(MerchantMatcher.normalize("Amazon Prime*MK1")));
+        assertEquals(1L, matcher.match(MerchantMatcher.normalize("Amazon Primetime")));
+        assertEquals(3L, matcher.match(MerchantMatcher.normalize("REWE")));
+        assertNull(matcher.match(MerchantMatcher.normalize("Amazonia")));
+        assertNull(matcher.match(MerchantMatcher.normalize("Bakery Rewe")));
+        assertTrue(MerchantMatcher.EMPTY.isEmpty());
+    }
+}
@@ -4,6 +4,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.currency.ExchangeRateRepository;
+import de.budgetbuddy.backend.currency.ExchangeRateService;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +20,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpSession;
 
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -28,6 +33,7 @@ import static org.mockito.Mockito.when;
 public class PaymentMethodControllerTests {
     private final UserRepository userRepository;
     private final PaymentMethodRepository paymentMethodRepository;
+    private final PaymentMethodDailyBalanceRepository paymentMethodDailyBalanceRepository;
     private final PaymentMethodController paymentMethodController;
     private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
     private MockHttpSession session;
@@ -37,7 +43,13 @@ public class PaymentMethodControllerTests {
         PaymentMethodRepository paymentMethodRepository = Mockito.mock(PaymentMethodRepository.class);
         this.userRepository = userRepository;
         this.paymentMethodRepository = paymentMethodRepository;
-        this.paymentMethodController = new PaymentMethodController(paymentMethodRepository, userRepository);
+        this.paymentMethodDailyBalanceRepository = Mockito.mock(PaymentMethodDailyBalanceRepository.class);
+        this.paymentMethodController = new PaymentMethodController(
+                paymentMethodRepository,
+                userRepository,
+                new ReferenceDataCache(Mockito.mock(CategoryRepository.class), paymentMethodRepository),
+                new PaymentMethodBalanceService(paymentMethodRepository, paymentMethodDailyBalanceRepository),
+                new ExchangeRateService(Mockito.mock(ExchangeRateRepository.class), List.of()));
     }
 
     @BeforeEach
@@ -167,6 +179,63 @@ public class PaymentMethodControllerTests {
     }
 
 
+    @Test
+    void testGetBalances_IncludesOpeningBalance() throws JsonProcessingException {
+        User user = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(user));
+
+        PaymentMethod paymentMethod = new PaymentMethod(user, "Giro", "DE00", "Bank", null, 100.0);
+        paymentMethod.setId(1L);
+        paymentMethod.setBalance(-25.5);
+
+        when(paymentMethodRepository.findAllByOwner(user)).thenReturn(List.of(paymentMethod));
+
+        ResponseEntity<ApiResponse<List<PaymentMethodBalance>>> response = paymentMethodController.getBalances(session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(new PaymentMethodBalance(1L, "Giro", "EUR", 100.0, 74.5)),
+                Objects.requireNonNull(response.getBody()).getData());
+    }
+
+    @Test
+    void testGetBalanceHistory_InvalidDateRange() throws JsonProcessingException {
+        ResponseEntity<ApiResponse<List<PaymentMethodBalance.Day>>> response = paymentMethodController
+                .getBalanceHistory(1L, LocalDate.of(2023, 10, 2), LocalDate.of(2023, 10, 1), session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The startDate needs to be before the endDate", Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
+    @Test
+    void testGetBalanceHistory_Success() throws JsonProcessingException {
+        User user = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(user));
+
+        PaymentMethod paymentMethod = new PaymentMethod(user, "Giro", "DE00", "Bank", null, 100.0);
+        paymentMethod.setId(1L);
+        LocalDate startDate = LocalDate.of(2023, 10, 1);
+        LocalDate endDate = LocalDate.of(2023, 10, 3);
+
+        when(paymentMethodRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(paymentMethod));
+        when(paymentMethodDailyBalanceRepository.sumAmountsBefore(1L, startDate)).thenReturn(50.0);
+        when(paymentMethodDailyBalanceRepository.findAllByPaymentMethodAndDateBetweenOrderByDate(paymentMethod, startDate, endDate))
+                .thenReturn(List.of(PaymentMethodDailyBalance.builder()
+                        .paymentMethod(paymentMethod)
+                        .date(LocalDate.of(2023, 10, 2))
+                        .amount(-20.0)
+                        .build()));
+
+        ResponseEntity<ApiResponse<List<PaymentMethodBalance.Day>>> response = paymentMethodController
+                .getBalanceHistory(1L, startDate, endDate, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(
+                        new PaymentMethodBalance.Day(startDate, 150.0),
+                        new PaymentMethodBalance.Day(LocalDate.of(2023, 10, 2), 130.0),
+                        new PaymentMethodBalance.Day(endDate, 130.0)),
+                Objects.requireNonNull(response.getBody()).getData());
+    }
+
     @Test
     void testUpdatePaymentMethod_PaymentMethodNotFound() throws JsonProcessingException {
         PaymentMethod.Update payload = new PaymentMethod.Update();
@@ -0,0 +1,71 @@
+package de.budgetbuddy.backend.referenceData;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserCacheTests {
+    private final UUID owner = UUID.randomUUID();
+
+    @Test
+    void testGet_LoadsOnce() {
+        UserCache<String> cache = new UserCache<>(10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("value", cache.get(owner, () -> {
+                loads.incrementAndGet();
+                return "value";
+            }));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_ExpiredEntryIsReloaded() {
+        UserCache<String> cache = new UserCache<>(10, -1);
+        cache.get(owner, () -> "stale");
+
+        assertNull(cache.getIfPresent(owner));
+        assertEquals("fresh", cache.get(owner, () -> "fresh"));
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsed() {
+        UserCache<String> cache = new UserCache<>(2, 60_000);
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        cache.get(owner, () -> "first");
+        cache.get(second, () -> "second");
+        cache.getIfPresent(owner);
+        cache.get(third, () -> "third");
+
+        assertEquals("first", cache.getIfPresent(owner));
+        assertNull(cache.getIfPresent(second));
+        assertEquals("third", cache.getIfPresent(third));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void testGet_LoadRacingWithInvalidationIsNotCached() {
+        UserCache<String> cache = new UserCache<>(10, 60_000);
+
+        assertEquals("raced", cache.get(owner, () -> {
+            cache.invalidate(owner);
+            return "raced";
+        }));
+        assertNull(cache.getIfPresent(owner));
+    }
+
+    @Test
+    void testGet_ConcurrentLoadReturnsCachedValue() {
+        UserCache<String> cache = new UserCache<>(10, 60_000);
+
+        assertEquals("first", cache.get(owner, () -> cache.get(owner, () -> "first").replace("first", "second")));
+        assertEquals("first", cache.getIfPresent(owner));
+    }
+}
@@ -0,0 +1,104 @@
+package de.budgetbuddy.backend.subscription;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurringPaymentDetectorTests {
+    private final LocalDate today = LocalDate.of(2024, 6, 20);
+
+    @Test
+    void testDetect_MonthlyPayment() {
+        List<RecurringPaymentDetector.Payment> payments = new ArrayList<>();
+        for (int month = 1; month <= 6; month++) {
+            // Payments are shifted by weekends and the price changes slightly
+            LocalDate date = LocalDate.of(2024, month, month % 2 == 0 ? 3 : 1);
+            payments.add(payment("NETFLIX.COM*1234", null, date, month < 4 ? -12.99 : -13.99));
+        }
+        payments.add(payment("Bakery", null, LocalDate.of(2024, 2, 14), -4.5));
+
+        List<RecurringPaymentDetector.Finding> findings = RecurringPaymentDetector.detect(payments, today);
+
+        assertEquals(1, findings.size());
+        RecurringPaymentDetector.Finding finding = findings.get(0);
+        assertEquals(RecurrenceInterval.MONTHLY, finding.interval());
+        assertEquals("NETFLIX.COM*1234", finding.receiver());
+        assertEquals(-13.49, finding.transferAmount());
+        assertEquals(2, finding.executeAt());
+        assertEquals(6, finding.occurrences());
+        assertEquals(LocalDate.of(2024, 6, 3), finding.lastOccurrence());
+        assertEquals(1.0, finding.confidence());
+        assertEquals(1L, finding.categoryId());
+    }
+
+    @Test
+    void testDetect_WeeklyAndYearlyPayments() {
+        List<RecurringPaymentDetector.Payment> payments = new ArrayList<>();
+        for (int week = 0; week < 8; week++) {
+            payments.add(payment("Gym", 7L, today.minusWeeks(week + 1), -9));
+        }
+        payments.add(payment("Insurance", null, LocalDate.of(2022, 3, 1), -240));
+        payments.add(payment("Insurance", null, LocalDate.of(2023, 3, 2), -240));
+        payments.add(payment("Insurance", null, LocalDate.of(2024, 3, 1), -250));
+        payments.sort((a, b) -> a.date().compareTo(b.date()));
+
+        List<RecurringPaymentDetector.Finding> findings = RecurringPaymentDetector.detect(payments, today);
+
+        assertEquals(2, findings.size());
+        assertTrue(findings.stream().anyMatch(finding -> finding.interval() == RecurrenceInterval.WEEKLY
+                && finding.merchantId() == 7L
+                && finding.occurrences() == 8));
+        assertTrue(findings.stream().anyMatch(finding -> finding.interval() == RecurrenceInterval.YEARLY
+                && finding.receiver().equals("Insurance")
+                && finding.transferAmount() == -240));
+    }
+
+    @Test
+    void testDetect_SplitsPaymentsByAmount() {
+        List<RecurringPaymentDetector.Payment> payments = new ArrayList<>();
+        for (int month = 1; month <= 5; month++) {
+            payments.add(payment("Telecom", null, LocalDate.of(2024, month, 5), -20));
+            payments.add(payment("Telecom", null, LocalDate.of(2024, month, 15), -45));
+        }
+
+        List<RecurringPaymentDetector.Finding> findings = RecurringPaymentDetector.detect(payments, today);
+
+        assertEquals(2, findings.size());
+        assertNotEquals(findings.get(0).signature(), findings.get(1).signature());
+        assertEquals(List.of(-45.0, -20.0), findings.stream()
+                .map(RecurringPaymentDetector.Finding::transferAmount)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void testDetect_IgnoresIrregularAndCancelledPayments() {
+        List<RecurringPaymentDetector.Payment> payments = new ArrayList<>();
+        payments.add(payment("Restaurant", null, LocalDate.of(2024, 1, 3), -30));
+        payments.add(payment("Restaurant", null, LocalDate.of(2024, 1, 20), -30));
+        payments.add(payment("Restaurant", null, LocalDate.of(2024, 3, 2), -30));
+        payments.add(payment("Restaurant", null, LocalDate.of(2024, 3, 9), -30));
+        // Was paid monthly, but cancelled in January
+        for (int month = 6; month <= 12; month++) {
+            payments.add(payment("Streaming", null, LocalDate.of(2023, month, 10), -8));
+        }
+        payments.add(payment("Streaming", null, LocalDate.of(2024, 1, 10), -8));
+        payments.sort((a, b) -> a.date().compareTo(b.date()));
+
+        assertTrue(RecurringPaymentDetector.detect(payments, today).isEmpty());
+    }
+
+    @Test
+    void testDetect_SignatureSurvivesSmallPriceChanges() {
+        assertEquals(RecurringPaymentDetector.band(-9.99), RecurringPaymentDetector.band(-10.2));
+        assertNotEquals(RecurringPaymentDetector.band(-9.99), RecurringPaymentDetector.band(-12.99));
+    }
+
+    private RecurringPaymentDetector.Payment payment(String receiver, Long merchant, LocalDate date, double amount) {
+        return new RecurringPaymentDetector.Payment(receiver, merchant, date, amount, 1L, 2L);
+    }
+}
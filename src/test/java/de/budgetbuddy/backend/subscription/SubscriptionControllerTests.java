@@ -8,6 +8,7 @@ import de.budgetbuddy.backend.category.Category;
 import de.budgetbuddy.backend.category.CategoryRepository;
 import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
 import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
 import de.budgetbuddy.backend.transaction.Transaction;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
@@ -27,6 +28,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
@@ -46,7 +48,10 @@ public class SubscriptionControllerTests {
         this.categoryRepository = Mockito.mock(CategoryRepository.class);
         this.paymentMethodRepository = Mockito.mock(PaymentMethodRepository.class);
         this.subscriptionRepository = Mockito.mock(SubscriptionRepository.class);
-        this.subscriptionController = new SubscriptionController(userRepository, categoryRepository, paymentMethodRepository, subscriptionRepository);
+        this.subscriptionController = new SubscriptionController(
+                userRepository,
+                new ReferenceDataCache(categoryRepository, paymentMethodRepository),
+                subscriptionRepository);
     }
 
     @BeforeEach
@@ -94,8 +99,8 @@ public class SubscriptionControllerTests {
 
         when(userRepository.findById(uuid))
                 .thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<Subscription>> response = subscriptionController.createSubscription(payload, session);
 
@@ -123,10 +128,10 @@ public class SubscriptionControllerTests {
 
         when(userRepository.findById(uuid))
                 .thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(payload.getPaymentMethodId(), owner))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<Subscription>> response = subscriptionController.createSubscription(payload, session);
 
@@ -207,10 +212,10 @@ public class SubscriptionControllerTests {
 
         when(userRepository.findById(payload.getOwner()))
                 .thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(payload.getPaymentMethodId(), owner))
-                .thenReturn(Optional.of(paymentMethod));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
         when(subscriptionRepository.save(any(Subscription.class)))
                 .thenReturn(subscription);
 
@@ -250,10 +255,10 @@ public class SubscriptionControllerTests {
 
         when(userRepository.findById(payload.getOwner()))
                 .thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(payload.getPaymentMethodId(), owner))
-                .thenReturn(Optional.of(paymentMethod));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
         when(subscriptionRepository.save(any(Subscription.class)))
                 .thenReturn(subscription);
 
@@ -400,6 +405,105 @@ public class SubscriptionControllerTests {
         assertEquals(subscriptionList, Objects.requireNonNull(response.getBody()).getData());
     }
 
+    @Test
+    void testGetSubscription_WithBookings() throws JsonProcessingException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Subscription booked = Subscription.builder()
+                .id(1L)
+                .owner(owner)
+                .build();
+        Subscription neverBooked = Subscription.builder()
+                .id(2L)
+                .owner(owner)
+                .build();
+        List<Subscription> subscriptionList = List.of(booked, neverBooked);
+        SubscriptionBookings bookings = new SubscriptionBookings(booked.getId(), new Date(), -30.0, 3L);
+
+        when(userRepository.findById(uuid))
+                .thenReturn(Optional.of(owner));
+        when(subscriptionRepository.findAllByOwner(owner))
+                .thenReturn(subscriptionList);
+        when(subscriptionRepository.getBookings(subscriptionList))
+                .thenReturn(List.of(bookings));
+
+        ResponseEntity<ApiResponse<List<Subscription>>> response = subscriptionController.getSubscriptionsByUuid(uuid, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<Subscription> subscriptions = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(bookings, subscriptions.get(0).getBookings());
+        assertNull(subscriptions.get(1).getBookings());
+    }
+
+    @Test
+    void testGetSubscriptionProjection_InvalidMonths() throws JsonProcessingException {
+        ResponseEntity<ApiResponse<SubscriptionProjection>> response = subscriptionController
+                .getSubscriptionProjection(UUID.randomUUID(), 0, session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The projection needs to cover between 1 and 60 months",
+                Objects.requireNonNull(response.getBody()).getMessage());
+        assertNull(Objects.requireNonNull(response.getBody()).getData());
+    }
+
+    @Test
+    void testGetSubscriptionProjection_WrongSessionUser() throws JsonProcessingException {
+        session.setAttribute("user", objectMapper.writeValueAsString(new User(UUID.randomUUID())));
+
+        UUID uuid = UUID.randomUUID();
+        when(userRepository.findById(uuid)).thenReturn(Optional.of(new User(uuid)));
+
+        ResponseEntity<ApiResponse<SubscriptionProjection>> response = subscriptionController
+                .getSubscriptionProjection(uuid, 3, session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("You don't have the permissions to retrieve subscriptions from a different user",
+                Objects.requireNonNull(response.getBody()).getMessage());
+        assertNull(Objects.requireNonNull(response.getBody()).getData());
+    }
+
+    @Test
+    void testGetSubscriptionProjection_Success() throws JsonProcessingException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Subscription rent = new Subscription();
+        rent.setId(1L);
+        rent.setOwner(owner);
+        rent.setExecuteAt(1);
+        rent.setReceiver("Landlord");
+        rent.setTransferAmount(-500.0);
+
+        Subscription insurance = new Subscription();
+        insurance.setId(2L);
+        insurance.setOwner(owner);
+        insurance.setExecuteAt(1);
+        insurance.setReceiver("Insurance");
+        insurance.setTransferAmount(-20.0);
+
+        when(userRepository.findById(uuid))
+                .thenReturn(Optional.of(owner));
+        when(subscriptionRepository.findAllByOwnerAndPaused(owner, false))
+                .thenReturn(List.of(rent, insurance));
+
+        ResponseEntity<ApiResponse<SubscriptionProjection>> response = subscriptionController
+                .getSubscriptionProjection(uuid, 3, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SubscriptionProjection projection = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(3, projection.getDays().size());
+        assertEquals(2, projection.getDays().get(0).getExecutions().size());
+        assertEquals(520.0, projection.getDays().get(0).getExpenses());
+        assertEquals(0.0, projection.getIncome());
+        assertEquals(1560.0, projection.getExpenses());
+        assertEquals(1560.0, projection.getMonths().stream()
+                .mapToDouble(SubscriptionProjection.Month::getExpenses)
+                .sum());
+    }
+
     @Test
     void testUpdateSubscription_InvalidExecDate0() throws JsonProcessingException {
         Subscription.Update payload = new Subscription.Update();
@@ -458,8 +562,8 @@ public class SubscriptionControllerTests {
 
         when(subscriptionRepository.findById(payload.getSubscriptionId()))
                 .thenReturn(Optional.of(subscription));
-        when(categoryRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<Subscription>> response = subscriptionController.updateSubscription(payload, session);
 
@@ -488,10 +592,10 @@ public class SubscriptionControllerTests {
 
         when(subscriptionRepository.findById(payload.getSubscriptionId()))
                 .thenReturn(Optional.of(subscription));
-        when(categoryRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<Subscription>> response = subscriptionController.updateSubscription(payload, session);
 
@@ -526,10 +630,10 @@ public class SubscriptionControllerTests {
 
         when(subscriptionRepository.findById(payload.getSubscriptionId()))
                 .thenReturn(Optional.of(subscription));
-        when(categoryRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(paymentMethod));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
 
         ResponseEntity<ApiResponse<Subscription>> response = subscriptionController.updateSubscription(payload, session);
 
@@ -571,10 +675,10 @@ public class SubscriptionControllerTests {
 
         when(subscriptionRepository.findById(payload.getSubscriptionId()))
                 .thenReturn(Optional.of(subscription));
-        when(categoryRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(paymentMethod));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
         when(subscriptionRepository.save(any(Subscription.class)))
                 .thenReturn(updatedSubscription);
 
@@ -585,6 +689,61 @@ public class SubscriptionControllerTests {
         assertEquals(updatedSubscription, Objects.requireNonNull(response.getBody()).getData());
     }
 
+    @Test
+    void testPatchSubscription_Success() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Subscription subscription = new Subscription();
+        subscription.setId(1L);
+        subscription.setOwner(owner);
+        subscription.setPaused(false);
+        subscription.setExecuteAt(15);
+        subscription.setTransferAmount(-9.99);
+        subscription.setVersion(1L);
+
+        Subscription.Patch payload = new Subscription.Patch();
+        payload.setSubscriptionId(1L);
+        payload.setVersion(1L);
+        payload.setPaused(true);
+
+        when(subscriptionRepository.findById(1L)).thenReturn(Optional.of(subscription));
+        when(subscriptionRepository.saveAndFlush(subscription)).thenReturn(subscription);
+
+        ResponseEntity<ApiResponse<Subscription>> response = subscriptionController.patchSubscription(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Subscription patchedSubscription = Objects.requireNonNull(response.getBody()).getData();
+        assertTrue(patchedSubscription.getPaused());
+        assertEquals(15, patchedSubscription.getExecuteAt());
+        assertEquals(-9.99, patchedSubscription.getTransferAmount());
+    }
+
+    @Test
+    void testPatchSubscription_VersionConflict() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Subscription subscription = new Subscription();
+        subscription.setId(1L);
+        subscription.setOwner(owner);
+        subscription.setVersion(2L);
+
+        Subscription.Patch payload = new Subscription.Patch();
+        payload.setSubscriptionId(1L);
+        payload.setVersion(1L);
+        payload.setPaused(true);
+
+        when(subscriptionRepository.findById(1L)).thenReturn(Optional.of(subscription));
+
+        ResponseEntity<ApiResponse<Subscription>> response = subscriptionController.patchSubscription(payload, session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("The subscription was modified in the meantime", Objects.requireNonNull(response.getBody()).getMessage());
+        assertEquals(subscription, Objects.requireNonNull(response.getBody()).getData());
+        Mockito.verify(subscriptionRepository, Mockito.never()).saveAndFlush(any(Subscription.class));
+    }
+
     @Test
     void testDeleteSubscription_EmptyList() throws JsonProcessingException {
         List<Subscription.Delete> payload = new ArrayList<>();
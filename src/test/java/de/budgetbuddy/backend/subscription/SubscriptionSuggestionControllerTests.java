@@ -0,0 +1,220 @@
+package de.budgetbuddy.backend.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.merchant.MerchantAliasRepository;
+import de.budgetbuddy.backend.merchant.MerchantRepository;
+import de.budgetbuddy.backend.merchant.MerchantService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.user.User;
+import de.budgetbuddy.backend.user.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class SubscriptionSuggestionControllerTests {
+    private final TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+    private final SubscriptionRepository subscriptionRepository = Mockito.mock(SubscriptionRepository.class);
+    private final SubscriptionSuggestionRepository subscriptionSuggestionRepository = Mockito.mock(SubscriptionSuggestionRepository.class);
+    private final CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+    private final PaymentMethodRepository paymentMethodRepository = Mockito.mock(PaymentMethodRepository.class);
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final MerchantAliasRepository merchantAliasRepository = Mockito.mock(MerchantAliasRepository.class);
+    private final RecurringPaymentDetectionService recurringPaymentDetectionService = new RecurringPaymentDetectionService(
+            userRepository,
+            transactionRepository,
+            subscriptionRepository,
+            subscriptionSuggestionRepository,
+            categoryRepository,
+            paymentMethodRepository,
+            new ReferenceDataCache(categoryRepository, paymentMethodRepository),
+            new MerchantService(Mockito.mock(MerchantRepository.class), merchantAliasRepository, transactionRepository));
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SubscriptionSuggestionController subscriptionSuggestionController = new SubscriptionSuggestionController(
+            subscriptionSuggestionRepository,
+            subscriptionRepository,
+            recurringPaymentDetectionService);
+    private final User owner = new User(UUID.randomUUID());
+    private final Category category = Category.builder().id(1L).owner(owner).name("Streaming").build();
+    private final PaymentMethod paymentMethod = PaymentMethod.builder().id(2L).owner(owner).name("Credit Card").build();
+    private MockHttpSession session;
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        session = new MockHttpSession();
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+        when(subscriptionSuggestionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(subscriptionSuggestionRepository.save(any(SubscriptionSuggestion.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(subscriptionRepository.save(any(Subscription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testDetectSuggestions_SkipsDismissedAndSubscribedPayments() throws JsonProcessingException {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDate start = LocalDate.now().minusMonths(5);
+        for (int month = 0; month < 5; month++) {
+            rows.add(row("Netflix", start.plusMonths(month), -12.99));
+            rows.add(row("Spotify", start.plusMonths(month), -9.99));
+            rows.add(row("Gym", start.plusMonths(month), -25));
+        }
+        rows.sort(Comparator.comparing(row -> (Date) row[2]));
+        when(transactionRepository.findRecurringPaymentCandidates(any(User.class), any(Date.class))).thenReturn(rows);
+        when(categoryRepository.findAllByOwner(owner)).thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner)).thenReturn(List.of(paymentMethod));
+        when(subscriptionRepository.findAllByOwner(owner)).thenReturn(List.of(
+                new Subscription(owner, category, paymentMethod, false, 1, "GYM", null, -25.0)));
+        SubscriptionSuggestion dismissed = SubscriptionSuggestion.builder()
+                .id(3L)
+                .owner(owner)
+                .signature("rspotify|-|MONTHLY|" + RecurringPaymentDetector.band(-9.99))
+                .status(SubscriptionSuggestionStatus.DISMISSED)
+                .build();
+        SubscriptionSuggestion outdated = SubscriptionSuggestion.builder()
+                .id(4L)
+                .owner(owner)
+                .signature("rbakery|-|WEEKLY|15")
+                .status(SubscriptionSuggestionStatus.PENDING)
+                .build();
+        when(subscriptionSuggestionRepository.findAllByOwner(owner)).thenReturn(List.of(dismissed, outdated));
+
+        ResponseEntity<ApiResponse<List<SubscriptionSuggestion>>> response =
+                subscriptionSuggestionController.detectSuggestions(session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<SubscriptionSuggestion> suggestions = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(1, suggestions.size());
+        assertEquals("Netflix", suggestions.get(0).getReceiver());
+        assertEquals(RecurrenceInterval.MONTHLY, suggestions.get(0).getInterval());
+        assertEquals(SubscriptionSuggestionStatus.PENDING, suggestions.get(0).getStatus());
+        assertEquals(category, suggestions.get(0).getCategory());
+        assertEquals(paymentMethod, suggestions.get(0).getPaymentMethod());
+        Mockito.verify(subscriptionSuggestionRepository).deleteAll(List.of(outdated));
+    }
+
+    @Test
+    void testDetectAll_DoesNotFillTheCaches() {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDate start = LocalDate.now().minusMonths(5);
+        for (int month = 0; month < 5; month++) {
+            rows.add(row("Netflix", start.plusMonths(month), -12.99));
+        }
+        when(userRepository.findUuidsAfter(any(UUID.class), any())).thenReturn(List.of(owner.getUuid()));
+        when(transactionRepository.findRecurringPaymentCandidates(any(User.class), any(Date.class))).thenReturn(rows);
+        when(categoryRepository.findByIdAndOwner(eq(category.getId()), any(User.class))).thenReturn(Optional.of(category));
+        when(paymentMethodRepository.findByIdAndOwner(eq(paymentMethod.getId()), any(User.class))).thenReturn(Optional.of(paymentMethod));
+        when(subscriptionRepository.findAllByOwner(any(User.class))).thenReturn(List.of(
+                new Subscription(owner, category, paymentMethod, false, 1, "Gym", null, -25.0)));
+        ArgumentCaptor<List<SubscriptionSuggestion>> suggestions = ArgumentCaptor.forClass(List.class);
+
+        assertEquals(1, recurringPaymentDetectionService.detectAll(LocalDate.now()));
+        recurringPaymentDetectionService.detectAll(LocalDate.now());
+
+        // Every run reads the aliases and reference data again, since the caches are reserved for the active users
+        Mockito.verify(merchantAliasRepository, Mockito.times(2)).findAllByOwner(any(User.class));
+        Mockito.verify(categoryRepository, Mockito.times(2)).findByIdAndOwner(eq(category.getId()), any(User.class));
+        Mockito.verify(subscriptionSuggestionRepository, Mockito.times(2)).saveAll(suggestions.capture());
+        assertEquals(category, suggestions.getValue().get(0).getCategory());
+        assertEquals(paymentMethod, suggestions.getValue().get(0).getPaymentMethod());
+        Mockito.verify(categoryRepository, Mockito.never()).findAllByOwner(any());
+        Mockito.verify(paymentMethodRepository, Mockito.never()).findAllByOwner(any());
+    }
+
+    @Test
+    void testAcceptSuggestion_CreatesSubscription() throws JsonProcessingException {
+        SubscriptionSuggestion suggestion = suggestion(RecurrenceInterval.MONTHLY);
+        when(subscriptionSuggestionRepository.findByIdAndOwner(5L, owner)).thenReturn(Optional.of(suggestion));
+
+        ResponseEntity<ApiResponse<Subscription>> response =
+                subscriptionSuggestionController.acceptSuggestion(decision(5L), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Subscription subscription = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals("Netflix", subscription.getReceiver());
+        assertEquals(14, subscription.getExecuteAt());
+        assertEquals(-12.99, subscription.getTransferAmount());
+        assertEquals(category, subscription.getCategory());
+        assertFalse(subscription.getPaused());
+        ArgumentCaptor<SubscriptionSuggestion> captor = ArgumentCaptor.forClass(SubscriptionSuggestion.class);
+        Mockito.verify(subscriptionSuggestionRepository).save(captor.capture());
+        assertEquals(SubscriptionSuggestionStatus.ACCEPTED, captor.getValue().getStatus());
+
+        // An accepted suggestion can't be accepted twice
+        assertEquals(HttpStatus.NOT_FOUND,
+                subscriptionSuggestionController.acceptSuggestion(decision(5L), session).getStatusCode());
+    }
+
+    @Test
+    void testAcceptSuggestion_RejectsYearlyPayments() throws JsonProcessingException {
+        when(subscriptionSuggestionRepository.findByIdAndOwner(5L, owner))
+                .thenReturn(Optional.of(suggestion(RecurrenceInterval.YEARLY)));
+
+        ResponseEntity<ApiResponse<Subscription>> response =
+                subscriptionSuggestionController.acceptSuggestion(decision(5L), session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        Mockito.verify(subscriptionRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testDismissSuggestion() throws JsonProcessingException {
+        when(subscriptionSuggestionRepository.findByIdAndOwner(5L, owner))
+                .thenReturn(Optional.of(suggestion(RecurrenceInterval.WEEKLY)));
+
+        ResponseEntity<ApiResponse<SubscriptionSuggestion>> response =
+                subscriptionSuggestionController.dismissSuggestion(decision(5L), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(SubscriptionSuggestionStatus.DISMISSED, Objects.requireNonNull(response.getBody()).getData().getStatus());
+        assertEquals(HttpStatus.NOT_FOUND,
+                subscriptionSuggestionController.dismissSuggestion(decision(6L), session).getStatusCode());
+    }
+
+    private SubscriptionSuggestion suggestion(RecurrenceInterval interval) {
+        return SubscriptionSuggestion.builder()
+                .id(5L)
+                .owner(owner)
+                .signature("rnetflix|-|" + interval + "|27")
+                .interval(interval)
+                .receiver("Netflix")
+                .category(category)
+                .paymentMethod(paymentMethod)
+                .transferAmount(-12.99)
+                .executeAt(14)
+                .occurrences(6)
+                .lastOccurrence(new Date())
+                .confidence(1)
+                .status(SubscriptionSuggestionStatus.PENDING)
+                .build();
+    }
+
+    private SubscriptionSuggestion.Decision decision(Long suggestionId) {
+        SubscriptionSuggestion.Decision decision = new SubscriptionSuggestion.Decision();
+        decision.setSuggestionId(suggestionId);
+        return decision;
+    }
+
+    private Object[] row(String receiver, LocalDate date, double amount) {
+        return new Object[]{receiver, null, Timestamp.valueOf(date.atStartOfDay()), amount, 1L, 2L};
+    }
+}
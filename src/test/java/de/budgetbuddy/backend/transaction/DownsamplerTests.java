@@ -0,0 +1,38 @@
+package de.budgetbuddy.backend.transaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DownsamplerTests {
+
+    @Test
+    void testLttb_KeepsEndpointsAndPeaks() {
+        double[] x = new double[1000];
+        double[] y = new double[1000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = i;
+            y[i] = 10;
+        }
+        y[123] = 500;
+        y[777] = -400;
+
+        int[] indexes = Downsampler.lttb(x, y, 50);
+
+        assertEquals(50, indexes.length);
+        assertEquals(0, indexes[0]);
+        assertEquals(999, indexes[49]);
+        for (int i = 1; i < indexes.length; i++) {
+            assertTrue(indexes[i] > indexes[i - 1]);
+        }
+        assertTrue(Arrays.stream(indexes).anyMatch(index -> index == 123));
+        assertTrue(Arrays.stream(indexes).anyMatch(index -> index == 777));
+    }
+
+    @Test
+    void testLttb_FewerPointsThanThreshold() {
+        assertArrayEquals(new int[]{0, 1, 2}, Downsampler.lttb(new double[]{1, 2, 3}, new double[]{5, 6, 7}, 10));
+    }
+}
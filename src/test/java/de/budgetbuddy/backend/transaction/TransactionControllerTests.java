@@ -4,16 +4,44 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.MailService;
+import de.budgetbuddy.backend.analytics.MonthlyAggregateRepository;
+import de.budgetbuddy.backend.analytics.MonthlyAggregateService;
+import de.budgetbuddy.backend.anomaly.CategoryAmountSketchRepository;
+import de.budgetbuddy.backend.anomaly.SpendingAnomalyRepository;
+import de.budgetbuddy.backend.anomaly.SpendingAnomalyService;
+import de.budgetbuddy.backend.budget.BudgetRepository;
+import de.budgetbuddy.backend.budget.BudgetSnapshotRepository;
+import de.budgetbuddy.backend.budget.BudgetSpendingRepository;
+import de.budgetbuddy.backend.budget.BudgetSpendingService;
+import de.budgetbuddy.backend.category.CategoryClassificationService;
+import de.budgetbuddy.backend.currency.ExchangeRate;
+import de.budgetbuddy.backend.currency.ExchangeRateRepository;
+import de.budgetbuddy.backend.currency.ExchangeRateService;
+import de.budgetbuddy.backend.category.CategoryClosureRepository;
 import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.merchant.Merchant;
+import de.budgetbuddy.backend.merchant.MerchantAlias;
+import de.budgetbuddy.backend.merchant.MerchantAliasRepository;
+import de.budgetbuddy.backend.merchant.MerchantRepository;
+import de.budgetbuddy.backend.merchant.MerchantService;
 import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodBalanceService;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodDailyBalanceRepository;
 import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
 import de.budgetbuddy.backend.subscription.SubscriptionRepository;
 import de.budgetbuddy.backend.transaction.file.TransactionFile;
 import de.budgetbuddy.backend.transaction.file.TransactionFileRepository;
+import de.budgetbuddy.backend.transactionRule.TransactionRule;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleField;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleRepository;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleService;
 import de.budgetbuddy.backend.user.User;
 import de.budgetbuddy.backend.user.UserRepository;
 import de.budgetbuddy.backend.user.role.Role;
 import de.budgetbuddy.backend.user.role.RolePermission;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -21,12 +49,19 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpSession;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,6 +76,11 @@ public class TransactionControllerTests {
     private final PaymentMethodRepository paymentMethodRepository;
     private final TransactionRepository transactionRepository;
     private final TransactionFileRepository transactionFileRepository;
+    private final TransactionRuleRepository transactionRuleRepository = Mockito.mock(TransactionRuleRepository.class);
+    private final MerchantAliasRepository merchantAliasRepository = Mockito.mock(MerchantAliasRepository.class);
+    private final MonthlyAggregateRepository monthlyAggregateRepository = Mockito.mock(MonthlyAggregateRepository.class);
+    private final ExchangeRateRepository exchangeRateRepository = Mockito.mock(ExchangeRateRepository.class);
+    private final EntityManager entityManager = Mockito.mock(EntityManager.class);
     private final TransactionService transactionService;
     private final TransactionController transactionController;
     private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
@@ -53,14 +93,47 @@ public class TransactionControllerTests {
         SubscriptionRepository subscriptionRepository = Mockito.mock(SubscriptionRepository.class);
         this.transactionRepository = Mockito.mock(TransactionRepository.class);
         this.transactionFileRepository = Mockito.mock(TransactionFileRepository.class);
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(categoryRepository, paymentMethodRepository);
+        CategoryClassificationService categoryClassificationService =
+                new CategoryClassificationService(transactionRepository, referenceDataCache);
+        TransactionRuleService transactionRuleService = new TransactionRuleService(transactionRuleRepository, referenceDataCache);
+        this.transactionService = new TransactionService(
+                transactionRepository,
+                new BudgetSpendingService(
+                        Mockito.mock(BudgetSpendingRepository.class),
+                        Mockito.mock(BudgetRepository.class),
+                        Mockito.mock(BudgetSnapshotRepository.class),
+                        Mockito.mock(CategoryClosureRepository.class)),
+                new PaymentMethodBalanceService(
+                        paymentMethodRepository,
+                        Mockito.mock(PaymentMethodDailyBalanceRepository.class)),
+                new MonthlyAggregateService(monthlyAggregateRepository, referenceDataCache),
+                categoryClassificationService,
+                transactionRuleService,
+                new MerchantService(Mockito.mock(MerchantRepository.class), merchantAliasRepository, transactionRepository),
+                new SpendingAnomalyService(
+                        Mockito.mock(CategoryAmountSketchRepository.class),
+                        Mockito.mock(SpendingAnomalyRepository.class),
+                        Mockito.mock(MailService.class)),
+                new ExchangeRateService(exchangeRateRepository, List.of()),
+                Mockito.mock(ApplicationEventPublisher.class));
         this.transactionController = new TransactionController(
                 userRepository,
-                categoryRepository,
-                paymentMethodRepository,
+                referenceDataCache,
                 subscriptionRepository,
                 transactionRepository,
-                transactionFileRepository);
-        this.transactionService = new TransactionService(transactionRepository);
+                transactionFileRepository,
+                transactionService,
+                new TransactionIngestService(
+                        userRepository,
+                        referenceDataCache,
+                        transactionService,
+                        categoryClassificationService,
+                        transactionRuleService,
+                        objectMapper,
+                        entityManager),
+                categoryClassificationService,
+                transactionRuleService);
     }
 
     @BeforeEach
@@ -81,8 +154,8 @@ public class TransactionControllerTests {
 
         when(userRepository.findById(uuid))
                 .thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<List<Transaction>>> response = transactionController
                 .createTransaction(List.of(payload), session);
@@ -110,10 +183,10 @@ public class TransactionControllerTests {
 
         when(userRepository.findById(uuid))
                 .thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(payload.getPaymentMethodId(), owner))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<List<Transaction>>> response = transactionController
                 .createTransaction(List.of(payload), session);
@@ -197,10 +270,10 @@ public class TransactionControllerTests {
 
         when(userRepository.findById(payload.getOwner()))
                 .thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(payload.getPaymentMethodId(), owner))
-                .thenReturn(Optional.of(paymentMethod));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
         when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
                 .thenReturn(List.of(transaction));
 
@@ -239,10 +312,10 @@ public class TransactionControllerTests {
 
         when(userRepository.findById(payload.getOwner()))
                 .thenReturn(Optional.of(owner));
-        when(categoryRepository.findByIdAndOwner(payload.getCategoryId(), owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(payload.getPaymentMethodId(), owner))
-                .thenReturn(Optional.of(paymentMethod));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
         when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
                 .thenReturn(List.of(transaction));
 
@@ -254,6 +327,222 @@ public class TransactionControllerTests {
         assertEquals(List.of(transaction), Objects.requireNonNull(response.getBody()).getData());
     }
 
+    @Test
+    void testCreateTransaction_SuggestedCategory() throws JsonProcessingException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        Transaction.Create payload = new Transaction.Create();
+        payload.setOwner(uuid);
+        payload.setPaymentMethodId(paymentMethod.getId());
+        payload.setReceiver("Rewe Markt");
+        payload.setDescription("Groceries");
+
+        List<Object[]> trainingData = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            trainingData.add(new Object[]{category.getId(), "Rewe Markt", "Groceries"});
+        }
+
+        when(userRepository.findById(payload.getOwner()))
+                .thenReturn(Optional.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(transactionRepository.findCategoryTrainingData(any(User.class), any()))
+                .thenReturn(trainingData);
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ApiResponse<List<Transaction>>> response = transactionController
+                .createTransaction(List.of(payload), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(category, Objects.requireNonNull(response.getBody()).getData().get(0).getCategory());
+    }
+
+    @Test
+    void testCreateTransaction_RuleFillsOmittedCategory() throws JsonProcessingException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category other = new de.budgetbuddy.backend.category.Category();
+        other.setId(1L);
+        other.setOwner(owner);
+        de.budgetbuddy.backend.category.Category groceries = new de.budgetbuddy.backend.category.Category();
+        groceries.setId(2L);
+        groceries.setOwner(owner);
+
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        Transaction.Create payload = new Transaction.Create();
+        payload.setOwner(uuid);
+        payload.setPaymentMethodId(paymentMethod.getId());
+        payload.setReceiver("REWE Markt GmbH");
+        payload.setTransferAmount(-12.5);
+
+        when(userRepository.findById(payload.getOwner()))
+                .thenReturn(Optional.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(other, groceries));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(transactionRuleRepository.findAllByOwnerOrderByPriorityAscIdAsc(owner))
+                .thenReturn(List.of(TransactionRule.builder()
+                        .owner(owner)
+                        .field(TransactionRuleField.RECEIVER)
+                        .pattern("rewe")
+                        .maxAmount(0.0)
+                        .category(groceries)
+                        .build()));
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ApiResponse<List<Transaction>>> response = transactionController
+                .createTransaction(List.of(payload), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Transaction transaction = Objects.requireNonNull(response.getBody()).getData().get(0);
+        assertEquals(groceries, transaction.getCategory());
+        assertEquals(paymentMethod, transaction.getPaymentMethod());
+    }
+
+    @Test
+    void testCreateTransaction_ExplicitIdsWinOverRule() throws JsonProcessingException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category other = new de.budgetbuddy.backend.category.Category();
+        other.setId(1L);
+        other.setOwner(owner);
+        de.budgetbuddy.backend.category.Category groceries = new de.budgetbuddy.backend.category.Category();
+        groceries.setId(2L);
+        groceries.setOwner(owner);
+
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+        PaymentMethod card = new PaymentMethod();
+        card.setId(2L);
+        card.setOwner(owner);
+
+        Transaction.Create payload = new Transaction.Create();
+        payload.setOwner(uuid);
+        payload.setCategoryId(other.getId());
+        payload.setPaymentMethodId(paymentMethod.getId());
+        payload.setReceiver("REWE Markt GmbH");
+        payload.setTransferAmount(-12.5);
+
+        when(userRepository.findById(payload.getOwner()))
+                .thenReturn(Optional.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(other, groceries));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod, card));
+        when(transactionRuleRepository.findAllByOwnerOrderByPriorityAscIdAsc(owner))
+                .thenReturn(List.of(TransactionRule.builder()
+                        .owner(owner)
+                        .field(TransactionRuleField.RECEIVER)
+                        .pattern("rewe")
+                        .maxAmount(0.0)
+                        .category(groceries)
+                        .paymentMethod(card)
+                        .build()));
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ApiResponse<List<Transaction>>> response = transactionController
+                .createTransaction(List.of(payload), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Transaction transaction = Objects.requireNonNull(response.getBody()).getData().get(0);
+        assertEquals(other, transaction.getCategory());
+        assertEquals(paymentMethod, transaction.getPaymentMethod());
+    }
+
+    @Test
+    void testCreateTransaction_AssignsMerchant() throws JsonProcessingException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        Transaction.Create amazon = new Transaction.Create();
+        amazon.setOwner(uuid);
+        amazon.setCategoryId(category.getId());
+        amazon.setPaymentMethodId(paymentMethod.getId());
+        amazon.setReceiver("Amazon.de*AB12");
+        Transaction.Create amazonia = new Transaction.Create();
+        amazonia.setOwner(uuid);
+        amazonia.setCategoryId(category.getId());
+        amazonia.setPaymentMethodId(paymentMethod.getId());
+        amazonia.setReceiver("Amazonia Restaurant");
+
+        when(userRepository.findById(uuid))
+                .thenReturn(Optional.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(merchantAliasRepository.findAllByOwnerIsNull())
+                .thenReturn(List.of(MerchantAlias.builder()
+                        .pattern("AMAZON")
+                        .merchant(Merchant.builder().id(7L).name("Amazon").build())
+                        .build()));
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ApiResponse<List<Transaction>>> response = transactionController
+                .createTransaction(List.of(amazon, amazonia), session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<Transaction> transactions = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(7L, transactions.get(0).getMerchantId());
+        // Patterns only match whole words
+        assertNull(transactions.get(1).getMerchantId());
+    }
+
+    @Test
+    void testCreateTransaction_NoSuggestedCategory() throws JsonProcessingException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Transaction.Create payload = new Transaction.Create();
+        payload.setOwner(uuid);
+        payload.setReceiver("Rewe Markt");
+
+        when(userRepository.findById(uuid))
+                .thenReturn(Optional.of(owner));
+
+        ResponseEntity<ApiResponse<List<Transaction>>> response = transactionController
+                .createTransaction(List.of(payload), session);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("No category could be suggested, please provide one",
+                Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
     @Test
     void testGetTransaction_UserNotFound() throws JsonProcessingException {
         UUID uuid = UUID.randomUUID();
@@ -359,8 +648,8 @@ public class TransactionControllerTests {
 
         when(transactionRepository.findById(payload.getTransactionId()))
                 .thenReturn(Optional.of(transaction));
-        when(categoryRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<Transaction>> response = transactionController.updateTransaction(payload, session);
 
@@ -388,10 +677,10 @@ public class TransactionControllerTests {
 
         when(transactionRepository.findById(payload.getTransactionId()))
                 .thenReturn(Optional.of(transaction));
-        when(categoryRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.empty());
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of());
 
         ResponseEntity<ApiResponse<Transaction>> response = transactionController.updateTransaction(payload, session);
 
@@ -425,10 +714,10 @@ public class TransactionControllerTests {
 
         when(transactionRepository.findById(payload.getTransactionId()))
                 .thenReturn(Optional.of(transaction));
-        when(categoryRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(paymentMethod));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
 
         ResponseEntity<ApiResponse<Transaction>> response = transactionController.updateTransaction(payload, session);
 
@@ -469,10 +758,10 @@ public class TransactionControllerTests {
 
         when(transactionRepository.findById(payload.getTransactionId()))
                 .thenReturn(Optional.of(transaction));
-        when(categoryRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(category));
-        when(paymentMethodRepository.findByIdAndOwner(1L, owner))
-                .thenReturn(Optional.of(paymentMethod));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
         when(transactionRepository.save(any(Transaction.class)))
                 .thenReturn(updatedTransaction);
 
@@ -483,6 +772,194 @@ public class TransactionControllerTests {
         assertEquals(updatedTransaction, Objects.requireNonNull(response.getBody()).getData());
     }
 
+    @Test
+    void testUpdateTransaction_KeepsFingerprint() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .owner(owner)
+                .category(category)
+                .paymentMethod(paymentMethod)
+                .receiver("Rewe Markt")
+                .transferAmount(-12.5)
+                .fingerprint("imported")
+                .build();
+
+        Transaction.Update payload = new Transaction.Update();
+        payload.setTransactionId(1L);
+        payload.setCategoryId(1L);
+        payload.setPaymentMethodId(1L);
+        payload.setReceiver("Rewe");
+        payload.setTransferAmount(-20.0);
+
+        when(transactionRepository.findById(payload.getTransactionId()))
+                .thenReturn(Optional.of(transaction));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ApiResponse<Transaction>> response = transactionController.updateTransaction(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        // A later import of the same statement still detects the edited transaction as a duplicate
+        assertEquals("imported", Objects.requireNonNull(response.getBody()).getData().getFingerprint());
+        assertEquals(-20.0, response.getBody().getData().getTransferAmount());
+    }
+
+    @Test
+    void testUpdateTransaction_MovesMonthlyAggregate() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category groceries = new de.budgetbuddy.backend.category.Category();
+        groceries.setId(1L);
+        groceries.setOwner(owner);
+        de.budgetbuddy.backend.category.Category restaurants = new de.budgetbuddy.backend.category.Category();
+        restaurants.setId(2L);
+        restaurants.setOwner(owner);
+
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        Date processedAt = java.sql.Date.valueOf(LocalDate.of(2024, 3, 15));
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .owner(owner)
+                .category(groceries)
+                .paymentMethod(paymentMethod)
+                .processedAt(processedAt)
+                .receiver("Bakery")
+                .transferAmount(-20.0)
+                .build();
+
+        Transaction.Update payload = new Transaction.Update();
+        payload.setTransactionId(1L);
+        payload.setCategoryId(2L);
+        payload.setPaymentMethodId(1L);
+        payload.setProcessedAt(processedAt);
+        payload.setReceiver("Bakery");
+        payload.setTransferAmount(-25.0);
+
+        when(transactionRepository.findById(payload.getTransactionId()))
+                .thenReturn(Optional.of(transaction));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(groceries, restaurants));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(transactionRepository.save(any(Transaction.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ApiResponse<Transaction>> response = transactionController.updateTransaction(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        LocalDate month = LocalDate.of(2024, 3, 1);
+        Mockito.verify(monthlyAggregateRepository).addAmounts(owner.getUuid(), 1L, 1L, month, 0.0, -20.0, -1L);
+        Mockito.verify(monthlyAggregateRepository).addAmounts(owner.getUuid(), 2L, 1L, month, 0.0, 25.0, 1L);
+    }
+
+    @Test
+    void testUpdateTransaction_VersionConflict() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Transaction transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setOwner(owner);
+        transaction.setVersion(3L);
+
+        Transaction.Update payload = new Transaction.Update();
+        payload.setTransactionId(1L);
+        payload.setVersion(2L);
+
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        ResponseEntity<ApiResponse<Transaction>> response = transactionController.updateTransaction(payload, session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("The transaction was modified in the meantime", Objects.requireNonNull(response.getBody()).getMessage());
+        assertEquals(transaction, Objects.requireNonNull(response.getBody()).getData());
+    }
+
+    @Test
+    void testPatchTransaction_Success() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+
+        Transaction transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setOwner(owner);
+        transaction.setCategory(category);
+        transaction.setReceiver("Amazon");
+        transaction.setDescription("Not paid yet");
+        transaction.setVersion(3L);
+
+        Transaction.Patch payload = new Transaction.Patch();
+        payload.setTransactionId(1L);
+        payload.setVersion(3L);
+        payload.setDescription("Paid");
+
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.saveAndFlush(transaction)).thenReturn(transaction);
+
+        ResponseEntity<ApiResponse<Transaction>> response = transactionController.patchTransaction(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Transaction patchedTransaction = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals("Paid", patchedTransaction.getDescription());
+        assertEquals("Amazon", patchedTransaction.getReceiver());
+        assertEquals(category, patchedTransaction.getCategory());
+    }
+
+    @Test
+    void testPatchTransaction_ConcurrentModification() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Transaction transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setOwner(owner);
+        transaction.setVersion(3L);
+
+        Transaction currentTransaction = new Transaction();
+        currentTransaction.setId(1L);
+        currentTransaction.setOwner(owner);
+        currentTransaction.setDescription("Changed on another device");
+        currentTransaction.setVersion(4L);
+
+        Transaction.Patch payload = new Transaction.Patch();
+        payload.setTransactionId(1L);
+        payload.setDescription("Paid");
+
+        when(transactionRepository.findById(1L))
+                .thenReturn(Optional.of(transaction), Optional.of(currentTransaction));
+        when(transactionRepository.saveAndFlush(any(Transaction.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Transaction.class, 1L));
+
+        ResponseEntity<ApiResponse<Transaction>> response = transactionController.patchTransaction(payload, session);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("The transaction was modified in the meantime", Objects.requireNonNull(response.getBody()).getMessage());
+        assertEquals(currentTransaction, Objects.requireNonNull(response.getBody()).getData());
+    }
+
     @Test
     void testDeleteTransaction_EmptyList() throws JsonProcessingException {
         List<Transaction.Delete> payload = new ArrayList<>();
@@ -624,13 +1101,108 @@ public class TransactionControllerTests {
         assertEquals(List.of(t1, t2), responseBody.get("success"));
     }
 
+    @Test
+    void testBulkUpdateTransactions_NoChanges() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        ResponseEntity<ApiResponse<Transaction.BulkUpdateResult>> response = transactionController
+                .bulkUpdateTransactions(new Transaction.BulkUpdate(), session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("No changes we're provided", Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
+    @Test
+    void testBulkUpdateTransactions_CategoryNotFound() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Transaction.BulkUpdate payload = new Transaction.BulkUpdate();
+        payload.getChanges().setCategoryId(1L);
+
+        when(categoryRepository.findAllByOwner(owner)).thenReturn(List.of());
+
+        ResponseEntity<ApiResponse<Transaction.BulkUpdateResult>> response = transactionController
+                .bulkUpdateTransactions(payload, session);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Provided category not found", Objects.requireNonNull(response.getBody()).getMessage());
+        Mockito.verify(transactionRepository, Mockito.never()).bulkUpdate(
+                any(), any(), any(), any(), any(), any(), Mockito.anyBoolean(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testBulkUpdateTransactions_DryRun() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Transaction.BulkUpdate payload = new Transaction.BulkUpdate();
+        payload.setDryRun(true);
+        payload.getFilter().setReceiver("%amazon%");
+        payload.getFilter().setStartDate(LocalDate.of(2023, 1, 1));
+        payload.getFilter().setEndDate(LocalDate.of(2023, 12, 31));
+
+        when(transactionRepository.countForBulkUpdate(
+                owner.getUuid(), LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), "%amazon%", null, null, false, List.of(-1L)))
+                .thenReturn(42);
+
+        ResponseEntity<ApiResponse<Transaction.BulkUpdateResult>> response = transactionController
+                .bulkUpdateTransactions(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new Transaction.BulkUpdateResult(42, true), Objects.requireNonNull(response.getBody()).getData());
+        Mockito.verify(transactionRepository, Mockito.never()).bulkUpdate(
+                any(), any(), any(), any(), any(), any(), Mockito.anyBoolean(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testBulkUpdateTransactions_ConvertsToCurrencyOfPaymentMethod() throws JsonProcessingException {
+        User owner = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        PaymentMethod card = PaymentMethod.builder().id(2L).owner(owner).name("Card").currency("USD").build();
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .owner(owner)
+                .paymentMethod(card)
+                .processedAt(java.sql.Date.valueOf(LocalDate.of(2023, 10, 3)))
+                .transferAmount(-11.0)
+                .currency("EUR")
+                .baseAmount(-11.0)
+                .build();
+
+        Transaction.BulkUpdate payload = new Transaction.BulkUpdate();
+        payload.getFilter().setReceiver("%amazon%");
+        payload.getChanges().setPaymentMethodId(card.getId());
+
+        when(paymentMethodRepository.findAllByOwner(owner)).thenReturn(List.of(card));
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(new ExchangeRate("USD", LocalDate.of(2023, 10, 2), 1.10)));
+        when(transactionRepository.bulkUpdate(
+                owner.getUuid(), null, null, "%amazon%", null, null, false, List.of(-1L), null, card.getId(), null))
+                .thenReturn(1);
+        when(transactionRepository.findAllWithOtherCurrency(any(), any(), Mockito.anyLong(), any()))
+                .thenReturn(List.of(transaction));
+
+        ResponseEntity<ApiResponse<Transaction.BulkUpdateResult>> response = transactionController
+                .bulkUpdateTransactions(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new Transaction.BulkUpdateResult(1, false), Objects.requireNonNull(response.getBody()).getData());
+        assertEquals("USD", transaction.getCurrency());
+        assertEquals(-10.0, transaction.getBaseAmount());
+        Mockito.verify(transactionRepository).findAllWithOtherCurrency(owner, card.getId(), 0L,
+                PageRequest.of(0, TransactionService.CONVERSION_BATCH_SIZE));
+        Mockito.verify(transactionRepository).saveAllAndFlush(List.of(transaction));
+    }
+
     @Test
     void testGetDailyTransactions_InvalidDateRange() throws JsonProcessingException {
         LocalDate startDate = LocalDate.of(2023, 10, 02);
         LocalDate endDate = LocalDate.of(2023, 10, 01);
         DailyTransactionType requestedData = DailyTransactionType.SPENDINGS;
         ResponseEntity<ApiResponse<List<Transaction.DailyTransaction>>> response =
-                transactionController.getDailyTransactions(startDate, endDate, requestedData, session);
+                transactionController.getDailyTransactions(startDate, endDate, requestedData, null, null, session);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("The startDate needs to be before the endDate",
@@ -652,13 +1224,61 @@ public class TransactionControllerTests {
                 .thenReturn(new ArrayList<>());
 
         ResponseEntity<ApiResponse<List<Transaction.DailyTransaction>>> response =
-                transactionController.getDailyTransactions(startDate, endDate, requestedData, session);
+                transactionController.getDailyTransactions(startDate, endDate, requestedData, null, null, session);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNull(Objects.requireNonNull(response.getBody()).getMessage());
         assertEquals(0, Objects.requireNonNull(response.getBody()).getData().size());
     }
 
+    @Test
+    void testGetDailyTransactionSeries_BucketsAndDownsamples() throws JsonProcessingException {
+        User user = new User(UUID.randomUUID());
+        session.setAttribute("user", objectMapper.writeValueAsString(user));
+        LocalDate startDate = LocalDate.of(2020, 1, 1);
+        LocalDate endDate = LocalDate.of(2024, 12, 31);
+
+        List<Object[]> days = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            days.add(new Object[]{java.sql.Date.valueOf(date), 1.0});
+        }
+        when(transactionRepository.fetchDailyTransactions(startDate, endDate, "INCOME", user.getUuid()))
+                .thenReturn(days);
+        when(transactionRepository.fetchDailyTransactions(startDate, endDate, "SPENDINGS", user.getUuid()))
+                .thenReturn(days);
+
+        ResponseEntity<ApiResponse<List<Transaction.DailyTransactionSeries>>> response = transactionController
+                .getDailyTransactionSeries(startDate, endDate, List.of(DailyTransactionType.INCOME, DailyTransactionType.SPENDINGS),
+                        TimeGranularity.MONTH, null, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<Transaction.DailyTransactionSeries> series = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(List.of(DailyTransactionType.INCOME, DailyTransactionType.SPENDINGS),
+                series.stream().map(Transaction.DailyTransactionSeries::getType).toList());
+        List<Transaction.DailyTransaction> months = series.get(0).getPoints();
+        assertEquals(60, months.size());
+        assertEquals(java.sql.Date.valueOf(LocalDate.of(2020, 2, 1)), months.get(1).getDate());
+        assertEquals(29.0, months.get(1).getAmount());
+
+        response = transactionController.getDailyTransactionSeries(startDate, endDate, List.of(DailyTransactionType.INCOME),
+                TimeGranularity.DAY, 200, session);
+
+        List<Transaction.DailyTransaction> points = Objects.requireNonNull(response.getBody()).getData().get(0).getPoints();
+        assertEquals(200, points.size());
+        assertEquals(java.sql.Date.valueOf(startDate), points.get(0).getDate());
+        assertEquals(java.sql.Date.valueOf(endDate), points.get(199).getDate());
+    }
+
+    @Test
+    void testGetDailyTransactions_InvalidMaxPoints() throws JsonProcessingException {
+        ResponseEntity<ApiResponse<List<Transaction.DailyTransaction>>> response = transactionController.getDailyTransactions(
+                LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), DailyTransactionType.BALANCE,
+                TimeGranularity.WEEK, 2, session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("The maxPoints need to be at least 3", Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
     @Test
     void attachFiles_NoFilesProvided() throws JsonProcessingException {
         List<TransactionFile.Create> files = new ArrayList<>();
@@ -894,4 +1514,259 @@ public class TransactionControllerTests {
         assertNull(Objects.requireNonNull(response.getBody()).getMessage());
         assertEquals(List.of(validFile, anotherValidFile), Objects.requireNonNull(response.getBody()).getData());
     }
+
+    @Test
+    void testIngestTransactions_Chunks() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        when(userRepository.findAllById(any()))
+                .thenReturn(List.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // One more than a chunk, followed by a transaction with an unknown category
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i <= TransactionIngestService.CHUNK_SIZE + 1; i++) {
+            if (i > 0) payload.append(',');
+            long categoryId = i == TransactionIngestService.CHUNK_SIZE + 1 ? 2L : 1L;
+            payload.append(String.format(Locale.ROOT,
+                    "{\"owner\":\"%s\",\"categoryId\":%d,\"paymentMethodId\":1,\"processedAt\":1696154400000,\"receiver\":\"Receiver %d\",\"transferAmount\":-%d.5}",
+                    uuid, categoryId, i, i));
+        }
+        payload.append(']');
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(payload.toString().getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionIngestResult>> response = transactionController
+                .ingestTransactions(request, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        TransactionIngestResult result = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(TransactionIngestService.CHUNK_SIZE + 2, result.getProcessedTransactions());
+        assertEquals(TransactionIngestService.CHUNK_SIZE + 1, result.getCreatedTransactions());
+        assertEquals(1, result.getRejectedTransactions());
+        assertEquals(List.of((TransactionIngestService.CHUNK_SIZE + 1) + ": Provided category not found"), result.getErrors());
+        Mockito.verify(transactionRepository, Mockito.times(2)).saveAll(ArgumentMatchers.anyList());
+        // The written transactions are released after every chunk
+        Mockito.verify(entityManager, Mockito.times(2)).clear();
+    }
+
+    @Test
+    void testIngestTransactions_IdenticalTransactionsInConsecutiveChunks() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        when(userRepository.findAllById(any()))
+                .thenReturn(List.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        // The fingerprints of the first chunk are stored by the time the second chunk is checked
+        Set<String> savedFingerprints = new HashSet<>();
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> {
+                    List<Transaction> transactions = invocation.getArgument(0);
+                    transactions.forEach(transaction -> savedFingerprints.add(transaction.getFingerprint()));
+                    return transactions;
+                });
+        when(transactionRepository.findExistingFingerprints(any()))
+                .thenAnswer(invocation -> {
+                    Collection<String> fingerprints = invocation.getArgument(0);
+                    return fingerprints.stream().filter(savedFingerprints::contains).collect(Collectors.toSet());
+                });
+
+        // The last transaction of the first chunk and the first one of the second chunk are identical, e.g. two coffees
+        StringBuilder payload = new StringBuilder("[");
+        for (int i = 0; i <= TransactionIngestService.CHUNK_SIZE; i++) {
+            if (i > 0) payload.append(',');
+            String receiver = i >= TransactionIngestService.CHUNK_SIZE - 1 ? "Coffee" : "Receiver " + i;
+            payload.append(String.format(Locale.ROOT,
+                    "{\"owner\":\"%s\",\"categoryId\":1,\"paymentMethodId\":1,\"processedAt\":1696154400000,\"receiver\":\"%s\",\"transferAmount\":-3.5}",
+                    uuid, receiver));
+        }
+        payload.append(']');
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(payload.toString().getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionIngestResult>> response = transactionController
+                .ingestTransactions(request, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        TransactionIngestResult result = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(TransactionIngestService.CHUNK_SIZE + 1, result.getCreatedTransactions());
+        assertEquals(0, result.getDuplicateTransactions());
+        assertEquals(TransactionIngestService.CHUNK_SIZE + 1, savedFingerprints.size());
+    }
+
+    @Test
+    void testIngestTransactions_InvalidJson() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        when(userRepository.findAllById(any()))
+                .thenReturn(List.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        String payload = "[{\"owner\":\"" + uuid + "\",\"categoryId\":1,\"paymentMethodId\":1,"
+                + "\"processedAt\":1696154400000,\"receiver\":\"Receiver\",\"transferAmount\":-10.0},"
+                + "{\"owner\":\"" + uuid + "\",\"receiver\":";
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(payload.getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionIngestResult>> response = transactionController
+                .ingestTransactions(request, session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(Objects.requireNonNull(response.getBody()).getMessage().startsWith("Invalid transaction at index 1"));
+        assertEquals(1, response.getBody().getData().getCreatedTransactions());
+    }
+
+    @Test
+    void testIngestTransactions_MistypedTransaction() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        when(userRepository.findAllById(any()))
+                .thenReturn(List.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // The mistyped amount is followed by a nested value, which has to be skipped as well
+        String payload = "["
+                + "{\"owner\":\"" + uuid + "\",\"categoryId\":1,\"paymentMethodId\":1,\"processedAt\":1696154400000,\"receiver\":\"First\",\"transferAmount\":-10.0},"
+                + "{\"owner\":\"" + uuid + "\",\"transferAmount\":\"abc\",\"receiver\":{\"name\":\"Second\"},\"processedAt\":1696154400000},"
+                + "{\"owner\":\"" + uuid + "\",\"categoryId\":1,\"paymentMethodId\":1,\"processedAt\":1696154400000,\"receiver\":\"Third\",\"transferAmount\":-30.0}"
+                + "]";
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(payload.getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionIngestResult>> response = transactionController
+                .ingestTransactions(request, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        TransactionIngestResult result = Objects.requireNonNull(response.getBody()).getData();
+        assertNull(result.getError());
+        assertEquals(3, result.getProcessedTransactions());
+        assertEquals(2, result.getCreatedTransactions());
+        assertEquals(1, result.getRejectedTransactions());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("1: "));
+        Mockito.verify(transactionRepository).saveAll(ArgumentMatchers.<List<Transaction>>argThat(transactions ->
+                transactions.size() == 2
+                        && transactions.get(0).getReceiver().equals("First")
+                        && transactions.get(1).getReceiver().equals("Third")));
+    }
+
+    @Test
+    void testIngestTransactions_DuplicatesAndMatches() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        User owner = new User(uuid);
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        de.budgetbuddy.backend.category.Category category = new de.budgetbuddy.backend.category.Category();
+        category.setId(1L);
+        category.setOwner(owner);
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+
+        long processedAt = 1696154400000L;
+        Transaction alreadyImported = Transaction.builder()
+                .paymentMethod(paymentMethod)
+                .processedAt(new Date(processedAt))
+                .receiver("REWE Markt")
+                .transferAmount(-10.0)
+                .build();
+        // Entered by hand a day later than booked by the bank
+        Transaction enteredByHand = Transaction.builder()
+                .id(7L)
+                .owner(owner)
+                .paymentMethod(paymentMethod)
+                .processedAt(new Date(processedAt + 24 * 60 * 60 * 1000))
+                .receiver("Rent")
+                .transferAmount(-800.0)
+                .build();
+
+        when(userRepository.findAllById(any()))
+                .thenReturn(List.of(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+        when(transactionRepository.findExistingFingerprints(any()))
+                .thenReturn(Set.of(TransactionFingerprint.of(alreadyImported, 1)));
+        when(transactionRepository.findReconciliationCandidates(any(), any(), any()))
+                .thenReturn(new ArrayList<>(List.of(enteredByHand)));
+        when(transactionRepository.saveAll(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        String payload = "["
+                + "{\"owner\":\"" + uuid + "\",\"categoryId\":1,\"paymentMethodId\":1,\"processedAt\":" + processedAt + ",\"receiver\":\"Rewe-Markt\",\"transferAmount\":-10.0},"
+                + "{\"owner\":\"" + uuid + "\",\"categoryId\":1,\"paymentMethodId\":1,\"processedAt\":" + processedAt + ",\"receiver\":\"Landlord\",\"transferAmount\":-800.0},"
+                + "{\"owner\":\"" + uuid + "\",\"categoryId\":1,\"paymentMethodId\":1,\"processedAt\":" + processedAt + ",\"receiver\":\"Employer\",\"transferAmount\":2500.0}"
+                + "]";
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent(payload.getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionIngestResult>> response = transactionController
+                .ingestTransactions(request, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        TransactionIngestResult result = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(1, result.getCreatedTransactions());
+        assertEquals(1, result.getDuplicateTransactions());
+        assertEquals(1, result.getMatchedTransactions());
+        assertEquals(List.of(0), result.getDuplicates());
+        assertEquals(List.of(1), result.getMatches());
+        assertNotNull(enteredByHand.getFingerprint());
+        Mockito.verify(transactionRepository).saveAll(ArgumentMatchers.<List<Transaction>>argThat(transactions ->
+                transactions.size() == 1 && transactions.get(0).getReceiver().equals("Employer")));
+    }
 }
@@ -0,0 +1,300 @@
+package de.budgetbuddy.backend.transactionImport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryClassificationService;
+import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.transaction.Transaction;
+import de.budgetbuddy.backend.transaction.TransactionImportOutcome;
+import de.budgetbuddy.backend.transaction.TransactionRepository;
+import de.budgetbuddy.backend.transaction.TransactionService;
+import de.budgetbuddy.backend.transactionRule.TransactionRule;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleField;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleRepository;
+import de.budgetbuddy.backend.transactionRule.TransactionRuleService;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class TransactionImportControllerTests {
+    private final CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+    private final PaymentMethodRepository paymentMethodRepository = Mockito.mock(PaymentMethodRepository.class);
+    private final TransactionImportRepository transactionImportRepository = Mockito.mock(TransactionImportRepository.class);
+    private final TransactionService transactionService = Mockito.mock(TransactionService.class);
+    private final TransactionRepository transactionRepository = Mockito.mock(TransactionRepository.class);
+    private final TransactionRuleRepository transactionRuleRepository = Mockito.mock(TransactionRuleRepository.class);
+    private final ReferenceDataCache referenceDataCache = new ReferenceDataCache(categoryRepository, paymentMethodRepository);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final Map<UUID, TransactionImport> imports = new HashMap<>();
+    private final List<Transaction> importedTransactions = new ArrayList<>();
+    private final TransactionImportController transactionImportController;
+    private final User owner = new User(UUID.randomUUID());
+    private MockHttpSession session;
+
+    TransactionImportControllerTests() {
+        // The imports are run synchronously, so that their result can be checked right away
+        this.transactionImportController = new TransactionImportController(
+                transactionImportRepository,
+                new TransactionImportService(
+                        transactionImportRepository,
+                        transactionService,
+                        new CategoryClassificationService(transactionRepository, referenceDataCache),
+                        new TransactionRuleService(transactionRuleRepository, referenceDataCache),
+                        Runnable::run),
+                referenceDataCache);
+    }
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        session = new MockHttpSession();
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+
+        Category category = new Category();
+        category.setId(1L);
+        category.setOwner(owner);
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1L);
+        paymentMethod.setOwner(owner);
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+        when(paymentMethodRepository.findAllByOwner(owner))
+                .thenReturn(List.of(paymentMethod));
+
+        when(transactionImportRepository.save(any(TransactionImport.class)))
+                .thenAnswer(invocation -> {
+                    TransactionImport transactionImport = invocation.getArgument(0);
+                    if (transactionImport.getId() == null) transactionImport.setId(UUID.randomUUID());
+                    imports.put(transactionImport.getId(), transactionImport);
+                    return transactionImport;
+                });
+        when(transactionImportRepository.findById(any(UUID.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(imports.get((UUID) invocation.getArgument(0))));
+        // The batch gets reused by the import, so its content needs to be copied
+        when(transactionService.importTransactions(ArgumentMatchers.anyList(), any()))
+                .thenAnswer(invocation -> {
+                    List<Transaction> transactions = invocation.getArgument(0);
+                    importedTransactions.addAll(transactions);
+                    return transactions.stream()
+                            .map(transaction -> TransactionImportOutcome.NEW)
+                            .toList();
+                });
+    }
+
+    @Test
+    void testImportStatement_Csv() throws JsonProcessingException {
+        TransactionImport.Create payload = new TransactionImport.Create();
+        payload.setFormat(StatementFormat.CSV);
+        payload.setCategoryId(1L);
+        payload.setPaymentMethodId(1L);
+        payload.getCsv().setDelimiter(';');
+        payload.getCsv().setDatePattern("dd.MM.yyyy");
+        payload.getCsv().setDecimalSeparator(',');
+
+        String statement = """
+                Date;Receiver;Description;Amount
+                01.10.2023;"Rewe; Markt";"Groceries
+                for the week";-1.234,56 €
+                02.10.2023;Employer;Salary;2.500,00
+                03.10.2023;Broken;Row;n/a
+                """;
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                statement.getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionImport>> response = transactionImportController
+                .importStatement(payload, file, session);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        TransactionImport transactionImport = imports.get(Objects.requireNonNull(response.getBody()).getData().getId());
+        assertEquals(TransactionImportStatus.DONE, transactionImport.getStatus());
+        assertEquals(3, transactionImport.getProcessedEntries());
+        assertEquals(2, transactionImport.getImportedTransactions());
+        assertEquals(1, transactionImport.getSkippedEntries());
+        assertEquals("Line 5: Invalid amount", transactionImport.getError());
+        assertEquals(100, transactionImport.getProgress());
+
+        assertEquals(2, importedTransactions.size());
+        assertEquals("Rewe; Markt", importedTransactions.get(0).getReceiver());
+        assertEquals("Groceries\nfor the week", importedTransactions.get(0).getDescription());
+        assertEquals(-1234.56, importedTransactions.get(0).getTransferAmount());
+        assertEquals(2500.0, importedTransactions.get(1).getTransferAmount());
+        assertEquals(owner.getUuid(), importedTransactions.get(1).getOwner().getUuid());
+    }
+
+    @Test
+    void testImportStatement_AutoCategorize() throws JsonProcessingException {
+        Category other = new Category();
+        other.setId(1L);
+        other.setOwner(owner);
+        Category groceries = new Category();
+        groceries.setId(2L);
+        groceries.setOwner(owner);
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(other, groceries));
+        List<Object[]> trainingData = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            trainingData.add(new Object[]{groceries.getId(), "Rewe Markt", "Groceries"});
+        }
+        when(transactionRepository.findCategoryTrainingData(any(User.class), any()))
+                .thenReturn(trainingData);
+
+        TransactionImport.Create payload = new TransactionImport.Create();
+        payload.setFormat(StatementFormat.CSV);
+        payload.setCategoryId(1L);
+        payload.setPaymentMethodId(1L);
+        String statement = """
+                Date,Receiver,Description,Amount
+                2023-10-01,Rewe Markt,Groceries,-12.50
+                2023-10-02,Employer,Salary,2500.00
+                """;
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                statement.getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionImport>> response = transactionImportController
+                .importStatement(payload, file, session);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(2L, importedTransactions.get(0).getCategory().getId());
+        // Nothing was learned about the employer, so the category of the import is kept
+        assertEquals(1L, importedTransactions.get(1).getCategory().getId());
+    }
+
+    @Test
+    void testImportStatement_RuleOverridesCategoryOfImport() throws JsonProcessingException {
+        Category other = new Category();
+        other.setId(1L);
+        other.setOwner(owner);
+        Category groceries = new Category();
+        groceries.setId(2L);
+        groceries.setOwner(owner);
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(other, groceries));
+        when(transactionRuleRepository.findAllByOwnerOrderByPriorityAscIdAsc(any(User.class)))
+                .thenReturn(List.of(TransactionRule.builder()
+                        .owner(owner)
+                        .field(TransactionRuleField.RECEIVER)
+                        .pattern("rewe")
+                        .category(groceries)
+                        .build()));
+
+        TransactionImport.Create payload = new TransactionImport.Create();
+        payload.setFormat(StatementFormat.CSV);
+        payload.setCategoryId(1L);
+        payload.setPaymentMethodId(1L);
+        String statement = """
+                Date,Receiver,Description,Amount
+                2023-10-01,REWE Markt GmbH,Groceries,-12.50
+                2023-10-02,Employer,Salary,2500.00
+                """;
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                statement.getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionImport>> response = transactionImportController
+                .importStatement(payload, file, session);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(2L, importedTransactions.get(0).getCategory().getId());
+        assertEquals(1L, importedTransactions.get(1).getCategory().getId());
+        assertEquals(1L, importedTransactions.get(0).getPaymentMethod().getId());
+    }
+
+    @Test
+    void testImportStatement_Camt053() throws JsonProcessingException {
+        TransactionImport.Create payload = new TransactionImport.Create();
+        payload.setFormat(StatementFormat.CAMT_053);
+        payload.setCategoryId(1L);
+        payload.setPaymentMethodId(1L);
+
+        String statement = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <Document xmlns="urn:iso:std:iso:20022:tech:xsd:camt.053.001.08">
+                  <BkToCstmrStmt>
+                    <Stmt>
+                      <Ntry>
+                        <Amt Ccy="EUR">42.50</Amt>
+                        <CdtDbtInd>DBIT</CdtDbtInd>
+                        <BookgDt><Dt>2023-10-01</Dt></BookgDt>
+                        <NtryDtls><TxDtls>
+                          <Amt Ccy="EUR">42.50</Amt>
+                          <RltdPties><Cdtr><Pty><Nm>Rewe Markt</Nm></Pty></Cdtr></RltdPties>
+                          <RmtInf><Ustrd>Groceries</Ustrd><Ustrd>Card 1234</Ustrd></RmtInf>
+                        </TxDtls></NtryDtls>
+                      </Ntry>
+                      <Ntry>
+                        <Amt Ccy="EUR">2500.00</Amt>
+                        <CdtDbtInd>CRDT</CdtDbtInd>
+                        <BookgDt><DtTm>2023-10-02T08:00:00</DtTm></BookgDt>
+                        <NtryDtls><TxDtls>
+                          <RltdPties><Dbtr><Nm>Employer &amp; Co</Nm></Dbtr></RltdPties>
+                        </TxDtls></NtryDtls>
+                      </Ntry>
+                    </Stmt>
+                  </BkToCstmrStmt>
+                </Document>
+                """;
+        MockMultipartFile file = new MockMultipartFile("file", "statement.xml", "application/xml",
+                statement.getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionImport>> response = transactionImportController
+                .importStatement(payload, file, session);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        TransactionImport transactionImport = imports.get(Objects.requireNonNull(response.getBody()).getData().getId());
+        assertEquals(TransactionImportStatus.DONE, transactionImport.getStatus());
+        assertEquals(2, transactionImport.getImportedTransactions());
+        assertNull(transactionImport.getError());
+
+        assertEquals("Rewe Markt", importedTransactions.get(0).getReceiver());
+        assertEquals("Groceries Card 1234", importedTransactions.get(0).getDescription());
+        assertEquals(-42.5, importedTransactions.get(0).getTransferAmount());
+        assertEquals("Employer & Co", importedTransactions.get(1).getReceiver());
+        assertEquals(2500.0, importedTransactions.get(1).getTransferAmount());
+    }
+
+    @Test
+    void testImportStatement_PaymentMethodNotFound() throws JsonProcessingException {
+        TransactionImport.Create payload = new TransactionImport.Create();
+        payload.setFormat(StatementFormat.CSV);
+        payload.setCategoryId(1L);
+        payload.setPaymentMethodId(2L);
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                "Date,Receiver,Description,Amount".getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<ApiResponse<TransactionImport>> response = transactionImportController
+                .importStatement(payload, file, session);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Provided payment-method not found", Objects.requireNonNull(response.getBody()).getMessage());
+        Mockito.verify(transactionImportRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testGetImport_NotFound() throws JsonProcessingException {
+        UUID id = UUID.randomUUID();
+        when(transactionImportRepository.findByIdAndOwner(id, owner))
+                .thenReturn(Optional.empty());
+
+        ResponseEntity<ApiResponse<TransactionImport>> response = transactionImportController.getImport(id, session);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Provided import not found", Objects.requireNonNull(response.getBody()).getMessage());
+    }
+}
@@ -0,0 +1,117 @@
+package de.budgetbuddy.backend.transactionRule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.budgetbuddy.backend.ApiResponse;
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.category.CategoryRepository;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethodRepository;
+import de.budgetbuddy.backend.referenceData.ReferenceDataCache;
+import de.budgetbuddy.backend.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class TransactionRuleControllerTests {
+    private final CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+    private final PaymentMethodRepository paymentMethodRepository = Mockito.mock(PaymentMethodRepository.class);
+    private final TransactionRuleRepository transactionRuleRepository = Mockito.mock(TransactionRuleRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final TransactionRuleController transactionRuleController;
+    private final User owner = new User(UUID.randomUUID());
+    private final Category category = Category.builder().id(1L).owner(owner).build();
+    private MockHttpSession session;
+
+    TransactionRuleControllerTests() {
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(categoryRepository, paymentMethodRepository);
+        this.transactionRuleController = new TransactionRuleController(
+                transactionRuleRepository,
+                new TransactionRuleService(transactionRuleRepository, referenceDataCache),
+                referenceDataCache);
+    }
+
+    @BeforeEach
+    void setUp() throws JsonProcessingException {
+        session = new MockHttpSession();
+        session.setAttribute("user", objectMapper.writeValueAsString(owner));
+        when(categoryRepository.findAllByOwner(owner))
+                .thenReturn(List.of(category));
+    }
+
+    @Test
+    void testCreateRule_NoAction() throws JsonProcessingException {
+        TransactionRule.Create payload = new TransactionRule.Create();
+        payload.setField(TransactionRuleField.RECEIVER);
+        payload.setPattern("rewe");
+
+        ResponseEntity<ApiResponse<TransactionRule>> response = transactionRuleController.createRule(payload, session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("A rule needs to assign a category or payment-method",
+                Objects.requireNonNull(response.getBody()).getMessage());
+        Mockito.verify(transactionRuleRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testCreateRule_CategoryNotFound() throws JsonProcessingException {
+        TransactionRule.Create payload = new TransactionRule.Create();
+        payload.setField(TransactionRuleField.RECEIVER);
+        payload.setPattern("rewe");
+        payload.setCategoryId(2L);
+
+        ResponseEntity<ApiResponse<TransactionRule>> response = transactionRuleController.createRule(payload, session);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Provided category not found", Objects.requireNonNull(response.getBody()).getMessage());
+    }
+
+    @Test
+    void testCreateRule_Success() throws JsonProcessingException {
+        TransactionRule.Create payload = new TransactionRule.Create();
+        payload.setField(TransactionRuleField.DESCRIPTION);
+        payload.setPattern("groceries");
+        payload.setMaxAmount(0.0);
+        payload.setCategoryId(category.getId());
+
+        when(transactionRuleRepository.countByOwner(owner))
+                .thenReturn(3L);
+        when(transactionRuleRepository.save(any(TransactionRule.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ApiResponse<TransactionRule>> response = transactionRuleController.createRule(payload, session);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        TransactionRule rule = Objects.requireNonNull(response.getBody()).getData();
+        assertEquals(3, rule.getPriority());
+        assertEquals(category, rule.getCategory());
+        assertNull(rule.getPaymentMethod());
+        assertEquals(owner.getUuid(), rule.getOwner().getUuid());
+    }
+
+    @Test
+    void testDeleteRules_WrongOwner() throws JsonProcessingException {
+        TransactionRule rule = TransactionRule.builder()
+                .id(1L)
+                .owner(new User(UUID.randomUUID()))
+                .build();
+        when(transactionRuleRepository.findById(1L))
+                .thenReturn(Optional.of(rule));
+
+        ResponseEntity<ApiResponse<Map<String, List<?>>>> response = transactionRuleController
+                .deleteRules(List.of(new TransactionRule.Delete(1L)), session);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("All provided rules we're invalid values", Objects.requireNonNull(response.getBody()).getMessage());
+        Mockito.verify(transactionRuleRepository, Mockito.never()).delete(any());
+    }
+}
@@ -0,0 +1,73 @@
+package de.budgetbuddy.backend.transactionRule;
+
+import de.budgetbuddy.backend.category.Category;
+import de.budgetbuddy.backend.paymentMethod.PaymentMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionRuleMatcherTests {
+
+    private static TransactionRule rule(TransactionRuleField field, String pattern, Long category, Long paymentMethod) {
+        return TransactionRule.builder()
+                .field(field)
+                .pattern(pattern)
+                .category(category == null ? null : Category.builder().id(category).build())
+                .paymentMethod(paymentMethod == null ? null : paymentMethodOf(paymentMethod))
+                .build();
+    }
+
+    private static PaymentMethod paymentMethodOf(long id) {
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(id);
+        return paymentMethod;
+    }
+
+    @Test
+    void testMatch_OverlappingPatterns() {
+        TransactionRuleMatcher matcher = TransactionRuleMatcher.compile(List.of(
+                rule(TransactionRuleField.RECEIVER, "hers", 2L, null),
+                rule(TransactionRuleField.RECEIVER, "she", 1L, null),
+                rule(TransactionRuleField.RECEIVER, "his", 3L, null)));
+
+        // "hers" only occurs through the failure link of "she"
+        assertEquals(2L, matcher.match("USHERS", null, 0).categoryId());
+        assertEquals(3L, matcher.match("this", null, 0).categoryId());
+        assertEquals(1L, matcher.match("ashes", null, 0).categoryId());
+        assertTrue(matcher.match("her", null, 0).isEmpty());
+    }
+
+    @Test
+    void testMatch_PriorityPerAction() {
+        TransactionRuleMatcher matcher = TransactionRuleMatcher.compile(List.of(
+                rule(TransactionRuleField.DESCRIPTION, "card", null, 10L),
+                rule(TransactionRuleField.RECEIVER, "rewe", 1L, 11L),
+                rule(TransactionRuleField.RECEIVER, "rewe markt", 2L, null)));
+
+        TransactionRuleMatcher.Match match = matcher.match("Rewe Markt", "Card payment", -20);
+        assertEquals(1L, match.categoryId());
+        assertEquals(10L, match.paymentMethodId());
+
+        // The description rule mustn't match the receiver
+        assertEquals(11L, matcher.match("Card Shop Rewe", null, -20).paymentMethodId());
+    }
+
+    @Test
+    void testMatch_AmountTable() {
+        TransactionRule expense = rule(TransactionRuleField.RECEIVER, "amazon", 1L, null);
+        expense.setMaxAmount(0.0);
+        TransactionRule refund = rule(TransactionRuleField.RECEIVER, "amazon", 2L, null);
+        refund.setMinAmount(0.01);
+        TransactionRule large = rule(null, null, 3L, null);
+        large.setMinAmount(1000.0);
+        TransactionRuleMatcher matcher = TransactionRuleMatcher.compile(List.of(expense, refund, large));
+
+        assertEquals(1L, matcher.match("Amazon EU", null, -49.99).categoryId());
+        assertEquals(2L, matcher.match("Amazon EU", null, 49.99).categoryId());
+        assertEquals(2L, matcher.match("Amazon EU", null, 2500).categoryId());
+        assertEquals(3L, matcher.match("Employer", null, 2500).categoryId());
+        assertNull(matcher.match("Employer", null, 100).categoryId());
+    }
+}